@@ -20,6 +20,7 @@ package org.entirej.framework.core;
 
 import java.io.Serializable;
 
+import org.entirej.framework.core.common.utils.EJDefaultValueResolver;
 import org.entirej.framework.core.properties.EJCoreItemProperties;
 
 public class EJBlockItem implements Serializable
@@ -122,4 +123,24 @@ public class EJBlockItem implements Serializable
         return _itemProperties.getDefaultInsertValue();
     }
     
+    /**
+     * Returns the parsed default query value of this item
+     * 
+     * @return The default query value resolver
+     */
+    public EJDefaultValueResolver getDefaultQueryValueResolver()
+    {
+        return _itemProperties.getDefaultQueryValueResolver();
+    }
+    
+    /**
+     * Returns the parsed default insert value of this item
+     * 
+     * @return The default insert value resolver
+     */
+    public EJDefaultValueResolver getDefaultInsertValueResolver()
+    {
+        return _itemProperties.getDefaultInsertValueResolver();
+    }
+    
 }
@@ -19,6 +19,7 @@ package org.entirej.framework.core;
 
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.concurrent.Callable;
 
 import org.entirej.framework.core.data.controllers.EJApplicationLevelParameter;
 import org.entirej.framework.core.data.controllers.EJEmbeddedFormController;
@@ -46,6 +47,8 @@ import org.slf4j.LoggerFactory;
 
 public class EJFrameworkManager implements EJMessenger, EJFrameworkHelper
 {
+    private static final ThreadLocal<EJConnectionRetriever> THREAD_CONNECTION_RETRIEVER = new ThreadLocal<EJConnectionRetriever>();
+
     private final Logger                                 LOGGER         = LoggerFactory.getLogger(this.getClass());
 
     private EJConnectionRetriever                        _connectionRetriever;
@@ -74,6 +77,12 @@ public class EJFrameworkManager implements EJMessenger, EJFrameworkHelper
 
     public synchronized EJManagedFrameworkConnection getConnection()
     {
+        EJConnectionRetriever threadConnectionRetriever = THREAD_CONNECTION_RETRIEVER.get();
+        if (threadConnectionRetriever != null && threadConnectionRetriever.getFrameworkManager() == this)
+        {
+            return new EJManagedFrameworkConnection(threadConnectionRetriever, threadConnectionRetriever.initialse());
+        }
+
         if (_connectionRetriever == null)
         {
             _connectionRetriever = new EJConnectionRetriever(this);
@@ -93,6 +102,50 @@ public class EJFrameworkManager implements EJMessenger, EJFrameworkHelper
         return new EJManagedFrameworkConnection(_systemConnectionRetriever, _systemConnectionRetriever.initialse());
     }
 
+    /**
+     * Executes the given task on the calling thread with a new connection
+     * <p>
+     * All connections retrieved using {@link #getConnection()} while the task
+     * is running on this thread use the new connection instead of the
+     * connection of the application session. This allows block services to be
+     * called from background threads. The new connection is committed and
+     * closed after the task has completed or rolled back if the task fails
+     * 
+     * @param task
+     *            The task to execute
+     * @return The result of the task
+     * @throws Exception
+     *             If the task fails
+     */
+    public <T> T executeWithNewConnection(Callable<T> task) throws Exception
+    {
+        EJConnectionRetriever previousRetriever = THREAD_CONNECTION_RETRIEVER.get();
+        EJConnectionRetriever connectionRetriever = new EJConnectionRetriever(this);
+        EJManagedFrameworkConnection connection = new EJManagedFrameworkConnection(connectionRetriever, connectionRetriever.initialse());
+        THREAD_CONNECTION_RETRIEVER.set(connectionRetriever);
+        try
+        {
+            return task.call();
+        }
+        catch (Exception e)
+        {
+            connection.rollback();
+            throw e;
+        }
+        finally
+        {
+            if (previousRetriever == null)
+            {
+                THREAD_CONNECTION_RETRIEVER.remove();
+            }
+            else
+            {
+                THREAD_CONNECTION_RETRIEVER.set(previousRetriever);
+            }
+            connection.close();
+        }
+    }
+
     public EJManagedFrameworkConnection newConnection()
     {
         EJConnectionRetriever connectionRetriever = new EJConnectionRetriever(this);
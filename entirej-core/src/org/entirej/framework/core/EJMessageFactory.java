@@ -158,6 +158,8 @@ public class EJMessageFactory implements Serializable
                 return new EJMessage("Unable to create transaction factory $1", replacementStrings);
             case UNABLE_TO_CREATE_APPLICATION_TRANSLATOR:
                 return new EJMessage("Unable to create application translator $1", replacementStrings);
+            case UNABLE_TO_CREATE_SQL_DIALECT:
+                return new EJMessage("Unable to create sql dialect $1", replacementStrings);
             case UNABLE_TO_CREATE_APP_MANAGER:
                 return new EJMessage("Unable to create application manager $1", replacementStrings);
             case UNABLE_TO_LOAD_FORM_FILE:
@@ -213,6 +215,8 @@ public class EJMessageFactory implements Serializable
                 return new EJMessage("The class defined by application manager name $1 is not an $2", replacementStrings);
             case INVALID_TRANSLATOR_NAME:
                 return new EJMessage("The class defined for translator $1 is not an $2", replacementStrings);
+            case INVALID_SQL_DIALECT:
+                return new EJMessage("The sql dialect $1 is neither a standard dialect nor an EJSqlDialect", replacementStrings);
             case INVALID_TRANSACTION_FACTORY:
                 return new EJMessage("The transaction factory defined for the application is not a ITransactionFactory", replacementStrings);
             case INVALID_RENDERER_NAME:
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import org.entirej.framework.core.enumerations.EJFrameworkMessage;
+
+/**
+ * A resolved getter or setter of a service pojo
+ * <p>
+ * Accessors are created once per pojo class by {@link EJPojoAccessors} and
+ * call the pojo method through a {@link MethodHandle} instead of looking up
+ * and invoking the method reflectively on every call
+ */
+public final class EJPojoAccessor
+{
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Method            _method;
+    private final MethodHandle      _handle;
+
+    EJPojoAccessor(Method method)
+    {
+        _method = method;
+        MethodHandle handle = unreflect(method);
+        if (method.getParameterTypes().length == 0)
+        {
+            _handle = handle.asType(GETTER_TYPE);
+        }
+        else
+        {
+            _handle = handle.asType(SETTER_TYPE);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method)
+    {
+        try
+        {
+            return MethodHandles.publicLookup().unreflect(method);
+        }
+        catch (IllegalAccessException e)
+        {
+            // public methods declared within non public classes
+            try
+            {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            }
+            catch (Exception e2)
+            {
+                throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CALL_METHOD,
+                        method.getName() + " on " + method.getDeclaringClass().getName()), e2);
+            }
+        }
+    }
+
+    /**
+     * Returns the pojo method this accessor calls
+     * 
+     * @return The accessors method
+     */
+    public Method getMethod()
+    {
+        return _method;
+    }
+
+    /**
+     * Returns the type of the value read or written by this accessor
+     * 
+     * @return The return type of a getter or the parameter type of a setter
+     */
+    public Class<?> getValueType()
+    {
+        if (_method.getParameterTypes().length == 0)
+        {
+            return _method.getReturnType();
+        }
+        return _method.getParameterTypes()[0];
+    }
+
+    /**
+     * Calls the getter on the given pojo
+     * 
+     * @param pojo
+     *            The pojo to read from
+     * @return The value returned by the getter
+     */
+    public Object get(Object pojo)
+    {
+        try
+        {
+            return _handle.invokeExact(pojo);
+        }
+        catch (Throwable e)
+        {
+            throw callFailed(pojo, e);
+        }
+    }
+
+    /**
+     * Calls the setter on the given pojo
+     * 
+     * @param pojo
+     *            The pojo to write to
+     * @param value
+     *            The value to pass to the setter
+     */
+    public void set(Object pojo, Object value)
+    {
+        try
+        {
+            _handle.invokeExact(pojo, value);
+        }
+        catch (Throwable e)
+        {
+            throw callFailed(pojo, e);
+        }
+    }
+
+    private EJApplicationException callFailed(Object pojo, Throwable e)
+    {
+        if (e instanceof Error && !(e instanceof LinkageError))
+        {
+            throw (Error) e;
+        }
+        return new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CALL_METHOD,
+                _method.getName() + " on " + (pojo == null ? _method.getDeclaringClass().getName() : pojo.getClass().getName())), e);
+    }
+
+    @Override
+    public String toString()
+    {
+        return _method.toString();
+    }
+}
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The resolved accessors of a service pojo class
+ * <p>
+ * Accessor tables are created once per class and shared application wide.
+ * Setters annotated with {@link EJFieldName} are resolved when the table is
+ * created, getters and setters looked up by item name are resolved on first
+ * use and then reused
+ */
+public final class EJPojoAccessors
+{
+    private static final ConcurrentHashMap<Class<?>, EJPojoAccessors> _registry  = new ConcurrentHashMap<Class<?>, EJPojoAccessors>();
+    private static final EJPojoAccessor                               NOT_FOUND  = null;
+
+    private final Class<?>                                            _pojoClass;
+    private final Map<String, EJPojoAccessor>                         _fieldSetters;
+    private final ConcurrentHashMap<String, Resolved>                 _getters   = new ConcurrentHashMap<String, Resolved>();
+    private final ConcurrentHashMap<SetterKey, Resolved>              _setters   = new ConcurrentHashMap<SetterKey, Resolved>();
+
+    private EJPojoAccessors(Class<?> pojoClass)
+    {
+        _pojoClass = pojoClass;
+
+        HashMap<String, EJPojoAccessor> fieldSetters = new HashMap<String, EJPojoAccessor>();
+        for (Method method : pojoClass.getMethods())
+        {
+            if (method.getName().startsWith("set") && method.getParameterTypes().length == 1)
+            {
+                String fieldName = EJPojoHelper.getFieldName(pojoClass, method);
+                if (fieldName != null && !fieldSetters.containsKey(fieldName))
+                {
+                    fieldSetters.put(fieldName, new EJPojoAccessor(method));
+                }
+            }
+        }
+        _fieldSetters = Collections.unmodifiableMap(fieldSetters);
+    }
+
+    /**
+     * Returns the accessor table for the given pojo class
+     * 
+     * @param pojoClass
+     *            The pojo class
+     * @return The shared accessor table of the class
+     */
+    public static EJPojoAccessors forClass(Class<?> pojoClass)
+    {
+        if (pojoClass == null)
+        {
+            throw new NullPointerException("The pojo class passed to EJPojoAccessors.forClass is null");
+        }
+
+        EJPojoAccessors accessors = _registry.get(pojoClass);
+        if (accessors == null)
+        {
+            accessors = new EJPojoAccessors(pojoClass);
+            EJPojoAccessors existing = _registry.putIfAbsent(pojoClass, accessors);
+            if (existing != null)
+            {
+                accessors = existing;
+            }
+        }
+        return accessors;
+    }
+
+    /**
+     * Removes all accessor tables, for example after classes have been
+     * reloaded
+     */
+    public static void clear()
+    {
+        _registry.clear();
+    }
+
+    public Class<?> getPojoClass()
+    {
+        return _pojoClass;
+    }
+
+    /**
+     * Returns the setter annotated with the given {@link EJFieldName}
+     * 
+     * @param fieldName
+     *            The field name used within the annotation
+     * @return The setter or <code>null</code> if the pojo has no setter for the
+     *         given field name
+     */
+    public EJPojoAccessor getFieldSetter(String fieldName)
+    {
+        if (fieldName == null)
+        {
+            return null;
+        }
+        return _fieldSetters.get(fieldName);
+    }
+
+    /**
+     * Returns the getter for the given item name. The getter is the public
+     * method <code>get</code> followed by the item name with its first letter
+     * capitalised
+     * 
+     * @param itemName
+     *            The item name
+     * @return The getter or <code>null</code> if the pojo has no such getter
+     */
+    public EJPojoAccessor getGetter(String itemName)
+    {
+        Resolved resolved = _getters.get(itemName);
+        if (resolved == null)
+        {
+            resolved = new Resolved(findMethod(toMethodName("get", itemName)));
+            _getters.putIfAbsent(itemName, resolved);
+        }
+        return resolved._accessor;
+    }
+
+    /**
+     * Returns the setter for the given item name and parameter type. The
+     * setter is the public method <code>set</code> followed by the item name
+     * with its first letter capitalised
+     * 
+     * @param itemName
+     *            The item name
+     * @param parameterType
+     *            The parameter type of the setter
+     * @return The setter or <code>null</code> if the pojo has no such setter
+     */
+    public EJPojoAccessor getSetter(String itemName, Class<?> parameterType)
+    {
+        SetterKey key = new SetterKey(itemName, parameterType);
+        Resolved resolved = _setters.get(key);
+        if (resolved == null)
+        {
+            resolved = new Resolved(findMethod(toMethodName("set", itemName), parameterType));
+            _setters.putIfAbsent(key, resolved);
+        }
+        return resolved._accessor;
+    }
+
+    private EJPojoAccessor findMethod(String methodName, Class<?>... parameterTypes)
+    {
+        try
+        {
+            return new EJPojoAccessor(_pojoClass.getMethod(methodName, parameterTypes));
+        }
+        catch (NoSuchMethodException e)
+        {
+            return NOT_FOUND;
+        }
+    }
+
+    /**
+     * Returns the accessor method name for the given item, the prefix followed
+     * by the item name with its first letter capitalised
+     * 
+     * @param prefix
+     *            <code>get</code> or <code>set</code>
+     * @param itemName
+     *            The item name
+     * @return The method name
+     */
+    public static String toMethodName(String prefix, String itemName)
+    {
+        StringBuilder builder = new StringBuilder(prefix.length() + itemName.length());
+        return builder.append(prefix).append(Character.toUpperCase(itemName.charAt(0))).append(itemName, 1, itemName.length()).toString();
+    }
+
+    /**
+     * Holds the result of a lookup so that missing methods are only searched
+     * for once
+     */
+    private static final class Resolved
+    {
+        private final EJPojoAccessor _accessor;
+
+        Resolved(EJPojoAccessor accessor)
+        {
+            _accessor = accessor;
+        }
+    }
+
+    private static final class SetterKey
+    {
+        private final String   _itemName;
+        private final Class<?> _parameterType;
+
+        SetterKey(String itemName, Class<?> parameterType)
+        {
+            _itemName = itemName;
+            _parameterType = parameterType;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * _itemName.hashCode() + (_parameterType == null ? 0 : _parameterType.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof SetterKey))
+            {
+                return false;
+            }
+            SetterKey other = (SetterKey) obj;
+            return _itemName.equals(other._itemName) && _parameterType == other._parameterType;
+        }
+    }
+}
@@ -22,7 +22,6 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,14 +29,12 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
-import org.entirej.framework.core.enumerations.EJFrameworkMessage;
-
 public class EJPojoHelper implements Serializable
 {
-    private HashMap<Class<?>, HashMap<String, MethodMapping>> _mappings = new HashMap<Class<?>, HashMap<String, MethodMapping>>();
-    
     /**
      * Sets the data entities value to the value specified
+     * <p>
+     * The setter is taken from the pojo classes shared {@link EJPojoAccessors}
      * 
      * @param itemName
      *            The name of the item
@@ -53,61 +50,10 @@ public class EJPojoHelper implements Serializable
             return;
         }
         
-        if (_mappings.containsKey(dataEntity.getClass()))
+        EJPojoAccessor setter = EJPojoAccessors.forClass(dataEntity.getClass()).getFieldSetter(itemName);
+        if (setter != null)
         {
-            MethodMapping mapping = _mappings.get(dataEntity.getClass()).get(itemName);
-            if (mapping != null)
-            {
-                try
-                {
-                    mapping.getMethod().invoke(dataEntity, value);
-                    return;
-                }
-                catch (Exception e)
-                {
-                    e.printStackTrace();
-                    throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CALL_METHOD,
-                            mapping.getMethod().getName() + " on " + dataEntity.getClass().getName()), e);
-                }
-            }
-        }
-        
-        addMapingAndValue(itemName, dataEntity, value);
-    }
-    
-    private void addMapingAndValue(String itemName, Object dataEntity, Object value)
-    {
-        for (Method method : dataEntity.getClass().getMethods())
-        {
-            if (method.getName().startsWith("set"))
-            {
-                String fieldName = getFieldName(dataEntity.getClass(), method);
-                if (itemName.equals(fieldName))
-                {
-                    try
-                    {
-                        method.invoke(dataEntity, value);
-                        MethodMapping mapping = new MethodMapping(dataEntity.getClass(), method, itemName);
-                        if (_mappings.containsKey(mapping.getType()))
-                        {
-                            _mappings.get(mapping.getType()).put(itemName, mapping);
-                        }
-                        else
-                        {
-                            HashMap<String, EJPojoHelper.MethodMapping> entry = new HashMap<String, EJPojoHelper.MethodMapping>();
-                            entry.put(itemName, mapping);
-                            _mappings.put(mapping.getType(), entry);
-                        }
-                        return;
-                    }
-                    catch (Exception e)
-                    {
-                        e.printStackTrace();
-                        throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CALL_METHOD,
-                                method.getName() + " on " + dataEntity.getClass().getName()), e);
-                    }
-                }
-            }
+            setter.set(dataEntity, value);
         }
     }
     
@@ -376,33 +322,4 @@ public class EJPojoHelper implements Serializable
         return sotedPropertyNames;
     }
     
-    class MethodMapping
-    {
-        private Class<?> _type;
-        private Method   _method;
-        private String   _fieldName;
-        
-        public MethodMapping(Class<?> type, Method method, String fieldName)
-        {
-            _type = type;
-            _method = method;
-            _fieldName = fieldName;
-        }
-        
-        public Class<?> getType()
-        {
-            return _type;
-        }
-        
-        public Method getMethod()
-        {
-            return _method;
-        }
-        
-        public String getFieldName()
-        {
-            return _fieldName;
-        }
-    }
-    
 }
@@ -645,6 +645,7 @@ public class EJScreenItem
 
     private void setPropertyAndRefresh(EJManagedScreenProperty property, boolean allowed, String label, EJDataRecord record, String vaName)
     {
+        _block.getProperties().getFormProperties().definitionModified();
         switch (_screenType)
         {
             case MAIN:
@@ -794,6 +795,7 @@ public class EJScreenItem
 
     private void refreshMainScreenItemRenderer(String propertyName, String propertyValue)
     {
+        _block.getProperties().getFormProperties().definitionModified();
         EJFrameworkExtensionProperties blockRendererRequiredProperties = ((EJCoreMainScreenItemProperties) _item.getProperties()).getBlockRendererRequiredProperties();
         blockRendererRequiredProperties.setPropertyValue(propertyName, propertyValue);
         _block.getRendererController().refreshItemRendererProperty(_item.getReferencedItemProperties().getName(), propertyName);
@@ -801,6 +803,7 @@ public class EJScreenItem
 
     private void refreshQueryScreenItemRenderer(String propertyName, String propertyValue)
     {
+        _block.getProperties().getFormProperties().definitionModified();
         EJFrameworkExtensionProperties qsRendererProperties = ((EJCoreQueryScreenItemProperties) _item.getProperties()).getQueryScreenRendererProperties();
         qsRendererProperties.setPropertyValue(propertyName, propertyValue);
         if (_block.getQueryScreenRenderer() != null)
@@ -811,6 +814,7 @@ public class EJScreenItem
 
     private void refreshInsertScreenItemRenderer(String propertyName, String propertyValue)
     {
+        _block.getProperties().getFormProperties().definitionModified();
         EJFrameworkExtensionProperties isRendererProperties = ((EJCoreInsertScreenItemProperties) _item.getProperties()).getInsertScreenRendererProperties();
         isRendererProperties.setPropertyValue(propertyName, propertyValue);
         if (_block.getInsertScreenRenderer() != null)
@@ -821,6 +825,7 @@ public class EJScreenItem
 
     private void refreshItemRendererProperty(String propertyName, String propertyValue)
     {
+        _block.getProperties().getFormProperties().definitionModified();
         EJFrameworkExtensionProperties itemRendererProperties = _item.getReferencedItemProperties().getItemRendererProperties();
         itemRendererProperties.setPropertyValue(propertyName, propertyValue);
         if (_item.getItemRenderer() != null)
@@ -831,6 +836,7 @@ public class EJScreenItem
 
     private void refreshUpdateScreenItemRenderer(String propertyName, String propertyValue)
     {
+        _block.getProperties().getFormProperties().definitionModified();
         EJFrameworkExtensionProperties isRendererProperties = ((EJCoreUpdateScreenItemProperties) _item.getProperties()).getUpdateScreenRendererProperties();
         isRendererProperties.setPropertyValue(propertyName, propertyValue);
 
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an action processor or block service as stateless so that a single
+ * instance can be shared by all forms and blocks that reference it
+ * <p>
+ * Without this annotation the framework creates a new instance each time a
+ * form, block or lov is opened. Classes carrying it must be thread safe and
+ * must not hold any form or block specific state in their fields.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EJShareable
+{
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.common.utils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.entirej.framework.core.EJShareable;
+
+/**
+ * An application wide cache of the classes the framework creates by name,
+ * such as action processors, renderers and block services
+ * <p>
+ * Each class is resolved once and its no argument constructor is kept, so
+ * opening a form no longer calls <code>Class.forName</code> and the class
+ * loader lock for every processor and renderer. Classes annotated with
+ * {@link EJShareable} are created once and the same instance is returned on
+ * each call to {@link #getInstance(Class)}.
+ */
+public class EJClassCache
+{
+    private static final ConcurrentMap<String, CachedClass> _classes = new ConcurrentHashMap<String, CachedClass>();
+    
+    private EJClassCache()
+    {
+    }
+    
+    /**
+     * Returns the class with the given name, loading it on first use
+     * 
+     * @param className
+     *            The fully qualified name of the class
+     * @return The class with the given name
+     * @throws ClassNotFoundException
+     *             if the class cannot be found
+     */
+    public static Class<?> getClass(String className) throws ClassNotFoundException
+    {
+        CachedClass cachedClass = _classes.get(className);
+        if (cachedClass != null)
+        {
+            return cachedClass._class;
+        }
+        
+        Class<?> loadedClass = Class.forName(className);
+        return getCachedClass(loadedClass)._class;
+    }
+    
+    /**
+     * Creates a new instance of the given class using its cached no argument
+     * constructor
+     * 
+     * @param instanceClass
+     *            The class to create
+     * @return A new instance of the given class
+     * @throws InstantiationException
+     *             if the class cannot be instantiated or its constructor
+     *             throws an exception
+     * @throws IllegalAccessException
+     *             if the constructor is not accessible
+     */
+    public static Object newInstance(Class<?> instanceClass) throws InstantiationException, IllegalAccessException
+    {
+        return getCachedClass(instanceClass).newInstance();
+    }
+    
+    /**
+     * Returns an instance of the given class
+     * <p>
+     * If the class is annotated with {@link EJShareable} then the same
+     * instance is returned each time, otherwise a new instance is created
+     * 
+     * @param instanceClass
+     *            The class to create
+     * @return An instance of the given class
+     * @throws InstantiationException
+     *             if the class cannot be instantiated or its constructor
+     *             throws an exception
+     * @throws IllegalAccessException
+     *             if the constructor is not accessible
+     */
+    public static Object getInstance(Class<?> instanceClass) throws InstantiationException, IllegalAccessException
+    {
+        CachedClass cachedClass = getCachedClass(instanceClass);
+        if (!cachedClass._shareable)
+        {
+            return cachedClass.newInstance();
+        }
+        
+        synchronized (cachedClass)
+        {
+            if (cachedClass._sharedInstance == null)
+            {
+                cachedClass._sharedInstance = cachedClass.newInstance();
+            }
+            return cachedClass._sharedInstance;
+        }
+    }
+    
+    /**
+     * Indicates if instances of the given class are shared
+     * 
+     * @param instanceClass
+     *            The class to check
+     * @return <code>true</code> if the class is annotated with
+     *         {@link EJShareable}
+     */
+    public static boolean isShareable(Class<?> instanceClass)
+    {
+        return getCachedClass(instanceClass)._shareable;
+    }
+    
+    /**
+     * Removes all cached classes and shared instances
+     * <p>
+     * This should be called if the application class loader is replaced
+     */
+    public static void clear()
+    {
+        _classes.clear();
+    }
+    
+    private static CachedClass getCachedClass(Class<?> instanceClass)
+    {
+        CachedClass cachedClass = _classes.get(instanceClass.getName());
+        if (cachedClass != null && cachedClass._class == instanceClass)
+        {
+            return cachedClass;
+        }
+        
+        CachedClass newClass = new CachedClass(instanceClass);
+        if (cachedClass == null)
+        {
+            cachedClass = _classes.putIfAbsent(instanceClass.getName(), newClass);
+            if (cachedClass != null && cachedClass._class == instanceClass)
+            {
+                return cachedClass;
+            }
+        }
+        
+        // A class of the same name from a different class loader is not cached
+        return newClass;
+    }
+    
+    private static class CachedClass
+    {
+        private final Class<?>          _class;
+        private final boolean           _shareable;
+        private volatile Constructor<?> _constructor;
+        private Object                  _sharedInstance;
+        
+        CachedClass(Class<?> cachedClass)
+        {
+            _class = cachedClass;
+            _shareable = cachedClass.isAnnotationPresent(EJShareable.class);
+        }
+        
+        Object newInstance() throws InstantiationException, IllegalAccessException
+        {
+            Constructor<?> constructor = _constructor;
+            if (constructor == null)
+            {
+                try
+                {
+                    constructor = _class.getDeclaredConstructor();
+                }
+                catch (NoSuchMethodException e)
+                {
+                    InstantiationException exception = new InstantiationException(_class.getName());
+                    exception.initCause(e);
+                    throw exception;
+                }
+                _constructor = constructor;
+            }
+            
+            try
+            {
+                return constructor.newInstance();
+            }
+            catch (InvocationTargetException e)
+            {
+                InstantiationException exception = new InstantiationException(_class.getName());
+                exception.initCause(e.getCause());
+                throw exception;
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.common.utils;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJBlock;
+import org.entirej.framework.core.EJBlockItem;
+import org.entirej.framework.core.EJForm;
+import org.entirej.framework.core.EJMessage;
+import org.entirej.framework.core.EJRecord;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.data.controllers.EJApplicationLevelParameter;
+import org.entirej.framework.core.data.controllers.EJFormParameter;
+import org.entirej.framework.core.data.controllers.EJItemLovController;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A parsed default insert or default query value of an item
+ * <p>
+ * Default values are defined as <code>APP_PARAMETER:name</code>,
+ * <code>FORM_PARAMETER:name</code>, <code>BLOCK_ITEM:block.item</code> or
+ * <code>CLASS_FIELD:package.Class.FIELD</code>. They are parsed once, when set
+ * on the {@link EJCoreItemProperties}, so that creating records only needs to
+ * look up the value itself
+ * 
+ * @see EJDataHelper#getDefaultInsertValue(EJForm, EJBlockItem)
+ * @see EJDataHelper#getDefaultQueryValue(EJForm, EJBlockItem)
+ */
+public abstract class EJDefaultValueResolver implements Serializable
+{
+    private static final Logger                 logger     = LoggerFactory.getLogger(EJDefaultValueResolver.class);
+
+    private static final EJDefaultValueResolver NO_DEFAULT = new NoDefaultValue();
+
+    private final String                        _defaultValue;
+
+    EJDefaultValueResolver(String defaultValue)
+    {
+        _defaultValue = defaultValue;
+    }
+
+    /**
+     * Parses the given default value
+     * <p>
+     * Invalid default values do not cause an error until they are resolved
+     * 
+     * @param defaultValue
+     *            The default value as defined for the item
+     * @return The resolver for the given default value
+     */
+    public static EJDefaultValueResolver compile(String defaultValue)
+    {
+        if (defaultValue == null || defaultValue.trim().length() == 0)
+        {
+            return NO_DEFAULT;
+        }
+
+        int separator = defaultValue.indexOf(':');
+        if (separator == -1)
+        {
+            return new InvalidDefaultValue(defaultValue, "Trying to retrieve a default value for " + defaultValue + " but no type has been specified");
+        }
+
+        String paramTypeCode = defaultValue.substring(0, separator);
+        String paramValue = defaultValue.substring(separator + 1);
+
+        if ("APP_PARAMETER".equals(paramTypeCode))
+        {
+            return new ApplicationParameterValue(defaultValue, paramValue);
+        }
+        else if ("FORM_PARAMETER".equals(paramTypeCode))
+        {
+            return new FormParameterValue(defaultValue, paramValue);
+        }
+        else if ("BLOCK_ITEM".equals(paramTypeCode))
+        {
+            int dot = paramValue.indexOf('.');
+            if (dot == -1)
+            {
+                return new InvalidDefaultValue(defaultValue, "Trying to retrieve a default value from a Block.Item value: " + paramValue
+                        + ", but no item has been specified");
+            }
+            return new BlockItemValue(defaultValue, paramValue.substring(0, dot), paramValue.substring(dot + 1));
+        }
+        else if ("CLASS_FIELD".equals(paramTypeCode))
+        {
+            if (paramValue.trim().length() == 0)
+            {
+                return NO_DEFAULT;
+            }
+            return new ClassFieldValue(defaultValue, paramValue);
+        }
+        else
+        {
+            return new InvalidDefaultValue(defaultValue, "Trying to retrieve a default value for " + paramValue + " but an invalid type has been specified: "
+                    + paramTypeCode);
+        }
+    }
+
+    /**
+     * Indicates if a default value has been defined
+     * 
+     * @return <code>true</code> if a default value has been defined, otherwise
+     *         <code>false</code>
+     */
+    public boolean hasDefaultValue()
+    {
+        return true;
+    }
+
+    /**
+     * Returns the default value as it was defined for the item
+     * 
+     * @return The unparsed default value
+     */
+    public String getDefaultValue()
+    {
+        return _defaultValue;
+    }
+
+    /**
+     * Returns the current value of this default
+     * 
+     * @param form
+     *            The form containing the item
+     * @param item
+     *            The item for which the default value is required
+     * @param itemLovController
+     *            The lov controller if the default value is required for a
+     *            screen lov, otherwise <code>null</code>
+     * @return The default value
+     */
+    public abstract Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController);
+
+    private static final class NoDefaultValue extends EJDefaultValueResolver
+    {
+        NoDefaultValue()
+        {
+            super(null);
+        }
+
+        @Override
+        public boolean hasDefaultValue()
+        {
+            return false;
+        }
+
+        @Override
+        public Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController)
+        {
+            return null;
+        }
+
+        private Object readResolve()
+        {
+            return NO_DEFAULT;
+        }
+    }
+
+    private static final class InvalidDefaultValue extends EJDefaultValueResolver
+    {
+        private final String _message;
+
+        InvalidDefaultValue(String defaultValue, String message)
+        {
+            super(defaultValue);
+            _message = message;
+        }
+
+        @Override
+        public Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController)
+        {
+            throw new EJApplicationException(new EJMessage(_message));
+        }
+    }
+
+    private static final class ApplicationParameterValue extends EJDefaultValueResolver
+    {
+        private final String _parameterName;
+
+        ApplicationParameterValue(String defaultValue, String parameterName)
+        {
+            super(defaultValue);
+            _parameterName = parameterName;
+        }
+
+        @Override
+        public Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController)
+        {
+            EJApplicationLevelParameter param = form.getApplicationLevelParameter(_parameterName);
+            if (logger.isTraceEnabled())
+                logger.trace("Application Parameter Value: {}", param.getValue());
+            return param.getValue();
+        }
+    }
+
+    private static final class FormParameterValue extends EJDefaultValueResolver
+    {
+        private final String _parameterName;
+
+        FormParameterValue(String defaultValue, String parameterName)
+        {
+            super(defaultValue);
+            _parameterName = parameterName;
+        }
+
+        @Override
+        public Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController)
+        {
+            EJFormParameter param = form.getFormParameter(_parameterName);
+            if (logger.isTraceEnabled())
+                logger.trace("Form Parameter Value: {}", param.getValue());
+            return param.getValue();
+        }
+    }
+
+    private static final class BlockItemValue extends EJDefaultValueResolver
+    {
+        private final String _blockName;
+        private final String _itemName;
+
+        BlockItemValue(String defaultValue, String blockName, String itemName)
+        {
+            super(defaultValue);
+            _blockName = blockName;
+            _itemName = itemName;
+        }
+
+        @Override
+        public Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController)
+        {
+            final boolean traceEnabled = logger.isTraceEnabled();
+
+            EJBlock block = form.getBlock(_blockName);
+            if (block == null)
+            {
+                throw new EJApplicationException(new EJMessage(form, "Trying to retrieve a default value from a Block.Item value: " + _blockName + "."
+                        + _itemName + ", but there is not a block with the given name within this form: " + form.getProperties().getName()));
+            }
+
+            EJRecord record = null;
+            // If the itemLovController is not null then it means that I am
+            // retrieving the default value for a screen lov. Therefore I need
+            // to retrieve the block_item value from the displayed screen if the
+            // block displayed is the same as the block from which I should
+            // retrieve the default value
+            if (itemLovController != null && _blockName.equals(itemLovController.getItemToValidate().getBlock().getProperties().getName()))
+            {
+                if (traceEnabled)
+                    logger.trace("Getting parameter for screen: {}", itemLovController.getItemToValidate().getScreenType());
+                EJDataRecord dataRecord = null;
+                switch (itemLovController.getItemToValidate().getScreenType())
+                {
+                    case INSERT:
+                        dataRecord = itemLovController.getItemToValidate().getBlock().getInsertScreenRenderer().getInsertRecord();
+                        break;
+                    case QUERY:
+                        dataRecord = itemLovController.getItemToValidate().getBlock().getQueryScreenRenderer().getQueryRecord();
+                        break;
+                    case UPDATE:
+                        dataRecord = itemLovController.getItemToValidate().getBlock().getUpdateScreenRenderer().getUpdateRecord();
+                        break;
+                    case MAIN:
+                        dataRecord = itemLovController.getItemToValidate().getBlock().getFocusedRecord();
+                        break;
+                }
+                if (dataRecord != null)
+                {
+                    record = new EJRecord(dataRecord);
+                }
+            }
+            else
+            {
+                record = block.getFocusedRecord();
+            }
+
+            if (record != null)
+            {
+                Object val = record.getValue(_itemName);
+                if (traceEnabled)
+                    logger.trace("BlockItem value: {}", val);
+                return val;
+            }
+            else
+            {
+                if (traceEnabled)
+                    logger.trace("Could not find a record for the specified block");
+                return null;
+            }
+        }
+    }
+
+    private static final class ClassFieldValue extends EJDefaultValueResolver
+    {
+        private final String    _paramValue;
+        private final String    _fullClassName;
+        private final String    _fieldName;
+
+        // Resolved on first use so that forms can be loaded even if the class
+        // is not available
+        private transient Field _field;
+
+        ClassFieldValue(String defaultValue, String paramValue)
+        {
+            super(defaultValue);
+            _paramValue = paramValue;
+            int dot = paramValue.lastIndexOf('.');
+            _fullClassName = dot == -1 ? null : paramValue.substring(0, dot);
+            _fieldName = dot == -1 ? null : paramValue.substring(dot + 1);
+        }
+
+        @Override
+        public Object resolve(EJForm form, EJBlockItem item, EJItemLovController itemLovController)
+        {
+            try
+            {
+                Object val = getField(item).get(null);
+                if (logger.isTraceEnabled())
+                    logger.trace("Got value {} ", val);
+                return val;
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new EJApplicationException(new EJMessage("Trying to retrieve a default value for " + _paramValue
+                        + " from a class field but the class cannot be accessed: " + _fullClassName));
+            }
+        }
+
+        private Field getField(EJBlockItem item)
+        {
+            Field field = _field;
+            if (field != null)
+            {
+                return field;
+            }
+
+            if (_fullClassName == null)
+            {
+                throw new EJApplicationException(new EJMessage("Invalid class field name defined for field " + item.getBlockName() + "." + item.getName()
+                        + ":" + _paramValue));
+            }
+
+            if (logger.isTraceEnabled())
+                logger.trace("Getting value for item: {} in class {}", _fieldName, _fullClassName);
+            try
+            {
+                Class<?> constantsClass = Class.forName(_fullClassName);
+                field = constantsClass.getDeclaredField(_fieldName);
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new EJApplicationException(new EJMessage("Trying to retrieve a default value for " + _paramValue
+                        + " from a class field but the class cannot be found: " + _fullClassName));
+            }
+            catch (SecurityException e)
+            {
+                throw new EJApplicationException(new EJMessage("Trying to retrieve a default value for " + _paramValue
+                        + " from a class field but the class field cannot be accessed: " + _fullClassName));
+            }
+            catch (NoSuchFieldException e)
+            {
+                throw new EJApplicationException(new EJMessage("Trying to retrieve a default value for " + _paramValue
+                        + " from a class field but field does not exist: " + _fullClassName));
+            }
+
+            if (!Modifier.isPublic(field.getModifiers()) || !Modifier.isStatic(field.getModifiers()))
+            {
+                throw new EJApplicationException(new EJMessage("Trying to retrieve a default value for " + _paramValue
+                        + " from a class field but the class field cannot be accessed: " + _fullClassName));
+            }
+
+            _field = field;
+            return field;
+        }
+    }
+}
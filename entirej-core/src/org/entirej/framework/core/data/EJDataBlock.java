@@ -21,6 +21,8 @@ package org.entirej.framework.core.data;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
 
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
 
@@ -33,6 +35,20 @@ public class EJDataBlock implements Serializable
     private ArrayList<EJDataRecord>        _deleteRecords;
     private ArrayList<EJDataRecord>        _insertRecords;
 
+    // The position of each block record, only the first _indexedRecords
+    // entries of _blockRecords are guaranteed to be up to date. Records are
+    // compared by identity as they do not override equals
+    private transient IdentityHashMap<EJDataRecord, Integer> _recordPositions;
+    private transient int                                    _indexedRecords;
+
+    // Queried entities whose records have not yet been created. They follow
+    // the records within _blockRecords and are loaded in order
+    private ArrayList<Object>              _pendingEntities;
+    private int                            _pendingStart;
+    private int                            _loadWindow;
+    private EJDataRecordLoader             _recordLoader;
+    private boolean                        _loading;
+
     public EJDataBlock(EJCoreBlockProperties blockProperties)
     {
         _blockRecords = new ArrayList<EJDataRecord>();
@@ -57,17 +73,114 @@ public class EJDataBlock implements Serializable
      */
     public boolean containsRecord(EJDataRecord record)
     {
-        return _blockRecords.contains(record);
+        return getRecordNumber(record) != -1;
     }
 
     /**
      * Return the number of records within this block
+     * <p>
+     * Queried entities whose records have not yet been created are counted.
+     * While a record loader creates records, for example within the post query
+     * actions of the loaded records, only the records already created are
+     * counted, because the following records cannot be created until the
+     * loader has finished
      * 
      * @return The number of records
      */
     public int getBlockRecordCount()
     {
-        return _blockRecords.size();
+        if (_loading)
+        {
+            return _blockRecords.size();
+        }
+        return _blockRecords.size() + getPendingEntityCount();
+    }
+
+    /**
+     * Returns the number of queried entities for which no record has yet been
+     * created
+     * 
+     * @return The number of entities still to be loaded
+     * @see #addQueriedEntities(List, EJDataRecordLoader, int)
+     */
+    public int getPendingEntityCount()
+    {
+        return _pendingEntities == null ? 0 : _pendingEntities.size() - _pendingStart;
+    }
+
+    /**
+     * Adds the given queried entities to this block without creating their
+     * records
+     * <p>
+     * The records are created by the given loader, in windows of the given
+     * size, when they are first accessed through this block. Accessing a
+     * record loads all entities before it so that the records are always
+     * created and post-queried in the order they were queried
+     * 
+     * @param entities
+     *            The queried entities
+     * @param recordLoader
+     *            The loader used to create the records
+     * @param loadWindow
+     *            The minimum number of records to create each time records
+     *            are loaded
+     */
+    public void addQueriedEntities(List<?> entities, EJDataRecordLoader recordLoader, int loadWindow)
+    {
+        loadAllRecords();
+        if (entities == null || entities.isEmpty())
+        {
+            return;
+        }
+
+        _pendingEntities = new ArrayList<Object>(entities);
+        _pendingStart = 0;
+        _recordLoader = recordLoader;
+        _loadWindow = Math.max(1, loadWindow);
+    }
+
+    /**
+     * Ensures that the records of all queried entities have been created
+     */
+    public void loadAllRecords()
+    {
+        loadRecords(Integer.MAX_VALUE);
+    }
+
+    private void loadRecords(int recordNumber)
+    {
+        // Records added by the loader, or post query actions accessing this
+        // block while records are being loaded, only see the records already
+        // created
+        while (!_loading && recordNumber >= _blockRecords.size() && getPendingEntityCount() > 0)
+        {
+            int count = Math.min(getPendingEntityCount(), Math.max(_loadWindow, recordNumber - _blockRecords.size() + 1));
+            List<Object> entities = new ArrayList<Object>(_pendingEntities.subList(_pendingStart, _pendingStart + count));
+            _pendingStart += count;
+
+            EJDataRecordLoader recordLoader = _recordLoader;
+            if (getPendingEntityCount() == 0)
+            {
+                clearPendingEntities();
+            }
+
+            _loading = true;
+            try
+            {
+                recordLoader.loadRecords(this, entities);
+            }
+            finally
+            {
+                _loading = false;
+            }
+        }
+    }
+
+    private void clearPendingEntities()
+    {
+        _pendingEntities = null;
+        _pendingStart = 0;
+        _recordLoader = null;
     }
 
     /**
@@ -82,7 +195,7 @@ public class EJDataBlock implements Serializable
     public void addQueriedRecord(EJDataRecord queriedRecord)
     {
         queriedRecord.markAsQueried(true);
-        _blockRecords.add(queriedRecord);
+        addBlockRecord(_blockRecords.size(), queriedRecord);
     }
 
     /**
@@ -95,7 +208,13 @@ public class EJDataBlock implements Serializable
      */
     public void clearBlock(boolean clearChanges)
     {
+        clearPendingEntities();
         _blockRecords.clear();
+        if (_recordPositions != null)
+        {
+            _recordPositions.clear();
+        }
+        _indexedRecords = 0;
 
         if (clearChanges)
         {
@@ -136,13 +255,15 @@ public class EJDataBlock implements Serializable
     {
         newRecord.markForInsert(true);
 
-        if (currRecord == null || _blockRecords.indexOf(currRecord) == -1)
+        int currPosition = getRecordNumber(currRecord);
+        if (currPosition == -1)
         {
-            _blockRecords.add( newRecord);
+            loadAllRecords();
+            addBlockRecord(_blockRecords.size(), newRecord);
         }
         else
         {
-            _blockRecords.add(_blockRecords.indexOf(currRecord) + 1, newRecord);
+            addBlockRecord(currPosition + 1, newRecord);
         }
         _insertRecords.add(newRecord);
         _dirty = true;
@@ -154,11 +275,12 @@ public class EJDataBlock implements Serializable
         
         if (position == -1 || _blockRecords.size() >= position)
         {
-            _blockRecords.add( newRecord);
+            loadAllRecords();
+            addBlockRecord(_blockRecords.size(), newRecord);
         }
         else
         {
-            _blockRecords.add(position, newRecord);
+            addBlockRecord(position, newRecord);
         }
         _insertRecords.add(newRecord);
         _dirty = true;
@@ -179,7 +301,7 @@ public class EJDataBlock implements Serializable
             // then there is nothing to be removed from the datastore. Therefore
             // just remove the record from the New Record List and the blocks
             // list of records
-            _blockRecords.remove(deletedRecord);
+            removeBlockRecord(deletedRecord);
             _insertRecords.remove(deletedRecord);
 
             if (!hasDirtyRecords())
@@ -192,7 +314,7 @@ public class EJDataBlock implements Serializable
             _dirty = true;
             deletedRecord.markForDelete(true);
             _deleteRecords.add(deletedRecord);
-            _blockRecords.remove(deletedRecord);
+            removeBlockRecord(deletedRecord);
             _updateRecords.remove(deletedRecord);
         }
         else
@@ -200,7 +322,7 @@ public class EJDataBlock implements Serializable
             _dirty = true;
             deletedRecord.markForDelete(true);
             _deleteRecords.add(deletedRecord);
-            _blockRecords.remove(deletedRecord);
+            removeBlockRecord(deletedRecord);
         }
     }
 
@@ -283,19 +405,48 @@ public class EJDataBlock implements Serializable
     /**
      * This method will return the records of this data block
      * <p>
+     * The returned collection is a copy, so records may be created or deleted
+     * while iterating over it. The records of all pending queried entities
+     * are created first, use {@link #getRecords(int, int)} to access only a
+     * part of the records
      * 
      * @return All records contained within this data block
      */
     public Collection<EJDataRecord> getRecords()
     {
-        Collection<EJDataRecord> blockRecords = new ArrayList<EJDataRecord>();
+        loadAllRecords();
+        return new ArrayList<EJDataRecord>(_blockRecords);
+    }
 
-        for (EJDataRecord record : _blockRecords)
+    /**
+     * Returns a copy of the given range of this blocks records
+     * <p>
+     * Only the records up to the end of the range are created, the remaining
+     * queried entities stay pending
+     * 
+     * @param firstRecordNumber
+     *            The record number of the first record to return
+     * @param recordCount
+     *            The maximum number of records to return
+     * @return The records of the range, fewer than requested if the block has
+     *         fewer records
+     * @throws ArrayIndexOutOfBoundsException
+     *             If the first record number is less than 0
+     */
+    public List<EJDataRecord> getRecords(int firstRecordNumber, int recordCount)
+    {
+        if (firstRecordNumber < 0)
         {
-            blockRecords.add(record);
+            throw new ArrayIndexOutOfBoundsException("Trying to obtain records with a record number less than 0");
         }
 
-        return blockRecords;
+        int endRecordNumber = Math.min(getBlockRecordCount(), firstRecordNumber + Math.max(0, recordCount));
+        if (endRecordNumber <= firstRecordNumber)
+        {
+            return new ArrayList<EJDataRecord>();
+        }
+        loadRecords(endRecordNumber - 1);
+        return new ArrayList<EJDataRecord>(_blockRecords.subList(firstRecordNumber, endRecordNumber));
     }
 
     /**
@@ -314,23 +465,91 @@ public class EJDataBlock implements Serializable
             return -1;
         }
 
-        return _blockRecords.indexOf(record);
+        if (_recordPositions == null)
+        {
+            _recordPositions = new IdentityHashMap<EJDataRecord, Integer>(Math.max(16, _blockRecords.size() * 2));
+            _indexedRecords = 0;
+        }
+
+        Integer position = _recordPositions.get(record);
+        if (position != null)
+        {
+            int index = position.intValue();
+            if (index < _indexedRecords && _blockRecords.get(index) == record)
+            {
+                return index;
+            }
+        }
+
+        // The record is either not part of this block or is positioned after
+        // an insert or delete, so continue indexing from where the last
+        // modification left off
+        int size = _blockRecords.size();
+        while (_indexedRecords < size)
+        {
+            int index = _indexedRecords++;
+            EJDataRecord indexedRecord = _blockRecords.get(index);
+            _recordPositions.put(indexedRecord, index);
+            if (indexedRecord == record)
+            {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void addBlockRecord(int position, EJDataRecord record)
+    {
+        boolean append = position == _blockRecords.size();
+        _blockRecords.add(position, record);
+
+        if (_recordPositions == null)
+        {
+            return;
+        }
+        if (append && _indexedRecords == position)
+        {
+            _recordPositions.put(record, position);
+            _indexedRecords++;
+        }
+        else if (position < _indexedRecords)
+        {
+            // All records after the new record have moved
+            _indexedRecords = position;
+        }
+    }
+
+    private void removeBlockRecord(EJDataRecord record)
+    {
+        int position = getRecordNumber(record);
+        if (position == -1)
+        {
+            return;
+        }
+        _blockRecords.remove(position);
+        _recordPositions.remove(record);
+        if (position < _indexedRecords)
+        {
+            _indexedRecords = position;
+        }
     }
 
     /**
      * Returns the <code>DataRecord</code> for the record number given
      * <p>
      * The lowest allowable record number is 0 and the highest is the amount of
-     * records within this block -1
+     * records within this block -1. The records of pending queried entities
+     * are created up to the given record
      * 
      * @param recordNumber
      *            The record number of the required record
-     * @return The record at the given position
+     * @return The record at the given position or <code>null</code> if the
+     *         block is empty
      * @throws ArrayOutOfBoundsException
      */
     public EJDataRecord getRecord(int recordNumber)
     {
-        if (_blockRecords.size() <= 0)
+        if (getBlockRecordCount() <= 0)
         {
             return null;
         }
@@ -339,13 +558,14 @@ public class EJDataBlock implements Serializable
         {
             throw new ArrayIndexOutOfBoundsException("Trying to obtain a record with a record number less than 0");
         }
-        else if (recordNumber >= _blockRecords.size())
+        else if (recordNumber >= getBlockRecordCount())
         {
             throw new ArrayIndexOutOfBoundsException(
                     "Trying to obtain a record using a record number greater than the amount of records stored within the block. RecordNumber: " + recordNumber
-                            + ", BlockSize: " + _blockRecords.size());
+                            + ", BlockSize: " + getBlockRecordCount());
         }
 
+        loadRecords(recordNumber);
         return (EJDataRecord) _blockRecords.get(recordNumber);
     }
 
@@ -371,11 +591,12 @@ public class EJDataBlock implements Serializable
         {
             throw new NullPointerException("The record passed to getRecordAfter is null.");
         }
-        if (!containsRecord(record))
+        int recordIndex = getRecordNumber(record);
+        if (recordIndex == -1)
         {
             throw new IllegalArgumentException("The record passed to getRecordAfter does not exists in this blocks list of records.");
         }
-        int recordIndex = _blockRecords.indexOf(record);
+        loadRecords(recordIndex + 1);
 
         if (recordIndex + 1 >= _blockRecords.size())
         {
@@ -412,11 +633,11 @@ public class EJDataBlock implements Serializable
         {
             throw new NullPointerException("The record passed to getRecordBefore is null.");
         }
-        if (!containsRecord(record))
+        int recordIndex = getRecordNumber(record);
+        if (recordIndex == -1)
         {
             throw new IllegalArgumentException("The record passed to getRecordBefore does not exists in this blocks list of records.");
         }
-        int recordIndex = _blockRecords.indexOf(record);
 
         if (recordIndex - 1 < 0)
         {
@@ -427,5 +648,4 @@ public class EJDataBlock implements Serializable
             return (EJDataRecord) _blockRecords.get(recordIndex - 1);
         }
     }
-
 }
@@ -49,7 +49,39 @@ public class EJDataItem implements Serializable
         
         if (addDefaultInsertValues)
         {
-            setValue(EJDataHelper.getDefaultInsertValue(new EJForm(formController.getInternalForm()), new EJBlockItem(itemProperties)));
+            setValue(getDefaultInsertValue(formController, itemProperties));
+        }
+    }
+    
+    /**
+     * Creates an item holding the given, already validated, value. Used by
+     * records with compact storage when the item is first requested
+     */
+    EJDataItem(EJFormController formController, EJCoreItemProperties itemProperties, Object value)
+    {
+        _formController = formController;
+        _itemProperties = itemProperties;
+        _value = value;
+    }
+    
+    static Object getDefaultInsertValue(EJFormController formController, EJCoreItemProperties itemProperties)
+    {
+        if (!itemProperties.getDefaultInsertValueResolver().hasDefaultValue())
+        {
+            return null;
+        }
+        return EJDataHelper.getDefaultInsertValue(new EJForm(formController.getInternalForm()), new EJBlockItem(itemProperties));
+    }
+    
+    static void validateValue(EJCoreItemProperties itemProperties, Object value)
+    {
+        if (value != null)
+        {
+            if (!itemProperties.getDataTypeClass().isAssignableFrom(value.getClass()))
+            {
+                throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_DATA_TYPE_FOR_ITEM,
+                        itemProperties.getName(), itemProperties.getDataTypeClassName(), value.getClass().getName()));
+            }
         }
     }
     
@@ -82,14 +114,7 @@ public class EJDataItem implements Serializable
      */
     public void setValue(Object value)
     {
-        if (value != null)
-        {
-            if (!_itemProperties.getDataTypeClass().isAssignableFrom(value.getClass()))
-            {
-                throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_DATA_TYPE_FOR_ITEM,
-                        _itemProperties.getName(), _itemProperties.getDataTypeClassName(), value.getClass().getName()));
-            }
-        }
+        validateValue(_itemProperties, value);
         _value = value;
         
         // Now let the record know that a value has changed
@@ -1,78 +1,295 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
 package org.entirej.framework.core.data;
 
-import java.util.ArrayList;
+import java.io.Serializable;
+import java.util.AbstractCollection;
 import java.util.Collection;
-import java.util.List;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
-public class EJDataMap<K, V>
+/**
+ * An insertion ordered map used to hold the items of a record and the blocks
+ * of a form
+ * <p>
+ * Entries are stored within arrays in the order they were added and located
+ * using an open addressing hash table of entry positions. Lookups and updates
+ * are therefore made in constant time without allocating any objects and
+ * {@link #values()} and {@link #keySet()} return live views of the map instead
+ * of copying its content
+ */
+public class EJDataMap<K, V> implements Serializable
 {
+    private static final int            DEFAULT_CAPACITY = 8;
 
-    private List<Node> data = new ArrayList<>();
+    private Object[]                    _keys;
+    private Object[]                    _values;
+    private int[]                       _table;
+    private int                         _size;
 
-    private class Node
+    private transient Collection<K>     _keyView;
+    private transient Collection<V>     _valueView;
+
+    public EJDataMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map able to hold the given amount of entries before it needs
+     * to grow
+     * 
+     * @param expectedSize
+     *            The expected amount of entries
+     */
+    public EJDataMap(int expectedSize)
+    {
+        int capacity = Math.max(expectedSize, 1);
+        _keys = new Object[capacity];
+        _values = new Object[capacity];
+        _table = new int[tableSizeFor(capacity)];
+    }
+
+    private static int tableSizeFor(int capacity)
+    {
+        // keep the table at most half full
+        int size = 2;
+        while (size < capacity * 2)
+        {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int hash(Object key)
+    {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the position of the table slot for the given key. The slot either
+     * holds the key or is the empty slot the key would be stored in
+     */
+    private int slotFor(Object key)
+    {
+        int mask = _table.length - 1;
+        int slot = hash(key) & mask;
+        while (true)
+        {
+            int entry = _table[slot];
+            if (entry == 0 || Objects.equals(_keys[entry - 1], key))
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int indexOf(Object key)
+    {
+        return _table[slotFor(key)] - 1;
+    }
+
+    private void grow()
     {
-        K k;
-        V v;
+        int capacity = _keys.length * 2;
+        Object[] keys = new Object[capacity];
+        Object[] values = new Object[capacity];
+        System.arraycopy(_keys, 0, keys, 0, _size);
+        System.arraycopy(_values, 0, values, 0, _size);
+        _keys = keys;
+        _values = values;
+
+        _table = new int[tableSizeFor(capacity)];
+        for (int i = 0; i < _size; i++)
+        {
+            _table[slotFor(_keys[i])] = i + 1;
+        }
     }
 
     public Collection<V> values()
     {
-        return data.stream().map(n -> n.v).collect(Collectors.toList());
+        if (_valueView == null)
+        {
+            _valueView = new View<V>(false);
+        }
+        return _valueView;
     }
 
     public boolean containsKey(K key)
     {
-        return data.stream().anyMatch(n -> Objects.equals(n.k, key));
+        return indexOf(key) >= 0;
     }
 
     public void put(K k, V v)
     {
+        int slot = slotFor(k);
+        int index = _table[slot] - 1;
+        if (index >= 0)
+        {
+            _values[index] = v;
+            return;
+        }
 
-        EJDataMap<K, V>.Node node = data.stream().filter(n -> Objects.equals(n.k, k)).
-                findFirst().orElseGet(() -> {
-                                                Node n = new Node();
-                                                n.k = k;
-                                                data.add(n);
-                                                return n;
-                                            });
-        node.k = k;
-        node.v = v;
+        if (_size == _keys.length)
+        {
+            grow();
+            slot = slotFor(k);
+        }
+        _keys[_size] = k;
+        _values[_size] = v;
+        _size++;
+        _table[slot] = _size;
     }
 
+    @SuppressWarnings("unchecked")
     public V get(K k)
     {
-        return data.stream().filter(n -> Objects.equals(n.k, k)).findFirst().map(n -> n.v).orElseGet(() -> null);
+        int index = indexOf(k);
+        return index < 0 ? null : (V) _values[index];
     }
 
     public Collection<K> keySet()
     {
-        return data.stream().map(n -> n.k).collect(Collectors.toList());
+        if (_keyView == null)
+        {
+            _keyView = new View<K>(true);
+        }
+        return _keyView;
+    }
+
+    /**
+     * Returns the amount of entries held within this map
+     * 
+     * @return The amount of entries
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns the key at the given position. Keys are held in the order they
+     * were added
+     * 
+     * @param index
+     *            The position of the required key
+     * @return The key at the given position
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index)
+    {
+        checkIndex(index);
+        return (K) _keys[index];
     }
-    
-    public static void main(String[] args)
+
+    /**
+     * Returns the value at the given position. Values are held in the order
+     * their keys were added
+     * 
+     * @param index
+     *            The position of the required value
+     * @return The value at the given position
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index)
     {
-        EJDataMap<String, String> data = new EJDataMap<>();
-        
-        data.put("1", "one");
-        data.put("2", "two");
-        
-        System.out.println(data.keySet());
-        System.out.println(data.values());
-        data.put("1", "one2");
-        data.put("2", "two2");
-        
+        checkIndex(index);
+        return (V) _values[index];
+    }
 
-        System.out.println(data.keySet());
-        System.out.println(data.values());
-        System.out.println(data.containsKey("1"));
-        System.out.println(data.containsKey("12"));
-        
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= _size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
     }
 
     public void clear()
     {
-        data.clear();
+        for (int i = 0; i < _size; i++)
+        {
+            _keys[i] = null;
+            _values[i] = null;
+        }
+        for (int i = 0; i < _table.length; i++)
+        {
+            _table[i] = 0;
+        }
+        _size = 0;
+    }
+
+    /**
+     * A read only, live view of either the keys or the values of this map
+     */
+    private final class View<E> extends AbstractCollection<E>
+    {
+        private final boolean _forKeys;
+
+        View(boolean forKeys)
+        {
+            _forKeys = forKeys;
+        }
+
+        @Override
+        public Iterator<E> iterator()
+        {
+            return new Iterator<E>()
+            {
+                private int _next = 0;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return _next < _size;
+                }
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public E next()
+                {
+                    if (_next >= _size)
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    return (E) (_forKeys ? _keys[_next++] : _values[_next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return _size;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            if (_forKeys)
+            {
+                return indexOf(o) >= 0;
+            }
+            return super.contains(o);
+        }
     }
 }
@@ -18,11 +18,21 @@
  ******************************************************************************/
 package org.entirej.framework.core.data;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectInputValidation;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJMessage;
@@ -31,6 +41,7 @@ import org.entirej.framework.core.enumerations.EJScreenType;
 import org.entirej.framework.core.internal.EJInternalBlock;
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
 import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.entirej.framework.core.properties.EJCoreVisualAttributeProperties;
 import org.entirej.framework.core.renderers.eventhandlers.EJDataItemValueChangedListener;
 
 public class EJDataRecord implements Serializable, EJValueChangedListener
@@ -41,12 +52,21 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
     private Object                         _servicePojo;
     private EJInternalBlock                _block;
 
-    private EJDataMap<String, EJDataItem>    _itemList;
+    // Written by writeObject as the values of the items only
+    private transient EJDataMap<String, EJDataItem> _itemList;
+    // Used instead of the item list if the block uses compact record storage.
+    // The items are then only created when requested, only the visual
+    // attributes and hints of the items are written by writeObject
+    private Object[]                       _values;
+    private transient EJDataItem[]         _itemViews;
     private boolean                        _queriedRecord   = false;
     private boolean                        _markedForUpdate = false;
     private boolean                        _markedForDelete = false;
     private boolean                        _markedForInsert = false;
     private boolean                        _changed         = false;
+    // The positions of the items changed since the record was queried or
+    // last saved, as defined by the blocks record layout
+    private BitSet                         _changedItems;
 
     /**
      * Returns the properties of the block that contains this record
@@ -58,7 +78,6 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         _formController = formController;
         _block = block;
         _servicePojo = getBlock().getServicePojoHelper().createNewPojoFromService();
-        _itemList = new EJDataMap<String, EJDataItem>();
         initialiseRecord(formController, addDefaultInsertValues, null);
     }
 
@@ -72,7 +91,6 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         _formController = formController;
         _block = block;
         _servicePojo = servicePojo;
-        _itemList = new EJDataMap<String, EJDataItem>();
         initialiseRecord(formController, addDefaultInsertValues, servicePojo);
     }
 
@@ -90,7 +108,6 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         _formController = formController;
         _block = block;
         _servicePojo = servicePojo;
-        _itemList = new EJDataMap<String, EJDataItem>();
         initialiseRecord(formController, false, sourceEntityObject);
     }
 
@@ -139,7 +156,15 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
 
     private void initialiseRecord(EJFormController formController, boolean addDefaultInsertValues, Object sourceEntityObject)
     {
-        for (EJCoreItemProperties itemProps : _block.getProperties().getItemPropertiesContainer().getAllItemProperties())
+        if (_block.getProperties().isCompactRecordStorage())
+        {
+            initialiseCompactRecord(formController, addDefaultInsertValues, sourceEntityObject);
+            return;
+        }
+
+        Collection<EJCoreItemProperties> allItemProperties = _block.getProperties().getItemPropertiesContainer().getAllItemProperties();
+        _itemList = new EJDataMap<String, EJDataItem>(allItemProperties.size());
+        for (EJCoreItemProperties itemProps : allItemProperties)
         {
             EJDataItem item = new EJDataItem(formController, itemProps, addDefaultInsertValues);
             addItem(item);
@@ -159,6 +184,41 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         }
     }
 
+    private void initialiseCompactRecord(EJFormController formController, boolean addDefaultInsertValues, Object sourceEntityObject)
+    {
+        EJDataRecordLayout layout = _block.getRecordLayout();
+        _values = new Object[layout.getItemCount()];
+        if (addDefaultInsertValues)
+        {
+            for (int i = 0; i < _values.length; i++)
+            {
+                Object value = EJDataItem.getDefaultInsertValue(formController, layout.getItemProperties(i));
+                EJDataItem.validateValue(layout.getItemProperties(i), value);
+                _values[i] = value;
+            }
+        }
+
+        if (sourceEntityObject != null && isCompatibleEntityObject(sourceEntityObject))
+        {
+            // No change notifications are sent while the record is created
+            copyCompactValues(layout, _values, sourceEntityObject);
+        }
+    }
+
+    private void copyCompactValues(EJDataRecordLayout layout, Object[] values, Object servicePojo)
+    {
+        _block.getServicePojoHelper().copyValuesFromServicePojo(layout, values, servicePojo);
+        for (int i = 0; i < values.length; i++)
+        {
+            EJDataItem.validateValue(layout.getItemProperties(i), values[i]);
+        }
+    }
+
+    private boolean isCompatibleEntityObject(Object servicePojo)
+    {
+        return _servicePojo != null && servicePojo != null && _servicePojo.getClass().isAssignableFrom(servicePojo.getClass());
+    }
+
     public void copyValuesFromEntityObject(Object servicePojo)
     {
         // Check that both the data entity passed is compatible with the one
@@ -176,6 +236,21 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
             return;
         }
 
+        if (_values != null)
+        {
+            EJDataRecordLayout layout = _block.getRecordLayout();
+            Object[] newValues = _values.clone();
+            copyCompactValues(layout, newValues, servicePojo);
+            for (int i = 0; i < newValues.length; i++)
+            {
+                if (layout.getItemProperties(i).isBlockServiceItem())
+                {
+                    setValueAt(i, newValues[i]);
+                }
+            }
+            return;
+        }
+
         _block.getServicePojoHelper().copyValuesFromServicePojo(_itemList.values(), servicePojo);
     }
 
@@ -194,6 +269,7 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         _markedForUpdate = false;
         _queriedRecord = true;
         _changed = false;
+        _changedItems = null;
     }
 
     public EJInternalBlock getBlock()
@@ -283,6 +359,10 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
             return false;
         }
 
+        if (_values != null)
+        {
+            return _block.getRecordLayout().indexOf(itemName) != -1;
+        }
         return _itemList.containsKey(itemName.toLowerCase());
     }
 
@@ -303,6 +383,11 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
             throw new IllegalArgumentException("The item name passd to getItem is either a zero lenght string or null");
         }
 
+        if (_values != null)
+        {
+            return getItemView(getItemIndex(itemName));
+        }
+
         EJDataItem item = _itemList.get(itemName.toLowerCase());
 
         if (item != null)
@@ -313,6 +398,52 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         throw new IllegalArgumentException("No such item called " + itemName + " within block " + getBlockName());
     }
 
+    private int getItemIndex(String itemName)
+    {
+        if (itemName == null || itemName.trim().length() == 0)
+        {
+            throw new IllegalArgumentException("The item name passd to getItem is either a zero lenght string or null");
+        }
+
+        int index = _block.getRecordLayout().indexOf(itemName);
+        if (index == -1)
+        {
+            throw new IllegalArgumentException("No such item called " + itemName + " within block " + getBlockName());
+        }
+        return index;
+    }
+
+    private EJDataItem getItemView(int index)
+    {
+        if (_itemViews == null)
+        {
+            _itemViews = new EJDataItem[_values.length];
+        }
+
+        EJDataItem item = _itemViews[index];
+        if (item == null)
+        {
+            item = new EJDataItem(_formController, _block.getRecordLayout().getItemProperties(index), _values[index]);
+            item.setValueChangedListener(this);
+            _itemViews[index] = item;
+        }
+        return item;
+    }
+
+    private void setValueAt(int index, Object value)
+    {
+        if (_itemViews != null && _itemViews[index] != null)
+        {
+            _itemViews[index].setValue(value);
+            return;
+        }
+
+        EJCoreItemProperties itemProperties = _block.getRecordLayout().getItemProperties(index);
+        EJDataItem.validateValue(itemProperties, value);
+        _values[index] = value;
+        valueChanged(itemProperties.getName(), value);
+    }
+
     /**
      * Sets the item with the given name to the given value
      * <p>
@@ -331,6 +462,11 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
      */
     public void setValue(String itemName, Object value)
     {
+        if (_values != null)
+        {
+            setValueAt(getItemIndex(itemName), value);
+            return;
+        }
         getItem(itemName).setValue(value);
     }
 
@@ -345,6 +481,11 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
      */
     public Object getValue(String itemName)
     {
+        if (_values != null)
+        {
+            return _values[getItemIndex(itemName)];
+        }
+
         EJDataItem item = getItem(itemName);
 
         if (item == null)
@@ -363,6 +504,10 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
      */
     public Collection<String> getColumnNames()
     {
+        if (_values != null)
+        {
+            return _block.getRecordLayout().getColumnNames();
+        }
         return _itemList.keySet();
     }
 
@@ -374,6 +519,15 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
      */
     public Collection<EJDataItem> getAllItems()
     {
+        if (_values != null)
+        {
+            ArrayList<EJDataItem> items = new ArrayList<EJDataItem>(_values.length);
+            for (int i = 0; i < _values.length; i++)
+            {
+                items.add(getItemView(i));
+            }
+            return items;
+        }
         return _itemList.values();
     }
 
@@ -408,6 +562,16 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
     {
         ArrayList<EJCoreItemProperties> properties = new ArrayList<EJCoreItemProperties>();
 
+        if (_values != null)
+        {
+            EJDataRecordLayout layout = _block.getRecordLayout();
+            for (int i = 0; i < layout.getItemCount(); i++)
+            {
+                properties.add(layout.getItemProperties(i));
+            }
+            return properties;
+        }
+
         Iterator<EJDataItem> values = _itemList.values().iterator();
 
         while (values.hasNext())
@@ -452,6 +616,52 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         return _changed;
     }
 
+    /**
+     * Indicates if the value of the given item has been changed since the
+     * record was queried or last saved
+     * 
+     * @param itemName
+     *            The name of the item
+     * @return <code>true</code> if the items value has been changed otherwise
+     *         <code>false</code>
+     */
+    public boolean isItemChanged(String itemName)
+    {
+        if (_changedItems == null)
+        {
+            return false;
+        }
+        int index = _block.getRecordLayout().indexOf(itemName);
+        return index != -1 && _changedItems.get(index);
+    }
+
+    /**
+     * Returns the names of the items whose values have been changed since the
+     * record was queried or last saved
+     * <p>
+     * The names are returned in lower case and in the order the items are
+     * defined within the block. Block services can use them to only write the
+     * changed columns
+     * 
+     * @return The names of the changed items or an empty set if no item has
+     *         been changed
+     */
+    public Set<String> getChangedItemNames()
+    {
+        if (_changedItems == null)
+        {
+            return Collections.emptySet();
+        }
+
+        List<String> columnNames = _block.getRecordLayout().getColumnNames();
+        LinkedHashSet<String> changedItemNames = new LinkedHashSet<String>();
+        for (int i = _changedItems.nextSetBit(0); i >= 0; i = _changedItems.nextSetBit(i + 1))
+        {
+            changedItemNames.add(columnNames.get(i));
+        }
+        return changedItemNames;
+    }
+
     /**
      * Marks this record as being updated
      * 
@@ -541,6 +751,15 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
      */
     public void clear()
     {
+        if (_values != null)
+        {
+            for (int i = 0; i < _values.length; i++)
+            {
+                setValueAt(i, null);
+            }
+            return;
+        }
+
         for (EJDataItem item : getAllItems())
         {
             item.setValue(null);
@@ -561,8 +780,27 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
             _block.getServicePojoHelper().setValue(itemName, _servicePojo, value);
         }
 
+        // Keep the compact values in line with changes made through the items
+        if (_itemViews != null)
+        {
+            int index = _block.getRecordLayout().indexOf(itemName);
+            if (index != -1)
+            {
+                _values[index] = value;
+            }
+        }
+
         // Now record that the record has been changed
         _changed = true;
+        int changedIndex = _block.getRecordLayout().indexOf(itemName);
+        if (changedIndex != -1)
+        {
+            if (_changedItems == null)
+            {
+                _changedItems = new BitSet(_block.getRecordLayout().getItemCount());
+            }
+            _changedItems.set(changedIndex);
+        }
 
         // Now inform the block that this record has changed
         // Use the ScreenType.MAIN for all calls except those from the
@@ -581,22 +819,17 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
 
     public EJDataRecord copyValuesToRecord(EJDataRecord record)
     {
-        Iterator<EJDataItem> dataItems = getAllItems().iterator();
-        while (dataItems.hasNext())
+        for (String itemName : getColumnNames())
         {
-            EJDataItem item = dataItems.next();
-            if (record.containsItem(item.getName()))
+            if (record.containsItem(itemName))
             {
-                
-                EJDataItem dataItem = record.getItem(item.getName());
-                
-                Object newValue = item.getValue();
-                Object oldValue = dataItem.getValue();
+                Object newValue = getValue(itemName);
+                Object oldValue = record.getValue(itemName);
                 if((newValue==null && oldValue!=null) 
                         || (newValue!=null && oldValue==null) 
                         || (oldValue!=null && !oldValue.equals(newValue)))
                 {
-                    dataItem.setValue(newValue);
+                    record.setValue(itemName, newValue);
                 }
                 
             }
@@ -637,6 +870,17 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
         StringBuffer buffer = new StringBuffer();
         buffer.append("Record:\n");
 
+        if (_values != null)
+        {
+            for (int i = 0; i < _values.length; i++)
+            {
+                buffer.append("    ");
+                buffer.append(_block.getRecordLayout().getItemProperties(i).getName()).append(": ").append(_values[i] == null ? "NULL" : _values[i]);
+                buffer.append("\n");
+            }
+            return buffer.toString();
+        }
+
         Iterator<EJDataItem> items = _itemList.values().iterator();
         while (items.hasNext())
         {
@@ -651,4 +895,129 @@ public class EJDataRecord implements Serializable, EJValueChangedListener
     {
         _dataItemChangedListener = listener;
     }
+
+    /**
+     * Writes the items of this record as their properties and values only,
+     * the form controller and listener of each item are the same as those of
+     * this record
+     * <p>
+     * The items of a compact record are created again when requested, so only
+     * the visual attributes and hints set on them are written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        out.defaultWriteObject();
+        if (_itemList == null)
+        {
+            out.writeInt(-1);
+            writeItemViews(out);
+            return;
+        }
+
+        out.writeInt(_itemList.size());
+        for (EJDataItem item : _itemList.values())
+        {
+            out.writeObject(item.getProperties());
+            out.writeObject(item.getValue());
+            out.writeObject(item.getVisualAttribute());
+            out.writeObject(item.getHint());
+        }
+    }
+
+    private void writeItemViews(ObjectOutputStream out) throws IOException
+    {
+        int decoratedViews = 0;
+        if (_itemViews != null)
+        {
+            for (EJDataItem item : _itemViews)
+            {
+                if (item != null && (item.getVisualAttribute() != null || item.getHint() != null))
+                {
+                    decoratedViews++;
+                }
+            }
+        }
+
+        out.writeInt(decoratedViews);
+        for (int i = 0; decoratedViews > 0 && i < _itemViews.length; i++)
+        {
+            EJDataItem item = _itemViews[i];
+            if (item != null && (item.getVisualAttribute() != null || item.getHint() != null))
+            {
+                out.writeInt(i);
+                out.writeObject(item.getVisualAttribute());
+                out.writeObject(item.getHint());
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        int itemCount = in.readInt();
+        if (itemCount == -1)
+        {
+            readItemViews(in);
+            return;
+        }
+
+        final EJDataItem[] items = new EJDataItem[itemCount];
+        for (int i = 0; i < itemCount; i++)
+        {
+            items[i] = new EJDataItem(_formController, (EJCoreItemProperties) in.readObject(), in.readObject());
+            items[i].setVisualAttribute((EJCoreVisualAttributeProperties) in.readObject());
+            items[i].setHint((String) in.readObject());
+        }
+
+        // The item properties may not be completely read until the whole
+        // graph has been read, so the items are indexed by name afterwards
+        in.registerValidation(new ObjectInputValidation()
+        {
+            @Override
+            public void validateObject() throws InvalidObjectException
+            {
+                _itemList = new EJDataMap<String, EJDataItem>(items.length);
+                for (EJDataItem item : items)
+                {
+                    addItem(item);
+                    item.setValueChangedListener(EJDataRecord.this);
+                }
+            }
+        }, 0);
+    }
+
+    private void readItemViews(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        int decoratedViews = in.readInt();
+        if (decoratedViews == 0)
+        {
+            return;
+        }
+
+        final int[] indexes = new int[decoratedViews];
+        final EJCoreVisualAttributeProperties[] visualAttributes = new EJCoreVisualAttributeProperties[decoratedViews];
+        final String[] hints = new String[decoratedViews];
+        for (int i = 0; i < decoratedViews; i++)
+        {
+            indexes[i] = in.readInt();
+            visualAttributes[i] = (EJCoreVisualAttributeProperties) in.readObject();
+            hints[i] = (String) in.readObject();
+        }
+
+        // The items need the record layout of the block, which may not be
+        // completely read until the whole graph has been read
+        in.registerValidation(new ObjectInputValidation()
+        {
+            @Override
+            public void validateObject() throws InvalidObjectException
+            {
+                for (int i = 0; i < indexes.length; i++)
+                {
+                    EJDataItem item = getItemView(indexes[i]);
+                    item.setVisualAttribute(visualAttributes[i]);
+                    item.setHint(hints[i]);
+                }
+            }
+        }, 0);
+    }
 }
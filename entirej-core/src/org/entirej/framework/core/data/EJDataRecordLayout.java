@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+
+/**
+ * The item positions shared by all records of a block that uses compact record
+ * storage
+ * <p>
+ * Records of such blocks hold their values in a single array indexed by the
+ * item positions defined here instead of creating an {@link EJDataItem} for
+ * each of their items
+ * 
+ * @see EJCoreBlockProperties#isCompactRecordStorage()
+ */
+public class EJDataRecordLayout implements Serializable
+{
+    private final EJCoreItemProperties[]   _itemProperties;
+    private final HashMap<String, Integer> _positions;
+    private final List<String>             _columnNames;
+
+    public EJDataRecordLayout(EJCoreBlockProperties blockProperties)
+    {
+        Collection<EJCoreItemProperties> allItemProperties = blockProperties.getItemPropertiesContainer().getAllItemProperties();
+
+        _itemProperties = allItemProperties.toArray(new EJCoreItemProperties[allItemProperties.size()]);
+        _positions = new HashMap<String, Integer>(Math.max(16, _itemProperties.length * 2));
+        ArrayList<String> columnNames = new ArrayList<String>(_itemProperties.length);
+        for (int i = 0; i < _itemProperties.length; i++)
+        {
+            String columnName = _itemProperties[i].getName().toLowerCase();
+            if (_positions.containsKey(columnName))
+            {
+                throw new IllegalArgumentException("This record already contains an item. Item name: " + _itemProperties[i].getName());
+            }
+            _positions.put(columnName, i);
+            columnNames.add(columnName);
+        }
+        _columnNames = Collections.unmodifiableList(columnNames);
+    }
+
+    /**
+     * Returns the number of items within each record
+     * 
+     * @return The number of items
+     */
+    public int getItemCount()
+    {
+        return _itemProperties.length;
+    }
+
+    /**
+     * Returns the position of the given item
+     * 
+     * @param itemName
+     *            The name of the item
+     * @return The position of the item or <code>-1</code> if the records of
+     *         the block have no item with the given name
+     */
+    public int indexOf(String itemName)
+    {
+        if (itemName == null)
+        {
+            return -1;
+        }
+        Integer position = _positions.get(itemName.toLowerCase());
+        return position == null ? -1 : position.intValue();
+    }
+
+    /**
+     * Returns the properties of the item at the given position
+     * 
+     * @param index
+     *            The position of the item
+     * @return The properties of the item
+     */
+    public EJCoreItemProperties getItemProperties(int index)
+    {
+        return _itemProperties[index];
+    }
+
+    /**
+     * Returns the lower case names of all items in position order
+     * 
+     * @return An unmodifiable list of the item names
+     */
+    public List<String> getColumnNames()
+    {
+        return _columnNames;
+    }
+}
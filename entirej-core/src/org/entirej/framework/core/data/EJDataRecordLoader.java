@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Creates the records of entities that were queried but have not yet been
+ * added to an {@link EJDataBlock}
+ * 
+ * @see EJDataBlock#addQueriedEntities(List, EJDataRecordLoader, int)
+ */
+public interface EJDataRecordLoader extends Serializable
+{
+    /**
+     * Creates a record for each of the given entities and adds them to the
+     * data block using {@link EJDataBlock#addQueriedRecord(EJDataRecord)}
+     * <p>
+     * The records must be added in the order of the entities given
+     * 
+     * @param dataBlock
+     *            The data block to add the records to
+     * @param entities
+     *            The entities for which records should be created
+     */
+    public void loadRecords(EJDataBlock dataBlock, List<?> entities);
+}
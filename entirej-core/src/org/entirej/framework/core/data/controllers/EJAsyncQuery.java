@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJAsyncCallback;
+import org.entirej.framework.core.EJForm;
+import org.entirej.framework.core.EJFrameworkManager;
+import org.entirej.framework.core.EJMessage;
+import org.entirej.framework.core.enumerations.EJMessageLevel;
+import org.entirej.framework.core.service.EJBlockService;
+import org.entirej.framework.core.service.EJQueryCancellation;
+import org.entirej.framework.core.service.EJQueryCancelledException;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJQueryRowHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A block query running in the background
+ * <p>
+ * The block service is called on the asynchronous query executor using its own
+ * connection and its rows are passed on as they arrive. Each delivery is run
+ * by the form executor, which must run its tasks on the thread that owns the
+ * form, for example the UI thread of the application. There the records are
+ * created, post queried and added to the block and the block renderer is
+ * informed. Once all rows have been delivered the callback receives the number
+ * of queried rows. Services that implement
+ * {@link EJBlockService#executeStreamingQuery(EJForm, EJQueryCriteria, EJQueryRowHandler)}
+ * deliver their rows while the query is still running, other services deliver
+ * them once the query has completed
+ * <p>
+ * A query can be cancelled from any thread. The statement of the query is
+ * cancelled, the records already delivered remain within the block and the
+ * callback is not informed
+ * 
+ * @see EJBlockController#executeQueryAsync(EJQueryCriteria, Executor,
+ *      EJAsyncCallback)
+ */
+public class EJAsyncQuery
+{
+    private static final Logger                 logger             = LoggerFactory.getLogger(EJAsyncQuery.class);
+    
+    private final Target                        _target;
+    private final Executor                      _formExecutor;
+    private final EJAsyncCallback<Integer>      _callback;
+    private final EJQueryCancellation           _cancellation      = new EJQueryCancellation();
+    private final ConcurrentLinkedQueue<Object> _arrivedEntities   = new ConcurrentLinkedQueue<Object>();
+    private final AtomicBoolean                 _deliveryScheduled = new AtomicBoolean();
+    
+    private volatile boolean                    _started;
+    private volatile boolean                    _retrieved;
+    private volatile Exception                  _error;
+    private volatile Future<?>                  _retrieval;
+    private volatile EJQueryCriteria            _queryCriteria;
+    
+    // Only used by the thread of the form
+    private boolean                             _done;
+    private int                                 _rowCount;
+    private Object                              _lastEntity;
+    
+    EJAsyncQuery(Target target, Executor formExecutor, EJAsyncCallback<Integer> callback)
+    {
+        _target = target;
+        _formExecutor = formExecutor;
+        _callback = callback;
+    }
+    
+    /**
+     * Starts to retrieve the rows of the given criteria in the background
+     * 
+     * @throws EJApplicationException
+     *             if the asynchronous query executor is saturated. The query
+     *             is then not started and the callback is not informed
+     */
+    void start(final EJQueryCriteria queryCriteria)
+    {
+        _queryCriteria = queryCriteria;
+        queryCriteria.setCancellation(_cancellation);
+        _started = true;
+        
+        try
+        {
+            _retrieval = EJDetailQueryExecutor.submitAsyncQuery(createRetrieval(queryCriteria));
+        }
+        catch (RejectedExecutionException e)
+        {
+            _started = false;
+            _done = true;
+            queryCriteria.setCancellation(null);
+            throw new EJApplicationException(new EJMessage(EJMessageLevel.ERROR, "Too many queries are running in the background, please try again later"), e);
+        }
+    }
+    
+    private Callable<Void> createRetrieval(final EJQueryCriteria queryCriteria)
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call()
+            {
+                try
+                {
+                    _target.retrieve(queryCriteria, new EJQueryRowHandler<Object>()
+                    {
+                        @Override
+                        public boolean handleRow(Object row)
+                        {
+                            if (_cancellation.isCancelled())
+                            {
+                                return false;
+                            }
+                            if (row != null)
+                            {
+                                _arrivedEntities.add(row);
+                                scheduleDelivery();
+                            }
+                            return true;
+                        }
+                    });
+                }
+                catch (EJQueryCancelledException e)
+                {
+                    // The rows of a cancelled query are not delivered
+                    _cancellation.cancel();
+                }
+                catch (Exception e)
+                {
+                    if (!_cancellation.isCancelled())
+                    {
+                        _error = e;
+                    }
+                }
+                finally
+                {
+                    _retrieved = true;
+                    scheduleDelivery();
+                }
+                return null;
+            }
+        };
+    }
+    
+    /**
+     * Cancels this query
+     * <p>
+     * The rows that have not yet been delivered are discarded and the callback
+     * will not be informed. This method can be called from any thread
+     */
+    public void cancel()
+    {
+        stopRetrieval();
+        if (_started)
+        {
+            scheduleDelivery();
+        }
+    }
+    
+    /**
+     * Indicates if this query has been cancelled
+     * 
+     * @return <code>true</code> if the query has been cancelled
+     */
+    public boolean isCancelled()
+    {
+        return _cancellation.isCancelled();
+    }
+    
+    /**
+     * Indicates if this query has been started. A query is not started if the
+     * block controller did not execute it, e.g. because the user was asked to
+     * save the changes of the block first
+     * 
+     * @return <code>true</code> if the query has been started
+     */
+    public boolean isStarted()
+    {
+        return _started;
+    }
+    
+    /**
+     * Indicates if all rows of this query have been retrieved from the block
+     * service
+     * 
+     * @return <code>true</code> if the block service has returned
+     */
+    public boolean isRetrieved()
+    {
+        return _retrieved;
+    }
+    
+    private void scheduleDelivery()
+    {
+        // Rows arriving while a delivery is scheduled are passed on by it
+        if (_deliveryScheduled.compareAndSet(false, true))
+        {
+            _formExecutor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    deliver();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Adds the arrived rows to the block. Called by the form executor
+     */
+    private void deliver()
+    {
+        _deliveryScheduled.set(false);
+        if (_done)
+        {
+            return;
+        }
+        
+        // Read before the rows are taken, so that no row added before the
+        // retrieval has completed is missed
+        boolean retrieved = _retrieved;
+        try
+        {
+            if (!_cancellation.isCancelled())
+            {
+                ArrayList<Object> entities = new ArrayList<Object>();
+                Object entity;
+                while ((entity = _arrivedEntities.poll()) != null)
+                {
+                    entities.add(entity);
+                }
+                
+                if (!entities.isEmpty())
+                {
+                    if (logger.isTraceEnabled())
+                        logger.trace("Delivering {} records to block {}", entities.size(), _target.getName());
+                    _rowCount += entities.size();
+                    _lastEntity = entities.get(entities.size() - 1);
+                    _target.recordsArrived(this, entities);
+                }
+            }
+            
+            if (retrieved || _cancellation.isCancelled())
+            {
+                finish();
+            }
+        }
+        catch (Exception e)
+        {
+            _error = e;
+            stopRetrieval();
+            finish();
+        }
+    }
+    
+    private void stopRetrieval()
+    {
+        _cancellation.cancel();
+        Future<?> retrieval = _retrieval;
+        if (retrieval != null)
+        {
+            retrieval.cancel(true);
+        }
+        
+        // Following queries of the block use the same criteria
+        EJQueryCriteria queryCriteria = _queryCriteria;
+        if (queryCriteria != null && queryCriteria.getCancellation() == _cancellation)
+        {
+            queryCriteria.setCancellation(null);
+        }
+    }
+    
+    private void finish()
+    {
+        _done = true;
+        _arrivedEntities.clear();
+        if (_queryCriteria.getCancellation() == _cancellation)
+        {
+            _queryCriteria.setCancellation(null);
+        }
+        
+        Exception error = _error;
+        boolean cancelled = _cancellation.isCancelled() && error == null;
+        try
+        {
+            _target.queryFinished(this, _rowCount, cancelled ? null : _lastEntity);
+        }
+        catch (Exception e)
+        {
+            if (error == null)
+            {
+                error = e;
+            }
+        }
+        
+        if (error != null)
+        {
+            if (_callback != null)
+            {
+                _callback.completedWithError(_target.getFrameworkManager(), error);
+            }
+            else
+            {
+                _target.getFrameworkManager().handleException(error);
+            }
+        }
+        else if (!cancelled && _callback != null)
+        {
+            _callback.completed(_target.getFrameworkManager(), _rowCount);
+        }
+    }
+    
+    /**
+     * The block whose records are retrieved by an asynchronous query
+     */
+    abstract static class Target
+    {
+        /**
+         * Returns the name of the block, used for logging
+         */
+        abstract String getName();
+        
+        /**
+         * Returns the framework manager passed to the callback of the query
+         */
+        abstract EJFrameworkManager getFrameworkManager();
+        
+        /**
+         * Retrieves the rows of the given criteria. Called on the background
+         * query executor
+         */
+        abstract void retrieve(EJQueryCriteria queryCriteria, EJQueryRowHandler<Object> rowHandler) throws Exception;
+        
+        /**
+         * Adds the delivered records to the block. Called by the form executor
+         */
+        abstract void recordsArrived(EJAsyncQuery asyncQuery, List<?> entities);
+        
+        /**
+         * Informs the block that all rows have been delivered or that the
+         * query has been cancelled. Called by the form executor
+         * 
+         * @param lastEntity
+         *            The last delivered entity or <code>null</code> if the
+         *            query has been cancelled
+         */
+        abstract void queryFinished(EJAsyncQuery asyncQuery, int rowCount, Object lastEntity);
+    }
+}
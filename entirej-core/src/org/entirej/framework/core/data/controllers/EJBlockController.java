@@ -20,20 +20,31 @@ package org.entirej.framework.core.data.controllers;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJAsyncCallback;
 import org.entirej.framework.core.EJForm;
 import org.entirej.framework.core.EJFrameworkManager;
 import org.entirej.framework.core.EJManagedFrameworkConnection;
 import org.entirej.framework.core.EJMessage;
+import org.entirej.framework.core.EJPojoAccessor;
+import org.entirej.framework.core.EJPojoAccessors;
 import org.entirej.framework.core.EJRecord;
 import org.entirej.framework.core.actionprocessor.interfaces.EJBlockActionProcessor;
 import org.entirej.framework.core.data.EJDataBlock;
 import org.entirej.framework.core.data.EJDataItem;
 import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.data.EJDataRecordLoader;
 import org.entirej.framework.core.enumerations.EJMessageLevel;
 import org.entirej.framework.core.enumerations.EJRecordType;
 import org.entirej.framework.core.enumerations.EJScreenType;
@@ -43,6 +54,7 @@ import org.entirej.framework.core.internal.EJInternalForm;
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
 import org.entirej.framework.core.properties.EJCoreItemProperties;
 import org.entirej.framework.core.properties.EJCoreLovMappingProperties;
+import org.entirej.framework.core.properties.EJCoreProperties;
 import org.entirej.framework.core.properties.definitions.interfaces.EJDisplayProperties;
 import org.entirej.framework.core.properties.interfaces.EJScreenItemProperties;
 import org.entirej.framework.core.renderers.EJManagedInsertScreenRendererWrapper;
@@ -58,7 +70,10 @@ import org.entirej.framework.core.renderers.interfaces.EJQueryScreenRenderer;
 import org.entirej.framework.core.renderers.interfaces.EJUpdateScreenRenderer;
 import org.entirej.framework.core.service.EJBlockService;
 import org.entirej.framework.core.service.EJPostQueryCache;
+import org.entirej.framework.core.service.EJQueryCancellation;
 import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJQueryRowHandler;
+import org.entirej.framework.core.service.EJQuerySort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +88,27 @@ public abstract class EJBlockController implements Serializable
     private boolean                                       _queryAllRows              = true;
     private int                                           _maxResults                = -1;
     private boolean                                       _hasMorePages              = false;
+    private List<Object>                                  _pageSeekValues            = null;
+    private List<Object>                                  _nextPageSeekValues        = null;
+
+    /**
+     * The page retrieved in the background by a parallel detail query. It is
+     * used by the next call to {@link #getPage(boolean)}
+     */
+    private transient Future<List<?>>                     _pageRetrieval;
+    private transient EJQueryCancellation                 _pageRetrievalCancellation;
+
+    /**
+     * The asynchronous query requested by {@link #executeQueryAsync} or
+     * {@link #nextPageAsync}. It is started by the next call to
+     * {@link #getPage(boolean)} instead of calling the block service
+     */
+    private transient EJAsyncQuery                        _asyncQueryRequest;
+
+    /**
+     * The asynchronous query whose records are currently added to this block
+     */
+    private transient EJAsyncQuery                        _asyncQuery;
 
     /**
      * Used in conjunction with the deferred query property. This criteria will
@@ -260,6 +296,8 @@ public abstract class EJBlockController implements Serializable
     protected void setPageNumber(int pageNum)
     {
         _pageNumber = pageNum;
+        _pageSeekValues = null;
+        _nextPageSeekValues = null;
     }
 
     /**
@@ -872,6 +910,9 @@ public abstract class EJBlockController implements Serializable
         if (traceEnabled)
             logger.trace("START getPage");
 
+        // A running asynchronous query would add its rows to the new page
+        abandonAsyncQuery();
+
         EJManagedFrameworkConnection connection = getFrameworkManager().getConnection();
         try
         {
@@ -882,76 +923,77 @@ public abstract class EJBlockController implements Serializable
                 return;
             }
 
-            _queryCriteria.setPageSize(_pageSize);
-            _queryCriteria.setPageNumber(_pageNumber);
-            _queryCriteria.setQueryAllRows(_queryAllRows);
-            _queryCriteria.setMaxResults(_maxResults);
-
-            if (traceEnabled)
-                logger.trace("Calling execute query on service: {}", _blockProperties.getBlockService().getClass().getName());
-            List<?> entities = _blockProperties.getBlockService().executeQuery(getFormController().getEJForm(), _queryCriteria);
-            if (traceEnabled)
-                logger.trace("Execute query on block service completed. {} records retrieved", (entities == null ? 0 : entities.size()));
-
-            if (entities != null)
+            List<?> entities;
+            Future<List<?>> pageRetrieval = _pageRetrieval;
+            EJAsyncQuery asyncQuery = _asyncQueryRequest;
+            if (asyncQuery != null)
             {
-                // Test for page site first as the hasMoreRows flag may not have
-                // been set
-                if (entities.size() < _pageSize)
-                {
-                    _hasMorePages = false;
-                }
-                else if ((canQueryInPages() && _queryCriteria.hasMoreRows()))
-                {
-                    _hasMorePages = true;
-                }
-                else
-                {
-                    _hasMorePages = false;
-                }
+                // The records are added to the block as the query delivers
+                // them
+                _asyncQueryRequest = null;
+                cancelPageRetrieval();
+                setQueryCriteriaPaging(_queryCriteria, _pageNumber);
 
-                // Now loop through the retrieved records and add them to the
-                // block
+                // The paging values are set once all rows have been delivered
+                _hasMorePages = false;
+                _nextPageSeekValues = null;
 
-                // Create a post query cache so that lookups on each record are
-                // optimized
                 if (traceEnabled)
-                    logger.trace("Creating post query cache and doing post queries");
-                EJPostQueryCache postQueryCache = new EJPostQueryCache();
-                for (Object entity : entities)
+                    logger.trace("Starting asynchronous query on service: {}", _blockProperties.getBlockService().getClass().getName());
+                _asyncQuery = asyncQuery;
+                try
+                {
+                    asyncQuery.start(_queryCriteria);
+                }
+                catch (RuntimeException e)
                 {
-                    EJDataRecord record = new EJDataRecord(_formController, getBlock(), entity, false);
-                    addLovMappingValuesAfterQuery(record, postQueryCache);
-                    addQueriedRecord(record);
+                    _asyncQuery = null;
+                    throw e;
                 }
+                return;
+            }
+            else if (pageRetrieval != null)
+            {
+                _pageRetrieval = null;
                 if (traceEnabled)
-                    logger.trace("Completed post queries, clearing post query cache");
+                    logger.trace("Waiting for the page retrieved in the background");
+                entities = getRetrievedPage(pageRetrieval, _pageRetrievalCancellation);
+                setQueryCriteriaPaging(_queryCriteria, _pageNumber);
+                pageRetrieved(_queryCriteria, entities);
+            }
+            else
+            {
+                setQueryCriteriaPaging(_queryCriteria, _pageNumber);
 
-                // Clear the cache to free memory
-                postQueryCache.clear();
+                if (traceEnabled)
+                    logger.trace("Calling execute query on service: {}", _blockProperties.getBlockService().getClass().getName());
+                entities = executeServiceQuery(_queryCriteria);
+            }
+            if (traceEnabled)
+                logger.trace("Execute query on block service completed. {} records retrieved", (entities == null ? 0 : entities.size()));
 
-                // Let the renderer know that a query has been executed. This
-                // needs to be called before the displayed record count
-                // is retrieved, otherwise the renderer will return 0 because it
-                // has not yet been informed that records have been retrieved
-                getRendererController().queryExecuted();
+            if (entities != null)
+            {
+                _hasMorePages = hasMorePages(entities.size());
+                _nextPageSeekValues = getSeekValues(entities);
 
-                if (getBlockRecordCount() > 0)
+                // Now loop through the retrieved records and add them to the
+                // block. If the block has a record load window then the
+                // records are only created once the renderer or the
+                // navigation reaches them
+                int loadWindow = getProperties().getRecordLoadWindow();
+                if (loadWindow > 0 && entities.size() > loadWindow)
                 {
-                    getRendererController().recordSelected(getRendererController().getFirstRecord());
-                    if (getFocusedRecord() != null)
-                    {
-                        getFormController().getManagedActionController().newRecordInstance(getFormController().getEJForm(), new EJRecord(getFocusedRecord()));
-                    }
+                    if (traceEnabled)
+                        logger.trace("Deferring the creation of {} records, loading {} records at a time", entities.size(), loadWindow);
+                    _dataBlock.addQueriedEntities(entities, new QueriedRecordLoader(), loadWindow);
                 }
                 else
                 {
-                    getRendererController().recordSelected(null);
+                    addQueriedEntities(entities);
                 }
 
-                executeQueryOnAllDetailRelations(true);
-
-                newRecordFocused(getFocusedRecord());
+                pageQueried();
             }
         }
         catch (Exception e)
@@ -967,6 +1009,516 @@ public abstract class EJBlockController implements Serializable
             logger.trace("END getPage");
     }
 
+    /**
+     * Indicates if another page exists after a page with the given number of
+     * rows
+     */
+    private boolean hasMorePages(int rowCount)
+    {
+        // Test for page site first as the hasMoreRows flag may not have
+        // been set
+        if (rowCount < _pageSize)
+        {
+            return false;
+        }
+        else if ((canQueryInPages() && _queryCriteria.hasMoreRows()))
+        {
+            return true;
+        }
+        else
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Informs the renderer and the detail blocks once the records of a page
+     * have been added to the block
+     */
+    private void pageQueried()
+    {
+        // Let the renderer know that a query has been executed. This
+        // needs to be called before the displayed record count
+        // is retrieved, otherwise the renderer will return 0 because it
+        // has not yet been informed that records have been retrieved
+        getRendererController().queryExecuted();
+
+        if (getBlockRecordCount() > 0)
+        {
+            getRendererController().recordSelected(getRendererController().getFirstRecord());
+            if (getFocusedRecord() != null)
+            {
+                getFormController().getManagedActionController().newRecordInstance(getFormController().getEJForm(), new EJRecord(getFocusedRecord()));
+            }
+        }
+        else
+        {
+            getRendererController().recordSelected(null);
+        }
+
+        executeQueryOnAllDetailRelations(true);
+
+        newRecordFocused(getFocusedRecord());
+    }
+
+    /**
+     * Executes a query on this block without waiting for the block service
+     * <p>
+     * The query is executed like {@link #executeQuery(EJQueryCriteria)}, but
+     * the block service is called in the background. Its records are added to
+     * the block as they arrive by tasks run on the given form executor, which
+     * must run them on the thread that owns the form. The callback is informed
+     * on the same thread once all records have been added
+     * <p>
+     * The returned query can be used to cancel the query. Use
+     * {@link EJQueryCriteria#setQueryTimeout(int)} to limit the time the
+     * database may take
+     * 
+     * @param queryCriteria
+     *            The criteria for the query
+     * @param formExecutor
+     *            Runs the delivery of records on the thread of the form
+     * @param callback
+     *            Informed once all records have been added, may be
+     *            <code>null</code>
+     * @return The running query or <code>null</code> if no query has been
+     *         started, e.g. because the user is asked to save the changes of
+     *         the block first
+     */
+    public EJAsyncQuery executeQueryAsync(final EJQueryCriteria queryCriteria, Executor formExecutor, EJAsyncCallback<Integer> callback)
+    {
+        return startAsyncQuery(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                executeQuery(queryCriteria);
+            }
+        }, formExecutor, callback);
+    }
+
+    /**
+     * Retrieves the next page of this block without waiting for the block
+     * service
+     * 
+     * @param formExecutor
+     *            Runs the delivery of records on the thread of the form
+     * @param callback
+     *            Informed once all records have been added, may be
+     *            <code>null</code>
+     * @return The running query or <code>null</code> if no query has been
+     *         started
+     * @see #executeQueryAsync(EJQueryCriteria, Executor, EJAsyncCallback)
+     */
+    public EJAsyncQuery nextPageAsync(Executor formExecutor, EJAsyncCallback<Integer> callback)
+    {
+        return startAsyncQuery(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                nextPage(true);
+            }
+        }, formExecutor, callback);
+    }
+
+    private EJAsyncQuery startAsyncQuery(Runnable queryOperation, Executor formExecutor, EJAsyncCallback<Integer> callback)
+    {
+        if (formExecutor == null)
+        {
+            throw new NullPointerException("No form executor passed to the asynchronous query of block " + getProperties().getName());
+        }
+
+        EJAsyncQuery asyncQuery = new EJAsyncQuery(new AsyncQueryTarget(), formExecutor, callback);
+        _asyncQueryRequest = asyncQuery;
+        try
+        {
+            queryOperation.run();
+        }
+        finally
+        {
+            _asyncQueryRequest = null;
+        }
+        return asyncQuery.isStarted() ? asyncQuery : null;
+    }
+
+    /**
+     * Returns the asynchronous query whose records are currently added to this
+     * block
+     * 
+     * @return The running query or <code>null</code> if there is none
+     */
+    public EJAsyncQuery getAsyncQuery()
+    {
+        return _asyncQuery;
+    }
+
+    /**
+     * Called on the thread of the form with the records delivered by an
+     * asynchronous query
+     */
+    private void asyncRecordsArrived(EJAsyncQuery asyncQuery, List<?> entities)
+    {
+        if (asyncQuery != _asyncQuery)
+        {
+            return;
+        }
+
+        EJManagedFrameworkConnection connection = getFrameworkManager().getConnection();
+        try
+        {
+            addQueriedEntities(entities);
+            getRendererController().queryExecuted();
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+
+    /**
+     * Called on the thread of the form once an asynchronous query has
+     * delivered all of its records or has been cancelled
+     * 
+     * @param lastEntity
+     *            The last delivered entity or <code>null</code> if the query
+     *            has been cancelled
+     */
+    private void asyncQueryFinished(EJAsyncQuery asyncQuery, int rowCount, Object lastEntity)
+    {
+        if (asyncQuery != _asyncQuery)
+        {
+            return;
+        }
+        _asyncQuery = null;
+
+        if (logger.isTraceEnabled())
+            logger.trace("Asynchronous query of block {} finished, {} records retrieved", getProperties().getName(), rowCount);
+
+        EJManagedFrameworkConnection connection = getFrameworkManager().getConnection();
+        try
+        {
+            _hasMorePages = lastEntity != null && hasMorePages(rowCount);
+            _nextPageSeekValues = lastEntity == null ? null : getSeekValues(Collections.singletonList(lastEntity));
+            pageQueried();
+            asyncQueryCompleted();
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+
+    /**
+     * Called once an asynchronous query has added all of its records to this
+     * block or has been cancelled by the user
+     * <p>
+     * Operations that follow a query of the block, such as informing mirror
+     * blocks, are made here instead of after
+     * {@link #executeQuery(EJQueryCriteria)} returns
+     */
+    protected void asyncQueryCompleted()
+    {
+
+    }
+
+    /**
+     * Connects the asynchronous queries of this block with the block
+     */
+    private class AsyncQueryTarget extends EJAsyncQuery.Target
+    {
+        @Override
+        String getName()
+        {
+            return getProperties().getName();
+        }
+
+        @Override
+        EJFrameworkManager getFrameworkManager()
+        {
+            return EJBlockController.this.getFrameworkManager();
+        }
+
+        @Override
+        void retrieve(final EJQueryCriteria queryCriteria, final EJQueryRowHandler<Object> rowHandler) throws Exception
+        {
+            final EJBlockService<?> blockService = _blockProperties.getBlockService();
+            final EJForm form = getFormController().getEJForm();
+            EJBlockController.this.getFrameworkManager().executeWithNewConnection(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    blockService.executeStreamingQuery(form, queryCriteria, rowHandler);
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        void recordsArrived(EJAsyncQuery asyncQuery, List<?> entities)
+        {
+            asyncRecordsArrived(asyncQuery, entities);
+        }
+
+        @Override
+        void queryFinished(EJAsyncQuery asyncQuery, int rowCount, Object lastEntity)
+        {
+            asyncQueryFinished(asyncQuery, rowCount, lastEntity);
+        }
+    }
+
+    /**
+     * Stops an asynchronous query whose records should no longer be added to
+     * this block
+     */
+    private void abandonAsyncQuery()
+    {
+        EJAsyncQuery asyncQuery = _asyncQuery;
+        if (asyncQuery != null)
+        {
+            _asyncQuery = null;
+            asyncQuery.cancel();
+        }
+    }
+
+    /**
+     * Retrieves the entities of the current page from the block service
+     * 
+     * @param queryCriteria
+     *            The query criteria containing the paging values of the page
+     * @return The retrieved entities
+     */
+    protected List<?> executeServiceQuery(EJQueryCriteria queryCriteria)
+    {
+        return _blockProperties.getBlockService().executeQuery(getFormController().getEJForm(), queryCriteria);
+    }
+
+    /**
+     * Called when a page retrieved in the background by
+     * {@link #startPageRetrieval(int)} is used by {@link #getPage(boolean)}
+     * 
+     * @param queryCriteria
+     *            The query criteria used to retrieve the page
+     * @param entities
+     *            The retrieved entities
+     */
+    protected void pageRetrieved(EJQueryCriteria queryCriteria, List<?> entities)
+    {
+
+    }
+
+    private void setQueryCriteriaPaging(EJQueryCriteria queryCriteria, int pageNumber)
+    {
+        queryCriteria.setPageSize(_pageSize);
+        queryCriteria.setPageNumber(pageNumber);
+        queryCriteria.setQueryAllRows(_queryAllRows);
+        queryCriteria.setMaxResults(_maxResults);
+        queryCriteria.setSeekValues(_pageSeekValues);
+    }
+
+    /**
+     * Starts to retrieve the given page of this block in the background
+     * <p>
+     * The block service is called on the detail query executor using its own
+     * connection. The next call to {@link #getPage(boolean)} waits for the
+     * retrieved entities instead of calling the block service itself, so the
+     * paging settings must not be changed in between. The wait is limited by
+     * {@link EJCoreProperties#getDetailQueryTimeout()}
+     * 
+     * @param pageNumber
+     *            The number of the page that will be retrieved by the next
+     *            call to {@link #getPage(boolean)}
+     */
+    protected final void startPageRetrieval(int pageNumber)
+    {
+        cancelPageRetrieval();
+
+        if (_blockProperties.getBlockService() == null || _queryCriteria == null)
+        {
+            return;
+        }
+
+        setQueryCriteriaPaging(_queryCriteria, pageNumber);
+
+        // Allows the statement of the retrieval to be cancelled
+        _pageRetrievalCancellation = new EJQueryCancellation();
+        _queryCriteria.setCancellation(_pageRetrievalCancellation);
+        _pageRetrieval = EJDetailQueryExecutor.submit(new PageRetrieval(getFrameworkManager(), _blockProperties.getBlockService(), getFormController().getEJForm(), _queryCriteria));
+    }
+
+    /**
+     * Cancels a page retrieval started by {@link #startPageRetrieval(int)}
+     * that has not yet been used
+     */
+    protected final void cancelPageRetrieval()
+    {
+        if (_pageRetrieval != null)
+        {
+            _pageRetrievalCancellation.cancel();
+            _pageRetrieval.cancel(true);
+            _pageRetrieval = null;
+        }
+        removePageRetrievalCancellation();
+    }
+
+    private void removePageRetrievalCancellation()
+    {
+        if (_pageRetrievalCancellation != null && _queryCriteria != null && _queryCriteria.getCancellation() == _pageRetrievalCancellation)
+        {
+            _queryCriteria.setCancellation(null);
+        }
+        _pageRetrievalCancellation = null;
+    }
+
+    private List<?> getRetrievedPage(Future<List<?>> pageRetrieval, EJQueryCancellation cancellation) throws Exception
+    {
+        int timeout = EJCoreProperties.getInstance().getDetailQueryTimeout();
+        try
+        {
+            return timeout > 0 ? pageRetrieval.get(timeout, TimeUnit.SECONDS) : pageRetrieval.get();
+        }
+        catch (TimeoutException e)
+        {
+            cancellation.cancel();
+            pageRetrieval.cancel(true);
+            throw new EJApplicationException(new EJMessage(EJMessageLevel.ERROR, "The query of block " + _blockProperties.getName() + " did not complete within "
+                    + timeout + " seconds"), e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof Exception)
+            {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        finally
+        {
+            removePageRetrievalCancellation();
+        }
+    }
+
+    /**
+     * Creates the record of an entity retrieved by a query
+     * 
+     * @param entity
+     *            The retrieved entity
+     * @return The record wrapping the entity
+     */
+    protected EJDataRecord createQueriedRecord(Object entity)
+    {
+        return new EJDataRecord(_formController, getBlock(), entity, false);
+    }
+
+    /**
+     * Creates the records of the given entities, performs their post queries
+     * and adds them to this controllers data block
+     * 
+     * @param entities
+     *            The entities retrieved by the query
+     */
+    private void addQueriedEntities(List<?> entities)
+    {
+        boolean traceEnabled = logger.isTraceEnabled();
+
+        // Create a post query cache so that lookups on each record are
+        // optimized
+        if (traceEnabled)
+            logger.trace("Creating post query cache and doing post queries");
+        EJPostQueryCache postQueryCache = new EJPostQueryCache();
+        ArrayList<EJDataRecord> records = new ArrayList<EJDataRecord>(entities.size());
+        for (Object entity : entities)
+        {
+            records.add(createQueriedRecord(entity));
+        }
+        addLovMappingValuesAfterQuery(records, postQueryCache);
+        for (EJDataRecord record : records)
+        {
+            addQueriedRecord(record);
+        }
+        if (traceEnabled)
+            logger.trace("Completed post queries, clearing post query cache");
+
+        // Clear the cache to free memory
+        postQueryCache.clear();
+    }
+
+    /**
+     * Returns the sort values of the last queried entity if keyset paging has
+     * been enabled and each sort of the query criteria matches a block service
+     * item, either by its name or its field name
+     * 
+     * @param entities
+     *            The entities of the current page
+     * @return The seek values for the next page or <code>null</code> if the
+     *         next page must be retrieved by its page number
+     */
+    private List<Object> getSeekValues(List<?> entities)
+    {
+        if (entities.isEmpty() || !canQueryInPages() || !EJCoreProperties.getInstance().isKeysetPaging())
+        {
+            return null;
+        }
+
+        List<EJQuerySort> sorts = _queryCriteria.getSorts();
+        if (sorts.isEmpty())
+        {
+            return null;
+        }
+
+        // Read the sort values straight from the entity instead of creating
+        // a record for it
+        Object lastEntity = entities.get(entities.size() - 1);
+        if (lastEntity == null)
+        {
+            return null;
+        }
+        EJPojoAccessors accessors = EJPojoAccessors.forClass(lastEntity.getClass());
+        
+        ArrayList<Object> seekValues = new ArrayList<Object>(sorts.size());
+        for (EJQuerySort sort : sorts)
+        {
+            EJCoreItemProperties sortItem = getSortItem(sort.getSort());
+            if (sortItem == null || !sortItem.isBlockServiceItem())
+            {
+                return null;
+            }
+            
+            EJPojoAccessor getter = accessors.getGetter(sortItem.getName());
+            Object value = getter == null ? null : getter.get(lastEntity);
+            if (value == null)
+            {
+                return null;
+            }
+            seekValues.add(value);
+        }
+        return seekValues;
+    }
+    
+    /**
+     * Returns the item sorted by the given sort, matched by its name or else
+     * by its field name
+     */
+    private EJCoreItemProperties getSortItem(String sort)
+    {
+        EJCoreBlockProperties blockProperties = getBlock().getProperties();
+        EJCoreItemProperties sortItem = blockProperties.getItemProperties(sort);
+        if (sortItem != null)
+        {
+            return sortItem;
+        }
+        
+        for (EJCoreItemProperties item : blockProperties.getItemPropertiesContainer().getAllItemProperties())
+        {
+            if (sort.equalsIgnoreCase(item.getFieldName()))
+            {
+                return item;
+            }
+        }
+        return null;
+    }
+
     public void nextPage()
     {
         nextPage(true);
@@ -984,11 +1536,17 @@ public abstract class EJBlockController implements Serializable
             return;
         }
 
+        if (_asyncQuery != null)
+        {
+            throw new EJApplicationException(new EJMessage(EJMessageLevel.HINT, "The current page is still being retrieved"));
+        }
+
         if (!_hasMorePages)
         {
             throw new EJApplicationException(new EJMessage(EJMessageLevel.HINT, "No more records to retrieve"));
         }
 
+        _pageSeekValues = _nextPageSeekValues;
         _pageNumber++;
         getPage(informRenderer);
 
@@ -1017,6 +1575,7 @@ public abstract class EJBlockController implements Serializable
             throw new EJApplicationException(new EJMessage(EJMessageLevel.HINT, "Already on the first page"));
         }
 
+        _pageSeekValues = null;
         _pageNumber--;
         getPage(informRenderer);
         if (traceEnabled)
@@ -1041,6 +1600,26 @@ public abstract class EJBlockController implements Serializable
         }
     }
 
+    /**
+     * Adds the lov mapping values to all given queried records
+     * <p>
+     * Lov mappings that are set to batch their post query will retrieve the
+     * values of all records with set based queries, all other mappings will
+     * query the values for each record
+     * 
+     * @param queriedRecords
+     *            The records retrieved by the query
+     * @param cache
+     *            The cache used to optimise the lookups of individual records
+     */
+    public void addLovMappingValuesAfterQuery(List<EJDataRecord> queriedRecords, EJPostQueryCache cache)
+    {
+        for (EJLovMappingController controller : _lovMappingControllers)
+        {
+            controller.addLookupValuesForQueryRecords(_formController, queriedRecords, cache);
+        }
+    }
+
     /**
      * Adds a record to this controllers underlying list of records
      * <p>
@@ -1198,6 +1777,7 @@ public abstract class EJBlockController implements Serializable
         if (traceEnabled)
             logger.trace("START clearBlock");
 
+        abandonAsyncQuery();
         _dataBlock.clearBlock(clearChanges);
 
         if (getRendererController() != null)
@@ -1224,6 +1804,21 @@ public abstract class EJBlockController implements Serializable
         return _dataBlock.getRecords();
     }
 
+    /**
+     * Returns the given range of records within this block
+     * 
+     * @param firstRecordNumber
+     *            The record number of the first record to return
+     * @param recordCount
+     *            The maximum number of records to return
+     * @return The records of the range
+     * @see EJDataBlock#getRecords(int, int)
+     */
+    public List<EJDataRecord> getRecords(int firstRecordNumber, int recordCount)
+    {
+        return _dataBlock.getRecords(firstRecordNumber, recordCount);
+    }
+
     /**
      * Called each time one of the displayed items value changes
      * <p>
@@ -1557,4 +2152,56 @@ public abstract class EJBlockController implements Serializable
             _updateScreenRenderer = new EJManagedUpdateScreenRendererWrapper(_frameworkManager, renderer);
         }
     }
+
+    /**
+     * Creates the deferred records of this controllers data block
+     */
+    private class QueriedRecordLoader implements EJDataRecordLoader
+    {
+        @Override
+        public void loadRecords(EJDataBlock dataBlock, List<?> entities)
+        {
+            EJManagedFrameworkConnection connection = getFrameworkManager().getConnection();
+            try
+            {
+                addQueriedEntities(entities);
+            }
+            finally
+            {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Retrieves a page of a block with its own connection
+     */
+    static final class PageRetrieval implements Callable<List<?>>
+    {
+        private final EJFrameworkManager _frameworkManager;
+        private final EJBlockService<?>  _blockService;
+        private final EJForm             _form;
+        private final EJQueryCriteria    _queryCriteria;
+
+        PageRetrieval(EJFrameworkManager frameworkManager, EJBlockService<?> blockService, EJForm form, EJQueryCriteria queryCriteria)
+        {
+            _frameworkManager = frameworkManager;
+            _blockService = blockService;
+            _form = form;
+            _queryCriteria = queryCriteria;
+        }
+
+        @Override
+        public List<?> call() throws Exception
+        {
+            return _frameworkManager.executeWithNewConnection(new Callable<List<?>>()
+            {
+                @Override
+                public List<?> call()
+                {
+                    return _blockService.executeQuery(_form, _queryCriteria);
+                }
+            });
+        }
+    }
 }
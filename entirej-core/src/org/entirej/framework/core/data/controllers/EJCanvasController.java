@@ -26,6 +26,7 @@ import org.entirej.framework.core.EJMessage;
 import org.entirej.framework.core.enumerations.EJPopupButton;
 import org.entirej.framework.core.enumerations.EJScreenType;
 import org.entirej.framework.core.interfaces.EJScreenItemController;
+import org.entirej.framework.core.properties.containers.interfaces.EJCanvasPropertiesContainer;
 import org.entirej.framework.core.properties.interfaces.EJCanvasProperties;
 import org.entirej.framework.core.properties.interfaces.EJDrawerPageProperties;
 import org.entirej.framework.core.properties.interfaces.EJStackedPageProperties;
@@ -109,6 +110,7 @@ public class EJCanvasController implements Serializable
         _formController.getRenderer().showTabPage(tabCanvasName, tabPageName);
         // Inform the action processor that a tab page has been changed
         _formController.getManagedActionController().tabPageChanged(_formController.getEJForm(), tabCanvasName, tabPageName);
+        _formController.executeDisplayedDetailQueries();
 
         EJCanvasProperties canvasProperties = _formController.getProperties().getCanvasProperties(tabCanvasName);
         if (canvasProperties != null)
@@ -140,6 +142,7 @@ public class EJCanvasController implements Serializable
         _formController.getRenderer().showDrawerPage(drawerCanvasName, drawerPageName);
         // Inform the action processor that a drawer page has been changed
         _formController.getManagedActionController().drawerPageChanged(_formController.getEJForm(), drawerCanvasName, drawerPageName);
+        _formController.executeDisplayedDetailQueries();
 
         EJCanvasProperties canvasProperties = _formController.getProperties().getCanvasProperties(drawerCanvasName);
         if (canvasProperties != null)
@@ -220,6 +223,7 @@ public class EJCanvasController implements Serializable
         _formController.getRenderer().showStackedPage(stackedCanvasName, stackedPageName);
         // Inform the action processor that a stacked page has been changed
         _formController.getManagedActionController().stackedPageChanged(_formController.getEJForm(), stackedCanvasName, stackedPageName);
+        _formController.executeDisplayedDetailQueries();
 
         EJCanvasProperties canvasProperties = _formController.getProperties().getCanvasProperties(stackedCanvasName);
         if (canvasProperties != null)
@@ -251,6 +255,95 @@ public class EJCanvasController implements Serializable
         return _formController.getRenderer().getDisplayedStackedPage(stackedCanvasName);
     }
 
+    /**
+     * Indicates if the given canvas is currently shown
+     * <p>
+     * A canvas is not shown if it lies on a tab, drawer or stacked page that
+     * is not the displayed page of its canvas
+     * 
+     * @param canvasName
+     *            The name of the canvas
+     * @return <code>true</code> if the canvas is shown or cannot be found,
+     *         otherwise <code>false</code>
+     */
+    public boolean isCanvasDisplayed(String canvasName)
+    {
+        if (canvasName == null || _formController.getRenderer() == null)
+        {
+            return true;
+        }
+        Boolean displayed = isCanvasDisplayed(_formController.getProperties().getCanvasContainer(), canvasName);
+        return displayed == null || displayed;
+    }
+
+    /**
+     * Returns <code>null</code> if the canvas is not within the given container
+     */
+    private Boolean isCanvasDisplayed(EJCanvasPropertiesContainer container, String canvasName)
+    {
+        for (EJCanvasProperties canvas : container.getAllCanvasProperties())
+        {
+            if (canvas.getName().equalsIgnoreCase(canvasName))
+            {
+                return Boolean.TRUE;
+            }
+
+            Boolean displayed = null;
+            switch (canvas.getType())
+            {
+                case POPUP:
+                    displayed = isCanvasDisplayed(canvas.getPopupCanvasContainer(), canvasName);
+                    break;
+                case GROUP:
+                    displayed = isCanvasDisplayed(canvas.getGroupCanvasContainer(), canvasName);
+                    break;
+                case SPLIT:
+                    displayed = isCanvasDisplayed(canvas.getSplitCanvasContainer(), canvasName);
+                    break;
+                case TAB:
+                    for (EJTabPageProperties page : canvas.getTabPageContainer().getAllTabPageProperties())
+                    {
+                        displayed = isCanvasDisplayed(page.getContainedCanvases(), canvasName);
+                        if (displayed != null)
+                        {
+                            displayed = displayed && page.getName().equalsIgnoreCase(getDisplayedTabPage(canvas.getName()));
+                            break;
+                        }
+                    }
+                    break;
+                case DRAWER:
+                    for (EJDrawerPageProperties page : canvas.getDrawerPageContainer().getAllDrawerPageProperties())
+                    {
+                        displayed = isCanvasDisplayed(page.getContainedCanvases(), canvasName);
+                        if (displayed != null)
+                        {
+                            displayed = displayed && page.getName().equalsIgnoreCase(getDisplayedDrawerPage(canvas.getName()));
+                            break;
+                        }
+                    }
+                    break;
+                case STACKED:
+                    for (EJStackedPageProperties page : canvas.getStackedPageContainer().getAllStackedPageProperties())
+                    {
+                        displayed = isCanvasDisplayed(page.getContainedCanvases(), canvasName);
+                        if (displayed != null)
+                        {
+                            displayed = displayed && page.getName().equalsIgnoreCase(getDisplayedStackedPage(canvas.getName()));
+                            break;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (displayed != null)
+            {
+                return displayed;
+            }
+        }
+        return null;
+    }
+
     /**
      * Used to show a specific stacked canvas page
      * 
@@ -269,6 +362,8 @@ public class EJCanvasController implements Serializable
 
     public void tabPageChanged(String tabCanvasName, String tabPageName)
     {
+        _formController.executeDisplayedDetailQueries();
+
         // If the tab page has a first navigational block and item, then ensure
         // the focus is correct
         EJCanvasProperties canvasProperties = _formController.getProperties().getCanvasProperties(tabCanvasName);
@@ -289,6 +384,8 @@ public class EJCanvasController implements Serializable
     }
     public void drawerPageChanged(String drawerCanvasName, String drawerPageName)
     {
+        _formController.executeDisplayedDetailQueries();
+
         // If the tab page has a first navigational block and item, then ensure
         // the focus is correct
         EJCanvasProperties canvasProperties = _formController.getProperties().getCanvasProperties(drawerCanvasName);
@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
+import org.entirej.framework.core.properties.EJCoreRelationProperties;
+import org.entirej.framework.core.service.EJLRUCache;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJQuerySort;
+
+/**
+ * Caches the entities queried for a detail block keyed by the values of the
+ * master items of its relation and by the restrictions and sorting of the
+ * query
+ * <p>
+ * The cache is used by the {@link EJEditableBlockController} of a detail block
+ * if the {@link EJCoreRelationProperties#getQueryCacheSize()} of its relation
+ * is greater than <code>0</code>. The least recently used entries are removed
+ * once the cache is full and entries expire after the relations
+ * {@link EJCoreRelationProperties#getQueryCacheTimeToLive()}
+ * <p>
+ * Entries are added by the detail queries of the block and by the queries
+ * prefetched in the background for the next master records. The cache is
+ * cleared when either the master or the detail block is saved
+ * <p>
+ * If the cache is given the service pojo helper of the detail block, it keeps
+ * its own copies of the entities and hands out new copies on each hit, so
+ * that changes made to the records of the block, for example by a post query
+ * or an edit that is never saved, are not returned by later queries
+ * 
+ * @see #createKey(List, EJQueryCriteria)
+ */
+public class EJDetailQueryCache
+{
+    private final EJLRUCache<List<Object>, CachedQuery> _cache;
+    private final long                                  _timeToLive;
+    private final EJDefaultServicePojoHelper            _pojoHelper;
+    private final HashSet<List<Object>>                 _prefetching = new HashSet<List<Object>>();
+    private final AtomicLong                            _hit         = new AtomicLong();
+    private final AtomicLong                            _missed      = new AtomicLong();
+    private final AtomicLong                            _prefetched  = new AtomicLong();
+    private volatile long                               _generation;
+
+    /**
+     * Creates a new detail query cache
+     * 
+     * @param maxSize
+     *            The maximum number of master records for which the detail
+     *            entities are kept
+     * @param timeToLive
+     *            The time in milliseconds for which an entry is used,
+     *            <code>0</code> if entries do not expire
+     */
+    public EJDetailQueryCache(int maxSize, long timeToLive)
+    {
+        this(maxSize, timeToLive, null);
+    }
+
+    /**
+     * Creates a new detail query cache that copies the entities it keeps and
+     * returns
+     * 
+     * @param maxSize
+     *            The maximum number of master records for which the detail
+     *            entities are kept
+     * @param timeToLive
+     *            The time in milliseconds for which an entry is used,
+     *            <code>0</code> if entries do not expire
+     * @param pojoHelper
+     *            The service pojo helper of the detail block used to copy the
+     *            entities, or <code>null</code> if the entities are not copied
+     */
+    public EJDetailQueryCache(int maxSize, long timeToLive, EJDefaultServicePojoHelper pojoHelper)
+    {
+        _cache = new EJLRUCache<List<Object>, CachedQuery>(maxSize);
+        _cache.setTrackEfficiency(false);
+        _timeToLive = timeToLive;
+        _pojoHelper = pojoHelper;
+    }
+
+    /**
+     * Returns the key of a detail query within the cache
+     * <p>
+     * Besides the master values the key contains the restrictions and the
+     * sorting of the criteria, so that a query whose criteria have been
+     * changed, for example by the pre query of the action processor, is not
+     * answered with the entities of another query
+     * 
+     * @param masterValues
+     *            The values of the master items of the relations joins
+     * @param queryCriteria
+     *            The criteria of the detail query
+     * @return The key or <code>null</code> if no master values are given
+     */
+    public static List<Object> createKey(List<Object> masterValues, EJQueryCriteria queryCriteria)
+    {
+        if (masterValues == null)
+        {
+            return null;
+        }
+
+        StringBuilder criteriaKey = new StringBuilder(queryCriteria.getCacheKey());
+        for (EJQuerySort sort : queryCriteria.getSorts())
+        {
+            criteriaKey.append(sort.getSort()).append(' ').append(sort.getType()).append('|');
+        }
+
+        ArrayList<Object> key = new ArrayList<Object>(masterValues.size() + 1);
+        key.addAll(masterValues);
+        key.add(criteriaKey.toString());
+        return key;
+    }
+
+    /**
+     * Returns the cached detail entities of the given key
+     * 
+     * @param key
+     *            The key of the query
+     * @return Copies of the cached entities or <code>null</code> if they are
+     *         not cached or have expired
+     */
+    public List<?> getEntities(List<Object> key)
+    {
+        List<?> entities = getValidEntities(key);
+        if (entities == null)
+        {
+            _missed.incrementAndGet();
+            return null;
+        }
+
+        _hit.incrementAndGet();
+        return copyEntities(entities);
+    }
+
+    /**
+     * Indicates if valid detail entities are cached for the given key without
+     * affecting the cache statistics
+     * 
+     * @param key
+     *            The key of the query
+     * @return <code>true</code> if the entities are cached, otherwise
+     *         <code>false</code>
+     */
+    public boolean containsEntities(List<Object> key)
+    {
+        return getValidEntities(key) != null;
+    }
+
+    private List<?> getValidEntities(List<Object> key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+
+        CachedQuery query = _cache.getEntry(key);
+        if (query == null)
+        {
+            return null;
+        }
+        if (_timeToLive > 0 && System.currentTimeMillis() - query._created > _timeToLive)
+        {
+            synchronized (_cache)
+            {
+                _cache.remove(key);
+            }
+            return null;
+        }
+        return query._entities;
+    }
+
+    /**
+     * Adds the queried detail entities of the given key to the cache
+     * 
+     * @param key
+     *            The key of the query
+     * @param entities
+     *            The queried detail entities
+     */
+    public void putEntities(List<Object> key, List<?> entities)
+    {
+        if (key != null && entities != null)
+        {
+            _cache.putEntry(key, new CachedQuery(copyEntities(entities)));
+        }
+    }
+
+    /**
+     * Returns copies of the given entities if this cache has been given a
+     * service pojo helper, otherwise the entities themselves
+     */
+    private List<?> copyEntities(List<?> entities)
+    {
+        if (_pojoHelper == null)
+        {
+            return entities;
+        }
+
+        ArrayList<Object> copies = new ArrayList<Object>(entities.size());
+        for (Object entity : entities)
+        {
+            copies.add(_pojoHelper.copyServicePojo(entity));
+        }
+        return copies;
+    }
+
+    /**
+     * Adds prefetched entities unless the cache has been invalidated since the
+     * prefetch was started
+     */
+    void putPrefetchedEntities(List<Object> key, List<?> entities, long generation)
+    {
+        synchronized (_prefetching)
+        {
+            _prefetching.remove(key);
+            if (generation == _generation && entities != null && key != null)
+            {
+                // Prefetched entities are not used by any record
+                _cache.putEntry(key, new CachedQuery(entities));
+                _prefetched.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Registers a prefetch for the given key
+     * 
+     * @return <code>true</code> if the prefetch should be started, or
+     *         <code>false</code> if the entities are already cached or being
+     *         prefetched
+     */
+    boolean startPrefetch(List<Object> key)
+    {
+        synchronized (_prefetching)
+        {
+            if (containsEntities(key) || _prefetching.contains(key))
+            {
+                return false;
+            }
+            _prefetching.add(key);
+            return true;
+        }
+    }
+
+    void prefetchFailed(List<Object> key)
+    {
+        synchronized (_prefetching)
+        {
+            _prefetching.remove(key);
+        }
+    }
+
+    long getGeneration()
+    {
+        return _generation;
+    }
+
+    /**
+     * Removes the detail entities of the given key
+     * 
+     * @param key
+     *            The key of the query
+     */
+    public void invalidate(List<Object> key)
+    {
+        synchronized (_cache)
+        {
+            _cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache
+     * <p>
+     * Prefetches that are still running will not add their results to the
+     * cache
+     */
+    public void invalidateAll()
+    {
+        synchronized (_prefetching)
+        {
+            _generation++;
+            _cache.clear();
+        }
+    }
+
+    /**
+     * Returns the number of master records for which detail entities are
+     * cached
+     * 
+     * @return the number of cached entries
+     */
+    public int getEntriesNumber()
+    {
+        return _cache.getEntriesNumber();
+    }
+
+    /**
+     * Returns the number of detail queries that were answered from the cache
+     * 
+     * @return the number of cache hits
+     */
+    public long getHitEntries()
+    {
+        return _hit.get();
+    }
+
+    /**
+     * Returns the number of detail queries that were not within the cache
+     * 
+     * @return the number of cache misses
+     */
+    public long getMissedEntries()
+    {
+        return _missed.get();
+    }
+
+    /**
+     * Returns the number of detail queries that were prefetched in the
+     * background and added to the cache
+     * 
+     * @return the number of prefetched entries
+     */
+    public long getPrefetchedEntries()
+    {
+        return _prefetched.get();
+    }
+
+    /**
+     * Resets the hit, miss and prefetch counters
+     */
+    public void resetStatistics()
+    {
+        _hit.set(0);
+        _missed.set(0);
+        _prefetched.set(0);
+    }
+
+    private static final class CachedQuery
+    {
+        private final List<?> _entities;
+        private final long    _created;
+
+        CachedQuery(List<?> entities)
+        {
+            _entities = entities;
+            _created = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.entirej.framework.core.properties.EJCoreProperties;
+
+/**
+ * The application wide executors used to run the queries of blocks in the
+ * background
+ * <p>
+ * Each kind of query has its own executor, so that slow queries of one kind
+ * never delay the queries of another:
+ * <ul>
+ * <li>{@link #submit(Callable)} runs the queries of detail blocks in parallel
+ * using at most {@link EJCoreProperties#getDetailQueryThreads()} threads. The
+ * caller waits for these queries anyway, so once all threads are busy and the
+ * queue is full the calling thread executes the query itself</li>
+ * <li>{@link #prefetch(Callable)} runs the prefetched detail queries using at
+ * most {@link EJCoreProperties#getPrefetchQueryThreads()} threads. Prefetches
+ * are discarded once the executor is saturated. They are started by a task
+ * passed to {@link #schedule(Runnable, long)}, so that they are only
+ * submitted once the user remains on a master record</li>
+ * <li>{@link #submitAsyncQuery(Callable)} runs the asynchronous queries of
+ * blocks using at most {@link EJCoreProperties#getAsyncQueryThreads()}
+ * threads. Queries are rejected once the executor is saturated</li>
+ * </ul>
+ * The number of threads of each executor follows changes of its property. Idle
+ * threads are released after one minute. At most {@link #MAX_QUEUED_TASKS}
+ * tasks wait for a free thread of an executor
+ */
+final class EJDetailQueryExecutor
+{
+    static final int MAX_QUEUED_TASKS = 100;
+
+    private static final QueryPool DETAIL_QUERIES = new QueryPool("EJDetailQuery", new ThreadPoolExecutor.CallerRunsPolicy())
+    {
+        @Override
+        int getThreads()
+        {
+            return EJCoreProperties.getInstance().getDetailQueryThreads();
+        }
+    };
+
+    private static final QueryPool PREFETCHES = new QueryPool("EJDetailPrefetch", new ThreadPoolExecutor.AbortPolicy())
+    {
+        @Override
+        int getThreads()
+        {
+            return EJCoreProperties.getInstance().getPrefetchQueryThreads();
+        }
+    };
+
+    private static final QueryPool ASYNC_QUERIES = new QueryPool("EJAsyncQuery", new ThreadPoolExecutor.AbortPolicy())
+    {
+        @Override
+        int getThreads()
+        {
+            return EJCoreProperties.getInstance().getAsyncQueryThreads();
+        }
+    };
+
+    private static volatile ScheduledThreadPoolExecutor _scheduler;
+
+    private EJDetailQueryExecutor()
+    {
+
+    }
+
+    /**
+     * Submits the query of a detail block, which is executed by the calling
+     * thread if the detail query executor is saturated
+     */
+    static <T> Future<T> submit(Callable<T> task)
+    {
+        return DETAIL_QUERIES.getExecutor().submit(task);
+    }
+
+    /**
+     * Submits a prefetch of a detail query
+     * 
+     * @return <code>true</code> if the prefetch will be executed, or
+     *         <code>false</code> if it has been discarded because the prefetch
+     *         executor is saturated
+     */
+    static boolean prefetch(Callable<?> task)
+    {
+        try
+        {
+            PREFETCHES.getExecutor().submit(task);
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the given task after the given delay on a single scheduler thread
+     * <p>
+     * The task must only submit work to one of the query executors, so that
+     * it never delays other scheduled tasks
+     * 
+     * @return The future used to cancel the task before it is run
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delayMillis)
+    {
+        ScheduledThreadPoolExecutor scheduler = _scheduler;
+        if (scheduler == null)
+        {
+            synchronized (EJDetailQueryExecutor.class)
+            {
+                scheduler = _scheduler;
+                if (scheduler == null)
+                {
+                    scheduler = new ScheduledThreadPoolExecutor(1, new QueryThreadFactory("EJDetailPrefetchScheduler"));
+                    scheduler.setRemoveOnCancelPolicy(true);
+                    _scheduler = scheduler;
+                }
+            }
+        }
+        return scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submits an asynchronous block query
+     * 
+     * @throws RejectedExecutionException
+     *             if the asynchronous query executor is saturated
+     */
+    static <T> Future<T> submitAsyncQuery(Callable<T> task)
+    {
+        return ASYNC_QUERIES.getExecutor().submit(task);
+    }
+
+    /**
+     * A lazily created executor whose number of threads follows a property
+     */
+    private abstract static class QueryPool
+    {
+        private final String                   _name;
+        private final RejectedExecutionHandler _rejectionHandler;
+        private volatile ThreadPoolExecutor    _executor;
+
+        QueryPool(String name, RejectedExecutionHandler rejectionHandler)
+        {
+            _name = name;
+            _rejectionHandler = rejectionHandler;
+        }
+
+        abstract int getThreads();
+
+        ThreadPoolExecutor getExecutor()
+        {
+            int threads = getThreads();
+            ThreadPoolExecutor executor = _executor;
+            if (executor == null || executor.getMaximumPoolSize() != threads)
+            {
+                synchronized (this)
+                {
+                    executor = _executor;
+                    if (executor == null)
+                    {
+                        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(MAX_QUEUED_TASKS),
+                                new QueryThreadFactory(_name), _rejectionHandler);
+                        executor.allowCoreThreadTimeOut(true);
+                        _executor = executor;
+                    }
+                    else if (threads > executor.getMaximumPoolSize())
+                    {
+                        // The maximum pool size may never be less than the core
+                        // pool size
+                        executor.setMaximumPoolSize(threads);
+                        executor.setCorePoolSize(threads);
+                    }
+                    else if (threads < executor.getMaximumPoolSize())
+                    {
+                        executor.setCorePoolSize(threads);
+                        executor.setMaximumPoolSize(threads);
+                    }
+                }
+            }
+            return executor;
+        }
+    }
+
+    private static final class QueryThreadFactory implements ThreadFactory
+    {
+        private final String        _name;
+        private final AtomicInteger _threadNumber = new AtomicInteger();
+
+        QueryThreadFactory(String name)
+        {
+            _name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, _name + "-" + _threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -22,11 +22,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJBlock;
 import org.entirej.framework.core.EJForm;
+import org.entirej.framework.core.EJFrameworkManager;
 import org.entirej.framework.core.EJManagedFrameworkConnection;
 import org.entirej.framework.core.EJMessage;
 import org.entirej.framework.core.EJMessageFactory;
@@ -47,6 +52,7 @@ import org.entirej.framework.core.renderers.interfaces.EJInsertScreenRenderer;
 import org.entirej.framework.core.renderers.interfaces.EJQueryScreenRenderer;
 import org.entirej.framework.core.renderers.interfaces.EJUpdateScreenRenderer;
 import org.entirej.framework.core.renderers.registry.EJRendererFactory;
+import org.entirej.framework.core.service.EJBlockService;
 import org.entirej.framework.core.service.EJQueryCriteria;
 import org.entirej.framework.core.service.EJRestrictions;
 import org.slf4j.Logger;
@@ -85,6 +91,25 @@ public class EJEditableBlockController extends EJBlockController implements Seri
     // record instance occurred
     private boolean                                                            _executingBlockQuery  = false;
 
+    /**
+     * Set when the query criteria of a parallel detail query have already been
+     * validated and its first page is being retrieved in the background
+     */
+    private transient boolean                                                  _queryPrepared        = false;
+
+    /**
+     * Set while a query is executed due to the navigation of the master block.
+     * Only these queries use the detail query cache
+     */
+    private transient boolean                                                  _masterRelationQuery  = false;
+    private transient EJDetailQueryCache                                       _detailQueryCache;
+
+    /**
+     * The prefetches of the detail blocks that wait for the prefetch delays
+     * of their relations
+     */
+    private transient List<ScheduledFuture<?>>                                 _scheduledPrefetches;
+
     /**
      * Creates a controller for the given data block
      * 
@@ -100,7 +125,7 @@ public class EJEditableBlockController extends EJBlockController implements Seri
             throw new EJApplicationException("The FormController passed to the BlockController constructor is null");
         }
 
-        _detailRelationControllerMap = new HashMap<EJCoreRelationProperties, EJEditableBlockController>();
+        _detailRelationControllerMap = new LinkedHashMap<EJCoreRelationProperties, EJEditableBlockController>();
 
         _block = new EJInternalEditableBlock(this);
 
@@ -266,7 +291,7 @@ public class EJEditableBlockController extends EJBlockController implements Seri
             {
                 try
                 {
-                    executeQuery(getQueryCriteria());
+                    executeMasterRelationQuery(getQueryCriteria());
                 }
                 catch (Exception e)
                 {
@@ -793,6 +818,7 @@ public class EJEditableBlockController extends EJBlockController implements Seri
     {
         if (isBlockDirty() || areChildRelationsDirty())
         {
+            cancelPreparedQuery();
             EJInternalQuestion q = _questionController.makeAskToSaveChangesQuestion(_block, EJAskToSaveChangesOperation.QUESTION_ACTION_QUERY_PERFORM, queryCriteria);
             getFormController().getMessenger().askInternalQuestion(q);
         }
@@ -805,19 +831,26 @@ public class EJEditableBlockController extends EJBlockController implements Seri
 
             if (preventMasterlessOperations())
             {
+                cancelPreparedQuery();
                 return;
             }
 
-            if (queryCriteria == null)
+            // A prepared query has already set and validated its criteria
+            boolean queryPrepared = _queryPrepared;
+            _queryPrepared = false;
+            if (!queryPrepared)
             {
-                setQueryCriteria(new EJQueryCriteria(new EJBlock(_block)));
-            }
-            else
-            {
-                setQueryCriteria(queryCriteria);
-            }
+                if (queryCriteria == null)
+                {
+                    setQueryCriteria(new EJQueryCriteria(new EJBlock(_block)));
+                }
+                else
+                {
+                    setQueryCriteria(queryCriteria);
+                }
 
-            addMasterRelationValues(getQueryCriteria());
+                addMasterRelationValues(getQueryCriteria());
+            }
 
             EJManagedFrameworkConnection connection = getFrameworkManager().getConnection();
 
@@ -825,8 +858,11 @@ public class EJEditableBlockController extends EJBlockController implements Seri
             {
                 _executingBlockQuery = true;
 
-                getFormController().getUnmanagedActionController().validateQueryCriteria(getFormController().getEJForm(), getQueryCriteria());
-                getFormController().getUnmanagedActionController().preQuery(getFormController().getEJForm(), getQueryCriteria());
+                if (!queryPrepared)
+                {
+                    getFormController().getUnmanagedActionController().validateQueryCriteria(getFormController().getEJForm(), getQueryCriteria());
+                    getFormController().getUnmanagedActionController().preQuery(getFormController().getEJForm(), getQueryCriteria());
+                }
 
                 // After the validation is ok, we can inform the renderer that a
                 // query will now be executed
@@ -845,11 +881,8 @@ public class EJEditableBlockController extends EJBlockController implements Seri
                 // Clear the block so that it is ready for the newly queried
                 // records
                 clearBlock(true);
-                if (canQueryInPages() && (!getProperties().queryAllRows()))
+                if (initialiseQueryPaging())
                 {
-                    setQueryAllRows(false);
-                    setPageNumber(0);
-                    setPageSize(getProperties().getPageSize());
                     // pass false so that the Renderer is not informed about the
                     // nextPage operation. They will be informed using the
                     // queryExecuted method
@@ -857,12 +890,6 @@ public class EJEditableBlockController extends EJBlockController implements Seri
                 }
                 else
                 {
-                    // Set the query all rows to true, because the service
-                    // cannot retrieve data in pages
-                    setQueryAllRows(true);
-                    setMaxResults(getProperties().getMaxResults());
-                    setPageNumber(1);
-                    setPageSize(-1);
                     // pass false so that the Renderer is not informed about the
                     // nextPage operation. They will be informed using the
                     // queryExecuted method
@@ -881,7 +908,10 @@ public class EJEditableBlockController extends EJBlockController implements Seri
                 // _blockRendererController.queryExecuted();
                 // }
 
-                if (getMirrorBlockSynchronizer() != null)
+                // An asynchronous query informs the mirror blocks and the
+                // action processor once its records have been added
+                boolean asyncQuery = getAsyncQuery() != null;
+                if (!asyncQuery && getMirrorBlockSynchronizer() != null)
                 {
                     getMirrorBlockSynchronizer().queryExecuted(this);
                 }
@@ -891,10 +921,14 @@ public class EJEditableBlockController extends EJBlockController implements Seri
                 _executingBlockQuery = false;
                 _performDeferredQuery = false;
 
-                getFormController().getUnmanagedActionController().postBlockQuery(getFormController().getEJForm(), new EJBlock(_block));
+                if (!asyncQuery)
+                {
+                    getFormController().getUnmanagedActionController().postBlockQuery(getFormController().getEJForm(), new EJBlock(_block));
+                }
             }
             finally
             {
+                cancelPageRetrieval();
                 connection.close();
                 _executingBlockQuery = false;
                 _performDeferredQuery = false;
@@ -902,6 +936,382 @@ public class EJEditableBlockController extends EJBlockController implements Seri
         }
     }
 
+    /**
+     * Sets the paging values of this block for a new query
+     * 
+     * @return <code>true</code> if the block is queried in pages, otherwise
+     *         <code>false</code>
+     */
+    private boolean initialiseQueryPaging()
+    {
+        if (canQueryInPages() && (!getProperties().queryAllRows()))
+        {
+            setQueryAllRows(false);
+            setPageNumber(0);
+            setPageSize(getProperties().getPageSize());
+            return true;
+        }
+        else
+        {
+            // Set the query all rows to true, because the service
+            // cannot retrieve data in pages
+            setQueryAllRows(true);
+            setMaxResults(getProperties().getMaxResults());
+            setPageNumber(1);
+            setPageSize(-1);
+            return false;
+        }
+    }
+
+    /**
+     * Validates the given query criteria and starts to retrieve the first page
+     * of this detail block in the background
+     * <p>
+     * The records are added to the block by the next call to
+     * {@link #executeQuery(EJQueryCriteria)}. The query is only prepared if
+     * the relation to the master block allows parallel queries and the query
+     * would be executed immediately
+     * 
+     * @param queryCriteria
+     *            The query criteria containing the master relation values
+     */
+    private void prepareParallelQuery(EJQueryCriteria queryCriteria)
+    {
+        if (_masterRelationProperties == null || !_masterRelationProperties.isParallelQuery() || isQueryDeferred())
+        {
+            return;
+        }
+        if (getBlockService() == null || preventMasterlessOperations() || isBlockDirty() || areChildRelationsDirty())
+        {
+            return;
+        }
+
+        setQueryCriteria(queryCriteria);
+        addMasterRelationValues(getQueryCriteria());
+
+        getFormController().getUnmanagedActionController().validateQueryCriteria(getFormController().getEJForm(), getQueryCriteria());
+        getFormController().getUnmanagedActionController().preQuery(getFormController().getEJForm(), getQueryCriteria());
+
+        if (getDetailQueryCache() != null
+                && _detailQueryCache.containsEntities(EJDetailQueryCache.createKey(getMasterRelationValues(_masterRelationBlockController.getFocusedRecord()), getQueryCriteria())))
+        {
+            // The validated query will be answered from the cache
+            _queryPrepared = true;
+            return;
+        }
+
+        boolean paged = initialiseQueryPaging();
+        startPageRetrieval(paged ? getPageNumber() + 1 : getPageNumber());
+        _queryPrepared = true;
+    }
+
+    private void cancelPreparedQuery()
+    {
+        _queryPrepared = false;
+        cancelPageRetrieval();
+    }
+
+    /**
+     * Indicates if the query of this detail block should be deferred when its
+     * master record changes
+     */
+    private boolean isQueryDeferred()
+    {
+        if (_masterRelationProperties == null)
+        {
+            return false;
+        }
+        if (_masterRelationProperties.isDeferredQuery())
+        {
+            return true;
+        }
+        return _masterRelationProperties.isQueryWhenDisplayed() && !isBlockCanvasDisplayed();
+    }
+
+    private boolean isBlockCanvasDisplayed()
+    {
+        if (getProperties().getCanvasName() == null || getFormController().getRenderer() == null)
+        {
+            return true;
+        }
+        return getFormController().getCanvasController().isCanvasDisplayed(getProperties().getCanvasName());
+    }
+
+    /**
+     * Executes the deferred query of this detail block if its relation defers
+     * the query until the block is displayed and its canvas is now shown
+     */
+    void executeQueryWhenDisplayed()
+    {
+        if (_performDeferredQuery && _masterRelationProperties != null && !_masterRelationProperties.isDeferredQuery() && _masterRelationProperties.isQueryWhenDisplayed()
+                && isBlockCanvasDisplayed())
+        {
+            executeMasterRelationQuery(getQueryCriteria());
+        }
+    }
+
+    private void executeMasterRelationQuery(EJQueryCriteria queryCriteria)
+    {
+        _masterRelationQuery = true;
+        try
+        {
+            executeQuery(queryCriteria);
+        }
+        finally
+        {
+            _masterRelationQuery = false;
+        }
+    }
+
+    /**
+     * Returns the cache of the entities queried for the master records of this
+     * detail block
+     * 
+     * @return The detail query cache or <code>null</code> if this block is not
+     *         a detail or its relation does not cache detail queries
+     * @see EJCoreRelationProperties#getQueryCacheSize()
+     */
+    public EJDetailQueryCache getDetailQueryCache()
+    {
+        if (_detailQueryCache == null && _masterRelationProperties != null && _masterRelationProperties.getQueryCacheSize() > 0)
+        {
+            // The records of the block change the values of their entities,
+            // so the cache keeps its own copies
+            _detailQueryCache = new EJDetailQueryCache(_masterRelationProperties.getQueryCacheSize(), _masterRelationProperties.getQueryCacheTimeToLive(),
+                    getBlock().getServicePojoHelper());
+        }
+        return _detailQueryCache;
+    }
+
+    /**
+     * Returns the values of the master items of the relation joins within the
+     * given master record
+     * 
+     * @return The master values or <code>null</code> if a value is missing
+     */
+    private List<Object> getMasterRelationValues(EJDataRecord masterRecord)
+    {
+        if (masterRecord == null || _masterRelationProperties == null)
+        {
+            return null;
+        }
+
+        ArrayList<Object> masterValues = new ArrayList<Object>();
+        for (EJCoreRelationJoinProperties join : _masterRelationProperties.getRelationJoins())
+        {
+            Object value = masterRecord.getValue(join.getMasterItem().getName());
+            if (value == null)
+            {
+                return null;
+            }
+            masterValues.add(value);
+        }
+        return masterValues;
+    }
+
+    /**
+     * Returns the cache key of the current query if it may be answered from
+     * the detail query cache
+     */
+    private List<Object> getDetailQueryCacheKey(EJQueryCriteria queryCriteria)
+    {
+        if (!_masterRelationQuery || getDetailQueryCache() == null || queryCriteria.getPageNumber() > 1 || queryCriteria.getSeekValues() != null)
+        {
+            return null;
+        }
+        return EJDetailQueryCache.createKey(getMasterRelationValues(_masterRelationBlockController.getFocusedRecord()), queryCriteria);
+    }
+
+    @Override
+    protected List<?> executeServiceQuery(EJQueryCriteria queryCriteria)
+    {
+        List<Object> cacheKey = getDetailQueryCacheKey(queryCriteria);
+        if (cacheKey != null)
+        {
+            List<?> entities = _detailQueryCache.getEntities(cacheKey);
+            if (entities != null)
+            {
+                if (logger.isTraceEnabled())
+                    logger.trace("Using the cached detail entities of block {} for master values {}", getProperties().getName(), cacheKey);
+                return entities;
+            }
+        }
+
+        List<?> entities = super.executeServiceQuery(queryCriteria);
+        if (cacheKey != null)
+        {
+            _detailQueryCache.putEntities(cacheKey, entities);
+        }
+        return entities;
+    }
+
+    @Override
+    protected void pageRetrieved(EJQueryCriteria queryCriteria, List<?> entities)
+    {
+        List<Object> cacheKey = getDetailQueryCacheKey(queryCriteria);
+        if (cacheKey != null)
+        {
+            _detailQueryCache.putEntities(cacheKey, entities);
+        }
+    }
+
+    /**
+     * Schedules the queries of the details of the master records following the
+     * focused master record, so that they are available within the detail
+     * query cache when the user navigates to them
+     * <p>
+     * Only relations with a {@link EJCoreRelationProperties#getQueryPrefetchCount()}
+     * prefetch their details. The prefetches are started once the focus has
+     * remained on the master record for the
+     * {@link EJCoreRelationProperties#getQueryPrefetchDelay()} of the relation
+     * and are cancelled if the user navigates on before
+     */
+    private void prefetchDetailQueries()
+    {
+        cancelScheduledPrefetches();
+
+        EJDataRecord focusedRecord = getFocusedRecord();
+        if (focusedRecord == null)
+        {
+            return;
+        }
+
+        for (EJEditableBlockController detailBlock : getDetailRelationControllers().values())
+        {
+            if (detailBlock == null || detailBlock._masterRelationProperties.getQueryPrefetchCount() <= 0 || detailBlock.getDetailQueryCache() == null
+                    || detailBlock.getBlockService() == null)
+            {
+                continue;
+            }
+
+            final ArrayList<DetailQueryPrefetch> prefetches = new ArrayList<DetailQueryPrefetch>();
+            EJDataRecord masterRecord = focusedRecord;
+            for (int i = 0; i < detailBlock._masterRelationProperties.getQueryPrefetchCount(); i++)
+            {
+                masterRecord = getDataBlock().getRecordAfter(masterRecord);
+                if (masterRecord == null)
+                {
+                    break;
+                }
+                DetailQueryPrefetch prefetch = detailBlock.createPrefetch(masterRecord);
+                if (prefetch != null)
+                {
+                    prefetches.add(prefetch);
+                }
+            }
+
+            if (!prefetches.isEmpty())
+            {
+                if (_scheduledPrefetches == null)
+                {
+                    _scheduledPrefetches = new ArrayList<ScheduledFuture<?>>();
+                }
+                _scheduledPrefetches.add(EJDetailQueryExecutor.schedule(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        for (DetailQueryPrefetch prefetch : prefetches)
+                        {
+                            prefetch.start();
+                        }
+                    }
+                }, detailBlock._masterRelationProperties.getQueryPrefetchDelay()));
+            }
+        }
+    }
+
+    private void cancelScheduledPrefetches()
+    {
+        if (_scheduledPrefetches != null)
+        {
+            for (ScheduledFuture<?> scheduledPrefetch : _scheduledPrefetches)
+            {
+                scheduledPrefetch.cancel(false);
+            }
+            _scheduledPrefetches.clear();
+        }
+    }
+
+    /**
+     * Creates the prefetch of the details of the given master record
+     * <p>
+     * The user may never navigate to the master record, so the query criteria
+     * are not passed to the validation and pre query of the action processor.
+     * The prefetched entities are therefore only used for queries whose
+     * criteria have not been changed by the action processor
+     * 
+     * @return The prefetch or <code>null</code> if the details are already
+     *         cached or cannot be prefetched
+     */
+    private DetailQueryPrefetch createPrefetch(EJDataRecord masterRecord)
+    {
+        List<Object> masterValues = getMasterRelationValues(masterRecord);
+        if (masterValues == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            EJQueryCriteria queryCriteria = new EJQueryCriteria(new EJBlock(_block));
+            Iterator<EJCoreRelationJoinProperties> joins = _masterRelationProperties.getRelationJoins().iterator();
+            while (joins.hasNext())
+            {
+                EJCoreRelationJoinProperties join = joins.next();
+                queryCriteria.add(EJRestrictions.equals(join.getDetailItem().getName(), masterRecord.getValue(join.getMasterItem().getName())));
+            }
+
+            List<Object> cacheKey = EJDetailQueryCache.createKey(masterValues, queryCriteria);
+            if (_detailQueryCache.containsEntities(cacheKey))
+            {
+                return null;
+            }
+
+            if (canQueryInPages() && (!getProperties().queryAllRows()))
+            {
+                queryCriteria.setQueryAllRows(false);
+                queryCriteria.setPageSize(getProperties().getPageSize());
+                queryCriteria.setMaxResults(getMaxResults());
+            }
+            else
+            {
+                queryCriteria.setQueryAllRows(true);
+                queryCriteria.setPageSize(-1);
+                queryCriteria.setMaxResults(getProperties().getMaxResults());
+            }
+            queryCriteria.setPageNumber(1);
+            queryCriteria.setSeekValues(null);
+
+            return new DetailQueryPrefetch(getFrameworkManager(), getBlockService(), getFormController().getEJForm(), queryCriteria, _detailQueryCache, cacheKey);
+        }
+        catch (Exception e)
+        {
+            if (logger.isDebugEnabled())
+                logger.debug("Unable to prefetch the details of block " + getProperties().getName() + " for master values " + masterValues, e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the cached detail queries of this block and of its detail
+     * blocks. Called before the block is saved
+     */
+    private void invalidateDetailQueryCaches()
+    {
+        if (_detailQueryCache != null)
+        {
+            _detailQueryCache.invalidateAll();
+        }
+        for (EJEditableBlockController detailBlock : getDetailRelationControllers().values())
+        {
+            if (detailBlock != null && detailBlock._detailQueryCache != null)
+            {
+                detailBlock._detailQueryCache.invalidateAll();
+            }
+        }
+    }
+
     /**
      * Indicates that a query should be performed using the master relation
      * properties if they exist
@@ -928,10 +1338,18 @@ public class EJEditableBlockController extends EJBlockController implements Seri
                 _performDeferredQuery = true;
                 _automaticQuery = _masterRelationProperties.isAutoQuery();
             }
+            else if (_masterRelationProperties.isQueryWhenDisplayed() && !isBlockCanvasDisplayed())
+            {
+                // The query will be executed when the blocks page is shown
+                // or the block gains focus
+                setQueryCriteria(queryCriteria);
+                _performDeferredQuery = true;
+                _automaticQuery = true;
+            }
             else
             {
                 _performDeferredQuery = false;
-                executeQuery(queryCriteria);
+                executeMasterRelationQuery(queryCriteria);
             }
         }
     }
@@ -967,6 +1385,7 @@ public class EJEditableBlockController extends EJBlockController implements Seri
         // Instruct the access processor to insert the record.
         if (entityList.size() > 0)
         {
+            invalidateDetailQueryCaches();
             getBlockService().executeInsert(new EJForm(_block.getForm()), entityList);
         }
     }
@@ -986,15 +1405,18 @@ public class EJEditableBlockController extends EJBlockController implements Seri
 
         @SuppressWarnings("rawtypes")
         List entityList = new ArrayList();
+        List<Set<String>> changedItemNames = new ArrayList<Set<String>>();
         for (EJDataRecord record : getUpdatedRecords())
         {
             entityList.add(record.getServicePojo());
+            changedItemNames.add(record.getChangedItemNames());
         }
 
         // Instruct the access processor to update the records
         if (entityList.size() > 0)
         {
-            getBlockService().executeUpdate(new EJForm(_block.getForm()), entityList);
+            invalidateDetailQueryCaches();
+            getBlockService().executeUpdate(new EJForm(_block.getForm()), entityList, changedItemNames);
         }
     }
 
@@ -1027,6 +1449,7 @@ public class EJEditableBlockController extends EJBlockController implements Seri
         // Instruct the access processor to delete the records
         if (entityList.size() > 0)
         {
+            invalidateDetailQueryCaches();
             getBlockService().executeDelete(new EJForm(_block.getForm()), entityList);
         }
     }
@@ -1176,6 +1599,9 @@ public class EJEditableBlockController extends EJBlockController implements Seri
     {
         if (getBlockRecordCount() > 0)
         {
+            ArrayList<EJEditableBlockController> queriedDetailBlocks = new ArrayList<EJEditableBlockController>();
+            ArrayList<EJQueryCriteria> detailQueryCriteria = new ArrayList<EJQueryCriteria>();
+
             Iterator<EJEditableBlockController> detailBlocks = getDetailRelationControllers().values().iterator();
             while (detailBlocks.hasNext())
             {
@@ -1189,10 +1615,56 @@ public class EJEditableBlockController extends EJBlockController implements Seri
                         EJQueryCriteria queryCriteria = new EJQueryCriteria(new EJBlock(detailBlock.getBlock()));
                         addMasterRelationValues(queryCriteria);
 
-                        detailBlock.executeQueryUsingMasterRelation(queryCriteria);
+                        queriedDetailBlocks.add(detailBlock);
+                        detailQueryCriteria.add(queryCriteria);
+                    }
+                }
+            }
+
+            // Start the parallel detail queries first, so that they are
+            // running while the other detail blocks are queried. The records
+            // are then added to the detail blocks in the order of the
+            // relations. If a detail block refuses its query, the detail
+            // blocks before it are still queried as they would have been
+            // when querying one detail block after the other
+            RuntimeException prepareException = null;
+            int preparedDetails = 0;
+            try
+            {
+                while (preparedDetails < queriedDetailBlocks.size())
+                {
+                    try
+                    {
+                        queriedDetailBlocks.get(preparedDetails).prepareParallelQuery(detailQueryCriteria.get(preparedDetails));
+                    }
+                    catch (RuntimeException e)
+                    {
+                        prepareException = e;
+                        break;
+                    }
+                    preparedDetails++;
+                }
+                for (int i = 0; i < preparedDetails; i++)
+                {
+                    queriedDetailBlocks.get(i).executeQueryUsingMasterRelation(detailQueryCriteria.get(i));
+                }
+            }
+            finally
+            {
+                for (EJEditableBlockController detailBlock : queriedDetailBlocks)
+                {
+                    if (detailBlock._queryPrepared)
+                    {
+                        detailBlock.cancelPreparedQuery();
                     }
                 }
             }
+
+            if (prepareException != null)
+            {
+                throw prepareException;
+            }
+            prefetchDetailQueries();
         }
     }
 
@@ -1213,6 +1685,7 @@ public class EJEditableBlockController extends EJBlockController implements Seri
     @Override
     public void clearBlock(boolean clearChanges)
     {
+        cancelScheduledPrefetches();
         clearAllDetailRelations(clearChanges);
         super.clearBlock(clearChanges);
 
@@ -1226,6 +1699,16 @@ public class EJEditableBlockController extends EJBlockController implements Seri
         }
     }
 
+    @Override
+    protected void asyncQueryCompleted()
+    {
+        if (getMirrorBlockSynchronizer() != null)
+        {
+            getMirrorBlockSynchronizer().queryExecuted(this);
+        }
+        getFormController().getUnmanagedActionController().postBlockQuery(getFormController().getEJForm(), new EJBlock(_block));
+    }
+
     /**
      * Clears all detail blocks if this controllers underlying block is a master
      * in a master detail relationship
@@ -1578,4 +2061,74 @@ public class EJEditableBlockController extends EJBlockController implements Seri
             _blockFocusListeners.remove(listener);
         }
     }
+
+    /**
+     * Queries the details of a master record with its own connection and adds
+     * them to the detail query cache
+     * <p>
+     * The cache generation is taken when the prefetch is created, so a prefetch
+     * started after the blocks have been saved does not cache stale entities
+     */
+    private static final class DetailQueryPrefetch implements Callable<Void>
+    {
+        private final EJFrameworkManager _frameworkManager;
+        private final EJBlockService<?>  _blockService;
+        private final EJForm             _form;
+        private final EJQueryCriteria    _queryCriteria;
+        private final EJDetailQueryCache _cache;
+        private final List<Object>       _cacheKey;
+        private final long               _generation;
+
+        DetailQueryPrefetch(EJFrameworkManager frameworkManager, EJBlockService<?> blockService, EJForm form, EJQueryCriteria queryCriteria, EJDetailQueryCache cache,
+                List<Object> cacheKey)
+        {
+            _frameworkManager = frameworkManager;
+            _blockService = blockService;
+            _form = form;
+            _queryCriteria = queryCriteria;
+            _cache = cache;
+            _cacheKey = cacheKey;
+            _generation = cache.getGeneration();
+        }
+
+        /**
+         * Submits this prefetch to the prefetch executor unless its entities
+         * are already cached or being prefetched
+         */
+        void start()
+        {
+            if (!_cache.startPrefetch(_cacheKey))
+            {
+                return;
+            }
+            if (!EJDetailQueryExecutor.prefetch(this))
+            {
+                // The prefetch executor is saturated, the details will be
+                // queried when the user navigates to the master record
+                _cache.prefetchFailed(_cacheKey);
+            }
+        }
+
+        @Override
+        public Void call() throws Exception
+        {
+            List<?> entities = null;
+            try
+            {
+                entities = _frameworkManager.executeWithNewConnection(new Callable<List<?>>()
+                {
+                    @Override
+                    public List<?> call()
+                    {
+                        return _blockService.executeQuery(_form, _queryCriteria);
+                    }
+                });
+            }
+            finally
+            {
+                _cache.putPrefetchedEntities(_cacheKey, entities, _generation);
+            }
+            return null;
+        }
+    }
 }
@@ -21,8 +21,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -71,6 +71,8 @@ public class EJFormController implements Serializable
     private HashMap<String, EJEditableBlockController> _blockControllers   = new HashMap<String, EJEditableBlockController>();
     private HashMap<String, EJLovController>           _lovControllers     = new HashMap<String, EJLovController>();
 
+    private final ArrayList<EJEditableBlockController> _saveOrder          = new ArrayList<EJEditableBlockController>();
+
     private final ArrayList<EJFormEventListener>       _formEventListeners = new ArrayList<EJFormEventListener>();
 
     EJFormController(EJFrameworkManager frameworkManager, EJDataForm dataForm, EJMessenger messenger)
@@ -234,6 +236,7 @@ public class EJFormController implements Serializable
         }
         if (traceEnabled)
             LOGGER.trace("Relations DONE");
+        initialiseSaveOrder();
         if (traceEnabled)
             LOGGER.trace("END initialiseController");
     }
@@ -491,6 +494,29 @@ public class EJFormController implements Serializable
         return displayedControllers;
     }
 
+    /**
+     * Executes the deferred queries of all detail blocks whose relations defer
+     * their queries until the block is displayed and whose canvases are now
+     * shown
+     * <p>
+     * The detail blocks are queried in the order of the forms relations. This
+     * is called each time a tab, drawer or stacked page is shown
+     */
+    void executeDisplayedDetailQueries()
+    {
+        for (EJCoreRelationProperties relationProperties : getProperties().getRelationContainer().getAllRelationProperties())
+        {
+            if (relationProperties.isQueryWhenDisplayed())
+            {
+                EJEditableBlockController detailBlockController = getBlockController(relationProperties.getDetailBlockProperties().getName());
+                if (detailBlockController != null)
+                {
+                    detailBlockController.executeQueryWhenDisplayed();
+                }
+            }
+        }
+    }
+
     /**
      * Returns the underlying properties of this form
      * 
@@ -558,86 +584,74 @@ public class EJFormController implements Serializable
     }
 
     /**
-     * Returns an iterator over the block controllers of the dirty blocks of
-     * this form
-     * <p>
-     * It is important that if saving the data in these blocks that the save
-     * operation is done in the correct order. This means that if a master
-     * record has been created then detail records for the master then the
-     * master must be inserted before the details so that no constraint errors
-     * are produced
+     * Computes the order in which the blocks of this form are saved
      * <p>
-     * The <code>ListIterator</code> loops over the blocks in the correct order,
-     * ie, detail blocks after their masters
-     * <p>
-     * 
-     * @return A
-     *         <code>ListIterator</coed> that is used to iterator over the dirty blocks in the correct order
+     * Masters are placed before their details so that inserts and updates can
+     * be made in this order and deletes in the reverse order without producing
+     * constraint errors. The order only depends on the forms relations, so it
+     * is computed once when the form is created
      */
-    private ListIterator<EJEditableBlockController> getAllDirtyBlockControllers(boolean forDelete)
+    private void initialiseSaveOrder()
     {
-        LinkedList<EJEditableBlockController> dirtyBlocks = new LinkedList<EJEditableBlockController>();
+        EJCoreFormProperties formProperties = _dataForm.getProperties();
+        HashSet<EJEditableBlockController> visited = new HashSet<EJEditableBlockController>();
 
-        Iterator<EJEditableBlockController> blockControllers = getAllBlockControllers().iterator();
-        while (blockControllers.hasNext())
+        for (EJCoreBlockProperties blockProperties : formProperties.getBlockContainer().getAllBlockProperties())
         {
-            EJEditableBlockController controller = blockControllers.next();
-
-            if (controller.isBlockDirty())
+            if (formProperties.getMasterRelationProperties(blockProperties) == null)
             {
-                if (forDelete)
-                {
-                    addDirtyChild(dirtyBlocks, controller);
-                }
-                else
-                {
-                    addDirtyParent(dirtyBlocks, controller);
-                }
-                if (!dirtyBlocks.contains(controller))
-                {
-                    dirtyBlocks.add(controller);
-                }
+                addToSaveOrder(formProperties, getBlockController(blockProperties.getName()), visited);
             }
         }
 
-        return dirtyBlocks.listIterator();
-    }
-
-    private void addDirtyParent(LinkedList<EJEditableBlockController> dirtyBlocks, EJEditableBlockController childController)
-    {
-        if (childController.getMasterRelationBlockController() != null)
+        // Blocks only reachable through a relation cycle are appended so that
+        // they are still saved
+        for (EJCoreBlockProperties blockProperties : formProperties.getBlockContainer().getAllBlockProperties())
         {
-            if (childController.getMasterRelationBlockController().isBlockDirty())
-            {
-                addDirtyParent(dirtyBlocks, childController.getMasterRelationBlockController());
-                if (!dirtyBlocks.contains(childController.getMasterRelationBlockController()))
-                {
-                    dirtyBlocks.add(childController.getMasterRelationBlockController());
-                }
-
-            }
+            addToSaveOrder(formProperties, getBlockController(blockProperties.getName()), visited);
         }
     }
 
-    private void addDirtyChild(LinkedList<EJEditableBlockController> dirtyBlocks, EJEditableBlockController parentController)
+    private void addToSaveOrder(EJCoreFormProperties formProperties, EJEditableBlockController controller, HashSet<EJEditableBlockController> visited)
     {
-        if (parentController == null)
+        if (controller == null || !visited.add(controller))
         {
             return;
         }
 
-        EJCoreBlockProperties blockProperties = parentController.getProperties();
+        _saveOrder.add(controller);
+        for (EJCoreRelationProperties relation : formProperties.getDetailRelationProperties(controller.getProperties()))
+        {
+            addToSaveOrder(formProperties, getBlockController(relation.getDetailBlockProperties().getName()), visited);
+        }
+    }
 
-        for (EJCoreRelationProperties relation : blockProperties.getFormProperties().getDetailRelationProperties(blockProperties))
+    /**
+     * Returns the block controllers of the dirty blocks of this form
+     * <p>
+     * It is important that if saving the data in these blocks that the save
+     * operation is done in the correct order. This means that if a master
+     * record has been created then detail records for the master then the
+     * master must be inserted before the details so that no constraint errors
+     * are produced
+     * <p>
+     * The returned list contains the blocks in the correct order for inserts
+     * and updates, ie, detail blocks after their masters. Deletes must iterate
+     * the list in reverse
+     * 
+     * @return The dirty block controllers in save order
+     */
+    private List<EJEditableBlockController> getDirtyBlockControllersInSaveOrder()
+    {
+        ArrayList<EJEditableBlockController> dirtyBlocks = new ArrayList<EJEditableBlockController>();
+        for (EJEditableBlockController controller : _saveOrder)
         {
-            EJCoreBlockProperties detailBlockProperties = relation.getDetailBlockProperties();
-            EJEditableBlockController detailBlockController = parentController.getFormController().getBlockController(detailBlockProperties.getName());
-            addDirtyChild(dirtyBlocks, detailBlockController);
-            if (!dirtyBlocks.contains(detailBlockController))
+            if (controller.isBlockDirty())
             {
-                dirtyBlocks.add(detailBlockController);
+                dirtyBlocks.add(controller);
             }
         }
+        return dirtyBlocks;
     }
 
     /**
@@ -652,48 +666,54 @@ public class EJFormController implements Serializable
         EJManagedFrameworkConnection connection = getFrameworkManager().getConnection();
         try
         {
+            long phaseStart = System.nanoTime();
+
             // First check if there are changes with the current blocks
-            Iterator<EJEditableBlockController> blockControllers = getAllBlockControllers().iterator();
-            while (blockControllers.hasNext())
+            for (EJEditableBlockController controller : _saveOrder)
             {
-                EJEditableBlockController dirtyBlock = blockControllers.next();
-                if (dirtyBlock.getManagedRendererController() != null)
+                if (controller.getManagedRendererController() != null)
                 {
-                    dirtyBlock.getManagedRendererController().synchronize();
+                    controller.getManagedRendererController().synchronize();
                 }
             }
 
+            // The dirty blocks are collected once and the plan is used for
+            // all phases of the save
+            List<EJEditableBlockController> dirtyControllers = getDirtyBlockControllersInSaveOrder();
+            long synchronizeTime = System.nanoTime() - phaseStart;
+
             // Loop through the dirty blocks and perform the inserts
-            ListIterator<EJEditableBlockController> dirtyControllers = getAllDirtyBlockControllers(false);
-            while (dirtyControllers.hasNext())
+            phaseStart = System.nanoTime();
+            for (EJEditableBlockController controller : dirtyControllers)
             {
-                EJEditableBlockController controller = dirtyControllers.next();
                 controller.insertDirtyRecords();
             }
+            long insertTime = System.nanoTime() - phaseStart;
 
             // Loop through the dirty blocks and perform the updates
-            dirtyControllers = getAllDirtyBlockControllers(false);
-            while (dirtyControllers.hasNext())
+            phaseStart = System.nanoTime();
+            for (EJEditableBlockController controller : dirtyControllers)
             {
-                EJEditableBlockController controller = dirtyControllers.next();
                 controller.updateDirtyRecords();
             }
+            long updateTime = System.nanoTime() - phaseStart;
 
-            // Loop through the dirty blocks and perform the deletes
-            dirtyControllers = getAllDirtyBlockControllers(true);
-            while (dirtyControllers.hasNext())
+            // Loop through the dirty blocks and perform the deletes, details
+            // before their masters
+            phaseStart = System.nanoTime();
+            ListIterator<EJEditableBlockController> reversed = dirtyControllers.listIterator(dirtyControllers.size());
+            while (reversed.hasPrevious())
             {
-                EJEditableBlockController controller = dirtyControllers.next();
-                controller.deleteDirtyRecords();
+                reversed.previous().deleteDirtyRecords();
             }
+            long deleteTime = System.nanoTime() - phaseStart;
 
             // If I get this far then all data was saved successfully
             // I need to loop through all dirty blocks and set flags accordingly
-            dirtyControllers = getAllDirtyBlockControllers(true);
-            while (dirtyControllers.hasNext())
+            phaseStart = System.nanoTime();
+            ArrayList<String> savedBlockNames = new ArrayList<String>(dirtyControllers.size());
+            for (EJEditableBlockController controller : dirtyControllers)
             {
-                EJEditableBlockController controller = dirtyControllers.next();
-
                 for (EJDataRecord record : controller.getInsertedRecords())
                 {
                     record.recordSaved();
@@ -707,7 +727,13 @@ public class EJFormController implements Serializable
                     record.recordSaved();
                 }
                 controller.getDataBlock().blockSaved();
+                savedBlockNames.add(controller.getProperties().getName());
             }
+            long completeTime = System.nanoTime() - phaseStart;
+
+            EJFormSaveTimings timings = new EJFormSaveTimings(savedBlockNames, synchronizeTime, insertTime, updateTime, deleteTime, completeTime);
+            if (LOGGER.isTraceEnabled())
+                LOGGER.trace("Form {} saved: {}", _dataForm.getProperties().getName(), timings);
 
             if (_formRenderer != null)
             {
@@ -716,6 +742,7 @@ public class EJFormController implements Serializable
             for (EJFormEventListener listener : new ArrayList<EJFormEventListener>(_formEventListeners))
             {
                 listener.formSaved(this);
+                listener.formSaveTimings(this, timings);
             }
         }
         catch (Exception e)
@@ -803,6 +830,7 @@ public class EJFormController implements Serializable
     public void setFormTitle(String title)
     {
         getProperties().setTranslatedTitle(title);
+        getProperties().definitionModified();
         _frameworkManager.getApplicationManager().updateFormTitle(_form);
 
     }
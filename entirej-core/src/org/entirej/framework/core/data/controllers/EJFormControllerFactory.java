@@ -19,6 +19,7 @@
 package org.entirej.framework.core.data.controllers;
 
 import java.io.Serializable;
+import java.util.Locale;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJFrameworkManager;
@@ -29,6 +30,8 @@ import org.entirej.framework.core.data.EJDataForm;
 import org.entirej.framework.core.enumerations.EJFrameworkMessage;
 import org.entirej.framework.core.interfaces.EJMessenger;
 import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreProperties;
+import org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache;
 
 public class EJFormControllerFactory implements Serializable
 {
@@ -57,6 +60,10 @@ public class EJFormControllerFactory implements Serializable
     
     /**
      * Returns the form properties for the named form
+     * <p>
+     * The parsed and translated properties are shared through the
+     * {@link EJCoreFormPropertiesCache}. The returned properties are always a
+     * new copy and can be modified by the caller
      * 
      * @param formName
      *            - The form name
@@ -65,16 +72,40 @@ public class EJFormControllerFactory implements Serializable
      */
     public EJCoreFormProperties getFormProperties(String formName)
     {
-        EJCoreFormProperties formProperties = null;
+        EJCoreFormPropertiesCache cache = EJCoreFormPropertiesCache.getInstance();
+        Locale locale = _frameworkManager.getCurrentLocale();
+        
+        EJCoreFormProperties formProperties = cache.getFormProperties(_frameworkManager, formName, locale);
+        if (formProperties != null)
+        {
+            setDefinitionSource(cache, formName, locale, formProperties);
+            return formProperties;
+        }
         
         formProperties = _frameworkManager.getFormPropertiesFactory().createFormProperties(formName);
         if (formProperties != null)
         {
             _frameworkManager.getTranslationController().translateForm(formProperties, _frameworkManager);
+            cache.putFormProperties(formName, locale, formProperties);
+            setDefinitionSource(cache, formName, locale, formProperties);
         }
         return formProperties;
     }
     
+    private void setDefinitionSource(EJCoreFormPropertiesCache cache, String formName, Locale locale, EJCoreFormProperties formProperties)
+    {
+        if (!EJCoreProperties.getInstance().isSessionFormReferences())
+        {
+            return;
+        }
+        
+        long version = cache.getDefinitionVersion(formName, locale);
+        if (version != -1)
+        {
+            formProperties.setDefinitionSource(formName, locale, version);
+        }
+    }
+    
     /**
      * Creates a <code>FormController</code> with the given name and
      * <code>IMessenger</code>
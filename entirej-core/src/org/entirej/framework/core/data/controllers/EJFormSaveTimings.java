@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contains the time spent in each phase of a form save
+ * <p>
+ * All times are returned in nanoseconds. An instance is passed to the forms
+ * {@link org.entirej.framework.core.renderers.eventhandlers.EJFormEventListener}s
+ * once the changes have been saved
+ */
+public class EJFormSaveTimings implements Serializable
+{
+    private final List<String> _savedBlockNames;
+    private final long         _synchronizeTime;
+    private final long         _insertTime;
+    private final long         _updateTime;
+    private final long         _deleteTime;
+    private final long         _completeTime;
+
+    EJFormSaveTimings(List<String> savedBlockNames, long synchronizeTime, long insertTime, long updateTime, long deleteTime, long completeTime)
+    {
+        _savedBlockNames = Collections.unmodifiableList(savedBlockNames);
+        _synchronizeTime = synchronizeTime;
+        _insertTime = insertTime;
+        _updateTime = updateTime;
+        _deleteTime = deleteTime;
+        _completeTime = completeTime;
+    }
+
+    /**
+     * Returns the names of the dirty blocks in the order they were saved
+     * 
+     * @return The names of the saved blocks, masters before their details
+     */
+    public List<String> getSavedBlockNames()
+    {
+        return _savedBlockNames;
+    }
+
+    /**
+     * Returns the time spent synchronizing the block renderers before saving
+     */
+    public long getSynchronizeTime()
+    {
+        return _synchronizeTime;
+    }
+
+    /**
+     * Returns the time spent inserting new records
+     */
+    public long getInsertTime()
+    {
+        return _insertTime;
+    }
+
+    /**
+     * Returns the time spent updating changed records
+     */
+    public long getUpdateTime()
+    {
+        return _updateTime;
+    }
+
+    /**
+     * Returns the time spent deleting records
+     */
+    public long getDeleteTime()
+    {
+        return _deleteTime;
+    }
+
+    /**
+     * Returns the time spent marking the saved records and blocks as clean
+     */
+    public long getCompleteTime()
+    {
+        return _completeTime;
+    }
+
+    /**
+     * Returns the total time of the save
+     */
+    public long getTotalTime()
+    {
+        return _synchronizeTime + _insertTime + _updateTime + _deleteTime + _completeTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EJFormSaveTimings [blocks=" + _savedBlockNames + ", synchronize=" + _synchronizeTime + ", insert=" + _insertTime + ", update=" + _updateTime
+                + ", delete=" + _deleteTime + ", complete=" + _completeTime + "]";
+    }
+}
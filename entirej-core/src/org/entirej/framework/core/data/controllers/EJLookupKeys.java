@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Creates the keys used to compare lov values with block values in memory
+ * <p>
+ * The values of a block item and a lov item can hold the same value using
+ * different java types, for example an <code>Integer</code> block key and a
+ * <code>Long</code> or <code>BigDecimal</code> lov key. The database compares
+ * these by value, so numbers are turned into a <code>BigDecimal</code> without
+ * trailing zeros and dates into a plain <code>java.util.Date</code>
+ */
+final class EJLookupKeys
+{
+    private EJLookupKeys()
+    {
+    }
+    
+    /**
+     * Returns the key to use for the given value within a hash based lookup
+     * 
+     * @param value
+     *            The block or lov value
+     * @return The key, which is equal to the keys of all other values that the
+     *         database would see as equal
+     */
+    static Object toKey(Object value)
+    {
+        if (value instanceof Number)
+        {
+            BigDecimal decimal = toDecimal((Number) value);
+            if (decimal == null)
+            {
+                return value;
+            }
+            decimal = decimal.stripTrailingZeros();
+            return decimal.signum() == 0 ? BigDecimal.ZERO : decimal;
+        }
+        
+        if (value instanceof Date)
+        {
+            // A timestamp holding more than milliseconds cannot be turned
+            // into a date without losing its value
+            if (value instanceof Timestamp && ((Timestamp) value).getNanos() % 1000000 != 0)
+            {
+                return value;
+            }
+            return new Date(((Date) value).getTime());
+        }
+        return value;
+    }
+    
+    private static BigDecimal toDecimal(Number number)
+    {
+        if (number instanceof BigDecimal)
+        {
+            return (BigDecimal) number;
+        }
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte)
+        {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        if (number instanceof BigInteger)
+        {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (number instanceof Double || number instanceof Float)
+        {
+            double value = number.doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value))
+            {
+                return null;
+            }
+        }
+        
+        // The string representation keeps the decimal value a float or double
+        // was given as
+        try
+        {
+            return new BigDecimal(number.toString());
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+}
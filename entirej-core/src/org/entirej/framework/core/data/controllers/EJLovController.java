@@ -19,7 +19,9 @@
 package org.entirej.framework.core.data.controllers;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJFrameworkManager;
@@ -35,16 +37,20 @@ import org.entirej.framework.core.enumerations.EJMessageLevel;
 import org.entirej.framework.core.enumerations.EJRecordType;
 import org.entirej.framework.core.interfaces.EJFrameworkConnection;
 import org.entirej.framework.core.interfaces.EJScreenItemController;
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
 import org.entirej.framework.core.internal.EJInternalBlock;
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
 import org.entirej.framework.core.properties.EJCoreLovDefinitionProperties;
 import org.entirej.framework.core.properties.EJCoreLovItemMappingProperties;
 import org.entirej.framework.core.properties.EJCoreLovMappingProperties;
+import org.entirej.framework.core.properties.interfaces.EJItemProperties;
 import org.entirej.framework.core.renderers.EJManagedItemRendererWrapper;
 import org.entirej.framework.core.renderers.EJManagedQueryScreenRendererWrapper;
 import org.entirej.framework.core.renderers.registry.EJBlockItemRendererRegister;
 import org.entirej.framework.core.renderers.registry.EJRendererFactory;
 import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJQuerySort;
+import org.entirej.framework.core.service.EJRestriction;
 import org.entirej.framework.core.service.EJRestrictions;
 
 public class EJLovController extends EJBlockController implements Serializable
@@ -53,6 +59,8 @@ public class EJLovController extends EJBlockController implements Serializable
     private final EJFormController               _formController;
     private final EJCoreLovDefinitionProperties  _definitionProperties;
     private final EJManagedLovRendererController _lovRendererController;
+    private transient EJLovValidationIndex       _completeResult;
+    private transient String                     _validationItemName;
 
     public EJLovController(EJFormController formController, EJCoreLovDefinitionProperties lovDefinitionProperties)
     {
@@ -301,6 +309,241 @@ public class EJLovController extends EJBlockController implements Serializable
         }
     }
 
+    /**
+     * Answers the query from the {@link EJSharedLovCache} if the lov
+     * definition shares its queries, otherwise the block service is queried
+     * <p>
+     * Item validations of lovs that validate in memory are answered from the
+     * complete lov result if it has been loaded
+     */
+    @Override
+    protected List<?> executeServiceQuery(EJQueryCriteria queryCriteria)
+    {
+        if (_validationItemName != null)
+        {
+            List<?> entities = findValidationEntities(queryCriteria);
+            if (entities != null)
+            {
+                if (logger.isTraceEnabled())
+                    logger.trace("Validated item {} of lov {} in memory, {} records found", _validationItemName, _definitionProperties.getName(), entities.size());
+                return entities;
+            }
+        }
+
+        if (_definitionProperties.getSharedCacheSize() <= 0)
+        {
+            List<?> entities = super.executeServiceQuery(queryCriteria);
+            setCompleteResult(queryCriteria, entities, 0);
+            return entities;
+        }
+
+        EJSharedLovCache sharedCache = EJSharedLovCache.getInstance();
+        String criteriaKey = getSharedCacheKey(queryCriteria);
+        EJSharedLovCache.SharedQuery query = sharedCache.getQuery(_definitionProperties, criteriaKey);
+        if (query != null)
+        {
+            if (logger.isTraceEnabled())
+                logger.trace("Using the shared entities of lov {} for criteria {}", _definitionProperties.getSharedCacheName(), criteriaKey);
+            queryCriteria.setHasMoreRows(query.hasMoreRows());
+            return query.getEntities();
+        }
+
+        long generation = sharedCache.getGeneration(_definitionProperties);
+        List<?> entities = super.executeServiceQuery(queryCriteria);
+        if (entities == null)
+        {
+            return null;
+        }
+        entities = sharedCache.putQuery(_definitionProperties, criteriaKey, entities, queryCriteria.hasMoreRows(), generation).getEntities();
+        setCompleteResult(queryCriteria, entities, generation);
+        return entities;
+    }
+
+    @Override
+    protected void pageRetrieved(EJQueryCriteria queryCriteria, List<?> entities)
+    {
+        if (_definitionProperties.getSharedCacheSize() > 0 && entities != null)
+        {
+            EJSharedLovCache sharedCache = EJSharedLovCache.getInstance();
+            sharedCache.putQuery(_definitionProperties, getSharedCacheKey(queryCriteria), entities, queryCriteria.hasMoreRows(),
+                    sharedCache.getGeneration(_definitionProperties));
+        }
+    }
+
+    /**
+     * Keeps the entities of a query that retrieved all rows of the lov, so
+     * that item validations using the same criteria can be answered in memory
+     */
+    private void setCompleteResult(EJQueryCriteria queryCriteria, List<?> entities, long generation)
+    {
+        if (!_definitionProperties.validateInMemory() || entities == null)
+        {
+            return;
+        }
+
+        // The result of a validation query only contains the validated value
+        if (_validationItemName != null && queryCriteria.containsRestriction(_validationItemName))
+        {
+            return;
+        }
+
+        boolean complete;
+        if (queryCriteria.queryAllRows())
+        {
+            complete = queryCriteria.getMaxResults() <= 0 || entities.size() < queryCriteria.getMaxResults();
+        }
+        else
+        {
+            complete = queryCriteria.getPageNumber() <= 1 && entities.size() < queryCriteria.getPageSize();
+        }
+        if (!complete)
+        {
+            return;
+        }
+
+        String criteriaKey = getValidationCriteriaKey(queryCriteria, null);
+        if (_definitionProperties.getSharedCacheSize() > 0)
+        {
+            EJSharedLovCache.getInstance().putCompleteResult(_definitionProperties, new EJLovValidationIndex(criteriaKey, entities, _definitionProperties.getValidationTextComparison()), generation);
+        }
+        else
+        {
+            _completeResult = new EJLovValidationIndex(criteriaKey, new ArrayList<Object>(entities), _definitionProperties.getValidationTextComparison());
+        }
+    }
+
+    /**
+     * Returns the entities of the complete lov result matching the
+     * restriction on the validated item or <code>null</code> if the
+     * validation must be made by the block service
+     */
+    private List<?> findValidationEntities(EJQueryCriteria queryCriteria)
+    {
+        EJLovValidationIndex completeResult;
+        if (_definitionProperties.getSharedCacheSize() > 0)
+        {
+            completeResult = EJSharedLovCache.getInstance().getCompleteResult(_definitionProperties);
+        }
+        else
+        {
+            completeResult = _completeResult;
+        }
+        if (completeResult == null)
+        {
+            return null;
+        }
+
+        // The restriction on the validated item is the last one added for it
+        EJRestriction<?> restriction = null;
+        for (EJRestriction<?> criteriaRestriction : queryCriteria.getAllRestrictions())
+        {
+            if (criteriaRestriction.getBlockItemName().equalsIgnoreCase(_validationItemName))
+            {
+                restriction = criteriaRestriction;
+            }
+        }
+
+        EJItemProperties itemProperties = getProperties().getItemProperties(_validationItemName);
+        if (restriction == null || itemProperties == null || !itemProperties.isBlockServiceItem()
+                || !itemProperties.getDataTypeClass().isInstance(restriction.getValue()))
+        {
+            return null;
+        }
+
+        // All other restrictions must be the ones of the complete result
+        if (!completeResult.getCriteriaKey().equals(getValidationCriteriaKey(queryCriteria, restriction)))
+        {
+            return null;
+        }
+
+        List<Object> entities = completeResult.findEntities(itemProperties.getName(), restriction);
+        if (entities == null)
+        {
+            return null;
+        }
+
+        if (queryCriteria.queryAllRows())
+        {
+            int maxResults = queryCriteria.getMaxResults();
+            queryCriteria.setHasMoreRows(maxResults > 0 && entities.size() > maxResults);
+            return queryCriteria.hasMoreRows() ? entities.subList(0, maxResults) : entities;
+        }
+
+        int pageSize = queryCriteria.getPageSize();
+        if (pageSize <= 0)
+        {
+            return null;
+        }
+        int start = Math.min(entities.size(), Math.max(0, queryCriteria.getPageNumber() - 1) * pageSize);
+        int end = Math.min(entities.size(), start + pageSize);
+        queryCriteria.setHasMoreRows(end < entities.size());
+        return entities.subList(start, end);
+    }
+
+    /**
+     * Returns the key of the restrictions, except the given one, and the
+     * sorting of the criteria
+     */
+    private String getValidationCriteriaKey(EJQueryCriteria queryCriteria, EJRestriction<?> excludedRestriction)
+    {
+        StringBuilder key = new StringBuilder("|");
+        for (EJRestriction<?> restriction : queryCriteria.getAllRestrictions())
+        {
+            if (restriction != excludedRestriction)
+            {
+                key.append(restriction.getCacheKey()).append('|');
+            }
+        }
+        for (EJQuerySort sort : queryCriteria.getSorts())
+        {
+            key.append(sort.getSort()).append(' ').append(sort.getType()).append('|');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Entities of a shared lov are used by the records of other sessions and
+     * entities of a complete lov result by the records of later validations,
+     * so each record is given its own copy of the entity
+     */
+    @Override
+    protected EJDataRecord createQueriedRecord(Object entity)
+    {
+        EJDefaultServicePojoHelper pojoHelper = getBlock().getServicePojoHelper();
+        if ((_definitionProperties.getSharedCacheSize() <= 0 && !_definitionProperties.validateInMemory()) || pojoHelper == null)
+        {
+            return super.createQueriedRecord(entity);
+        }
+
+        Object entityCopy = pojoHelper.createNewServicePojo(entity);
+        EJDataRecord record = new EJDataRecord(getFormController(), getBlock(), entityCopy, entity);
+        for (String itemName : record.getColumnNames())
+        {
+            pojoHelper.setValue(itemName, entityCopy, record.getValue(itemName));
+        }
+        return record;
+    }
+
+    /**
+     * Returns the key of the given criteria within the shared lov cache
+     * <p>
+     * The key contains the restrictions, sorting and paging of the criteria
+     */
+    private String getSharedCacheKey(EJQueryCriteria queryCriteria)
+    {
+        StringBuilder key = new StringBuilder(queryCriteria.getCacheKey());
+        for (EJQuerySort sort : queryCriteria.getSorts())
+        {
+            key.append(sort.getSort()).append(' ').append(sort.getType()).append('|');
+        }
+        key.append(queryCriteria.queryAllRows()).append('|');
+        key.append(queryCriteria.getMaxResults()).append('|');
+        key.append(queryCriteria.getPageNumber()).append('|');
+        key.append(queryCriteria.getPageSize()).append('|');
+        key.append(queryCriteria.getSeekValues());
+        return key.toString();
+    }
+
     /**
      * Indicates that the user want to navigate to the next record
      */
@@ -412,6 +655,10 @@ public class EJLovController extends EJBlockController implements Serializable
         queryCriteria.add(EJRestrictions.equals(lovDefItemName, newValue));
 
         EJManagedFrameworkConnection connection = getFormController().getFrameworkManager().getConnection();
+        if (_definitionProperties.validateInMemory())
+        {
+            _validationItemName = lovDefItemName;
+        }
         try
         {
             executeQuery(queryCriteria);
@@ -461,6 +708,7 @@ public class EJLovController extends EJBlockController implements Serializable
         }
         finally
         {
+            _validationItemName = null;
             connection.close();
         }
 
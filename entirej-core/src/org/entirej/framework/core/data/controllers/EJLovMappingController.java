@@ -19,8 +19,12 @@
 package org.entirej.framework.core.data.controllers;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.entirej.framework.core.EJForm;
 import org.entirej.framework.core.EJFrameworkManager;
@@ -77,25 +81,8 @@ public class EJLovMappingController implements Serializable
     {
         // I only want to add values after a query if the developer has set the
         // corresponding property
-        if (!_mappingProperties.executeAfterQuery())
-        {
-            return;
-        }
-        
-        if (_mappingProperties.getLovDefinitionProperties() == null)
-        {
-            return;
-        }
-        
-        if (_dataService == null)
-        {
-            _dataService = _mappingProperties.getLovDefinitionProperties().getBlockProperties().getBlockService();
-        }
-        
-        if (_dataService == null)
+        if (!canExecuteAfterQuery())
         {
-            _frameworkManager.handleMessage(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.CANNOT_PERFORM_QUERY_WITH_NO_SERVICE,
-                    _mappingProperties.getLovDefinitionProperties().getBlockProperties().getName()));
             return;
         }
         
@@ -115,42 +102,11 @@ public class EJLovMappingController implements Serializable
         queryCriteria.setQueryAllRows(true);
         
         
-        for (EJCoreLovItemMappingProperties mapProps : _mappingProperties.getAllItemMappingProperties())
+        for (EJCoreLovItemMappingProperties mapProps : getKeyItemMappings(blockRecord, itemContainer))
         {
-            String blockItemName = mapProps.getBlockItemName();
-            String lovDefItemName = mapProps.getLovDefinitionItemName();
-            
-            // Check that there is both a block item and a lov def item
-            if (lovDefItemName == null || lovDefItemName.trim().length() == 0)
-            {
-                continue;
-            }
-            if (blockItemName == null || blockItemName.trim().length() == 0)
-            {
-                continue;
-            }
-            
-            EJCoreItemProperties itemProps = _block.getProperties().getItemProperties(blockItemName);
-            
-            // I am only interested in entity items
-            if (itemProps == null /*|| itemProps.isBlockServiceItem() == false*/)
-            {
-                continue;
-            }
-            
-            if (itemContainer.contains(lovDefItemName) && blockRecord.getValue(blockItemName) != null)
-            {
-                itemValueSet = true;
-                
-                if (blockRecord.getValue(blockItemName) == null)
-                {
-                    queryCriteria.add(EJRestrictions.isNull(itemContainer.getItemProperties(lovDefItemName).getName()));
-                }
-                else
-                {
-                    queryCriteria.add(EJRestrictions.equals(itemContainer.getItemProperties(lovDefItemName).getName(), blockRecord.getValue(blockItemName)));
-                }
-            }
+            itemValueSet = true;
+            queryCriteria.add(EJRestrictions.equals(itemContainer.getItemProperties(mapProps.getLovDefinitionItemName()).getName(),
+                    blockRecord.getValue(mapProps.getBlockItemName())));
         }
         
         // Only execute a query if a query value has been set. If the query
@@ -191,4 +147,203 @@ public class EJLovMappingController implements Serializable
             }
         }
     }
+    
+    /**
+     * Adds the lookup values to all records of a queried page
+     * <p>
+     * If the mapping is set to batch its post query, the distinct key values
+     * of all records are collected and queried using one <code>IN</code>
+     * restriction per chunk of {@link EJCoreLovMappingProperties#getPostQueryBatchSize()}
+     * values. The retrieved lov records are then joined back to the block
+     * records using their key values. Records that are not keyed by exactly
+     * one mapped item are looked up individually
+     * 
+     * @param formController
+     *            The form controller of the queried block
+     * @param blockRecords
+     *            The records of the queried page
+     * @param cache
+     *            The post query cache used for individual lookups
+     */
+    void addLookupValuesForQueryRecords(EJFormController formController, List<EJDataRecord> blockRecords, EJPostQueryCache cache)
+    {
+        if (!_mappingProperties.batchPostQuery())
+        {
+            for (EJDataRecord blockRecord : blockRecords)
+            {
+                addLookupValuesForQueryRecord(formController, blockRecord, cache);
+            }
+            return;
+        }
+        
+        if (!canExecuteAfterQuery())
+        {
+            return;
+        }
+        
+        EJCoreItemPropertiesContainer itemContainer = _mappingProperties.getLovDefinitionProperties().getBlockProperties().getItemPropertiesContainer();
+        
+        // Group the records by the single mapped item that holds their key
+        // value. Each group is then looked up by one set based query
+        LinkedHashMap<EJCoreLovItemMappingProperties, LinkedHashMap<Object, List<EJDataRecord>>> keyedRecords = new LinkedHashMap<EJCoreLovItemMappingProperties, LinkedHashMap<Object, List<EJDataRecord>>>();
+        for (EJDataRecord blockRecord : blockRecords)
+        {
+            List<EJCoreLovItemMappingProperties> keyMappings = getKeyItemMappings(blockRecord, itemContainer);
+            if (keyMappings.size() == 1)
+            {
+                EJCoreLovItemMappingProperties keyMapping = keyMappings.get(0);
+                LinkedHashMap<Object, List<EJDataRecord>> recordsByKey = keyedRecords.get(keyMapping);
+                if (recordsByKey == null)
+                {
+                    recordsByKey = new LinkedHashMap<Object, List<EJDataRecord>>();
+                    keyedRecords.put(keyMapping, recordsByKey);
+                }
+                
+                Object key = blockRecord.getValue(keyMapping.getBlockItemName());
+                List<EJDataRecord> records = recordsByKey.get(key);
+                if (records == null)
+                {
+                    records = new ArrayList<EJDataRecord>();
+                    recordsByKey.put(key, records);
+                }
+                records.add(blockRecord);
+            }
+            else if (keyMappings.size() > 1)
+            {
+                addLookupValuesForQueryRecord(formController, blockRecord, cache);
+            }
+        }
+        
+        if (keyedRecords.isEmpty())
+        {
+            return;
+        }
+        
+        EJLovController lovController = formController.getLovController(_mappingProperties.getLovDefinitionProperties().getName());
+        EJForm form = new EJForm(formController.getInternalForm());
+        int batchSize = _mappingProperties.getPostQueryBatchSize();
+        
+        for (Map.Entry<EJCoreLovItemMappingProperties, LinkedHashMap<Object, List<EJDataRecord>>> entry : keyedRecords.entrySet())
+        {
+            String lovDefItemName = entry.getKey().getLovDefinitionItemName();
+            String restrictionName = itemContainer.getItemProperties(lovDefItemName).getName();
+            
+            ArrayList<Object> keys = new ArrayList<Object>(entry.getValue().keySet());
+            for (int start = 0; start < keys.size(); start += batchSize)
+            {
+                List<Object> chunk = keys.subList(start, Math.min(start + batchSize, keys.size()));
+                
+                EJQueryCriteria queryCriteria = new EJQueryCriteria(new EJLovBlock(lovController.getBlock()), _mappingProperties.includeDefaultQueryValues());
+                queryCriteria.setPageNumber(1);
+                queryCriteria.setPageSize(chunk.size());
+                queryCriteria.setQueryAllRows(true);
+                queryCriteria.add(EJRestrictions.in(restrictionName, new ArrayList<Object>(chunk)));
+                
+                List<?> entities = _dataService.executeQuery(form, queryCriteria);
+                if (entities == null)
+                {
+                    continue;
+                }
+                
+                // Hash join the retrieved lov records back onto the block
+                // records having the same key value
+                HashMap<Object, List<EJDataRecord>> recordsByKey = new HashMap<Object, List<EJDataRecord>>();
+                for (Map.Entry<Object, List<EJDataRecord>> keyEntry : entry.getValue().entrySet())
+                {
+                    recordsByKey.put(toJoinKey(keyEntry.getKey()), keyEntry.getValue());
+                }
+                
+                for (Object entity : entities)
+                {
+                    EJDataRecord lovRecord = new EJDataRecord(formController, lovController.getBlock(), entity, false);
+                    if (!lovRecord.containsItem(lovDefItemName))
+                    {
+                        continue;
+                    }
+                    
+                    List<EJDataRecord> records = recordsByKey.get(toJoinKey(lovRecord.getValue(lovDefItemName)));
+                    if (records != null)
+                    {
+                        for (EJDataRecord blockRecord : records)
+                        {
+                            queryCompleted(lovRecord, blockRecord);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private boolean canExecuteAfterQuery()
+    {
+        if (!_mappingProperties.executeAfterQuery())
+        {
+            return false;
+        }
+        
+        if (_mappingProperties.getLovDefinitionProperties() == null)
+        {
+            return false;
+        }
+        
+        if (_dataService == null)
+        {
+            _dataService = _mappingProperties.getLovDefinitionProperties().getBlockProperties().getBlockService();
+        }
+        
+        if (_dataService == null)
+        {
+            _frameworkManager.handleMessage(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.CANNOT_PERFORM_QUERY_WITH_NO_SERVICE,
+                    _mappingProperties.getLovDefinitionProperties().getBlockProperties().getName()));
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the item mappings whose block item holds a value within the
+     * given record. These values are used to restrict the lookup query
+     */
+    private List<EJCoreLovItemMappingProperties> getKeyItemMappings(EJDataRecord blockRecord, EJCoreItemPropertiesContainer itemContainer)
+    {
+        ArrayList<EJCoreLovItemMappingProperties> keyMappings = new ArrayList<EJCoreLovItemMappingProperties>();
+        for (EJCoreLovItemMappingProperties mapProps : _mappingProperties.getAllItemMappingProperties())
+        {
+            String blockItemName = mapProps.getBlockItemName();
+            String lovDefItemName = mapProps.getLovDefinitionItemName();
+            
+            // Check that there is both a block item and a lov def item
+            if (lovDefItemName == null || lovDefItemName.trim().length() == 0)
+            {
+                continue;
+            }
+            if (blockItemName == null || blockItemName.trim().length() == 0)
+            {
+                continue;
+            }
+            
+            EJCoreItemProperties itemProps = _block.getProperties().getItemProperties(blockItemName);
+            
+            // I am only interested in entity items
+            if (itemProps == null /*|| itemProps.isBlockServiceItem() == false*/)
+            {
+                continue;
+            }
+            
+            if (itemContainer.contains(lovDefItemName) && blockRecord.getValue(blockItemName) != null)
+            {
+                keyMappings.add(mapProps);
+            }
+        }
+        return keyMappings;
+    }
+    
+    /**
+     * Keys are compared by value, as the lov and the block may hold the same
+     * number or date using a different type
+     */
+    private Object toJoinKey(Object value)
+    {
+        return EJLookupKeys.toKey(value);
+    }
 }
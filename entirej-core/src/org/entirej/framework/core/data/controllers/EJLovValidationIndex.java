@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.entirej.framework.core.EJPojoAccessor;
+import org.entirej.framework.core.EJPojoAccessors;
+import org.entirej.framework.core.enumerations.EJTextComparison;
+import org.entirej.framework.core.service.EJRestriction;
+import org.entirej.framework.core.service.EJRestrictionType;
+
+/**
+ * The complete result of a lov query, indexed for the validation of lov items
+ * <p>
+ * Equality restrictions are answered from a hash index of the item values and
+ * <code>like</code> restrictions with a <code>'x%'</code> pattern from the
+ * values sorted by their text. The indexes of an item are built when it is
+ * first validated and the entities found are returned in the order of the
+ * lov result
+ * <p>
+ * Text values are only compared if the way the database compares them is
+ * known, otherwise the restriction is left to the database
+ */
+public class EJLovValidationIndex
+{
+    private static final Object       NO_INDEX      = new Object();
+    
+    private final String              _criteriaKey;
+    private final List<?>             _entities;
+    private final long                _created;
+    private final EJTextComparison    _textComparison;
+    private final Map<String, Object> _equalIndexes = new ConcurrentHashMap<String, Object>();
+    private final Map<String, Object> _likeIndexes  = new ConcurrentHashMap<String, Object>();
+    
+    /**
+     * Creates the index of a complete lov result
+     * 
+     * @param criteriaKey
+     *            The key of the restrictions and sorting used to query the
+     *            result
+     * @param entities
+     *            The entities of the lov result
+     * @param textComparison
+     *            The way the database compares the text values of the lov
+     */
+    public EJLovValidationIndex(String criteriaKey, List<?> entities, EJTextComparison textComparison)
+    {
+        _criteriaKey = criteriaKey;
+        _entities = entities;
+        _textComparison = textComparison == null ? EJTextComparison.UNKNOWN : textComparison;
+        _created = System.currentTimeMillis();
+    }
+    
+    /**
+     * Returns the key of the restrictions and sorting used to query the result
+     * 
+     * @return The criteria key of the result
+     */
+    public String getCriteriaKey()
+    {
+        return _criteriaKey;
+    }
+    
+    /**
+     * Returns the entities of the lov result
+     * 
+     * @return The entities
+     */
+    public List<?> getEntities()
+    {
+        return _entities;
+    }
+    
+    long getCreated()
+    {
+        return _created;
+    }
+    
+    /**
+     * Returns the entities of the lov result matching the given restriction
+     * 
+     * @param itemName
+     *            The name of the restricted lov item
+     * @param restriction
+     *            An equals or like restriction on the item
+     * @return The matching entities or <code>null</code> if the restriction
+     *         cannot be answered from the index
+     */
+    public List<Object> findEntities(String itemName, EJRestriction<?> restriction)
+    {
+        if (restriction == null || restriction.getValue() == null || !restriction.getSubRestrictions().isEmpty())
+        {
+            return null;
+        }
+        
+        Object value = restriction.getValue();
+        if (value instanceof String && _textComparison == EJTextComparison.UNKNOWN)
+        {
+            return null;
+        }
+        
+        if (restriction.getType() == EJRestrictionType.LIKE)
+        {
+            if (!(value instanceof String))
+            {
+                return null;
+            }
+            
+            String pattern = (String) value;
+            int wildcard = indexOfWildcard(pattern);
+            if (wildcard < 0)
+            {
+                return findEqualEntities(itemName, pattern);
+            }
+            if (wildcard == pattern.length() - 1 && pattern.charAt(wildcard) == '%')
+            {
+                return findPrefixEntities(itemName, pattern.substring(0, wildcard));
+            }
+            return null;
+        }
+        else if (restriction.getType() == EJRestrictionType.EQUAL)
+        {
+            return findEqualEntities(itemName, value);
+        }
+        return null;
+    }
+    
+    private static int indexOfWildcard(String pattern)
+    {
+        for (int i = 0; i < pattern.length(); i++)
+        {
+            char c = pattern.charAt(i);
+            if (c == '%' || c == '_' || c == '\\')
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private List<Object> findEqualEntities(String itemName, Object value)
+    {
+        Object index = _equalIndexes.get(itemName);
+        if (index == null)
+        {
+            index = buildEqualIndex(itemName);
+            _equalIndexes.put(itemName, index);
+        }
+        if (index == NO_INDEX)
+        {
+            return null;
+        }
+        
+        @SuppressWarnings("unchecked")
+        int[] positions = ((Map<Object, int[]>) index).get(getEqualKey(value));
+        return getEntities(positions == null ? new int[0] : positions);
+    }
+    
+    private List<Object> findPrefixEntities(String itemName, String prefix)
+    {
+        Object index = _likeIndexes.get(itemName);
+        if (index == null)
+        {
+            index = buildLikeIndex(itemName);
+            _likeIndexes.put(itemName, index);
+        }
+        if (index == NO_INDEX)
+        {
+            return null;
+        }
+        
+        LikeIndex likeIndex = (LikeIndex) index;
+        prefix = toText(prefix);
+        
+        // Find the first value greater or equal to the prefix, all values
+        // starting with the prefix follow it
+        int low = 0;
+        int high = likeIndex._values.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (likeIndex._values[middle].compareTo(prefix) < 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        
+        int end = low;
+        while (end < likeIndex._values.length && likeIndex._values[end].startsWith(prefix))
+        {
+            end++;
+        }
+        
+        int[] positions = Arrays.copyOfRange(likeIndex._positions, low, end);
+        Arrays.sort(positions);
+        return getEntities(positions);
+    }
+    
+    private List<Object> getEntities(int[] positions)
+    {
+        List<Object> entities = new ArrayList<Object>(positions.length);
+        for (int position : positions)
+        {
+            entities.add(_entities.get(position));
+        }
+        return entities;
+    }
+    
+    private Object buildEqualIndex(String itemName)
+    {
+        Object[] values = getValues(itemName);
+        if (values == null)
+        {
+            return NO_INDEX;
+        }
+        
+        Map<Object, List<Integer>> positionsByKey = new HashMap<Object, List<Integer>>();
+        for (int i = 0; i < values.length; i++)
+        {
+            if (values[i] == null)
+            {
+                continue;
+            }
+            
+            Object key = getEqualKey(values[i]);
+            List<Integer> positions = positionsByKey.get(key);
+            if (positions == null)
+            {
+                positions = new ArrayList<Integer>(1);
+                positionsByKey.put(key, positions);
+            }
+            positions.add(i);
+        }
+        
+        Map<Object, int[]> index = new HashMap<Object, int[]>(positionsByKey.size() * 4 / 3 + 1);
+        for (Map.Entry<Object, List<Integer>> entry : positionsByKey.entrySet())
+        {
+            List<Integer> positions = entry.getValue();
+            int[] indexPositions = new int[positions.size()];
+            for (int i = 0; i < indexPositions.length; i++)
+            {
+                indexPositions[i] = positions.get(i);
+            }
+            index.put(entry.getKey(), indexPositions);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+    
+    private Object buildLikeIndex(String itemName)
+    {
+        final Object[] values = getValues(itemName);
+        if (values == null)
+        {
+            return NO_INDEX;
+        }
+        
+        List<Integer> positions = new ArrayList<Integer>(values.length);
+        for (int i = 0; i < values.length; i++)
+        {
+            if (values[i] instanceof String)
+            {
+                values[i] = toText((String) values[i]);
+                positions.add(i);
+            }
+            else if (values[i] != null)
+            {
+                return NO_INDEX;
+            }
+        }
+        
+        Collections.sort(positions, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer position1, Integer position2)
+            {
+                return ((String) values[position1]).compareTo((String) values[position2]);
+            }
+        });
+        
+        LikeIndex index = new LikeIndex(positions.size());
+        for (int i = 0; i < positions.size(); i++)
+        {
+            index._positions[i] = positions.get(i);
+            index._values[i] = (String) values[positions.get(i)];
+        }
+        return index;
+    }
+    
+    /**
+     * Returns the values of the given item of all entities or
+     * <code>null</code> if an entity has no getter for the item
+     */
+    private Object[] getValues(String itemName)
+    {
+        Object[] values = new Object[_entities.size()];
+        for (int i = 0; i < values.length; i++)
+        {
+            Object entity = _entities.get(i);
+            if (entity == null)
+            {
+                continue;
+            }
+            
+            EJPojoAccessor getter = EJPojoAccessors.forClass(entity.getClass()).getGetter(itemName);
+            if (getter == null)
+            {
+                return null;
+            }
+            values[i] = getter.get(entity);
+        }
+        return values;
+    }
+    
+    private Object getEqualKey(Object value)
+    {
+        if (value instanceof String)
+        {
+            return toText((String) value);
+        }
+        return EJLookupKeys.toKey(value);
+    }
+    
+    /**
+     * Returns the text as it is compared by the database
+     */
+    private String toText(String value)
+    {
+        return _textComparison == EJTextComparison.CASE_INSENSITIVE ? value.toLowerCase(Locale.ROOT) : value;
+    }
+    
+    private static final class LikeIndex
+    {
+        private final int[]    _positions;
+        private final String[] _values;
+        
+        LikeIndex(int size)
+        {
+            _positions = new int[size];
+            _values = new String[size];
+        }
+    }
+}
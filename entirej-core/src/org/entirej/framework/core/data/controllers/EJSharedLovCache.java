@@ -0,0 +1,362 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.entirej.framework.core.properties.EJCoreLovDefinitionProperties;
+import org.entirej.framework.core.service.EJLRUCache;
+
+/**
+ * Caches the entities queried by lovs across all sessions of the application
+ * <p>
+ * A lov uses the shared cache if the
+ * {@link EJCoreLovDefinitionProperties#getSharedCacheSize()} of its definition
+ * is greater than <code>0</code>. Queries are kept per
+ * {@link EJCoreLovDefinitionProperties#getSharedCacheName()} and keyed by the
+ * restrictions, sorting and paging of the query criteria. The least recently
+ * used queries of a lov are removed once its cache is full and queries expire
+ * after the definitions
+ * {@link EJCoreLovDefinitionProperties#getSharedCacheTimeToLive()}. The size
+ * and time to live are taken from the first definition that uses a name
+ * <p>
+ * The cached entity lists are unmodifiable and shared by every
+ * {@link EJLovController} of every framework manager, so lov records are
+ * created from copies of the entities. Applications should call
+ * {@link #invalidate(String)} when the reference data of a lov changes
+ */
+public class EJSharedLovCache
+{
+    private static final EJSharedLovCache                     _instance = new EJSharedLovCache();
+    
+    private final ConcurrentHashMap<String, SharedLovQueries> _lovs     = new ConcurrentHashMap<String, SharedLovQueries>();
+    
+    private EJSharedLovCache()
+    {
+    }
+    
+    /**
+     * Returns the application wide shared lov cache
+     * 
+     * @return The shared lov cache
+     */
+    public static EJSharedLovCache getInstance()
+    {
+        return _instance;
+    }
+    
+    /**
+     * Returns the cached query of the given lov
+     * 
+     * @param lovDefinition
+     *            The definition of the lov
+     * @param criteriaKey
+     *            The key of the query criteria
+     * @return The cached query or <code>null</code> if it is not cached or has
+     *         expired
+     */
+    public SharedQuery getQuery(EJCoreLovDefinitionProperties lovDefinition, String criteriaKey)
+    {
+        SharedLovQueries queries = getQueries(lovDefinition);
+        SharedQuery query = queries._cache.getEntry(criteriaKey);
+        if (query != null && queries._timeToLive > 0 && System.currentTimeMillis() - query._created > queries._timeToLive)
+        {
+            synchronized (queries._cache)
+            {
+                queries._cache.remove(criteriaKey);
+            }
+            query = null;
+        }
+        
+        if (query == null)
+        {
+            queries._missed.incrementAndGet();
+        }
+        else
+        {
+            queries._hit.incrementAndGet();
+        }
+        return query;
+    }
+    
+    /**
+     * Returns the generation of the given lovs queries, which changes each
+     * time they are invalidated
+     * <p>
+     * The generation is read before a query is executed and passed to
+     * {@link #putQuery(EJCoreLovDefinitionProperties, String, List, boolean, long)}
+     * so that queries running while the lov is invalidated are not cached
+     * 
+     * @param lovDefinition
+     *            The definition of the lov
+     * @return The current generation of the lovs queries
+     */
+    public long getGeneration(EJCoreLovDefinitionProperties lovDefinition)
+    {
+        return getQueries(lovDefinition)._generation;
+    }
+    
+    /**
+     * Adds a queried page of the given lov to the cache
+     * 
+     * @param lovDefinition
+     *            The definition of the lov
+     * @param criteriaKey
+     *            The key of the query criteria
+     * @param entities
+     *            The queried entities
+     * @param hasMoreRows
+     *            <code>true</code> if the query has further pages
+     * @param generation
+     *            The generation read before the query was executed
+     * @return The query holding the unmodifiable shared copy of the entities
+     */
+    public SharedQuery putQuery(EJCoreLovDefinitionProperties lovDefinition, String criteriaKey, List<?> entities, boolean hasMoreRows, long generation)
+    {
+        SharedQuery query = new SharedQuery(Collections.unmodifiableList(new ArrayList<Object>(entities)), hasMoreRows);
+        SharedLovQueries queries = getQueries(lovDefinition);
+        synchronized (queries._cache)
+        {
+            if (generation == queries._generation)
+            {
+                queries._cache.put(criteriaKey, query);
+            }
+        }
+        return query;
+    }
+    
+    /**
+     * Returns the complete result of the given lov, used to validate lov items
+     * in memory
+     * 
+     * @param lovDefinition
+     *            The definition of the lov
+     * @return The complete result or <code>null</code> if it has not been
+     *         queried or has expired
+     */
+    public EJLovValidationIndex getCompleteResult(EJCoreLovDefinitionProperties lovDefinition)
+    {
+        SharedLovQueries queries = getQueries(lovDefinition);
+        EJLovValidationIndex result = queries._completeResult;
+        if (result != null && queries._timeToLive > 0 && System.currentTimeMillis() - result.getCreated() > queries._timeToLive)
+        {
+            return null;
+        }
+        return result;
+    }
+    
+    /**
+     * Sets the complete result of the given lov
+     * 
+     * @param lovDefinition
+     *            The definition of the lov
+     * @param result
+     *            The complete result
+     * @param generation
+     *            The generation read before the result was queried
+     * @see #getCompleteResult(EJCoreLovDefinitionProperties)
+     */
+    public void putCompleteResult(EJCoreLovDefinitionProperties lovDefinition, EJLovValidationIndex result, long generation)
+    {
+        SharedLovQueries queries = getQueries(lovDefinition);
+        synchronized (queries._cache)
+        {
+            if (generation == queries._generation)
+            {
+                queries._completeResult = result;
+            }
+        }
+    }
+    
+    private SharedLovQueries getQueries(EJCoreLovDefinitionProperties lovDefinition)
+    {
+        String name = lovDefinition.getSharedCacheName();
+        SharedLovQueries queries = _lovs.get(name);
+        if (queries == null)
+        {
+            SharedLovQueries newQueries = new SharedLovQueries(lovDefinition.getSharedCacheSize(), lovDefinition.getSharedCacheTimeToLive());
+            queries = _lovs.putIfAbsent(name, newQueries);
+            if (queries == null)
+            {
+                queries = newQueries;
+            }
+        }
+        return queries;
+    }
+    
+    /**
+     * Removes all cached queries of the given lov
+     * 
+     * @param sharedCacheName
+     *            The shared cache name of the lov definition
+     * @see EJCoreLovDefinitionProperties#getSharedCacheName()
+     */
+    public void invalidate(String sharedCacheName)
+    {
+        if (sharedCacheName == null)
+        {
+            return;
+        }
+        
+        SharedLovQueries queries = _lovs.get(sharedCacheName);
+        if (queries != null)
+        {
+            synchronized (queries._cache)
+            {
+                queries._generation++;
+                queries._cache.clear();
+                queries._completeResult = null;
+            }
+        }
+    }
+    
+    /**
+     * Removes all cached queries of all lovs
+     */
+    public void invalidateAll()
+    {
+        for (String name : _lovs.keySet())
+        {
+            invalidate(name);
+        }
+    }
+    
+    /**
+     * Returns the names of all lovs that have used the shared cache
+     * 
+     * @return The shared cache names of the lovs
+     */
+    public Set<String> getLovNames()
+    {
+        return Collections.unmodifiableSet(new TreeSet<String>(_lovs.keySet()));
+    }
+    
+    /**
+     * Returns the number of queries cached for the given lov
+     * 
+     * @param sharedCacheName
+     *            The shared cache name of the lov definition
+     * @return the number of cached queries
+     */
+    public int getEntriesNumber(String sharedCacheName)
+    {
+        SharedLovQueries queries = sharedCacheName == null ? null : _lovs.get(sharedCacheName);
+        return queries == null ? 0 : queries._cache.getEntriesNumber();
+    }
+    
+    /**
+     * Returns the number of queries of the given lov that were answered from
+     * the cache
+     * 
+     * @param sharedCacheName
+     *            The shared cache name of the lov definition
+     * @return the number of cache hits
+     */
+    public long getHitEntries(String sharedCacheName)
+    {
+        SharedLovQueries queries = sharedCacheName == null ? null : _lovs.get(sharedCacheName);
+        return queries == null ? 0 : queries._hit.get();
+    }
+    
+    /**
+     * Returns the number of queries of the given lov that were not within the
+     * cache
+     * 
+     * @param sharedCacheName
+     *            The shared cache name of the lov definition
+     * @return the number of cache misses
+     */
+    public long getMissedEntries(String sharedCacheName)
+    {
+        SharedLovQueries queries = sharedCacheName == null ? null : _lovs.get(sharedCacheName);
+        return queries == null ? 0 : queries._missed.get();
+    }
+    
+    /**
+     * Resets the hit and miss counters of all lovs
+     */
+    public void resetStatistics()
+    {
+        for (SharedLovQueries queries : _lovs.values())
+        {
+            queries._hit.set(0);
+            queries._missed.set(0);
+        }
+    }
+    
+    private static final class SharedLovQueries
+    {
+        private final EJLRUCache<String, SharedQuery> _cache;
+        private final long                            _timeToLive;
+        private final AtomicLong                      _hit    = new AtomicLong();
+        private final AtomicLong                      _missed = new AtomicLong();
+        private volatile long                         _generation;
+        private volatile EJLovValidationIndex         _completeResult;
+        
+        SharedLovQueries(int maxSize, long timeToLive)
+        {
+            _cache = new EJLRUCache<String, SharedQuery>(Math.max(1, maxSize));
+            _cache.setTrackEfficiency(false);
+            _timeToLive = timeToLive;
+        }
+    }
+    
+    /**
+     * A query held by the shared lov cache
+     */
+    public static final class SharedQuery
+    {
+        private final List<?> _entities;
+        private final boolean _hasMoreRows;
+        private final long    _created;
+        
+        SharedQuery(List<?> entities, boolean hasMoreRows)
+        {
+            _entities = entities;
+            _hasMoreRows = hasMoreRows;
+            _created = System.currentTimeMillis();
+        }
+        
+        /**
+         * Returns the unmodifiable list of the queried entities
+         * 
+         * @return The queried entities
+         */
+        public List<?> getEntities()
+        {
+            return _entities;
+        }
+        
+        /**
+         * Indicates if the query had further pages
+         * 
+         * @return <code>true</code> if there are more rows to retrieve
+         */
+        public boolean hasMoreRows()
+        {
+            return _hasMoreRows;
+        }
+    }
+}
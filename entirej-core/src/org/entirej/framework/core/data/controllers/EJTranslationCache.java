@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.data.controllers;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.entirej.framework.core.properties.EJCoreProperties;
+import org.entirej.framework.core.service.EJLRUCache;
+
+/**
+ * Holds the texts already translated by the {@link EJTranslationController}s
+ * of the application
+ * <p>
+ * The application wide cache returned by {@link #getInstance()} is shared by
+ * all application sessions, so each text is translated once per
+ * {@link Locale} for the whole application. Texts and message texts are
+ * cached separately for each locale. The number of entries kept per locale is
+ * bounded, the least recently used translations are removed first.
+ * Translations should be removed using {@link #invalidate(Locale)} or
+ * {@link #invalidateAll()} when the texts of the application translator
+ * change
+ * <p>
+ * The cache also records how often translations were answered from the cache
+ * and how much time was spent within the application translator
+ */
+public class EJTranslationCache
+{
+    private static volatile EJTranslationCache                          _instance;
+
+    private final int                                                   _maxSize;
+    private final ConcurrentHashMap<Locale, EJLRUCache<String, String>> _texts           = new ConcurrentHashMap<Locale, EJLRUCache<String, String>>();
+    private final ConcurrentHashMap<Locale, EJLRUCache<String, String>> _messageTexts    = new ConcurrentHashMap<Locale, EJLRUCache<String, String>>();
+
+    private final AtomicLong                                            _hit             = new AtomicLong();
+    private final AtomicLong                                            _missed          = new AtomicLong();
+    private final AtomicLong                                            _translatorCalls = new AtomicLong();
+    private final AtomicLong                                            _translationTime = new AtomicLong();
+
+    /**
+     * Creates a new translation cache
+     * <p>
+     * Application sessions use the cache returned by {@link #getInstance()},
+     * a separate cache is only needed by translation controllers that use
+     * their own translator
+     * 
+     * @param maxSize
+     *            The maximum number of texts and message texts kept per
+     *            {@link Locale}, <code>0</code> disables the cache
+     */
+    public EJTranslationCache(int maxSize)
+    {
+        _maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * Returns the application wide translation cache
+     * <p>
+     * The cache is created with the size returned by
+     * {@link EJCoreProperties#getTranslationCacheSize()} when it is first
+     * used
+     * 
+     * @return The translation cache shared by all application sessions
+     */
+    public static EJTranslationCache getInstance()
+    {
+        EJTranslationCache instance = _instance;
+        if (instance == null)
+        {
+            synchronized (EJTranslationCache.class)
+            {
+                instance = _instance;
+                if (instance == null)
+                {
+                    instance = new EJTranslationCache(EJCoreProperties.getInstance().getTranslationCacheSize());
+                    _instance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Indicates if translations are cached
+     * 
+     * @return <code>true</code> if the cache is enabled, otherwise
+     *         <code>false</code>
+     */
+    public boolean isEnabled()
+    {
+        return _maxSize > 0;
+    }
+
+    /**
+     * Returns the maximum number of texts kept per {@link Locale}
+     * 
+     * @return The cache size
+     */
+    public int getMaxSize()
+    {
+        return _maxSize;
+    }
+
+    /**
+     * Returns the cached translation of the given text code
+     * 
+     * @param locale
+     *            The locale of the translation
+     * @param textCode
+     *            The code of the text
+     * @return The translated text or <code>null</code> if the text has not
+     *         been cached for the given locale
+     */
+    public String getText(Locale locale, String textCode)
+    {
+        return getEntry(_texts, locale, textCode);
+    }
+
+    /**
+     * Adds the translation of the given text code to the cache
+     * 
+     * @param locale
+     *            The locale of the translation
+     * @param textCode
+     *            The code of the text
+     * @param translatedText
+     *            The translated text
+     */
+    public void putText(Locale locale, String textCode, String translatedText)
+    {
+        putEntry(_texts, locale, textCode, translatedText);
+    }
+
+    /**
+     * Indicates if the translation of the given text code is cached without
+     * affecting the cache statistics
+     * 
+     * @param locale
+     *            The locale of the translation
+     * @param textCode
+     *            The code of the text
+     * @return <code>true</code> if the text is cached, otherwise
+     *         <code>false</code>
+     */
+    public boolean containsText(Locale locale, String textCode)
+    {
+        EJLRUCache<String, String> texts = _texts.get(locale);
+        if (texts == null)
+        {
+            return false;
+        }
+        synchronized (texts)
+        {
+            return texts.containsKey(textCode);
+        }
+    }
+
+    /**
+     * Returns the cached translation of the given message text code
+     * 
+     * @param locale
+     *            The locale of the translation
+     * @param messageTextCode
+     *            The code of the message text
+     * @return The translated message text or <code>null</code> if the message
+     *         text has not been cached for the given locale
+     */
+    public String getMessageText(Locale locale, String messageTextCode)
+    {
+        return getEntry(_messageTexts, locale, messageTextCode);
+    }
+
+    /**
+     * Adds the translation of the given message text code to the cache
+     * 
+     * @param locale
+     *            The locale of the translation
+     * @param messageTextCode
+     *            The code of the message text
+     * @param translatedText
+     *            The translated message text
+     */
+    public void putMessageText(Locale locale, String messageTextCode, String translatedText)
+    {
+        putEntry(_messageTexts, locale, messageTextCode, translatedText);
+    }
+
+    private String getEntry(ConcurrentHashMap<Locale, EJLRUCache<String, String>> cache, Locale locale, String code)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+
+        EJLRUCache<String, String> translations = cache.get(locale);
+        String translation = null;
+        if (translations != null)
+        {
+            // Reading an access ordered map moves the entry
+            synchronized (translations)
+            {
+                translation = translations.get(code);
+            }
+        }
+        if (translation == null)
+        {
+            _missed.incrementAndGet();
+        }
+        else
+        {
+            _hit.incrementAndGet();
+        }
+        return translation;
+    }
+
+    private void putEntry(ConcurrentHashMap<Locale, EJLRUCache<String, String>> cache, Locale locale, String code, String translation)
+    {
+        if (!isEnabled() || code == null || translation == null)
+        {
+            return;
+        }
+
+        EJLRUCache<String, String> translations = cache.get(locale);
+        if (translations == null)
+        {
+            EJLRUCache<String, String> newTranslations = new EJLRUCache<String, String>(_maxSize);
+            newTranslations.setTrackEfficiency(false);
+            translations = cache.putIfAbsent(locale, newTranslations);
+            if (translations == null)
+            {
+                translations = newTranslations;
+            }
+        }
+        synchronized (translations)
+        {
+            translations.put(code, translation);
+        }
+    }
+
+    /**
+     * Removes all translations of the given {@link Locale}
+     * 
+     * @param locale
+     *            The locale to remove
+     */
+    public void invalidate(Locale locale)
+    {
+        _texts.remove(locale);
+        _messageTexts.remove(locale);
+    }
+
+    /**
+     * Removes all translations from the cache
+     */
+    public void invalidateAll()
+    {
+        _texts.clear();
+        _messageTexts.clear();
+    }
+
+    /**
+     * Returns the number of texts and message texts cached for all locales
+     * 
+     * @return the number of cached entries
+     */
+    public int getEntriesNumber()
+    {
+        int entries = 0;
+        for (EJLRUCache<String, String> texts : _texts.values())
+        {
+            entries += texts.getEntriesNumber();
+        }
+        for (EJLRUCache<String, String> messageTexts : _messageTexts.values())
+        {
+            entries += messageTexts.getEntriesNumber();
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of translations that were answered from the cache
+     * 
+     * @return the number of cache hits
+     */
+    public long getHitEntries()
+    {
+        return _hit.get();
+    }
+
+    /**
+     * Returns the number of translations that were not within the cache
+     * 
+     * @return the number of cache misses
+     */
+    public long getMissedEntries()
+    {
+        return _missed.get();
+    }
+
+    /**
+     * Returns the share of translations that were answered from the cache
+     * 
+     * @return the hit rate between <code>0</code> and <code>1</code>
+     */
+    public double getHitRate()
+    {
+        long hit = _hit.get();
+        long requests = hit + _missed.get();
+        return requests == 0 ? 0 : (double) hit / requests;
+    }
+
+    /**
+     * Returns the number of calls made to the application translator
+     * 
+     * @return the number of translator calls, a bulk translation counts as one
+     *         call
+     */
+    public long getTranslatorCalls()
+    {
+        return _translatorCalls.get();
+    }
+
+    /**
+     * Returns the time spent within the application translator
+     * 
+     * @return the translation time in nanoseconds
+     */
+    public long getTranslationTime()
+    {
+        return _translationTime.get();
+    }
+
+    void translatorCalled(long nanos)
+    {
+        _translatorCalls.incrementAndGet();
+        _translationTime.addAndGet(nanos);
+    }
+
+    /**
+     * Resets the hit, miss and translator counters
+     */
+    public void resetStatistics()
+    {
+        _hit.set(0);
+        _missed.set(0);
+        _translatorCalls.set(0);
+        _translationTime.set(0);
+    }
+}
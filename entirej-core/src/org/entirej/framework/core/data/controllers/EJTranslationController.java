@@ -19,7 +19,13 @@
 package org.entirej.framework.core.data.controllers;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import org.entirej.framework.core.EJFrameworkManager;
 import org.entirej.framework.core.EJTranslatorHelper;
@@ -53,6 +59,8 @@ import org.entirej.framework.core.properties.interfaces.EJItemGroupProperties;
 import org.entirej.framework.core.properties.interfaces.EJScreenItemProperties;
 import org.entirej.framework.core.properties.interfaces.EJStackedPageProperties;
 import org.entirej.framework.core.properties.interfaces.EJTabPageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The TranslationController is responsible for translating all application
@@ -60,14 +68,44 @@ import org.entirej.framework.core.properties.interfaces.EJTabPageProperties;
  */
 public class EJTranslationController implements Serializable
 {
-    private EJFrameworkManager _frameworkManager;
-    private EJTranslator       _appTranslator;
-    private Locale             _currentLocale;
+    private static final Logger     LOGGER = LoggerFactory.getLogger(EJTranslationController.class);
+    
+    private EJFrameworkManager           _frameworkManager;
+    private EJTranslator                 _appTranslator;
+    private Locale                       _currentLocale;
+    private transient EJTranslationCache _translationCache;
+    private EJTranslatorHelper           _translatorHelper;
+    private transient Set<String>        _collectedTexts;
     
     public EJTranslationController(EJFrameworkManager frameworkManager, EJTranslator appTranslator, Locale locale)
+    {
+        this(frameworkManager, appTranslator, locale, null);
+    }
+    
+    /**
+     * Creates a translation controller that caches its translations within
+     * the given cache
+     * <p>
+     * The application translator is shared by all sessions, so its
+     * translations are kept in the application wide
+     * {@link EJTranslationCache#getInstance()}. A separate cache must be used
+     * if the given translator translates differently
+     * 
+     * @param frameworkManager
+     *            The framework manager of the application session
+     * @param appTranslator
+     *            The translator used for texts that are not yet cached
+     * @param locale
+     *            The locale of the application session
+     * @param translationCache
+     *            The translation cache or <code>null</code> to use the
+     *            application wide cache
+     */
+    public EJTranslationController(EJFrameworkManager frameworkManager, EJTranslator appTranslator, Locale locale, EJTranslationCache translationCache)
     {
         _frameworkManager = frameworkManager;
         _appTranslator = appTranslator;
+        _translationCache = translationCache;
         setLocale(locale);
     }
     
@@ -118,34 +156,27 @@ public class EJTranslationController implements Serializable
         {
             return null;
         }
-        
-//        EJManagedFrameworkConnection connection = _frameworkManager.getConnection();
-        try
+        if (_appTranslator == null)
         {
-            if (_appTranslator != null)
-            {
-                String translatedText = _appTranslator.translateText(new EJTranslatorHelper(_frameworkManager), textToTranslate);
-                if (translatedText == null || translatedText.trim().length() == 0)
-                {
-                    return textToTranslate;
-                }
-                else
-                {
-                    return translatedText;
-                }
-            }
-            else
-            {
-                return textToTranslate;
-            }
+            return textToTranslate;
         }
-        finally
+        if (_collectedTexts != null)
         {
-//            if (connection != null)
-//            {
-//                connection.close();
-//            }
+            _collectedTexts.add(textToTranslate);
+            return textToTranslate;
+        }
+        
+        Locale translationLocale = getTranslationLocale(locale);
+        EJTranslationCache translationCache = getTranslationCache();
+        String translatedText = translationCache.getText(translationLocale, textToTranslate);
+        if (translatedText == null)
+        {
+            long start = System.nanoTime();
+            translatedText = getTranslatedText(textToTranslate, _appTranslator.translateText(getTranslatorHelper(), textToTranslate));
+            translationCache.translatorCalled(System.nanoTime() - start);
+            translationCache.putText(translationLocale, textToTranslate, translatedText);
         }
+        return translatedText;
     }
     
     /**
@@ -185,43 +216,169 @@ public class EJTranslationController implements Serializable
         {
             return null;
         }
+        if (_appTranslator == null)
+        {
+            return textToTranslate;
+        }
         
-       // EJManagedFrameworkConnection connection = _frameworkManager.getConnection();
-        try
+        Locale translationLocale = getTranslationLocale(locale);
+        EJTranslationCache translationCache = getTranslationCache();
+        String translatedText = translationCache.getMessageText(translationLocale, textToTranslate);
+        if (translatedText == null)
         {
-            if (_appTranslator != null)
-            {
-                String translatedText = _appTranslator.translateMessageText(new EJTranslatorHelper(_frameworkManager), textToTranslate);
-                if (translatedText == null || translatedText.trim().length() == 0)
-                {
-                    return textToTranslate;
-                }
-                else
-                {
-                    return translatedText;
-                }
-            }
-            else
+            long start = System.nanoTime();
+            translatedText = getTranslatedText(textToTranslate, _appTranslator.translateMessageText(getTranslatorHelper(), textToTranslate));
+            translationCache.translatorCalled(System.nanoTime() - start);
+            translationCache.putMessageText(translationLocale, textToTranslate, translatedText);
+        }
+        return translatedText;
+    }
+    
+    /**
+     * Translates all given texts that are not yet cached with one call to
+     * {@link EJTranslator#translateAll(EJTranslatorHelper, Collection)} and
+     * adds them to the translation cache
+     * 
+     * @param textsToTranslate
+     *            The texts to translate
+     */
+    public void prefetchTexts(Collection<String> textsToTranslate)
+    {
+        EJTranslationCache translationCache = getTranslationCache();
+        if (_appTranslator == null || !translationCache.isEnabled() || textsToTranslate == null || textsToTranslate.isEmpty())
+        {
+            return;
+        }
+        
+        Locale translationLocale = getTranslationLocale(_currentLocale);
+        List<String> missingTexts = new ArrayList<String>();
+        for (String text : textsToTranslate)
+        {
+            if (text != null && !translationCache.containsText(translationLocale, text))
             {
-                return textToTranslate;
+                missingTexts.add(text);
             }
-            
         }
-        finally
+        if (missingTexts.isEmpty())
         {
-//            if (connection != null)
-//            {
-//                connection.close();
-//            }
+            return;
+        }
+        
+        long start = System.nanoTime();
+        Map<String, String> translations = _appTranslator.translateAll(getTranslatorHelper(), missingTexts);
+        translationCache.translatorCalled(System.nanoTime() - start);
+        
+        if (LOGGER.isTraceEnabled())
+        {
+            LOGGER.trace("Translated {} texts for locale {} in {} ms", missingTexts.size(), translationLocale, (System.nanoTime() - start) / 1000000);
+        }
+        
+        for (String text : missingTexts)
+        {
+            translationCache.putText(translationLocale, text, getTranslatedText(text, translations == null ? null : translations.get(text)));
         }
     }
     
+    /**
+     * Returns the cache holding the texts translated by this controller
+     * <p>
+     * This is the application wide cache unless the controller has been
+     * created with its own cache. The cache is not written with the
+     * application session, a deserialized controller uses the application
+     * wide cache. The cache can be used to read the translation statistics or
+     * to remove translations after the texts of the application translator
+     * have changed
+     * 
+     * @return The translation cache of this controller
+     */
+    public EJTranslationCache getTranslationCache()
+    {
+        if (_translationCache == null)
+        {
+            _translationCache = EJTranslationCache.getInstance();
+        }
+        return _translationCache;
+    }
+    
+    private String getTranslatedText(String textToTranslate, String translatedText)
+    {
+        if (translatedText == null || translatedText.trim().length() == 0)
+        {
+            return textToTranslate;
+        }
+        return translatedText;
+    }
+    
+    private Locale getTranslationLocale(Locale locale)
+    {
+        // The translator reads the locale from the framework manager
+        if (_frameworkManager != null && _frameworkManager.getCurrentLocale() != null)
+        {
+            return _frameworkManager.getCurrentLocale();
+        }
+        return locale;
+    }
+    
+    private EJTranslatorHelper getTranslatorHelper()
+    {
+        if (_translatorHelper == null)
+        {
+            _translatorHelper = new EJTranslatorHelper(_frameworkManager);
+        }
+        return _translatorHelper;
+    }
+    
     public EJDateHelper createDateHelper()
     {
         return new EJDateHelper(_currentLocale == null ? Locale.ENGLISH : _currentLocale);
     }
     
     public void translateForm(EJCoreFormProperties formToTranslate, EJFrameworkManager fwManager)
+    {
+        prefetchTexts(collectTexts(formToTranslate, null));
+        translateFormProperties(formToTranslate);
+    }
+    
+    public void translateMenuProperties(EJCoreMenuProperties menu)
+    {
+        prefetchTexts(collectTexts(null, menu));
+        translateMenuLeafProperties(menu);
+    }
+    
+    /**
+     * Walks through the given form or menu without translating it and returns
+     * all texts that would be translated
+     */
+    private Set<String> collectTexts(EJCoreFormProperties form, EJCoreMenuProperties menu)
+    {
+        if (_appTranslator == null || !getTranslationCache().isEnabled())
+        {
+            return null;
+        }
+        
+        Set<String> texts = new LinkedHashSet<String>();
+        _collectedTexts = texts;
+        try
+        {
+            if (form != null)
+            {
+                translateFormProperties(form);
+            }
+            if (menu != null)
+            {
+                translateMenuLeafProperties(menu);
+            }
+        }
+        finally
+        {
+            _collectedTexts = null;
+        }
+        
+        // The base texts set by the collecting pass are replaced when the form is translated
+        return texts;
+    }
+    
+    private void translateFormProperties(EJCoreFormProperties formToTranslate)
     {
 //        EJManagedFrameworkConnection connection = fwManager.getConnection();
         
@@ -348,27 +505,6 @@ public class EJTranslationController implements Serializable
         
     }
     
-    public void translateMenuProperties(EJCoreMenuProperties menu)
-    {
-        for (EJCoreMenuLeafProperties leaf : menu.getLeaves())
-        {
-            leaf.setTranslatedDisplayName(translateText(leaf.getBaseDisplayName()));
-            
-            if (leaf instanceof EJCoreMenuLeafActionProperties)
-            {
-                ((EJCoreMenuLeafActionProperties) leaf).setTranslatedHint(translateText(((EJCoreMenuLeafActionProperties) leaf).getBaseHint()));
-            }
-            else if (leaf instanceof EJCoreMenuLeafFormProperties)
-            {
-                ((EJCoreMenuLeafFormProperties) leaf).setTranslatedHint(translateText(((EJCoreMenuLeafFormProperties) leaf).getBaseHint()));
-            }
-            else if (leaf instanceof EJCoreMenuLeafBranchProperties)
-            {
-                translateMenuLeafProperties((EJCoreMenuLeafBranchProperties) leaf);
-            }
-        }
-    }
-    
     private void translateMenuLeafProperties(EJCoreMenuLeafContainer container)
     {
         for (EJCoreMenuLeafProperties leaf : container.getLeaves())
@@ -75,6 +75,7 @@ public enum EJFrameworkMessage
     INVALID_DATA_TYPE_FOR_APP_LEVEL_PARAMETER,
     INVALID_APPLICATION_MANAGER_NAME,
     INVALID_TRANSLATOR_NAME,
+    INVALID_SQL_DIALECT,
     INVALID_TRANSACTION_FACTORY,
     INVALID_SCREEN_ITEM_REFERENCE,
     INVALID_BLOCK_RENDERER,
@@ -141,6 +142,7 @@ public enum EJFrameworkMessage
     UNABLE_TO_CREATE_TRANSACTION_FACTORY,
     UNABLE_TO_CREATE_APP_MANAGER,
     UNABLE_TO_CREATE_APPLICATION_TRANSLATOR,
+    UNABLE_TO_CREATE_SQL_DIALECT,
     UNABLE_TO_LOAD_FORM_FILE,
     UNABLE_TO_LOAD_REUSABLE_BLOCK,
     UNABLE_TO_LOAD_OBJECTGROUP,
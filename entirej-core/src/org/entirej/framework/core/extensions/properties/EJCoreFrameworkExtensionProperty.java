@@ -30,6 +30,7 @@ public class EJCoreFrameworkExtensionProperty implements Serializable
     private String                   _baseValue;
     private boolean                  _multilingual = false;
     private boolean                  _isMandatory  = false;
+    private transient ConvertedValue _convertedValue;
     
     public EJCoreFrameworkExtensionProperty(EJPropertyDefinitionType propertyType, String name)
     {
@@ -73,11 +74,37 @@ public class EJCoreFrameworkExtensionProperty implements Serializable
     {
         _baseValue = value;
         _value = value;
+        _convertedValue = null;
     }
     
     public void setTranslatedValue(String translatdValue)
     {
         _value = translatdValue;
+        _convertedValue = null;
+    }
+    
+    /**
+     * Returns the value of this property converted to the type of the given
+     * key
+     * <p>
+     * The converted value is kept until the value of this property changes, so
+     * repeated reads do not parse the value again
+     * 
+     * @param key
+     *            The key being read
+     * @return The converted value or <code>null</code> if this property has no
+     *         value
+     */
+    Object getConvertedValue(EJFrameworkExtensionPropertyKey<?> key)
+    {
+        ConvertedValue convertedValue = _convertedValue;
+        String value = _value;
+        if (convertedValue == null || convertedValue._conversion != key.getConversion() || convertedValue._source != value)
+        {
+            convertedValue = new ConvertedValue(key.getConversion(), value, key.convert(value));
+            _convertedValue = convertedValue;
+        }
+        return convertedValue._value;
     }
     
     public String getBaseValue()
@@ -105,4 +132,17 @@ public class EJCoreFrameworkExtensionProperty implements Serializable
         _isMandatory = mandatory;
     }
     
+    private static class ConvertedValue
+    {
+        private final EJFrameworkExtensionPropertyKey.Conversion _conversion;
+        private final String                                     _source;
+        private final Object                                     _value;
+        
+        ConvertedValue(EJFrameworkExtensionPropertyKey.Conversion conversion, String source, Object value)
+        {
+            _conversion = conversion;
+            _source = source;
+            _value = value;
+        }
+    }
 }
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.extensions.properties;
+
+import java.io.Serializable;
+import java.util.StringTokenizer;
+
+import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJMessageFactory;
+import org.entirej.framework.core.common.utils.EJParameterChecker;
+import org.entirej.framework.core.enumerations.EJFrameworkMessage;
+import org.entirej.framework.core.properties.definitions.interfaces.EJFrameworkExtensionProperties;
+
+/**
+ * A precompiled handle to a typed framework extension property
+ * <p>
+ * The dotted property name is split into its group names and property name
+ * when the key is created, and the converted value is kept by the property
+ * until its value changes. Renderers should create their keys once, as
+ * constants, and read values with {@link #getValue(EJFrameworkExtensionProperties)}
+ * while painting instead of calling
+ * {@link EJCoreFrameworkExtensionProperties#getIntProperty(String, int)} and
+ * the other string based getters, which tokenize the name and parse the value
+ * on each call
+ * 
+ * <pre>
+ * private static final EJFrameworkExtensionPropertyKey&lt;Integer&gt; WIDTH = EJFrameworkExtensionPropertyKey.forInt(&quot;displayCoordinates.width&quot;, 0);
+ * 
+ * int width = WIDTH.getValue(rendererProperties);
+ * </pre>
+ * 
+ * @param <T>
+ *            The type of the property value
+ */
+public class EJFrameworkExtensionPropertyKey<T> implements Serializable
+{
+    enum Conversion
+    {
+        STRING, BOOLEAN, INT, FLOAT, DOUBLE
+    }
+    
+    private final String     _name;
+    private final String[]   _groupNames;
+    private final String     _propertyName;
+    private final Conversion _conversion;
+    private final T          _defaultValue;
+    
+    private EJFrameworkExtensionPropertyKey(String name, Conversion conversion, T defaultValue)
+    {
+        EJParameterChecker.checkNotZeroLength(name, "EJFrameworkExtensionPropertyKey", "name");
+        
+        StringTokenizer tokenizer = new StringTokenizer(name, ".");
+        String[] elements = new String[tokenizer.countTokens()];
+        for (int i = 0; i < elements.length; i++)
+        {
+            elements[i] = tokenizer.nextToken();
+        }
+        if (elements.length == 0)
+        {
+            throw new IllegalArgumentException("\nThe name parameter passed to EJFrameworkExtensionPropertyKey does not contain a property name.");
+        }
+        
+        _name = name;
+        _groupNames = new String[elements.length - 1];
+        System.arraycopy(elements, 0, _groupNames, 0, _groupNames.length);
+        _propertyName = elements[elements.length - 1];
+        _conversion = conversion;
+        _defaultValue = defaultValue;
+    }
+    
+    /**
+     * Creates a key for a <code>String</code> property
+     * 
+     * @param name
+     *            The name of the property, using a dot (.) between the group
+     *            names and the property name
+     * @return A key returning the properties value or <code>null</code> if it
+     *         has no value
+     */
+    public static EJFrameworkExtensionPropertyKey<String> forString(String name)
+    {
+        return new EJFrameworkExtensionPropertyKey<String>(name, Conversion.STRING, null);
+    }
+    
+    /**
+     * Creates a key for a <code>boolean</code> property
+     * 
+     * @param name
+     *            The name of the property, using a dot (.) between the group
+     *            names and the property name
+     * @param defaultValue
+     *            The value returned if the property has no value
+     * @return A key for the given property
+     */
+    public static EJFrameworkExtensionPropertyKey<Boolean> forBoolean(String name, boolean defaultValue)
+    {
+        return new EJFrameworkExtensionPropertyKey<Boolean>(name, Conversion.BOOLEAN, Boolean.valueOf(defaultValue));
+    }
+    
+    /**
+     * Creates a key for an <code>int</code> property
+     * 
+     * @param name
+     *            The name of the property, using a dot (.) between the group
+     *            names and the property name
+     * @param defaultValue
+     *            The value returned if the property has no value
+     * @return A key for the given property
+     */
+    public static EJFrameworkExtensionPropertyKey<Integer> forInt(String name, int defaultValue)
+    {
+        return new EJFrameworkExtensionPropertyKey<Integer>(name, Conversion.INT, Integer.valueOf(defaultValue));
+    }
+    
+    /**
+     * Creates a key for a <code>float</code> property
+     * 
+     * @param name
+     *            The name of the property, using a dot (.) between the group
+     *            names and the property name
+     * @param defaultValue
+     *            The value returned if the property has no value
+     * @return A key for the given property
+     */
+    public static EJFrameworkExtensionPropertyKey<Float> forFloat(String name, float defaultValue)
+    {
+        return new EJFrameworkExtensionPropertyKey<Float>(name, Conversion.FLOAT, Float.valueOf(defaultValue));
+    }
+    
+    /**
+     * Creates a key for a <code>double</code> property
+     * 
+     * @param name
+     *            The name of the property, using a dot (.) between the group
+     *            names and the property name
+     * @param defaultValue
+     *            The value returned if the property has no value
+     * @return A key for the given property
+     */
+    public static EJFrameworkExtensionPropertyKey<Double> forDouble(String name, double defaultValue)
+    {
+        return new EJFrameworkExtensionPropertyKey<Double>(name, Conversion.DOUBLE, Double.valueOf(defaultValue));
+    }
+    
+    /**
+     * Returns the full dotted name of the property
+     * 
+     * @return The name of the property
+     */
+    public String getName()
+    {
+        return _name;
+    }
+    
+    /**
+     * Returns the value returned when the property has no value
+     * 
+     * @return The default value of this key
+     */
+    public T getDefaultValue()
+    {
+        return _defaultValue;
+    }
+    
+    /**
+     * Returns the value of this property within the given properties
+     * 
+     * @param properties
+     *            The properties containing the property
+     * @return The converted value, or the default value if the properties are
+     *         <code>null</code>, the property does not exist or it has no
+     *         value
+     * @throws EJApplicationException
+     *             if the value cannot be converted to the type of this key
+     */
+    @SuppressWarnings("unchecked")
+    public T getValue(EJFrameworkExtensionProperties properties)
+    {
+        EJCoreFrameworkExtensionProperty property = getProperty(properties);
+        if (property == null)
+        {
+            return _defaultValue;
+        }
+        
+        Object value = property.getConvertedValue(this);
+        return value == null ? _defaultValue : (T) value;
+    }
+    
+    /**
+     * Returns the property this key refers to within the given properties
+     * 
+     * @param properties
+     *            The properties containing the property
+     * @return The property or <code>null</code> if there is no property for
+     *         this key
+     */
+    public EJCoreFrameworkExtensionProperty getProperty(EJFrameworkExtensionProperties properties)
+    {
+        EJFrameworkExtensionProperties groupProperties = properties;
+        for (int i = 0; i < _groupNames.length && groupProperties != null; i++)
+        {
+            groupProperties = groupProperties.getPropertyGroup(_groupNames[i]);
+        }
+        
+        if (groupProperties == null)
+        {
+            return null;
+        }
+        return groupProperties.getAllProperties().get(_propertyName);
+    }
+    
+    Conversion getConversion()
+    {
+        return _conversion;
+    }
+    
+    /**
+     * Converts the given value to the type of this key
+     * 
+     * @param value
+     *            The value to convert
+     * @return The converted value or <code>null</code> if the value is empty
+     */
+    Object convert(String value)
+    {
+        if (value == null || value.trim().length() == 0)
+        {
+            return null;
+        }
+        
+        try
+        {
+            switch (_conversion)
+            {
+                case BOOLEAN:
+                    if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"))
+                    {
+                        return Boolean.valueOf(value);
+                    }
+                    throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(
+                            EJFrameworkMessage.VALUE_CANNOT_BE_CONVERTED_TO_BOOLEAN, _name, value));
+                case INT:
+                    return Integer.valueOf(value);
+                case FLOAT:
+                    return Float.valueOf(value);
+                case DOUBLE:
+                    return Double.valueOf(value);
+                default:
+                    return value;
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            EJFrameworkMessage message;
+            switch (_conversion)
+            {
+                case INT:
+                    message = EJFrameworkMessage.VALUE_CANNOT_BE_CONVERTED_TO_INT;
+                    break;
+                case FLOAT:
+                    message = EJFrameworkMessage.VALUE_CANNOT_BE_CONVERTED_TO_FLOAT;
+                    break;
+                default:
+                    message = EJFrameworkMessage.VALUE_CANNOT_BE_CONVERTED_TO_DOUBLE;
+                    break;
+            }
+            throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(message, _name, value));
+        }
+    }
+    
+    public String toString()
+    {
+        return _name + " (" + _conversion + ")";
+    }
+}
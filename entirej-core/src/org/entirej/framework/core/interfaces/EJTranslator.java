@@ -19,7 +19,10 @@
 package org.entirej.framework.core.interfaces;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.entirej.framework.core.EJMessage;
 import org.entirej.framework.core.EJTranslatorHelper;
@@ -58,4 +61,32 @@ public interface EJTranslator extends Serializable
      * @return The translated text
      */
     public String translateMessageText(EJTranslatorHelper helper, String messageTextCode);
+    
+    /**
+     * Translates all of the given <code>textCodes</code> with one call
+     * <p>
+     * The framework uses this method to translate all texts of a form or menu
+     * that are not yet cached. Translators that read their texts from a
+     * database or a remote service should override it to fetch all texts in a
+     * single round trip. The default implementation calls
+     * {@link #translateText(EJTranslatorHelper, String)} for each code
+     * 
+     * @param helper
+     *            Contains methods that can assist in the translation of texts
+     *            and messages, for example, the {@link Locale} that is
+     *            currently set for the application
+     * @param textCodes
+     *            The codes of the texts to be translated
+     * @return The translated texts keyed by their codes. Codes without a
+     *         translation can be omitted
+     */
+    public default Map<String, String> translateAll(EJTranslatorHelper helper, Collection<String> textCodes)
+    {
+        Map<String, String> translations = new HashMap<String, String>(textCodes.size() * 2);
+        for (String textCode : textCodes)
+        {
+            translations.put(textCode, translateText(helper, textCode));
+        }
+        return translations;
+    }
 }
@@ -19,7 +19,6 @@
 package org.entirej.framework.core.internal;
 
 import java.io.Serializable;
-import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
@@ -27,10 +26,14 @@ import java.util.Collection;
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJMessage;
 import org.entirej.framework.core.EJMessageFactory;
+import org.entirej.framework.core.EJPojoAccessor;
+import org.entirej.framework.core.EJPojoAccessors;
 import org.entirej.framework.core.EJPojoHelper;
 import org.entirej.framework.core.data.EJDataItem;
+import org.entirej.framework.core.data.EJDataRecordLayout;
 import org.entirej.framework.core.enumerations.EJFrameworkMessage;
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
 import org.entirej.framework.core.properties.interfaces.EJItemProperties;
 import org.entirej.framework.core.service.EJBlockService;
 
@@ -127,11 +130,18 @@ public class EJDefaultServicePojoHelper implements Serializable
             return;
         }
 
-        // Capitalize the first letter
-        String firstLetter = itemName.substring(0, 1).toUpperCase();
-        StringBuilder builder = new StringBuilder();
-        String methodName = builder.append("set").append(firstLetter).append(itemName.substring(1)).toString();
-        invokePojoMethod(dataEntity, methodName, itemProperties.getDataTypeClass(), value);
+        if (dataEntity == null)
+        {
+            return;
+        }
+
+        Class<?> parameterType = itemProperties.getDataTypeClass();
+        EJPojoAccessor setter = EJPojoAccessors.forClass(dataEntity.getClass()).getSetter(itemName, parameterType);
+        if (setter == null)
+        {
+            throw methodNotFound(dataEntity, EJPojoAccessors.toMethodName("set", itemName), parameterType);
+        }
+        setter.set(dataEntity, value);
     }
 
     /**
@@ -144,6 +154,7 @@ public class EJDefaultServicePojoHelper implements Serializable
      */
     public void copyValuesFromServicePojo(Collection<EJDataItem> items, Object servicePojo)
     {
+        EJPojoAccessors accessors = servicePojo == null ? null : EJPojoAccessors.forClass(servicePojo.getClass());
         for (EJDataItem item : items)
         {
             if (!item.getProperties().isBlockServiceItem())
@@ -153,47 +164,64 @@ public class EJDefaultServicePojoHelper implements Serializable
 
             // Now initialise the data items with the values from the entity if
             // one exists
+            if (accessors == null)
+            {
+                item.setValue(null);
+                continue;
+            }
 
-            // Capitalise the first letter
-            String firstLetter = item.getName().substring(0, 1);
-            firstLetter = firstLetter.toUpperCase();
-            StringBuilder builder = new StringBuilder();
-            String methodName = builder.append("get").append(firstLetter).append(item.getName().substring(1)).toString();
-
-            // Get the items value from the method and set the data item
-            Object value = invokePojoMethod(servicePojo, methodName, null);
-            item.setValue(value);
+            EJPojoAccessor getter = accessors.getGetter(item.getName());
+            if (getter == null)
+            {
+                throw methodNotFound(servicePojo, EJPojoAccessors.toMethodName("get", item.getName()), null);
+            }
+            item.setValue(getter.get(servicePojo));
         }
     }
 
-    private Object invokePojoMethod(Object dataEntity, String methodName, Class<?> parameterType, Object... parameterValue)
+    /**
+     * Copy the values of all block service items from the source pojo into the
+     * values of a record using compact storage
+     * 
+     * @param layout
+     *            The item positions of the record
+     * @param values
+     *            The record values to be set
+     * @param sourcePojo
+     *            The pojo containing the values
+     */
+    public void copyValuesFromServicePojo(EJDataRecordLayout layout, Object[] values, Object servicePojo)
     {
-        if (dataEntity == null)
+        EJPojoAccessors accessors = servicePojo == null ? null : EJPojoAccessors.forClass(servicePojo.getClass());
+        for (int i = 0; i < layout.getItemCount(); i++)
         {
-            return null;
-        }
+            EJCoreItemProperties itemProperties = layout.getItemProperties(i);
+            if (!itemProperties.isBlockServiceItem())
+            {
+                continue;
+            }
 
-        try
-        {
-            if (parameterType == null)
+            if (accessors == null)
             {
-                Method method = dataEntity.getClass().getMethod(methodName);
-                return method.invoke(dataEntity, parameterValue);
+                values[i] = null;
+                continue;
             }
-            else
+
+            EJPojoAccessor getter = accessors.getGetter(itemProperties.getName());
+            if (getter == null)
             {
-                Method method = dataEntity.getClass().getMethod(methodName, parameterType);
-                return method.invoke(dataEntity, parameterValue);
+                throw methodNotFound(servicePojo, EJPojoAccessors.toMethodName("get", itemProperties.getName()), null);
             }
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-            throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CALL_METHOD,
-                    methodName + " on " + dataEntity.getClass().getName() + " using parameterType: " + parameterType), e);
+            values[i] = getter.get(servicePojo);
         }
     }
 
+    private EJApplicationException methodNotFound(Object dataEntity, String methodName, Class<?> parameterType)
+    {
+        return new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CALL_METHOD,
+                methodName + " on " + dataEntity.getClass().getName() + " using parameterType: " + parameterType), new NoSuchMethodException(methodName));
+    }
+
     /**
      * Returns a new entity object based on the generic interface of the
      * EJBlockService
@@ -226,6 +254,49 @@ public class EJDefaultServicePojoHelper implements Serializable
         }
     }
 
+    /**
+     * Returns a new service pojo holding the values of all block service items
+     * of the given pojo
+     * <p>
+     * Used when entities are kept by a cache, so that records changing the
+     * values of their pojo never change the cached entity
+     *
+     * @param servicePojo
+     *            The pojo to copy
+     * @return The copy or <b><code>null</code><b> if no pojo is given or there
+     *         is no service for this block
+     */
+    public Object copyServicePojo(Object servicePojo)
+    {
+        if (servicePojo == null)
+        {
+            return null;
+        }
+
+        Object copy = createNewServicePojo(servicePojo);
+        if (copy == null)
+        {
+            return null;
+        }
+
+        EJPojoAccessors accessors = EJPojoAccessors.forClass(servicePojo.getClass());
+        for (EJItemProperties item : _blockProperties.getAllItemProperties())
+        {
+            if (!item.isBlockServiceItem())
+            {
+                continue;
+            }
+
+            EJPojoAccessor getter = accessors.getGetter(item.getName());
+            if (getter == null)
+            {
+                throw methodNotFound(servicePojo, EJPojoAccessors.toMethodName("get", item.getName()), null);
+            }
+            setValue(item.getName(), copy, getter.get(servicePojo));
+        }
+        return copy;
+    }
+
     public void addFieldNamesToItems()
     {
         if (_blockProperties.getBlockService() == null)
@@ -31,6 +31,7 @@ import org.entirej.framework.core.EJMessageFactory;
 import org.entirej.framework.core.data.EJDataBlock;
 import org.entirej.framework.core.data.EJDataItem;
 import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.data.EJDataRecordLayout;
 import org.entirej.framework.core.data.controllers.EJBlockController;
 import org.entirej.framework.core.data.controllers.EJBlockRendererController;
 import org.entirej.framework.core.data.controllers.EJItemController;
@@ -60,6 +61,7 @@ public class EJInternalBlock implements Serializable, EJDataItemValueChangedList
 
     private EJDefaultServicePojoHelper                                 _servicePojoHelper;
     private EJBlockController                                          _blockController;
+    private EJDataRecordLayout                                         _recordLayout;
 
     public EJInternalBlock(EJBlockController blockController)
     {
@@ -87,6 +89,21 @@ public class EJInternalBlock implements Serializable, EJDataItemValueChangedList
         }
     }
 
+    /**
+     * Returns the item positions used by the records of this block if the
+     * block uses compact record storage
+     * 
+     * @return The record layout of this block
+     */
+    public EJDataRecordLayout getRecordLayout()
+    {
+        if (_recordLayout == null)
+        {
+            _recordLayout = new EJDataRecordLayout(getProperties());
+        }
+        return _recordLayout;
+    }
+
     public EJDefaultServicePojoHelper getServicePojoHelper()
     {
         if (_servicePojoHelper == null)
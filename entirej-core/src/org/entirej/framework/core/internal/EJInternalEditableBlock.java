@@ -511,6 +511,7 @@ public class EJInternalEditableBlock extends EJInternalBlock implements Serializ
             }
             
             blockRendererProperties.setPropertyValue(propertyName, propertyValue);
+            _blockController.getProperties().getFormProperties().definitionModified();
             
             EJManagedEditableBlockRendererController blockRendererController = _blockController.getManagedRendererController();
             
@@ -601,6 +602,7 @@ public class EJInternalEditableBlock extends EJInternalBlock implements Serializ
     public void setDeleteAllowed(boolean allowed)
     {
         _blockController.getProperties().setDeleteAllowed(allowed);
+        _blockController.getProperties().getFormProperties().definitionModified();
     }
     
     /**
@@ -613,6 +615,7 @@ public class EJInternalEditableBlock extends EJInternalBlock implements Serializ
     public void setInsertAllowed(boolean allowed)
     {
         _blockController.getProperties().setInsertAllowed(allowed);
+        _blockController.getProperties().getFormProperties().definitionModified();
     }
     
     /**
@@ -625,6 +628,7 @@ public class EJInternalEditableBlock extends EJInternalBlock implements Serializ
     public void setUpdateAllowed(boolean allowed)
     {
         _blockController.getProperties().setUpdateAllowed(allowed);
+        _blockController.getProperties().getFormProperties().definitionModified();
     }
     
     /**
@@ -637,5 +641,6 @@ public class EJInternalEditableBlock extends EJInternalBlock implements Serializ
     public void setQueryAllowed(boolean allowed)
     {
         _blockController.getProperties().setQueryAllowed(allowed);
+        _blockController.getProperties().getFormProperties().definitionModified();
     }
 }
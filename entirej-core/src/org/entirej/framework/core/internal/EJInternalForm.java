@@ -698,6 +698,7 @@ public class EJInternalForm implements Serializable
             }
 
             formRendererProperties.setPropertyValue(propertyName, propertyValue);
+            _formController.getProperties().definitionModified();
 
             EJManagedFormRendererWrapper formRenderer = _formController.getManagedRenderer();
 
@@ -288,6 +288,7 @@ public class EJInternalLov implements Serializable
             }
             
             lovRendererProperties.setPropertyValue(propertyName, propertyValue);
+            _formController.getProperties().definitionModified();
             
             EJLovRendererController renderer = _lovController.getRendererController();
             
@@ -19,7 +19,7 @@
 package org.entirej.framework.core.processorfactories;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.entirej.framework.core.EJActionProcessorException;
 import org.entirej.framework.core.EJApplicationException;
@@ -30,6 +30,7 @@ import org.entirej.framework.core.actionprocessor.interfaces.EJBlockActionProces
 import org.entirej.framework.core.actionprocessor.interfaces.EJFormActionProcessor;
 import org.entirej.framework.core.actionprocessor.interfaces.EJLovActionProcessor;
 import org.entirej.framework.core.actionprocessor.interfaces.EJMenuActionProcessor;
+import org.entirej.framework.core.common.utils.EJClassCache;
 import org.entirej.framework.core.enumerations.EJFrameworkMessage;
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
 import org.entirej.framework.core.properties.EJCoreFormProperties;
@@ -39,8 +40,8 @@ import org.entirej.framework.core.properties.EJCoreProperties;
 
 public class EJActionProcessorFactory implements Serializable
 {
-    private static EJActionProcessorFactory _instance;
-    private HashMap<String, Class<?>>       _actionProcessors;
+    private static EJActionProcessorFactory     _instance;
+    private ConcurrentHashMap<String, Class<?>> _actionProcessors;
     
     static
     {
@@ -49,7 +50,7 @@ public class EJActionProcessorFactory implements Serializable
     
     private EJActionProcessorFactory()
     {
-        _actionProcessors = new HashMap<String, Class<?>>();
+        _actionProcessors = new ConcurrentHashMap<String, Class<?>>();
     }
     
     /**
@@ -94,7 +95,7 @@ public class EJActionProcessorFactory implements Serializable
         }
         try
         {
-            Class<?> processorClass = Class.forName(actionProcessorName);
+            Class<?> processorClass = EJClassCache.getClass(actionProcessorName);
             _actionProcessors.put(actionProcessorName, processorClass);
             
             return createNewBlockActionProcessorInstance(blockProperties.getFrameworkManager(), actionProcessorName);
@@ -138,7 +139,7 @@ public class EJActionProcessorFactory implements Serializable
         }
         try
         {
-            Class<?> processorClass = Class.forName(actionProcessorName);
+            Class<?> processorClass = EJClassCache.getClass(actionProcessorName);
             _actionProcessors.put(actionProcessorName, processorClass);
             
             return createNewFormActionProcessorInstance(formProperties.getFrameworkManager(), actionProcessorName);
@@ -182,7 +183,7 @@ public class EJActionProcessorFactory implements Serializable
         }
         try
         {
-            Class<?> processorClass = Class.forName(actionProcessorName);
+            Class<?> processorClass = EJClassCache.getClass(actionProcessorName);
             _actionProcessors.put(actionProcessorName, processorClass);
             
             return createNewLovActionProcessorInstance(lovDefProperties.getBlockProperties().getFrameworkManager(), actionProcessorName);
@@ -222,7 +223,7 @@ public class EJActionProcessorFactory implements Serializable
         
         try
         {
-            Class<?> processorClass = Class.forName(actionProcessorName);
+            Class<?> processorClass = EJClassCache.getClass(actionProcessorName);
             return createNewMenuActionProcessorInstance(frameworkManager, processorClass);
         }
         catch (ClassNotFoundException e)
@@ -251,7 +252,7 @@ public class EJActionProcessorFactory implements Serializable
         
         try
         {
-            Class<?> processorClass = Class.forName(actionProcessorName);
+            Class<?> processorClass = EJClassCache.getClass(actionProcessorName);
             return createNewApplicationActionProcessorInstance(frameworkManager, processorClass);
         }
         catch (ClassNotFoundException e)
@@ -285,7 +286,7 @@ public class EJActionProcessorFactory implements Serializable
         Object processorObject;
         try
         {
-            processorObject = processorClass.newInstance();
+            processorObject = EJClassCache.getInstance(processorClass);
             if (processorObject instanceof EJFormActionProcessor)
             {
                 return (EJFormActionProcessor) processorObject;
@@ -330,7 +331,7 @@ public class EJActionProcessorFactory implements Serializable
         Object processorObject;
         try
         {
-            processorObject = processorClass.newInstance();
+            processorObject = EJClassCache.getInstance(processorClass);
             if (processorObject instanceof EJBlockActionProcessor)
             {
                 return (EJBlockActionProcessor) processorObject;
@@ -366,7 +367,7 @@ public class EJActionProcessorFactory implements Serializable
         Object processorObject;
         try
         {
-            processorObject = processorClass.newInstance();
+            processorObject = EJClassCache.getInstance(processorClass);
             if (processorObject instanceof EJLovActionProcessor)
             {
                 return (EJLovActionProcessor) processorObject;
@@ -408,7 +409,7 @@ public class EJActionProcessorFactory implements Serializable
         Object processorObject;
         try
         {
-            processorObject = processorClass.newInstance();
+            processorObject = EJClassCache.getInstance(processorClass);
             if (processorObject instanceof EJMenuActionProcessor)
             {
                 return (EJMenuActionProcessor) processorObject;
@@ -444,7 +445,7 @@ public class EJActionProcessorFactory implements Serializable
         Object processorObject;
         try
         {
-            processorObject = processorClass.newInstance();
+            processorObject = EJClassCache.getInstance(processorClass);
             if (processorObject instanceof EJApplicationActionProcessor)
             {
                 return (EJApplicationActionProcessor) processorObject;
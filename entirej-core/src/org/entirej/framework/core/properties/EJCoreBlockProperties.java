@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.entirej.framework.core.properties;
 
+import java.io.ObjectStreamException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -37,6 +38,7 @@ import org.entirej.framework.core.properties.interfaces.EJItemGroupProperties;
 import org.entirej.framework.core.properties.interfaces.EJItemProperties;
 import org.entirej.framework.core.properties.interfaces.EJScreenItemProperties;
 import org.entirej.framework.core.service.EJBlockService;
+import org.entirej.framework.core.service.EJBlockServiceFactory;
 
 public class EJCoreBlockProperties implements EJBlockProperties, Comparable<EJCoreBlockProperties>
 {
@@ -69,6 +71,8 @@ public class EJCoreBlockProperties implements EJBlockProperties, Comparable<EJCo
     private boolean                             _addControlBlockDefaultRecord = true;
     private int                                 _maxResults                   = -1;
     private int                                 _pageSize                     = 0;
+    private boolean                             _compactRecordStorage         = false;
+    private int                                 _recordLoadWindow             = 0;
     private EJCoreItemPropertiesContainer       _itemPropertiesContainer;
     private EJCoreMainScreenProperties          _mainScreenProperties;
     private EJCoreItemGroupPropertiesContainer  _mainScreenItemGroups;
@@ -111,6 +115,12 @@ public class EJCoreBlockProperties implements EJBlockProperties, Comparable<EJCo
         }
     }
     
+    private Object writeReplace() throws ObjectStreamException
+    {
+        EJCoreDefinitionReference reference = EJCoreDefinitionReference.forBlock(this);
+        return reference == null ? this : reference;
+    }
+    
     public String getDescription()
     {
         return null;
@@ -348,7 +358,10 @@ public class EJCoreBlockProperties implements EJBlockProperties, Comparable<EJCo
         
         if (className != null && className.trim().length() > 0)
         {
-            _blockService = _frameworkManager.getBlockServiceFactory().createBlockService(className);
+            // Properties created without a framework manager, for example by
+            // tools, use the default factory
+            EJBlockServiceFactory serviceFactory = _frameworkManager == null ? new EJBlockServiceFactory() : _frameworkManager.getBlockServiceFactory();
+            _blockService = serviceFactory.createBlockService(className);
         }
     }
     
@@ -772,6 +785,63 @@ public class EJCoreBlockProperties implements EJBlockProperties, Comparable<EJCo
         return _queryAllRows;
     }
     
+    /**
+     * Indicates that the records of this block hold their values in a single
+     * array instead of creating a data item for each of their items
+     * <p>
+     * Data items are then only created when they are requested, for example
+     * by a renderer or action processor. This reduces the memory used by
+     * blocks containing large amounts of records
+     * 
+     * @param compactRecordStorage
+     *            <code>true</code> if compact record storage should be used,
+     *            otherwise <code>false</code>
+     */
+    public void setCompactRecordStorage(boolean compactRecordStorage)
+    {
+        _compactRecordStorage = compactRecordStorage;
+    }
+    
+    /**
+     * Indicates if the records of this block use compact record storage
+     * 
+     * @return <code>true</code> if compact record storage is used, otherwise
+     *         <code>false</code>
+     * @see #setCompactRecordStorage(boolean)
+     */
+    public boolean isCompactRecordStorage()
+    {
+        return _compactRecordStorage;
+    }
+    
+    /**
+     * Sets the number of queried records that are created at a time
+     * <p>
+     * If set, only the entities returned by the block service are kept after
+     * a query. Their records are created and post-queried in windows of this
+     * size as the renderer or the block navigation reaches them. A value of
+     * <code>0</code> creates all records when the query is executed
+     * 
+     * @param recordLoadWindow
+     *            The number of records to create at a time or <code>0</code>
+     */
+    public void setRecordLoadWindow(int recordLoadWindow)
+    {
+        _recordLoadWindow = recordLoadWindow;
+    }
+    
+    /**
+     * Returns the number of queried records that are created at a time
+     * 
+     * @return The record load window or <code>0</code> if all records are
+     *         created when the query is executed
+     * @see #setRecordLoadWindow(int)
+     */
+    public int getRecordLoadWindow()
+    {
+        return _recordLoadWindow;
+    }
+    
     /**
      * The maximum amount of records that should be selected for this block
      * 
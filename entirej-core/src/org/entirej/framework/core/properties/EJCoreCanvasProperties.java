@@ -526,6 +526,7 @@ public class EJCoreCanvasProperties implements EJCanvasProperties
         if (tab != null)
         {
             _tabPages.addTabPageProperties(tab);
+            pageAdded();
         }
     }
 
@@ -542,6 +543,7 @@ public class EJCoreCanvasProperties implements EJCanvasProperties
         if (tab != null)
         {
             _drawerPages.addDrawerPageProperties(tab);
+            pageAdded();
         }
     }
 
@@ -589,6 +591,16 @@ public class EJCoreCanvasProperties implements EJCanvasProperties
         if (stackedPage != null)
         {
             _stackedPages.addStackedPageProperties(stackedPage);
+            pageAdded();
+        }
+    }
+
+    private void pageAdded()
+    {
+        // The canvases of the page must be found by the form canvas index
+        if (_parentCanvasContainer != null)
+        {
+            _parentCanvasContainer.canvasModified();
         }
     }
 
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.properties;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Locale;
+
+import org.entirej.framework.core.EJFrameworkManager;
+import org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache;
+
+/**
+ * Written instead of a form definition object when an application session is
+ * serialized
+ * <p>
+ * A form is referenced by its name, locale and definition version and is
+ * resolved from the {@link EJCoreFormPropertiesCache} when the session is
+ * read. Forms that are not cached, for example after a restart, are loaded and
+ * translated and are only used if their definition has the referenced
+ * version. Blocks, items and relations are referenced by their name within the
+ * referenced form so that the objects held by the forms
+ * controllers are resolved to the same instances as those within the form
+ * 
+ * @see EJCoreFormProperties#setDefinitionSource(String, Locale, long)
+ */
+final class EJCoreDefinitionReference implements Serializable
+{
+    private static final char FORM     = 'F';
+    private static final char BLOCK    = 'B';
+    private static final char ITEM     = 'I';
+    private static final char RELATION = 'R';
+
+    private final char        _type;
+    private final Object      _owner;
+    private final String      _name;
+    private final Locale      _locale;
+    private final long        _version;
+
+    private EJCoreDefinitionReference(char type, Object owner, String name, Locale locale, long version)
+    {
+        _type = type;
+        _owner = owner;
+        _name = name;
+        _locale = locale;
+        _version = version;
+    }
+
+    static EJCoreDefinitionReference forForm(EJFrameworkManager frameworkManager, String formName, Locale locale, long version)
+    {
+        return new EJCoreDefinitionReference(FORM, frameworkManager, formName, locale, version);
+    }
+
+    /**
+     * Returns a reference to the given block or <code>null</code> if the block
+     * cannot be found by its name within its referenced form
+     */
+    static EJCoreDefinitionReference forBlock(EJCoreBlockProperties blockProperties)
+    {
+        EJCoreFormProperties formProperties = blockProperties.getFormProperties();
+        if (formProperties == null || !formProperties.isDefinitionReferenced() || findBlock(formProperties, blockProperties.getName()) != blockProperties)
+        {
+            return null;
+        }
+        return new EJCoreDefinitionReference(BLOCK, formProperties, blockProperties.getName(), null, 0);
+    }
+
+    static EJCoreDefinitionReference forItem(EJCoreItemProperties itemProperties)
+    {
+        EJCoreBlockProperties blockProperties = itemProperties.getBlockProperties();
+        if (blockProperties == null || blockProperties.getItemProperties(itemProperties.getName()) != itemProperties || forBlock(blockProperties) == null)
+        {
+            return null;
+        }
+        return new EJCoreDefinitionReference(ITEM, blockProperties, itemProperties.getName(), null, 0);
+    }
+
+    static EJCoreDefinitionReference forRelation(EJCoreRelationProperties relationProperties)
+    {
+        if (relationProperties.getMasterBlockProperties() == null)
+        {
+            return null;
+        }
+        EJCoreFormProperties formProperties = relationProperties.getMasterBlockProperties().getFormProperties();
+        if (formProperties == null || !formProperties.isDefinitionReferenced()
+                || formProperties.getRelationProperties(relationProperties.getName()) != relationProperties)
+        {
+            return null;
+        }
+        return new EJCoreDefinitionReference(RELATION, formProperties, relationProperties.getName(), null, 0);
+    }
+
+    private static EJCoreBlockProperties findBlock(EJCoreFormProperties formProperties, String blockName)
+    {
+        EJCoreBlockProperties blockProperties = formProperties.getBlockProperties(blockName);
+        if (blockProperties != null)
+        {
+            return blockProperties;
+        }
+
+        // The blocks of lov definitions are not part of the forms blocks
+        for (EJCoreLovDefinitionProperties lovDefinition : formProperties.getLovDefinitionContainer().getAllLovDefinitionProperties())
+        {
+            if (lovDefinition.getBlockProperties() != null && lovDefinition.getBlockProperties().getName().equalsIgnoreCase(blockName))
+            {
+                return lovDefinition.getBlockProperties();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads and translates the referenced form if it has not yet been cached,
+     * for example because the session is read after a restart or by another
+     * node
+     * 
+     * @return The loaded form or <code>null</code> if the form cannot be
+     *         loaded for the referenced locale or its definition has another
+     *         version
+     */
+    private EJCoreFormProperties loadForm(EJFrameworkManager frameworkManager) throws ObjectStreamException
+    {
+        // Forms are translated with the current locale of the framework
+        // manager
+        if (frameworkManager == null || _locale == null || !_locale.equals(frameworkManager.getCurrentLocale()))
+        {
+            return null;
+        }
+
+        EJCoreFormProperties formProperties;
+        try
+        {
+            formProperties = frameworkManager.getFormProperties(_name);
+        }
+        catch (RuntimeException e)
+        {
+            InvalidObjectException exception = new InvalidObjectException("Unable to load the definition of " + _name);
+            exception.initCause(e);
+            throw exception;
+        }
+
+        if (formProperties == null || EJCoreFormPropertiesCache.getInstance().getDefinitionVersion(_name, _locale) != _version)
+        {
+            return null;
+        }
+        return formProperties;
+    }
+
+    private Object readResolve() throws ObjectStreamException
+    {
+        Object resolved = null;
+        switch (_type)
+        {
+            case FORM:
+                EJCoreFormProperties formProperties = EJCoreFormPropertiesCache.getInstance().getFormProperties((EJFrameworkManager) _owner, _name, _locale,
+                        _version);
+                if (formProperties == null)
+                {
+                    formProperties = loadForm((EJFrameworkManager) _owner);
+                }
+                if (formProperties != null)
+                {
+                    formProperties.setDefinitionSource(_name, _locale, _version);
+                }
+                resolved = formProperties;
+                break;
+            case BLOCK:
+                resolved = findBlock((EJCoreFormProperties) _owner, _name);
+                break;
+            case ITEM:
+                resolved = ((EJCoreBlockProperties) _owner).getItemProperties(_name);
+                break;
+            case RELATION:
+                resolved = ((EJCoreFormProperties) _owner).getRelationProperties(_name);
+                break;
+        }
+
+        if (resolved == null)
+        {
+            throw new InvalidObjectException("Unable to resolve the definition of " + _name + (_type == FORM ? " in version " + _version : "")
+                    + ". The form definition cannot be loaded or has changed");
+        }
+        return resolved;
+    }
+}
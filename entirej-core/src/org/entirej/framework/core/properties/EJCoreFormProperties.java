@@ -18,10 +18,13 @@
  ******************************************************************************/
 package org.entirej.framework.core.properties;
 
+import java.io.ObjectStreamException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
 import org.entirej.framework.core.EJFrameworkManager;
 import org.entirej.framework.core.data.controllers.EJInternalFormParameter;
@@ -65,6 +68,10 @@ public class EJCoreFormProperties implements EJFormProperties
 
     private List<EJInternalFormParameter>          _formParameterDefinitions;
 
+    // Set while the properties are unchanged copies of a cached definition
+    private transient EJCoreDefinitionReference    _definitionReference;
+    private transient volatile CanvasIndex         _canvasIndex;
+
     public EJCoreFormProperties(EJFrameworkManager frameworkManager, String formName)
     {
         this(frameworkManager, formName, false, false);
@@ -112,6 +119,56 @@ public class EJCoreFormProperties implements EJFormProperties
         return _frameworkManager;
     }
 
+    /**
+     * Indicates that these properties are an unchanged copy of the cached
+     * definition of the given form
+     * <p>
+     * When an application session is serialized, the properties are then
+     * written as a reference to the cached definition instead of being written
+     * in full
+     * 
+     * @param formName
+     *            The name the properties were loaded with
+     * @param locale
+     *            The locale the properties were translated with
+     * @param version
+     *            The version of the cached definition
+     * @see org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache#getDefinitionVersion(String, Locale)
+     */
+    public void setDefinitionSource(String formName, Locale locale, long version)
+    {
+        _definitionReference = EJCoreDefinitionReference.forForm(_frameworkManager, formName, locale, version);
+    }
+
+    /**
+     * Indicates if these properties will be written as a reference to their
+     * cached definition
+     * 
+     * @return <code>true</code> if these properties are written as a reference
+     */
+    public boolean isDefinitionReferenced()
+    {
+        return _definitionReference != null;
+    }
+
+    /**
+     * Informs these properties that they have been changed at runtime and
+     * therefore differ from their cached definition
+     * <p>
+     * The properties will be written in full from then on. This is called by
+     * the runtime setters of the framework, but not by the setters of the
+     * properties themselves
+     */
+    public void definitionModified()
+    {
+        _definitionReference = null;
+    }
+
+    private Object writeReplace() throws ObjectStreamException
+    {
+        return _definitionReference == null ? this : _definitionReference;
+    }
+
     /**
      * Used to retrieve the name of the form for which these properties are
      * valid
@@ -315,19 +372,7 @@ public class EJCoreFormProperties implements EJFormProperties
             throw new NullPointerException("the detail block passed to getMasterRelationProperties is null.");
         }
 
-        Iterator<EJCoreRelationProperties> relations = _relationContainer.getAllRelationProperties().iterator();
-
-        while (relations.hasNext())
-        {
-            EJCoreRelationProperties relation = relations.next();
-
-            if (relation.getDetailBlockProperties().getFormProperties().getName().equalsIgnoreCase(detailBlock.getFormProperties().getName())
-                    && relation.getDetailBlockProperties().getName().equalsIgnoreCase(detailBlock.getName()))
-            {
-                return relation;
-            }
-        }
-        return null;
+        return _relationContainer.getMasterRelationProperties(detailBlock);
     }
 
     /**
@@ -347,25 +392,11 @@ public class EJCoreFormProperties implements EJFormProperties
      */
     public Collection<EJCoreRelationProperties> getDetailRelationProperties(EJCoreBlockProperties masterBlock)
     {
-        ArrayList<EJCoreRelationProperties> relationList = new ArrayList<EJCoreRelationProperties>();
-
         if (masterBlock == null)
         {
-            return relationList;
-        }
-
-        Iterator<EJCoreRelationProperties> relations = _relationContainer.getAllRelationProperties().iterator();
-        while (relations.hasNext())
-        {
-            EJCoreRelationProperties relation = relations.next();
-
-            if (relation.getMasterBlockProperties().getFormProperties().getName().equalsIgnoreCase(masterBlock.getFormProperties().getName())
-                    && relation.getMasterBlockProperties().getName().equalsIgnoreCase(masterBlock.getName()))
-            {
-                relationList.add(relation);
-            }
+            return new ArrayList<EJCoreRelationProperties>();
         }
-        return relationList;
+        return _relationContainer.getDetailRelationProperties(masterBlock);
     }
 
     /**
@@ -430,82 +461,110 @@ public class EJCoreFormProperties implements EJFormProperties
             return null;
         }
 
-        return getCanvasProps(_canvasContainer, name);
+        IndexedCanvas indexedCanvas = getCanvasIndex().get(name.toLowerCase());
+        if (indexedCanvas != null && !indexedCanvas._canvas.getName().equalsIgnoreCase(name))
+        {
+            // The canvas has been renamed since the index was built
+            _canvasIndex = null;
+            indexedCanvas = getCanvasIndex().get(name.toLowerCase());
+        }
+        return indexedCanvas == null ? null : indexedCanvas._canvas;
+    }
+
+    /**
+     * Returns the container holding the canvas with the given name
+     * <p>
+     * This is the form canvas container for top level canvases or the popup,
+     * group, split, tab page, stacked page or drawer page container of a
+     * nested canvas
+     * 
+     * @param name
+     *            The name of the canvas
+     * @return The container of the canvas or <code>null</code> if there is no
+     *         canvas with the given name
+     */
+    public EJCanvasPropertiesContainer getParentCanvasContainer(String name)
+    {
+        if (name == null || name.trim().length() == 0 || getCanvasProperties(name) == null)
+        {
+            return null;
+        }
+        return getCanvasIndex().get(name.toLowerCase())._container;
+    }
+
+    /**
+     * Returns the case folded index of every canvas within this form
+     * <p>
+     * The index is built from the canvas tree in the order the tree used to be
+     * searched, so the first canvas found for a name is the one indexed, and
+     * is rebuilt once a canvas has been added or replaced anywhere within
+     * this form
+     */
+    private HashMap<String, IndexedCanvas> getCanvasIndex()
+    {
+        CanvasIndex canvasIndex = _canvasIndex;
+        int modificationCount = _canvasContainer.getModificationCount();
+        if (canvasIndex == null || canvasIndex._modificationCount != modificationCount)
+        {
+            canvasIndex = new CanvasIndex(modificationCount);
+            indexCanvases(_canvasContainer, canvasIndex._canvases);
+            _canvasIndex = canvasIndex;
+        }
+        return canvasIndex._canvases;
     }
 
-    private EJCanvasProperties getCanvasProps(EJCanvasPropertiesContainer container, String canvasName)
+    private void indexCanvases(EJCanvasPropertiesContainer container, HashMap<String, IndexedCanvas> canvases)
     {
-        Iterator<EJCanvasProperties> allCanvases = container.getAllCanvasProperties().iterator();
-        while (allCanvases.hasNext())
+        if (container != _canvasContainer && container instanceof EJCoreCanvasPropertiesContainer)
         {
-            EJCanvasProperties canvas = allCanvases.next();
+            // Modifications of nested containers must invalidate this index
+            ((EJCoreCanvasPropertiesContainer) container).setRootContainer(_canvasContainer);
+        }
 
-            if (canvas.getName().equalsIgnoreCase(canvasName))
+        for (EJCanvasProperties canvas : container.getAllCanvasProperties())
+        {
+            if (canvas.getName() != null)
             {
-                return canvas;
+                String key = canvas.getName().toLowerCase();
+                if (!canvases.containsKey(key))
+                {
+                    canvases.put(key, new IndexedCanvas(canvas, container));
+                }
             }
 
             switch (canvas.getType())
             {
                 case POPUP:
-                    EJCanvasProperties canvasProps = getCanvasProps(canvas.getPopupCanvasContainer(), canvasName);
-                    if (canvasProps != null)
-                        return canvasProps;
+                    indexCanvases(canvas.getPopupCanvasContainer(), canvases);
                     break;
-
                 case TAB:
-                    Iterator<EJTabPageProperties> allTabPages = canvas.getTabPageContainer().getAllTabPageProperties().iterator();
-                    while (allTabPages.hasNext())
+                    for (EJTabPageProperties tabPage : canvas.getTabPageContainer().getAllTabPageProperties())
                     {
-                        EJCanvasProperties tabPageChildCanvas = getCanvasProps(allTabPages.next().getContainedCanvases(), canvasName);
-                        if (tabPageChildCanvas != null && tabPageChildCanvas.getName().equalsIgnoreCase(canvasName))
-                        {
-                            return tabPageChildCanvas;
-                        }
+                        indexCanvases(tabPage.getContainedCanvases(), canvases);
                     }
                     break;
                 case DRAWER:
-                    Iterator<EJDrawerPageProperties> allDrawerPages = canvas.getDrawerPageContainer().getAllDrawerPageProperties().iterator();
-                    while (allDrawerPages.hasNext())
+                    for (EJDrawerPageProperties drawerPage : canvas.getDrawerPageContainer().getAllDrawerPageProperties())
                     {
-                        EJCanvasProperties tabPageChildCanvas = getCanvasProps(allDrawerPages.next().getContainedCanvases(), canvasName);
-                        if (tabPageChildCanvas != null && tabPageChildCanvas.getName().equalsIgnoreCase(canvasName))
-                        {
-                            return tabPageChildCanvas;
-                        }
+                        indexCanvases(drawerPage.getContainedCanvases(), canvases);
                     }
                     break;
                 case STACKED:
-                    Iterator<EJStackedPageProperties> allStackedPages = canvas.getStackedPageContainer().getAllStackedPageProperties().iterator();
-                    while (allStackedPages.hasNext())
+                    for (EJStackedPageProperties stackedPage : canvas.getStackedPageContainer().getAllStackedPageProperties())
                     {
-                        EJCanvasProperties stackedPageChildCanvas = getCanvasProps(allStackedPages.next().getContainedCanvases(), canvasName);
-                        if (stackedPageChildCanvas != null && stackedPageChildCanvas.getName().equalsIgnoreCase(canvasName))
-                        {
-                            return stackedPageChildCanvas;
-                        }
+                        indexCanvases(stackedPage.getContainedCanvases(), canvases);
                     }
-
                     break;
                 case GROUP:
-
-                    EJCanvasProperties gcanvasProps = getCanvasProps(canvas.getGroupCanvasContainer(), canvasName);
-                    if (gcanvasProps != null)
-                        return gcanvasProps;
+                    indexCanvases(canvas.getGroupCanvasContainer(), canvases);
                     break;
                 case SPLIT:
-
-                    EJCanvasProperties scanvasProps = getCanvasProps(canvas.getSplitCanvasContainer(), canvasName);
-                    if (scanvasProps != null)
-                        return scanvasProps;
+                    indexCanvases(canvas.getSplitCanvasContainer(), canvases);
                     break;
                 case BLOCK:
                     break;
-
             }
-
         }
-        return null;
     }
 
     /**
@@ -824,4 +883,28 @@ public class EJCoreFormProperties implements EJFormProperties
 
         return buffer.toString();
     }
+
+    private static class CanvasIndex
+    {
+        private final int                            _modificationCount;
+        private final HashMap<String, IndexedCanvas> _canvases;
+
+        CanvasIndex(int modificationCount)
+        {
+            _modificationCount = modificationCount;
+            _canvases = new HashMap<String, IndexedCanvas>();
+        }
+    }
+
+    private static class IndexedCanvas
+    {
+        private final EJCanvasProperties          _canvas;
+        private final EJCanvasPropertiesContainer _container;
+
+        IndexedCanvas(EJCanvasProperties canvas, EJCanvasPropertiesContainer container)
+        {
+            _canvas = canvas;
+            _container = container;
+        }
+    }
 }
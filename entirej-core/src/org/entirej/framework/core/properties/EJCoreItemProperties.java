@@ -18,6 +18,9 @@
  ******************************************************************************/
 package org.entirej.framework.core.properties;
 
+import java.io.ObjectStreamException;
+
+import org.entirej.framework.core.common.utils.EJDefaultValueResolver;
 import org.entirej.framework.core.properties.definitions.interfaces.EJFrameworkExtensionProperties;
 import org.entirej.framework.core.properties.interfaces.EJItemProperties;
 import org.entirej.framework.core.service.EJQueryCriteria;
@@ -43,6 +46,8 @@ public class EJCoreItemProperties implements EJItemProperties
     private String                         _itemRendererName;
     private String                         _defaultInsertValue           = "";
     private String                         _defaultQueryValue            = "";
+    private EJDefaultValueResolver         _defaultInsertValueResolver   = EJDefaultValueResolver.compile(null);
+    private EJDefaultValueResolver         _defaultQueryValueResolver    = EJDefaultValueResolver.compile(null);
     private EJFrameworkExtensionProperties _rendererProperties           = null;
     
     private EJCoreLovMappingProperties     _lovMappingPropertiesOnMain   = null;
@@ -66,6 +71,12 @@ public class EJCoreItemProperties implements EJItemProperties
         return _blockProperties;
     }
     
+    private Object writeReplace() throws ObjectStreamException
+    {
+        EJCoreDefinitionReference reference = EJCoreDefinitionReference.forItem(this);
+        return reference == null ? this : reference;
+    }
+    
     /**
      * Used to set the default value for this item, when a new record is being
      * created
@@ -81,6 +92,7 @@ public class EJCoreItemProperties implements EJItemProperties
     public void setDefaultInsertValue(String defaultInsertValue)
     {
         _defaultInsertValue = defaultInsertValue;
+        _defaultInsertValueResolver = EJDefaultValueResolver.compile(defaultInsertValue);
     }
     
     /**
@@ -94,6 +106,16 @@ public class EJCoreItemProperties implements EJItemProperties
         return _defaultInsertValue;
     }
     
+    /**
+     * Returns the parsed default insert value of this item
+     * 
+     * @return The default insert value resolver
+     */
+    public EJDefaultValueResolver getDefaultInsertValueResolver()
+    {
+        return _defaultInsertValueResolver;
+    }
+    
     /**
      * Sets the value that will be used as a default for this item when
      * executing a query
@@ -111,6 +133,7 @@ public class EJCoreItemProperties implements EJItemProperties
     public void setDefaultQueryValue(String defaultQueryValue)
     {
         _defaultQueryValue = defaultQueryValue;
+        _defaultQueryValueResolver = EJDefaultValueResolver.compile(defaultQueryValue);
     }
     
     /**
@@ -126,6 +149,16 @@ public class EJCoreItemProperties implements EJItemProperties
         return _defaultQueryValue;
     }
     
+    /**
+     * Returns the parsed default query value of this item
+     * 
+     * @return The default query value resolver
+     */
+    public EJDefaultValueResolver getDefaultQueryValueResolver()
+    {
+        return _defaultQueryValueResolver;
+    }
+    
     /**
      * Returns the name of the item
      * <p>
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.entirej.framework.core.properties;
 
+import org.entirej.framework.core.enumerations.EJTextComparison;
 import org.entirej.framework.core.properties.definitions.interfaces.EJFrameworkExtensionProperties;
 import org.entirej.framework.core.properties.interfaces.EJLovDefinitionProperties;
 
@@ -32,6 +33,10 @@ public class EJCoreLovDefinitionProperties implements Comparable<EJCoreLovDefini
     private boolean                        _automaticRefresh            = true;
     private int                            _width;
     private int                            _height;
+    private int                            _sharedCacheSize             = 0;
+    private long                           _sharedCacheTimeToLive       = 0;
+    private boolean                        _validateInMemory            = false;
+    private EJTextComparison               _validationTextComparison    = EJTextComparison.UNKNOWN;
 
     private String                         _lovRendererName             = "";
     private EJFrameworkExtensionProperties _lovRendererProperties;
@@ -206,6 +211,140 @@ public class EJCoreLovDefinitionProperties implements Comparable<EJCoreLovDefini
         _automaticRefresh = automaticRefresh;
     }
 
+    /**
+     * Returns the number of queries of this lov that are kept within the
+     * application wide <code>EJSharedLovCache</code>
+     * <p>
+     * The shared cache is meant for reference data, such as countries or
+     * currencies, that is identical for every session. Queries are keyed by
+     * the lov definition and the restrictions, sorting and paging of the query
+     * criteria, so the block service must not filter using any other values,
+     * e.g. the user of the session
+     * 
+     * @return The size of the shared cache, <code>0</code> if the queries of
+     *         this lov are not shared
+     */
+    public int getSharedCacheSize()
+    {
+        return _sharedCacheSize;
+    }
+
+    /**
+     * Sets the number of queries of this lov that are kept within the
+     * application wide <code>EJSharedLovCache</code>
+     * 
+     * @param sharedCacheSize
+     *            The cache size, <code>0</code> disables the shared cache
+     * @see #getSharedCacheSize()
+     */
+    public void setSharedCacheSize(int sharedCacheSize)
+    {
+        _sharedCacheSize = Math.max(0, sharedCacheSize);
+    }
+
+    /**
+     * Returns the time in milliseconds for which the shared queries of this
+     * lov are used
+     * 
+     * @return The time to live of shared queries, <code>0</code> if they do
+     *         not expire
+     */
+    public long getSharedCacheTimeToLive()
+    {
+        return _sharedCacheTimeToLive;
+    }
+
+    /**
+     * Sets the time in milliseconds for which the shared queries of this lov
+     * are used
+     * 
+     * @param timeToLive
+     *            The time to live, <code>0</code> if shared queries do not
+     *            expire
+     */
+    public void setSharedCacheTimeToLive(long timeToLive)
+    {
+        _sharedCacheTimeToLive = Math.max(0, timeToLive);
+    }
+
+    /**
+     * Indicates if item validations of this lov are answered from the
+     * complete result of the lov once it has been loaded
+     * <p>
+     * The lov result is complete if it was queried without a value typed by
+     * the user and all rows fitted into the first page. Validations with an
+     * equals or a <code>like 'x%'</code> restriction on the validated item are
+     * then answered from an in memory index instead of the block service.
+     * Numbers and dates are compared by value, text values only if the way
+     * the database compares them is known
+     * 
+     * @return <code>true</code> if validations are answered in memory
+     */
+    public boolean validateInMemory()
+    {
+        return _validateInMemory;
+    }
+
+    /**
+     * Indicates if item validations of this lov are answered from the
+     * complete result of the lov once it has been loaded
+     * 
+     * @param validateInMemory
+     *            <code>true</code> if validations should be answered in
+     *            memory
+     * @see #validateInMemory()
+     */
+    public void setValidateInMemory(boolean validateInMemory)
+    {
+        _validateInMemory = validateInMemory;
+    }
+
+    /**
+     * Returns the way the database compares the text values of this lov
+     * <p>
+     * Validations of text values are only answered in memory if the
+     * comparison is known, otherwise they are passed to the block service
+     * 
+     * @return The text comparison, <code>UNKNOWN</code> by default
+     * @see #validateInMemory()
+     */
+    public EJTextComparison getValidationTextComparison()
+    {
+        return _validationTextComparison;
+    }
+
+    /**
+     * Sets the way the database compares the text values of this lov
+     * 
+     * @param textComparison
+     *            The text comparison of the database
+     * @see #getValidationTextComparison()
+     */
+    public void setValidationTextComparison(EJTextComparison textComparison)
+    {
+        _validationTextComparison = textComparison == null ? EJTextComparison.UNKNOWN : textComparison;
+    }
+
+    /**
+     * Returns the name under which the queries of this lov are kept within the
+     * <code>EJSharedLovCache</code>
+     * <p>
+     * Lovs based on a referenced lov definition share their queries with
+     * every form using the same definition, other lovs are only shared with
+     * other sessions of the same form
+     * 
+     * @return The shared cache name of this lov definition
+     */
+    public String getSharedCacheName()
+    {
+        if (_referencedLovDefinitionName != null && _referencedLovDefinitionName.trim().length() > 0)
+        {
+            return _referencedLovDefinitionName;
+        }
+        String formName = _blockProperties == null || _blockProperties.getFormProperties() == null ? "" : _blockProperties.getFormProperties().getName();
+        return formName + "." + _name;
+    }
+
     /**
      * Sets the height of the renderer used to display this LovDefinition
      * 
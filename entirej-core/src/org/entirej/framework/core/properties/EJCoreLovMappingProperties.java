@@ -28,6 +28,8 @@ import org.entirej.framework.core.EJFrameworkManager;
 
 public class EJCoreLovMappingProperties  implements Serializable
 {
+    public static final int                         DEFAULT_POST_QUERY_BATCH_SIZE = 1000;
+    
     private String                                  _lovMappingName;
     private String                                  _lovDefinitionName;
     private String                                  _lovRendererName    = "";
@@ -35,6 +37,8 @@ public class EJCoreLovMappingProperties  implements Serializable
     private String                                  _baseLovDisplayName = "";
     private boolean                                 _executeAfterQuery  = true;
     private boolean                                 _includeDefaultQueryValues  = false;
+    private boolean                                 _batchPostQuery     = false;
+    private int                                     _postQueryBatchSize = DEFAULT_POST_QUERY_BATCH_SIZE;
     private EJCoreBlockProperties                   _mappedBlock;
     private List<EJCoreLovItemMappingProperties> _lovItemMappings;
     
@@ -77,6 +81,55 @@ public class EJCoreLovMappingProperties  implements Serializable
         this._includeDefaultQueryValues = includeDefaultQueryValues;
     }
     
+    /**
+     * Indicates if the lookup values of a queried page are retrieved with one
+     * query per chunk of key values instead of one query per record
+     * <p>
+     * Batching is only used for records where a single mapped item holds a
+     * value. All other records are looked up individually
+     * 
+     * @return <code>true</code> if post query lookups are batched, otherwise
+     *         <code>false</code>
+     */
+    public boolean batchPostQuery()
+    {
+        return _batchPostQuery;
+    }
+    
+    public void setBatchPostQuery(boolean batchPostQuery)
+    {
+        _batchPostQuery = batchPostQuery;
+    }
+    
+    /**
+     * Returns the maximum amount of key values added to one <code>IN</code>
+     * restriction when post query lookups are batched
+     * 
+     * @return The maximum amount of key values per lookup query
+     * @see #batchPostQuery()
+     */
+    public int getPostQueryBatchSize()
+    {
+        return _postQueryBatchSize;
+    }
+    
+    /**
+     * Sets the maximum amount of key values added to one <code>IN</code>
+     * restriction when post query lookups are batched. This should not exceed
+     * the bind variable limit of the database being used
+     * 
+     * @param postQueryBatchSize
+     *            The maximum amount of key values per lookup query
+     */
+    public void setPostQueryBatchSize(int postQueryBatchSize)
+    {
+        if (postQueryBatchSize < 1)
+        {
+            throw new IllegalArgumentException("The post query batch size must be greater than 0. Value: " + postQueryBatchSize);
+        }
+        _postQueryBatchSize = postQueryBatchSize;
+    }
+    
     /**
      * Set the name of the lov definition upon which this mapping is based
      * <p>
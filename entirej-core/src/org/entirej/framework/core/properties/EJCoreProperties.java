@@ -26,6 +26,7 @@ import java.util.List;
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJFrameworkManager;
 import org.entirej.framework.core.EJMessageFactory;
+import org.entirej.framework.core.common.utils.EJClassCache;
 import org.entirej.framework.core.data.controllers.EJApplicationLevelParameter;
 import org.entirej.framework.core.enumerations.EJFrameworkMessage;
 import org.entirej.framework.core.interfaces.EJConnectionFactory;
@@ -34,6 +35,8 @@ import org.entirej.framework.core.properties.containers.EJCoreRendererAssignment
 import org.entirej.framework.core.properties.definitions.interfaces.EJFrameworkExtensionProperties;
 import org.entirej.framework.core.properties.interfaces.EJEntireJProperties;
 import org.entirej.framework.core.properties.interfaces.EJRendererAssignment;
+import org.entirej.framework.core.service.EJSqlDialect;
+import org.entirej.framework.core.service.EJStandardSqlDialect;
 
 public class EJCoreProperties implements EJEntireJProperties
 {
@@ -62,6 +65,14 @@ public class EJCoreProperties implements EJEntireJProperties
     private String                                       _connectionFactoryClassName;
     private String                                       _applicationManagerClassName;
     private String                                       _applicationActionProcessorClassName;
+    private EJSqlDialect                                 _sqlDialect = EJStandardSqlDialect.NONE;
+    private boolean                                      _keysetPaging;
+    private int                                          _translationCacheSize = 2000;
+    private int                                          _detailQueryThreads   = 4;
+    private int                                          _prefetchQueryThreads = 1;
+    private int                                          _asyncQueryThreads    = 4;
+    private int                                          _detailQueryTimeout   = 60;
+    private boolean                                      _sessionFormReferences;
     
     static
     {
@@ -202,6 +213,271 @@ public class EJCoreProperties implements EJEntireJProperties
         return _applicationTranslator;
     }
     
+    /**
+     * Sets the sql dialect used by the statement executor to page selects
+     * within the database
+     * 
+     * @param dialectName
+     *            The name of an {@link EJStandardSqlDialect}, for example
+     *            <code>ORACLE</code> or <code>POSTGRESQL</code>, or the class
+     *            name of an {@link EJSqlDialect}
+     */
+    public void setSqlDialectName(String dialectName)
+    {
+        if (dialectName == null || dialectName.trim().length() == 0)
+        {
+            _sqlDialect = EJStandardSqlDialect.NONE;
+            return;
+        }
+        
+        dialectName = dialectName.trim();
+        for (EJStandardSqlDialect dialect : EJStandardSqlDialect.values())
+        {
+            if (dialect.name().equalsIgnoreCase(dialectName))
+            {
+                _sqlDialect = dialect;
+                return;
+            }
+        }
+        
+        try
+        {
+            Object obj = EJClassCache.getClass(dialectName).getDeclaredConstructor().newInstance();
+            if (obj instanceof EJSqlDialect)
+            {
+                _sqlDialect = (EJSqlDialect) obj;
+            }
+            else
+            {
+                throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_SQL_DIALECT, dialectName));
+            }
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_SQL_DIALECT, dialectName), e);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            // Missing or failing no argument constructor
+            throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.UNABLE_TO_CREATE_SQL_DIALECT, dialectName), e);
+        }
+    }
+    
+    public void setSqlDialect(EJSqlDialect dialect)
+    {
+        _sqlDialect = dialect == null ? EJStandardSqlDialect.NONE : dialect;
+    }
+    
+    /**
+     * Returns the sql dialect used by the statement executor to page selects
+     * 
+     * @return The applications sql dialect, {@link EJStandardSqlDialect#NONE}
+     *         if no dialect has been set
+     */
+    public EJSqlDialect getSqlDialect()
+    {
+        return _sqlDialect;
+    }
+    
+    /**
+     * Indicates if blocks pass the sort values of the last row of a page to
+     * the block service when the next page is retrieved
+     * 
+     * @return <code>true</code> if keyset paging is used, otherwise
+     *         <code>false</code>
+     * @see org.entirej.framework.core.service.EJQueryCriteria#setSeekValues(List)
+     */
+    public boolean isKeysetPaging()
+    {
+        return _keysetPaging;
+    }
+    
+    /**
+     * Enables keyset paging for all blocks
+     * <p>
+     * Keyset paging should only be enabled if the sorts of all paged blocks
+     * uniquely identify their rows
+     * 
+     * @param keysetPaging
+     *            <code>true</code> to enable keyset paging
+     */
+    public void setKeysetPaging(boolean keysetPaging)
+    {
+        _keysetPaging = keysetPaging;
+    }
+    
+    /**
+     * Returns the maximum number of translated texts that the application keeps
+     * per {@link java.util.Locale}
+     * 
+     * @return The translation cache size, <code>0</code> if translations are
+     *         not cached
+     * @see org.entirej.framework.core.data.controllers.EJTranslationCache
+     */
+    public int getTranslationCacheSize()
+    {
+        return _translationCacheSize;
+    }
+    
+    /**
+     * Sets the maximum number of translated texts that the application keeps
+     * per {@link java.util.Locale}
+     * 
+     * @param translationCacheSize
+     *            The cache size, <code>0</code> to disable the caching of
+     *            translations
+     */
+    public void setTranslationCacheSize(int translationCacheSize)
+    {
+        _translationCacheSize = Math.max(0, translationCacheSize);
+    }
+    
+    /**
+     * Returns the maximum number of threads used to execute the queries of
+     * detail blocks whose relations allow parallel queries
+     * 
+     * @return The maximum number of detail query threads
+     * @see org.entirej.framework.core.properties.EJCoreRelationProperties#isParallelQuery()
+     */
+    public int getDetailQueryThreads()
+    {
+        return _detailQueryThreads;
+    }
+    
+    /**
+     * Sets the maximum number of threads used to execute parallel detail
+     * queries
+     * <p>
+     * The value is read when the first parallel detail query is executed
+     * 
+     * @param detailQueryThreads
+     *            The maximum number of threads, at least <code>1</code>
+     */
+    public void setDetailQueryThreads(int detailQueryThreads)
+    {
+        _detailQueryThreads = Math.max(1, detailQueryThreads);
+    }
+    
+    /**
+     * Returns the maximum number of threads used to prefetch the queries of
+     * detail blocks for the following master records
+     * <p>
+     * Prefetches are discarded while all prefetch threads are busy and the
+     * queue of waiting prefetches is full
+     * 
+     * @return The maximum number of prefetch threads
+     * @see org.entirej.framework.core.properties.EJCoreRelationProperties#getQueryPrefetchCount()
+     */
+    public int getPrefetchQueryThreads()
+    {
+        return _prefetchQueryThreads;
+    }
+    
+    /**
+     * Sets the maximum number of threads used to prefetch detail queries
+     * 
+     * @param prefetchQueryThreads
+     *            The maximum number of threads, at least <code>1</code>
+     */
+    public void setPrefetchQueryThreads(int prefetchQueryThreads)
+    {
+        _prefetchQueryThreads = Math.max(1, prefetchQueryThreads);
+    }
+    
+    /**
+     * Returns the maximum number of threads used to run the asynchronous
+     * queries of blocks
+     * <p>
+     * An asynchronous query fails when all threads are busy and the queue of
+     * waiting queries is full
+     * 
+     * @return The maximum number of asynchronous query threads
+     */
+    public int getAsyncQueryThreads()
+    {
+        return _asyncQueryThreads;
+    }
+    
+    /**
+     * Sets the maximum number of threads used to run asynchronous queries
+     * 
+     * @param asyncQueryThreads
+     *            The maximum number of threads, at least <code>1</code>
+     */
+    public void setAsyncQueryThreads(int asyncQueryThreads)
+    {
+        _asyncQueryThreads = Math.max(1, asyncQueryThreads);
+    }
+    
+    /**
+     * Returns the number of seconds a block waits for the page of a detail
+     * query that is retrieved in the background
+     * <p>
+     * The retrieval is cancelled and the query of the block fails once the
+     * timeout has elapsed
+     * 
+     * @return The timeout in seconds, <code>0</code> to wait until the page
+     *         has been retrieved
+     */
+    public int getDetailQueryTimeout()
+    {
+        return _detailQueryTimeout;
+    }
+    
+    /**
+     * Sets the number of seconds a block waits for the page of a detail query
+     * that is retrieved in the background
+     * 
+     * @param detailQueryTimeout
+     *            The timeout in seconds, <code>0</code> to wait until the page
+     *            has been retrieved
+     */
+    public void setDetailQueryTimeout(int detailQueryTimeout)
+    {
+        _detailQueryTimeout = Math.max(0, detailQueryTimeout);
+    }
+    
+    /**
+     * Indicates if the form definitions of an application session are written
+     * as references when the session is serialized
+     * 
+     * @return <code>true</code> if form definitions are written as references
+     * @see org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache
+     */
+    public boolean isSessionFormReferences()
+    {
+        return _sessionFormReferences;
+    }
+    
+    /**
+     * Writes the form definitions of serialized sessions as references
+     * <p>
+     * Instead of the complete definition, only the form name, locale and
+     * definition version are written for each open form. The definition is
+     * taken from the {@link org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache}
+     * when the session is read, so this should only be enabled if the
+     * sessions are read by applications that have the same form definitions,
+     * for example when sessions are passivated or replicated between running
+     * nodes. A form that has not been cached by the reading application is
+     * loaded and translated, and the session can only be read if its
+     * definition has the referenced version
+     * <p>
+     * Forms changed at runtime must be written in full. The runtime setters
+     * of the framework, such as those of <code>EJForm</code>,
+     * <code>EJBlock</code>, <code>EJScreenItem</code> and <code>EJLov</code>,
+     * inform the form definition of their changes. The setters of the
+     * definition properties themselves do not, so code that changes the
+     * properties of an open form directly must call
+     * {@link EJCoreFormProperties#definitionModified()}
+     * 
+     * @param sessionFormReferences
+     *            <code>true</code> to write form definitions as references
+     */
+    public void setSessionFormReferences(boolean sessionFormReferences)
+    {
+        _sessionFormReferences = sessionFormReferences;
+    }
+    
     @Override
     public EJFrameworkExtensionProperties getApplicationDefinedProperties()
     {
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.entirej.framework.core.properties;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +31,12 @@ public class EJCoreRelationProperties implements Comparable<EJCoreRelationProper
     private boolean                                 _preventMasterlessOperations = true;
     private boolean                                 _deferredQuery               = false;
     private boolean                                 _autoQuery                   = true;
+    private boolean                                 _parallelQuery               = false;
+    private boolean                                 _queryWhenDisplayed          = false;
+    private int                                     _queryCacheSize              = 0;
+    private long                                    _queryCacheTimeToLive        = 0;
+    private int                                     _queryPrefetchCount          = 0;
+    private long                                    _queryPrefetchDelay          = 500;
     
     private ArrayList<EJCoreRelationJoinProperties> _joinList;
     
@@ -39,6 +46,12 @@ public class EJCoreRelationProperties implements Comparable<EJCoreRelationProper
         _joinList = new ArrayList<EJCoreRelationJoinProperties>();
     }
     
+    private Object writeReplace() throws ObjectStreamException
+    {
+        EJCoreDefinitionReference reference = EJCoreDefinitionReference.forRelation(this);
+        return reference == null ? this : reference;
+    }
+    
     /**
      * @return the name of this relation
      */
@@ -123,6 +136,178 @@ public class EJCoreRelationProperties implements Comparable<EJCoreRelationProper
         _autoQuery = query;
     }
     
+    /**
+     * Indicates if the detail query of this relation can be executed in the
+     * background together with the queries of the masters other detail blocks
+     * <p>
+     * Parallel queries are executed on a bounded executor, each with its own
+     * connection. The queried records are added to the detail blocks in the
+     * order of the relations. The block service of a parallel detail must not
+     * rely on the connection or transaction of the calling thread
+     * 
+     * @return <code>true</code> if the detail query can be executed in
+     *         parallel, otherwise <code>false</code>
+     */
+    public boolean isParallelQuery()
+    {
+        return _parallelQuery;
+    }
+    
+    /**
+     * Sets the parallel query option for this relation
+     * 
+     * @param parallel
+     *            <code>true</code> if the detail query can be executed in
+     *            parallel otherwise <code>false</code>
+     * @see #isParallelQuery()
+     */
+    public void setParallelQuery(boolean parallel)
+    {
+        _parallelQuery = parallel;
+    }
+    
+    /**
+     * Indicates if the detail query of this relation should be deferred while
+     * the canvas of the detail block lies on a tab, drawer or stacked page
+     * that is not shown
+     * <p>
+     * The query is executed as soon as the page is shown or the detail block
+     * gains focus
+     * 
+     * @return <code>true</code> if the query is deferred until the detail
+     *         block is displayed, otherwise <code>false</code>
+     */
+    public boolean isQueryWhenDisplayed()
+    {
+        return _queryWhenDisplayed;
+    }
+    
+    /**
+     * Sets the query when displayed option for this relation
+     * 
+     * @param queryWhenDisplayed
+     *            <code>true</code> if the query should be deferred until the
+     *            detail block is displayed otherwise <code>false</code>
+     * @see #isQueryWhenDisplayed()
+     */
+    public void setQueryWhenDisplayed(boolean queryWhenDisplayed)
+    {
+        _queryWhenDisplayed = queryWhenDisplayed;
+    }
+    
+    /**
+     * Returns the number of master records for which the queried detail
+     * records are cached
+     * <p>
+     * The cache is keyed by the values of the master items of the relations
+     * joins. Only the first page of a detail query executed due to master
+     * record navigation is cached. The cache is cleared when either block is
+     * saved
+     * 
+     * @return The size of the detail query cache, <code>0</code> if detail
+     *         queries are not cached
+     */
+    public int getQueryCacheSize()
+    {
+        return _queryCacheSize;
+    }
+    
+    /**
+     * Sets the number of master records for which the queried detail records
+     * are cached
+     * 
+     * @param queryCacheSize
+     *            The cache size, <code>0</code> disables the cache
+     * @see #getQueryCacheSize()
+     */
+    public void setQueryCacheSize(int queryCacheSize)
+    {
+        _queryCacheSize = Math.max(0, queryCacheSize);
+    }
+    
+    /**
+     * Returns the time in milliseconds for which cached detail records are
+     * used
+     * 
+     * @return The time to live of cached detail queries, <code>0</code> if
+     *         they do not expire
+     */
+    public long getQueryCacheTimeToLive()
+    {
+        return _queryCacheTimeToLive;
+    }
+    
+    /**
+     * Sets the time in milliseconds for which cached detail records are used
+     * 
+     * @param timeToLive
+     *            The time to live, <code>0</code> if cached detail queries
+     *            should not expire
+     */
+    public void setQueryCacheTimeToLive(long timeToLive)
+    {
+        _queryCacheTimeToLive = Math.max(0, timeToLive);
+    }
+    
+    /**
+     * Returns the number of master records following the focused master
+     * record for which the detail records are queried in the background
+     * <p>
+     * Prefetching is disabled unless a relation sets a count greater than
+     * <code>0</code>. Prefetched detail records are added to the detail query
+     * cache, so prefetching is only performed if the query cache is enabled
+     * 
+     * @return The number of master records to prefetch the details for
+     * @see #getQueryPrefetchDelay()
+     */
+    public int getQueryPrefetchCount()
+    {
+        return _queryPrefetchCount;
+    }
+    
+    /**
+     * Sets the number of master records following the focused master record
+     * for which the detail records are queried in the background
+     * 
+     * @param prefetchCount
+     *            The number of master records, <code>0</code> disables
+     *            prefetching
+     * @see #getQueryPrefetchCount()
+     */
+    public void setQueryPrefetchCount(int prefetchCount)
+    {
+        _queryPrefetchCount = Math.max(0, prefetchCount);
+    }
+    
+    /**
+     * Returns the time in milliseconds the focus must remain on a master
+     * record before the details of the following master records are
+     * prefetched
+     * <p>
+     * Navigating to another master record within this time cancels the
+     * prefetch, so scrolling through the master block does not start a query
+     * for each record passed
+     * 
+     * @return The prefetch delay in milliseconds
+     */
+    public long getQueryPrefetchDelay()
+    {
+        return _queryPrefetchDelay;
+    }
+    
+    /**
+     * Sets the time in milliseconds the focus must remain on a master record
+     * before detail queries are prefetched
+     * 
+     * @param prefetchDelay
+     *            The delay in milliseconds
+     * @see #getQueryPrefetchDelay()
+     */
+    public void setQueryPrefetchDelay(long prefetchDelay)
+    {
+        _queryPrefetchDelay = Math.max(0, prefetchDelay);
+    }
+    
     /**
      * Returns the properties of the master block within this relation
      * 
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.entirej.framework.core.properties.EJCoreCanvasProperties;
 import org.entirej.framework.core.properties.containers.interfaces.EJCanvasPropertiesContainer;
@@ -29,7 +30,10 @@ import org.entirej.framework.core.properties.interfaces.EJCanvasProperties;
 
 public class EJCoreCanvasPropertiesContainer implements EJCanvasPropertiesContainer
 {
-    private List<EJCanvasProperties> _canvasProperties;
+    private final AtomicInteger                      _modificationCount = new AtomicInteger();
+    private volatile EJCoreCanvasPropertiesContainer _rootContainer     = this;
+    
+    private List<EJCanvasProperties>                 _canvasProperties;
     
     public EJCoreCanvasPropertiesContainer()
     {
@@ -56,6 +60,7 @@ public class EJCoreCanvasPropertiesContainer implements EJCanvasPropertiesContai
         {
             _canvasProperties.add(canvasProperties);
             canvasProperties.setParentCanvasContainer(this);
+            canvasModified();
         }
     }
     
@@ -74,9 +79,51 @@ public class EJCoreCanvasPropertiesContainer implements EJCanvasPropertiesContai
                 _canvasProperties.add(newProp);
             }
             ( newProp).setParentCanvasContainer(this);
+            canvasModified();
         }
     }
     
+    /**
+     * Returns the number of times the canvases of this container or of any
+     * container nested within its canvases have been modified
+     * <p>
+     * The nested popup, tab, stacked and drawer containers count their
+     * modifications within the forms canvas container once the form canvas
+     * index has linked them, so the index uses the count of the forms canvas
+     * container to know when it must be rebuilt
+     * 
+     * @return The number of canvas modifications made
+     */
+    public int getModificationCount()
+    {
+        return _modificationCount.get();
+    }
+    
+    /**
+     * Records that a canvas has been added to or replaced within this
+     * container or that a page has been added to one of its canvases
+     */
+    public void canvasModified()
+    {
+        _rootContainer._modificationCount.incrementAndGet();
+    }
+    
+    /**
+     * Sets the container whose modification count is incremented when a
+     * canvas is added to or replaced within this container
+     * <p>
+     * The form canvas index sets its forms canvas container on each nested
+     * container it has indexed
+     * 
+     * @param rootContainer
+     *            The root container of the canvas tree containing this
+     *            container
+     */
+    public void setRootContainer(EJCoreCanvasPropertiesContainer rootContainer)
+    {
+        _rootContainer = rootContainer == null ? this : rootContainer;
+    }
+    
     /**
      * Return the <code>CanvasProperties</code> for the given name
      * 
@@ -21,14 +21,16 @@ package org.entirej.framework.core.properties.containers;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 
 import org.entirej.framework.core.properties.EJCoreItemProperties;
 
 public class EJCoreItemPropertiesContainer implements Serializable
 {
-    private List<EJCoreItemProperties> _itemProperties;
+    private List<EJCoreItemProperties>                               _itemProperties;
+    private transient volatile HashMap<String, EJCoreItemProperties> _itemIndex;
+    private transient int                                            _indexedItemCount;
     
     public EJCoreItemPropertiesContainer()
     {
@@ -37,17 +39,7 @@ public class EJCoreItemPropertiesContainer implements Serializable
     
     public boolean containsItemProperty(String name)
     {
-        Iterator<EJCoreItemProperties> iti = _itemProperties.iterator();
-        
-        while (iti.hasNext())
-        {
-            EJCoreItemProperties props = iti.next();
-            if (props.getName().equalsIgnoreCase(name))
-            {
-                return true;
-            }
-        }
-        return false;
+        return getItemProperties(name) != null;
     }
     
     /**
@@ -62,6 +54,7 @@ public class EJCoreItemPropertiesContainer implements Serializable
         if (itemProperties != null)
         {
             _itemProperties.add(itemProperties);
+            _itemIndex = null;
         }
     }
     
@@ -86,18 +79,7 @@ public class EJCoreItemPropertiesContainer implements Serializable
      */
     public boolean contains(String itemName)
     {
-        Iterator<EJCoreItemProperties> iti = _itemProperties.iterator();
-        
-        while (iti.hasNext())
-        {
-            EJCoreItemProperties item = iti.next();
-            
-            if (item.getName().equalsIgnoreCase(itemName))
-            {
-                return true;
-            }
-        }
-        return false;
+        return getItemProperties(itemName) != null;
     }
     
     /**
@@ -116,17 +98,45 @@ public class EJCoreItemPropertiesContainer implements Serializable
             return null;
         }
         
-        Iterator<EJCoreItemProperties> props = _itemProperties.iterator();
+        HashMap<String, EJCoreItemProperties> itemIndex = _itemIndex;
+        if (itemIndex == null || _indexedItemCount != _itemProperties.size())
+        {
+            itemIndex = buildItemIndex();
+        }
         
-        while (props.hasNext())
+        EJCoreItemProperties item = itemIndex.get(itemName.toLowerCase());
+        if (item != null && !item.getName().equalsIgnoreCase(itemName))
         {
-            EJCoreItemProperties item = props.next();
+            // The item has been renamed since the index was built
+            item = buildItemIndex().get(itemName.toLowerCase());
+        }
+        return item;
+    }
+    
+    /**
+     * Builds the case folded name index used by the item lookups
+     * <p>
+     * The index is rebuilt whenever the number of items changes and the first
+     * item with a given name is kept, as it was when the list was scanned
+     */
+    private HashMap<String, EJCoreItemProperties> buildItemIndex()
+    {
+        HashMap<String, EJCoreItemProperties> itemIndex = new HashMap<String, EJCoreItemProperties>(_itemProperties.size() * 2);
+        for (EJCoreItemProperties item : _itemProperties)
+        {
+            if (item.getName() == null)
+            {
+                continue;
+            }
             
-            if (item.getName().equalsIgnoreCase(itemName))
+            String key = item.getName().toLowerCase();
+            if (!itemIndex.containsKey(key))
             {
-                return item;
+                itemIndex.put(key, item);
             }
         }
-        return null;
+        _indexedItemCount = _itemProperties.size();
+        _itemIndex = itemIndex;
+        return itemIndex;
     }
 }
@@ -21,15 +21,19 @@ package org.entirej.framework.core.properties.containers;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
 import org.entirej.framework.core.common.utils.EJParameterChecker;
 import org.entirej.framework.core.properties.EJCoreRelationProperties;
+import org.entirej.framework.core.properties.interfaces.EJBlockProperties;
 
 public class EJCoreRelationPropertiesContainer implements Serializable
 {
-    private List<EJCoreRelationProperties> _relationProperties;
+    private List<EJCoreRelationProperties>   _relationProperties;
+    private transient volatile RelationIndex _relationIndex;
     
     public EJCoreRelationPropertiesContainer()
     {
@@ -41,6 +45,7 @@ public class EJCoreRelationPropertiesContainer implements Serializable
         if (relationProperties != null)
         {
             _relationProperties.add(relationProperties);
+            _relationIndex = null;
         }
     }
     
@@ -48,17 +53,81 @@ public class EJCoreRelationPropertiesContainer implements Serializable
     {
         EJParameterChecker.checkNotZeroLength(relationName, "getRelationProperties", "relationName");
         
-        Iterator<EJCoreRelationProperties> iti = _relationProperties.iterator();
-        while (iti.hasNext())
+        RelationIndex relationIndex = getRelationIndex();
+        if (relationIndex == null)
         {
-            EJCoreRelationProperties relation = iti.next();
-            
-            if (relation.getName().equalsIgnoreCase(relationName))
+            Iterator<EJCoreRelationProperties> iti = _relationProperties.iterator();
+            while (iti.hasNext())
             {
-                return relation;
+                EJCoreRelationProperties relation = iti.next();
+                
+                if (relation.getName().equalsIgnoreCase(relationName))
+                {
+                    return relation;
+                }
             }
+            return null;
         }
-        return null;
+        return relationIndex._byName.get(relationName.toLowerCase());
+    }
+    
+    /**
+     * Returns the relation where the given block is the detail block or
+     * <code>null</code> if the block has no master
+     * 
+     * @param detailBlock
+     *            The properties of the detail block
+     * @return The relation where the given block is the detail
+     */
+    public EJCoreRelationProperties getMasterRelationProperties(EJBlockProperties detailBlock)
+    {
+        RelationIndex relationIndex = getRelationIndex();
+        if (relationIndex == null)
+        {
+            for (EJCoreRelationProperties relation : _relationProperties)
+            {
+                if (relation.getDetailBlockProperties().getFormProperties().getName().equalsIgnoreCase(detailBlock.getFormProperties().getName())
+                        && relation.getDetailBlockProperties().getName().equalsIgnoreCase(detailBlock.getName()))
+                {
+                    return relation;
+                }
+            }
+            return null;
+        }
+        return relationIndex._byDetailBlock.get(getBlockKey(detailBlock));
+    }
+    
+    /**
+     * Returns all relations where the given block is the master block
+     * 
+     * @param masterBlock
+     *            The properties of the master block
+     * @return The relations where the given block is the master, in the order
+     *         they were added, or an empty list if there are none
+     */
+    public List<EJCoreRelationProperties> getDetailRelationProperties(EJBlockProperties masterBlock)
+    {
+        RelationIndex relationIndex = getRelationIndex();
+        if (relationIndex == null)
+        {
+            ArrayList<EJCoreRelationProperties> relationList = new ArrayList<EJCoreRelationProperties>();
+            for (EJCoreRelationProperties relation : _relationProperties)
+            {
+                if (relation.getMasterBlockProperties().getFormProperties().getName().equalsIgnoreCase(masterBlock.getFormProperties().getName())
+                        && relation.getMasterBlockProperties().getName().equalsIgnoreCase(masterBlock.getName()))
+                {
+                    relationList.add(relation);
+                }
+            }
+            return relationList;
+        }
+        
+        List<EJCoreRelationProperties> relations = relationIndex._byMasterBlock.get(getBlockKey(masterBlock));
+        if (relations == null)
+        {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(relations);
     }
     
     public EJCoreRelationProperties getRelationProperties(String masterBlockName, String detailBlockName)
@@ -91,17 +160,81 @@ public class EJCoreRelationPropertiesContainer implements Serializable
     
     public boolean contains(String relationName)
     {
-        Iterator<EJCoreRelationProperties> relations = _relationProperties.iterator();
-        while (relations.hasNext())
+        if (relationName == null)
+        {
+            return false;
+        }
+        return getRelationProperties(relationName) != null;
+    }
+    
+    /**
+     * Returns the index of the relations by name, master block and detail
+     * block, building it if the relations have changed since it was last
+     * built
+     * <p>
+     * Relations are added before their blocks are set while a form is being
+     * read, so no index is built until every relation is complete and
+     * <code>null</code> is returned instead
+     */
+    private RelationIndex getRelationIndex()
+    {
+        RelationIndex relationIndex = _relationIndex;
+        if (relationIndex != null && relationIndex._relationCount == _relationProperties.size())
         {
-            EJCoreRelationProperties relation = relations.next();
+            return relationIndex;
+        }
+        
+        relationIndex = new RelationIndex(_relationProperties.size());
+        for (EJCoreRelationProperties relation : _relationProperties)
+        {
+            if (relation.getName() == null || relation.getMasterBlockProperties() == null || relation.getDetailBlockProperties() == null)
+            {
+                return null;
+            }
             
-            if (relation.getName().equalsIgnoreCase(relationName))
+            String name = relation.getName().toLowerCase();
+            if (!relationIndex._byName.containsKey(name))
             {
-                return true;
+                relationIndex._byName.put(name, relation);
             }
+            
+            String detailKey = getBlockKey(relation.getDetailBlockProperties());
+            if (!relationIndex._byDetailBlock.containsKey(detailKey))
+            {
+                relationIndex._byDetailBlock.put(detailKey, relation);
+            }
+            
+            String masterKey = getBlockKey(relation.getMasterBlockProperties());
+            List<EJCoreRelationProperties> details = relationIndex._byMasterBlock.get(masterKey);
+            if (details == null)
+            {
+                details = new ArrayList<EJCoreRelationProperties>(2);
+                relationIndex._byMasterBlock.put(masterKey, details);
+            }
+            details.add(relation);
         }
-        return false;
+        _relationIndex = relationIndex;
+        return relationIndex;
+    }
+    
+    private static String getBlockKey(EJBlockProperties blockProperties)
+    {
+        return (blockProperties.getFormProperties().getName() + '\0' + blockProperties.getName()).toLowerCase();
     }
     
+    private static class RelationIndex
+    {
+        private final int                                             _relationCount;
+        private final HashMap<String, EJCoreRelationProperties>       _byName;
+        private final HashMap<String, EJCoreRelationProperties>       _byDetailBlock;
+        private final HashMap<String, List<EJCoreRelationProperties>> _byMasterBlock;
+        
+        RelationIndex(int relationCount)
+        {
+            _relationCount = relationCount;
+            _byName = new HashMap<String, EJCoreRelationProperties>();
+            _byDetailBlock = new HashMap<String, EJCoreRelationProperties>();
+            _byMasterBlock = new HashMap<String, List<EJCoreRelationProperties>>();
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperty;
 import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionPropertyList;
+import org.entirej.framework.core.extensions.properties.EJFrameworkExtensionPropertyKey;
 import org.entirej.framework.core.properties.interfaces.EJBlockProperties;
 import org.entirej.framework.core.properties.interfaces.EJFormProperties;
 
@@ -119,6 +120,24 @@ public interface EJFrameworkExtensionProperties extends EJDisplayProperties  , S
      */
     public void setPropertyValue(String name, String value);
     
+    /**
+     * Returns the value of the property referred to by the given key
+     * <p>
+     * The key has already split the property name into its groups and the
+     * converted value is kept by the property, so this is the preferred way to
+     * read properties that are used repeatedly, e.g. while painting
+     * 
+     * @param key
+     *            The key of the required property
+     * @return The properties value or the keys default value if the property
+     *         does not exist or has no value
+     * @see EJFrameworkExtensionPropertyKey
+     */
+    public default <T> T getPropertyValue(EJFrameworkExtensionPropertyKey<T> key)
+    {
+        return key.getValue(this);
+    }
+    
     /**
      * Will copy the property values from the given properties to this property
      * group
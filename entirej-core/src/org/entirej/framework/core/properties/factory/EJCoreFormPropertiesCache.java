@@ -0,0 +1,499 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.properties.factory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJFrameworkManager;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.service.EJBlockService;
+import org.entirej.framework.core.service.EJBlockServiceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An application wide cache of parsed and translated
+ * {@link EJCoreFormProperties}
+ * <p>
+ * The form properties are held in their serialized form and keyed by the form
+ * name and the {@link Locale} used to translate them. Each call to
+ * {@link #getFormProperties(EJFrameworkManager, String, Locale)} returns a new
+ * copy of the cached properties, so every form controller still works on its
+ * own mutable instance. References to the {@link EJFrameworkManager} are not
+ * stored within the cache but are replaced with the framework manager of the
+ * caller when the copy is created. Block services are stored by their class
+ * name and are created by the block service factory of the caller, so services
+ * marked as {@link org.entirej.framework.core.EJShareable} remain shared and
+ * services do not need to be serializable
+ * <p>
+ * Forms should be removed from the cache using {@link #invalidate(String)} or
+ * {@link #invalidateAll()} when their definitions are redeployed
+ */
+public class EJCoreFormPropertiesCache
+{
+    private static final Logger                           LOGGER    = LoggerFactory.getLogger(EJCoreFormPropertiesCache.class);
+    private static final EJCoreFormPropertiesCache        _instance = new EJCoreFormPropertiesCache();
+
+    private final ConcurrentHashMap<CacheKey, CachedForm> _cache    = new ConcurrentHashMap<CacheKey, CachedForm>();
+    private final AtomicLong                              _hit      = new AtomicLong();
+    private final AtomicLong                              _missed   = new AtomicLong();
+    private volatile boolean                              _enabled  = true;
+
+    private EJCoreFormPropertiesCache()
+    {
+
+    }
+
+    /**
+     * Returns the application wide form properties cache
+     *
+     * @return The <code>EJCoreFormPropertiesCache</code> singleton instance
+     */
+    public static EJCoreFormPropertiesCache getInstance()
+    {
+        return _instance;
+    }
+
+    /**
+     * Indicates if form properties are cached
+     *
+     * @return <code>true</code> if the cache is enabled, otherwise
+     *         <code>false</code>
+     */
+    public boolean isEnabled()
+    {
+        return _enabled;
+    }
+
+    /**
+     * Enables or disables the caching of form properties
+     * <p>
+     * Disabling the cache will also remove all cached forms
+     *
+     * @param enabled
+     *            <code>true</code> to enable the cache, otherwise
+     *            <code>false</code>
+     */
+    public void setEnabled(boolean enabled)
+    {
+        _enabled = enabled;
+        if (!enabled)
+        {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Returns a copy of the cached form properties for the given form and
+     * locale
+     *
+     * @param frameworkManager
+     *            The framework manager that will be used by the returned
+     *            properties
+     * @param formName
+     *            The name of the form
+     * @param locale
+     *            The locale the cached properties were translated with
+     * @return A new copy of the cached form properties or <code>null</code> if
+     *         the form has not yet been cached for the given locale
+     */
+    public EJCoreFormProperties getFormProperties(EJFrameworkManager frameworkManager, String formName, Locale locale)
+    {
+        if (!_enabled || formName == null)
+        {
+            return null;
+        }
+
+        CachedForm cachedForm = _cache.get(new CacheKey(formName, locale));
+        if (cachedForm == null)
+        {
+            _missed.incrementAndGet();
+            return null;
+        }
+
+        _hit.incrementAndGet();
+        return readFormProperties(frameworkManager, cachedForm._data);
+    }
+
+    /**
+     * Returns a copy of the cached form properties for the given form and
+     * locale if the cached definition has the given version
+     * <p>
+     * Used to resolve form definitions that were written as references when
+     * an application session was serialized. The cache statistics are not
+     * changed by this method
+     *
+     * @param frameworkManager
+     *            The framework manager that will be used by the returned
+     *            properties. No methods are called on the framework manager
+     * @param formName
+     *            The name of the form
+     * @param locale
+     *            The locale the cached properties were translated with
+     * @param version
+     *            The required definition version
+     * @return A new copy of the cached form properties or <code>null</code> if
+     *         the form is not cached or its definition has another version
+     * @see #getDefinitionVersion(String, Locale)
+     */
+    public EJCoreFormProperties getFormProperties(EJFrameworkManager frameworkManager, String formName, Locale locale, long version)
+    {
+        if (!_enabled || formName == null)
+        {
+            return null;
+        }
+
+        CachedForm cachedForm = _cache.get(new CacheKey(formName, locale));
+        if (cachedForm == null || cachedForm._version != version)
+        {
+            return null;
+        }
+        return readFormProperties(frameworkManager, cachedForm._data);
+    }
+
+    /**
+     * Returns the version of the cached definition of the given form and
+     * locale
+     * <p>
+     * The version is a checksum of the cached definition and changes whenever
+     * a changed definition of the form is cached
+     *
+     * @param formName
+     *            The name of the form
+     * @param locale
+     *            The locale the cached properties were translated with
+     * @return The version of the cached definition or <code>-1</code> if the
+     *         form has not been cached for the given locale
+     */
+    public long getDefinitionVersion(String formName, Locale locale)
+    {
+        if (!_enabled || formName == null)
+        {
+            return -1;
+        }
+
+        CachedForm cachedForm = _cache.get(new CacheKey(formName, locale));
+        return cachedForm == null ? -1 : cachedForm._version;
+    }
+
+    private EJCoreFormProperties readFormProperties(EJFrameworkManager frameworkManager, byte[] data)
+    {
+        try
+        {
+            FrameworkManagerResolvingInputStream in = new FrameworkManagerResolvingInputStream(new ByteArrayInputStream(data), frameworkManager);
+            try
+            {
+                return (EJCoreFormProperties) in.readObject();
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new EJApplicationException(e);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new EJApplicationException(e);
+        }
+    }
+
+    /**
+     * Adds the given, already translated, form properties to the cache
+     * <p>
+     * A snapshot of the properties is stored so changes made to the given
+     * properties after this call are not visible within the cache. Forms that
+     * cannot be serialized are not cached and a warning is logged, as they are
+     * then parsed and translated each time they are opened
+     *
+     * @param formName
+     *            The name the properties were loaded with
+     * @param locale
+     *            The locale the properties were translated with
+     * @param formProperties
+     *            The properties to cache
+     */
+    public void putFormProperties(String formName, Locale locale, EJCoreFormProperties formProperties)
+    {
+        if (!_enabled || formName == null || formProperties == null)
+        {
+            return;
+        }
+
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+            FrameworkManagerReplacingOutputStream out = new FrameworkManagerReplacingOutputStream(bytes);
+            try
+            {
+                out.writeObject(formProperties);
+            }
+            finally
+            {
+                out.close();
+            }
+            _cache.put(new CacheKey(formName, locale), new CachedForm(bytes.toByteArray()));
+        }
+        catch (NotSerializableException e)
+        {
+            LOGGER.warn("The properties of form {} are not cached, they reference the class {} which is not serializable. The form will be parsed each time it is opened",
+                    formName, e.getMessage());
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Unable to cache the properties of form: " + formName, e);
+        }
+    }
+
+    /**
+     * Removes the given form from the cache for all locales
+     *
+     * @param formName
+     *            The name of the form to remove
+     */
+    public void invalidate(String formName)
+    {
+        if (formName == null)
+        {
+            return;
+        }
+
+        Iterator<CacheKey> keys = _cache.keySet().iterator();
+        while (keys.hasNext())
+        {
+            if (keys.next()._formName.equalsIgnoreCase(formName))
+            {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all forms from the cache
+     */
+    public void invalidateAll()
+    {
+        _cache.clear();
+    }
+
+    /**
+     * Returns the number of form and locale combinations currently cached
+     *
+     * @return the number of cached entries
+     */
+    public int getEntriesNumber()
+    {
+        return _cache.size();
+    }
+
+    /**
+     * Returns the number of requests that were answered from the cache
+     *
+     * @return the number of cache hits
+     */
+    public long getHitEntries()
+    {
+        return _hit.get();
+    }
+
+    /**
+     * Returns the number of requests for forms that were not within the cache
+     *
+     * @return the number of cache misses
+     */
+    public long getMissedEntries()
+    {
+        return _missed.get();
+    }
+
+    /**
+     * Resets the hit and miss counters
+     */
+    public void resetStatistics()
+    {
+        _hit.set(0);
+        _missed.set(0);
+    }
+
+    private static final class CachedForm
+    {
+        private final byte[] _data;
+        private final long   _version;
+
+        CachedForm(byte[] data)
+        {
+            _data = data;
+            CRC32 checksum = new CRC32();
+            checksum.update(data, 0, data.length);
+            _version = checksum.getValue();
+        }
+    }
+
+    private static final class CacheKey
+    {
+        private final String _formName;
+        private final String _lookupName;
+        private final Locale _locale;
+
+        CacheKey(String formName, Locale locale)
+        {
+            _formName = formName;
+            _lookupName = formName.toUpperCase(Locale.ENGLISH);
+            _locale = locale;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * _lookupName.hashCode() + (_locale == null ? 0 : _locale.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof CacheKey))
+            {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return _lookupName.equals(other._lookupName) && (_locale == null ? other._locale == null : _locale.equals(other._locale));
+        }
+    }
+
+    /**
+     * Place holder written instead of the {@link EJFrameworkManager} so that
+     * the session specific manager is not held within the cache
+     */
+    private static final class FrameworkManagerReference implements Serializable
+    {
+        private static final FrameworkManagerReference INSTANCE = new FrameworkManagerReference();
+
+        private Object readResolve()
+        {
+            return INSTANCE;
+        }
+    }
+
+    /**
+     * Place holder written instead of a block service. The service is created
+     * again by the block service factory of the caller when a copy is read
+     */
+    private static final class BlockServiceReference implements Serializable
+    {
+        private final String _serviceClassName;
+
+        BlockServiceReference(String serviceClassName)
+        {
+            _serviceClassName = serviceClassName;
+        }
+    }
+
+    private static final class FrameworkManagerReplacingOutputStream extends ObjectOutputStream
+    {
+        FrameworkManagerReplacingOutputStream(OutputStream out) throws IOException
+        {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException
+        {
+            if (obj instanceof EJFrameworkManager)
+            {
+                return FrameworkManagerReference.INSTANCE;
+            }
+            if (obj instanceof EJBlockService<?>)
+            {
+                return new BlockServiceReference(obj.getClass().getName());
+            }
+            return obj;
+        }
+    }
+
+    private static final class FrameworkManagerResolvingInputStream extends ObjectInputStream
+    {
+        private final EJFrameworkManager _frameworkManager;
+
+        FrameworkManagerResolvingInputStream(InputStream in, EJFrameworkManager frameworkManager) throws IOException
+        {
+            super(in);
+            _frameworkManager = frameworkManager;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException
+        {
+            if (obj instanceof FrameworkManagerReference)
+            {
+                return _frameworkManager;
+            }
+            if (obj instanceof BlockServiceReference)
+            {
+                EJBlockServiceFactory serviceFactory = _frameworkManager == null ? null : _frameworkManager.getBlockServiceFactory();
+                if (serviceFactory == null)
+                {
+                    serviceFactory = new EJBlockServiceFactory();
+                }
+                return serviceFactory.createBlockService(((BlockServiceReference) obj)._serviceClassName);
+            }
+            return obj;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+        {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader != null)
+            {
+                try
+                {
+                    return Class.forName(desc.getName(), false, loader);
+                }
+                catch (ClassNotFoundException e)
+                {
+                    // fall back to the default class resolution
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -50,6 +50,8 @@ public class EJCoreBlockPropertiesHandler extends EJCorePropertiesTagHandler
     protected static final String          ELEMENT_ADD_DEFAULT_CONTROL_RECORD        = "addControlBlockDefaultRecord";
     protected static final String          ELEMENT_MAX_RESULTS                       = "maxResults";
     protected static final String          ELEMENT_PAGE_SIZE                         = "pageSize";
+    protected static final String          ELEMENT_COMPACT_RECORD_STORAGE            = "compactRecordStorage";
+    protected static final String          ELEMENT_RECORD_LOAD_WINDOW                = "recordLoadWindow";
     protected static final String          ELEMENT_CANVAS                            = "canvasName";
     protected static final String          ELEMENT_RENDERER                          = "blockRendererName";
     protected static final String          ELEMENT_QUERY_SCREEN_RENDERER             = "queryScreenRendererName";
@@ -283,6 +285,20 @@ public class EJCoreBlockPropertiesHandler extends EJCorePropertiesTagHandler
                 getBlockProperties().setPageSize(Integer.parseInt(value));
             }
         }
+        else if (name.equals(ELEMENT_COMPACT_RECORD_STORAGE))
+        {
+            if (value.length() > 0)
+            {
+                getBlockProperties().setCompactRecordStorage(Boolean.parseBoolean(value));
+            }
+        }
+        else if (name.equals(ELEMENT_RECORD_LOAD_WINDOW))
+        {
+            if (value.length() > 0)
+            {
+                getBlockProperties().setRecordLoadWindow(Integer.parseInt(value));
+            }
+        }
         else if (name.equals(ELEMENT_CANVAS))
         {
             getBlockProperties().setCanvasName(value);
@@ -38,6 +38,14 @@ public class EJCoreEntireJPropertiesHandler extends EJCorePropertiesTagHandler
 
     protected static final String          CONNECTION_FACTORY_CLASS_NAME           = "connectionFactoryClassName";
     protected static final String          TRANSLATOR_CLASS_NAME                   = "translatorClassName";
+    protected static final String          SQL_DIALECT                             = "sqlDialect";
+    protected static final String          KEYSET_PAGING                           = "keysetPaging";
+    protected static final String          TRANSLATION_CACHE_SIZE                  = "translationCacheSize";
+    protected static final String          DETAIL_QUERY_THREADS                    = "detailQueryThreads";
+    protected static final String          PREFETCH_QUERY_THREADS                  = "prefetchQueryThreads";
+    protected static final String          ASYNC_QUERY_THREADS                     = "asyncQueryThreads";
+    protected static final String          DETAIL_QUERY_TIMEOUT                    = "detailQueryTimeout";
+    protected static final String          SESSION_FORM_REFERENCES                 = "sessionFormReferences";
     protected static final String          APPLICATION_LEVEL_PARAMETER             = "appicationLevelParameter";
     protected static final String          FORMS_PACKAGE                           = "formsPackage";
 
@@ -198,6 +206,80 @@ public class EJCoreEntireJPropertiesHandler extends EJCorePropertiesTagHandler
                 throw new SAXException(e.getMessage(), e);
             }
         }
+        else if (name.equals(SQL_DIALECT))
+        {
+            try
+            {
+                _properties.setSqlDialectName(value);
+            }
+            catch (Exception e)
+            {
+                throw new SAXException(e.getMessage(), e);
+            }
+        }
+        else if (name.equals(KEYSET_PAGING))
+        {
+            _properties.setKeysetPaging(Boolean.parseBoolean(value));
+        }
+        else if (name.equals(TRANSLATION_CACHE_SIZE))
+        {
+            try
+            {
+                _properties.setTranslationCacheSize(Integer.parseInt(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid translation cache size: " + value, e);
+            }
+        }
+        else if (name.equals(DETAIL_QUERY_THREADS))
+        {
+            try
+            {
+                _properties.setDetailQueryThreads(Integer.parseInt(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid number of detail query threads: " + value, e);
+            }
+        }
+        else if (name.equals(PREFETCH_QUERY_THREADS))
+        {
+            try
+            {
+                _properties.setPrefetchQueryThreads(Integer.parseInt(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid number of prefetch query threads: " + value, e);
+            }
+        }
+        else if (name.equals(ASYNC_QUERY_THREADS))
+        {
+            try
+            {
+                _properties.setAsyncQueryThreads(Integer.parseInt(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid number of asynchronous query threads: " + value, e);
+            }
+        }
+        else if (name.equals(DETAIL_QUERY_TIMEOUT))
+        {
+            try
+            {
+                _properties.setDetailQueryTimeout(Integer.parseInt(value.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid detail query timeout: " + value, e);
+            }
+        }
+        else if (name.equals(SESSION_FORM_REFERENCES))
+        {
+            _properties.setSessionFormReferences(Boolean.parseBoolean(value));
+        }
         else if (name.equals(FORMS_PACKAGE))
         {
             _properties.getFormPackageNames().add(value);
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.entirej.framework.core.properties.reader;
 
+import org.entirej.framework.core.enumerations.EJTextComparison;
 import org.entirej.framework.core.properties.EJCoreBlockProperties;
 import org.entirej.framework.core.properties.EJCoreFormProperties;
 import org.entirej.framework.core.properties.EJCoreItemProperties;
@@ -109,6 +110,38 @@ public class EJCoreLovDefinitionPropertiesHandler extends EJCorePropertiesTagHan
                 _lovDefinitionProperties.setAutomaticQuery(automaticQuery == null ? false : Boolean.parseBoolean(automaticQuery));
                 
             }
+            
+            // A form may share the queries of a referenced definition even
+            // if the definition itself does not
+            String value = null;
+            try
+            {
+                value = attributes.getValue("sharedCacheSize");
+                if (value != null && value.trim().length() > 0)
+                {
+                    _lovDefinitionProperties.setSharedCacheSize(Integer.parseInt(value.trim()));
+                }
+                value = attributes.getValue("sharedCacheTimeToLive");
+                if (value != null && value.trim().length() > 0)
+                {
+                    _lovDefinitionProperties.setSharedCacheTimeToLive(Long.parseLong(value.trim()));
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid shared cache setting for lov definition " + defName + ": " + value, e);
+            }
+            
+            String validateInMemory = attributes.getValue("validateInMemory");
+            if (validateInMemory != null)
+            {
+                _lovDefinitionProperties.setValidateInMemory(Boolean.parseBoolean(validateInMemory));
+            }
+            String textComparison = attributes.getValue("validationTextComparison");
+            if (textComparison != null && textComparison.trim().length() > 0)
+            {
+                _lovDefinitionProperties.setValidationTextComparison(EJTextComparison.valueOf(textComparison.trim()));
+            }
         }
         else if (name.equals(ELEMENT_BLOCK))
         {
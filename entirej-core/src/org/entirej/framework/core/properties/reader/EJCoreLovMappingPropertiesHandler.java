@@ -58,11 +58,18 @@ public class EJCoreLovMappingPropertiesHandler extends EJCorePropertiesTagHandle
             String lovDefinitionName = attributes.getValue("lovDefinitionName");
             String executeAfterQuery = attributes.getValue("executeAfterQuery");
             String includeDefaultValues = attributes.getValue("includeDefaultQueryValues");
+            String batchPostQuery = attributes.getValue("batchPostQuery");
+            String postQueryBatchSize = attributes.getValue("postQueryBatchSize");
             String rendererName = attributes.getValue("rendererName");
             
             _lovMappingProperties = new EJCoreLovMappingProperties(_handlerFactory.getFrameworkManager(), _blockProperties, mappingName);
             _lovMappingProperties.setExecuteAfterQuery((executeAfterQuery == null ? Boolean.TRUE.booleanValue() : Boolean.parseBoolean(executeAfterQuery)));
             _lovMappingProperties.setIncludeDefaultQueryValues((includeDefaultValues == null ? Boolean.FALSE.booleanValue() : Boolean.parseBoolean(includeDefaultValues)));
+            _lovMappingProperties.setBatchPostQuery((batchPostQuery == null ? Boolean.FALSE.booleanValue() : Boolean.parseBoolean(batchPostQuery)));
+            if (postQueryBatchSize != null && postQueryBatchSize.trim().length() > 0)
+            {
+                _lovMappingProperties.setPostQueryBatchSize(Integer.parseInt(postQueryBatchSize.trim()));
+            }
             
             // If I am creating a lov definition then this means that I am
             // loading a reusable lov definition. If this is the case, then I
@@ -58,6 +58,25 @@ public class EJCoreRelationPropertiesHandler extends EJCorePropertiesTagHandler
             _relationProperties.setDeferredQuery(Boolean.parseBoolean((value == null ? "false" : value)));
             value = attributes.getValue("autoQuery");
             _relationProperties.setAutoQuery(Boolean.parseBoolean((value == null ? "true" : value)));
+            value = attributes.getValue("parallelQuery");
+            _relationProperties.setParallelQuery(Boolean.parseBoolean((value == null ? "false" : value)));
+            value = attributes.getValue("queryWhenDisplayed");
+            _relationProperties.setQueryWhenDisplayed(Boolean.parseBoolean((value == null ? "false" : value)));
+            try
+            {
+                value = attributes.getValue("queryCacheSize");
+                _relationProperties.setQueryCacheSize(Integer.parseInt((value == null ? "0" : value.trim())));
+                value = attributes.getValue("queryCacheTimeToLive");
+                _relationProperties.setQueryCacheTimeToLive(Long.parseLong((value == null ? "0" : value.trim())));
+                value = attributes.getValue("queryPrefetchCount");
+                _relationProperties.setQueryPrefetchCount(Integer.parseInt((value == null ? "0" : value.trim())));
+                value = attributes.getValue("queryPrefetchDelay");
+                _relationProperties.setQueryPrefetchDelay(Long.parseLong((value == null ? "500" : value.trim())));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new SAXException("Invalid query cache setting for relation " + _relationProperties.getName() + ": " + value, e);
+            }
         }
         else if (name.equals(ELEMENT_JOIN))
         {
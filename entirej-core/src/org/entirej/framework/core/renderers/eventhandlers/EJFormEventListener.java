@@ -21,6 +21,7 @@ package org.entirej.framework.core.renderers.eventhandlers;
 import java.io.Serializable;
 
 import org.entirej.framework.core.data.controllers.EJFormController;
+import org.entirej.framework.core.data.controllers.EJFormSaveTimings;
 
 public interface EJFormEventListener extends Serializable
 {
@@ -39,5 +40,20 @@ public interface EJFormEventListener extends Serializable
      *            The controller that has just cleared form
      */
     public void formCleared(EJFormController clearForm);
-    
+
+    /**
+     * Indicates how long each phase of a successful save took
+     * <p>
+     * Called after {@link #formSaved(EJFormController)}
+     * 
+     * @param savedForm
+     *            The controller that has just saved form
+     * @param timings
+     *            The time spent synchronizing, inserting, updating, deleting
+     *            and completing the save
+     */
+    public default void formSaveTimings(EJFormController savedForm, EJFormSaveTimings timings)
+    {
+    }
+
 }
@@ -19,11 +19,12 @@
 package org.entirej.framework.core.renderers.registry;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJFrameworkManager;
 import org.entirej.framework.core.EJMessageFactory;
+import org.entirej.framework.core.common.utils.EJClassCache;
 import org.entirej.framework.core.data.controllers.EJEditableBlockController;
 import org.entirej.framework.core.data.controllers.EJLovController;
 import org.entirej.framework.core.enumerations.EJFrameworkMessage;
@@ -42,13 +43,13 @@ import org.entirej.framework.core.renderers.interfaces.EJLovRenderer;
 
 public class EJRendererFactory implements Serializable
 {
-    private static EJRendererFactory  _instance;
-    private HashMap<String, Class<?>> _formRenderers;
-    private HashMap<String, Class<?>> _blockRenderers;
-    private HashMap<String, Class<?>> _itemRenderers;
-    private HashMap<String, Class<?>> _lovRenderers;
-    private HashMap<String, Class<?>> _menuRenderers;
-    private HashMap<String, Class<?>> _appComponentRenderers;
+    private static EJRendererFactory            _instance;
+    private ConcurrentHashMap<String, Class<?>> _formRenderers;
+    private ConcurrentHashMap<String, Class<?>> _blockRenderers;
+    private ConcurrentHashMap<String, Class<?>> _itemRenderers;
+    private ConcurrentHashMap<String, Class<?>> _lovRenderers;
+    private ConcurrentHashMap<String, Class<?>> _menuRenderers;
+    private ConcurrentHashMap<String, Class<?>> _appComponentRenderers;
     
     static
     {
@@ -57,12 +58,12 @@ public class EJRendererFactory implements Serializable
     
     private EJRendererFactory()
     {
-        _formRenderers = new HashMap<String, Class<?>>();
-        _blockRenderers = new HashMap<String, Class<?>>();
-        _itemRenderers = new HashMap<String, Class<?>>();
-        _lovRenderers = new HashMap<String, Class<?>>();
-        _menuRenderers = new HashMap<String, Class<?>>();
-        _appComponentRenderers = new HashMap<String, Class<?>>();
+        _formRenderers = new ConcurrentHashMap<String, Class<?>>();
+        _blockRenderers = new ConcurrentHashMap<String, Class<?>>();
+        _itemRenderers = new ConcurrentHashMap<String, Class<?>>();
+        _lovRenderers = new ConcurrentHashMap<String, Class<?>>();
+        _menuRenderers = new ConcurrentHashMap<String, Class<?>>();
+        _appComponentRenderers = new ConcurrentHashMap<String, Class<?>>();
     }
     
     /**
@@ -117,7 +118,7 @@ public class EJRendererFactory implements Serializable
         {
             rendererAssignment = EJCoreProperties.getInstance().getApplicationAssignedFormRenderer(formProperties.getFormRendererName());
             
-            Class<?> rendererClass = Class.forName(rendererAssignment.getRendererClassName());
+            Class<?> rendererClass = EJClassCache.getClass(rendererAssignment.getRendererClassName());
             _formRenderers.put(rendererAssignment.getAssignedName(), rendererClass);
             return new EJManagedFormRendererWrapper(frameworkManager, createNewFormRendererInstance(rendererAssignment.getAssignedName()));
         }
@@ -169,7 +170,7 @@ public class EJRendererFactory implements Serializable
                 throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_BLOCK_RENDERER, blockRendererName));
             }
             
-            Class<?> rendererClass = Class.forName(rendererAssignment.getRendererClassName());
+            Class<?> rendererClass = EJClassCache.getClass(rendererAssignment.getRendererClassName());
             _blockRenderers.put(blockRendererName, rendererClass);
             
             EJEditableBlockRenderer renderer = createNewBlockRendererInstance(blockRendererName);
@@ -223,7 +224,7 @@ public class EJRendererFactory implements Serializable
                     throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_ITEM_RENDERER, itemRendererName));
                 }
                 
-                Class<?> rendererClass = Class.forName(rendererAssignment.getRendererClassName());
+                Class<?> rendererClass = EJClassCache.getClass(rendererAssignment.getRendererClassName());
                 _itemRenderers.put(itemRendererName, rendererClass);
                 EJItemRenderer renderer = createNewItemRendererInstance(itemRendererName);
                 renderer.initialise(item, screenItemProperties);
@@ -275,7 +276,7 @@ public class EJRendererFactory implements Serializable
                 throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_LOV_RENDERER, lovRendererName));
             }
             
-            Class<?> rendererClass = Class.forName(rendererAssignment.getRendererClassName());
+            Class<?> rendererClass = EJClassCache.getClass(rendererAssignment.getRendererClassName());
             _lovRenderers.put(lovRendererName, rendererClass);
             EJLovRenderer renderer = createNewLovRendererInstance(lovRendererName);
             
@@ -321,7 +322,7 @@ public class EJRendererFactory implements Serializable
                 throw new EJApplicationException(EJMessageFactory.getInstance().createMessage(EJFrameworkMessage.INVALID_APP_COMPONENT_RENDERER, rendererName));
             }
             
-            Class<?> rendererClass = Class.forName(rendererAssignment.getRendererClassName());
+            Class<?> rendererClass = EJClassCache.getClass(rendererAssignment.getRendererClassName());
             _appComponentRenderers.put(rendererName, rendererClass);
             return createNewComponentRendererInstance(rendererName);
         }
@@ -345,7 +346,7 @@ public class EJRendererFactory implements Serializable
         Object rendererObject;
         try
         {
-            rendererObject = rendererClass.newInstance();
+            rendererObject = EJClassCache.newInstance(rendererClass);
             if (rendererObject instanceof EJFormRenderer)
             {
                 return (EJFormRenderer) rendererObject;
@@ -378,7 +379,7 @@ public class EJRendererFactory implements Serializable
         Object rendererObject;
         try
         {
-            rendererObject = rendererClass.newInstance();
+            rendererObject = EJClassCache.newInstance(rendererClass);
             if (rendererObject instanceof EJEditableBlockRenderer)
             {
                 return (EJEditableBlockRenderer) rendererObject;
@@ -412,7 +413,7 @@ public class EJRendererFactory implements Serializable
         Object rendererObject;
         try
         {
-            rendererObject = rendererClass.newInstance();
+            rendererObject = EJClassCache.newInstance(rendererClass);
             if (rendererObject instanceof EJItemRenderer)
             {
                 return (EJItemRenderer) rendererObject;
@@ -446,7 +447,7 @@ public class EJRendererFactory implements Serializable
         Object rendererObject;
         try
         {
-            rendererObject = rendererClass.newInstance();
+            rendererObject = EJClassCache.newInstance(rendererClass);
             if (rendererObject instanceof EJLovRenderer)
             {
                 return (EJLovRenderer) rendererObject;
@@ -480,7 +481,7 @@ public class EJRendererFactory implements Serializable
         Object rendererObject;
         try
         {
-            rendererObject = rendererClass.newInstance();
+            rendererObject = EJClassCache.newInstance(rendererClass);
             if (rendererObject instanceof EJApplicationComponentRenderer)
             {
                 return (EJApplicationComponentRenderer) rendererObject;
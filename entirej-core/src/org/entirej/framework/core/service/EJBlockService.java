@@ -20,6 +20,7 @@ package org.entirej.framework.core.service;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 
 import org.entirej.framework.core.EJForm;
 
@@ -49,6 +50,37 @@ public interface EJBlockService<E> extends Serializable
      */
     public List<E> executeQuery(EJForm form, EJQueryCriteria queryCriteria);
     
+    /**
+     * This service will query all entities that match the given query criteria
+     * and pass them one at a time to the given row handler
+     * <p>
+     * Services that can read their data source row by row should override this
+     * method so that large results, for example within exports or batch
+     * processing, do not have to be held in memory at once. The default
+     * implementation passes the result of
+     * {@link #executeQuery(EJForm, EJQueryCriteria)} to the handler
+     * <p>
+     * The query stops as soon as the handler returns <code>false</code>. All
+     * resources used by the query must be released before this method returns
+     * 
+     * @param form
+     *            The form from which this method is called
+     * @param queryCriteria
+     *            The query criteria to use for the query
+     * @param rowHandler
+     *            The handler that receives each entity
+     */
+    public default void executeStreamingQuery(EJForm form, EJQueryCriteria queryCriteria, EJQueryRowHandler<? super E> rowHandler)
+    {
+        for (E entity : executeQuery(form, queryCriteria))
+        {
+            if (!rowHandler.handleRow(entity))
+            {
+                return;
+            }
+        }
+    }
+    
     /**
      * Indicates if this service can retrieve data in pages
      * <p>
@@ -90,6 +122,31 @@ public interface EJBlockService<E> extends Serializable
      */
     public void executeUpdate(EJForm form, List<E> modifiedEntities);
     
+    /**
+     * This service will update all given entities in the services underlying
+     * data source, knowing which items of each entity have been changed
+     * <p>
+     * Services that can write single columns should override this method so
+     * that only the changed columns are updated, for example by using
+     * {@link EJStatementExecutor#executeChangedColumnsUpdateBatch(EJForm, String, List, List, List)}.
+     * The default implementation calls
+     * {@link #executeUpdate(EJForm, List)}
+     * 
+     * @param form
+     *            The form from which this method is called
+     * @param modifiedEntities
+     *            The entities to be updated
+     * @param changedItemNames
+     *            The lower case names of the items changed within the entity
+     *            at the same position of <code>modifiedEntities</code>. An
+     *            empty set means that the changes of the entity have not been
+     *            tracked, such entities must be written completely
+     */
+    public default void executeUpdate(EJForm form, List<E> modifiedEntities, List<Set<String>> changedItemNames)
+    {
+        executeUpdate(form, modifiedEntities);
+    }
+    
     /**
      * This service will delete the given entities from the services underlying
      * data source
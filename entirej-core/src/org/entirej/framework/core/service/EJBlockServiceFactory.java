@@ -22,6 +22,7 @@ import java.io.Serializable;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJMessage;
+import org.entirej.framework.core.common.utils.EJClassCache;
 
 public class EJBlockServiceFactory implements Serializable
 {
@@ -38,8 +39,8 @@ public class EJBlockServiceFactory implements Serializable
         
         try
         {
-            Class<?> serviceClass = Class.forName(serviceClassName);
-            Object service = serviceClass.newInstance();
+            Class<?> serviceClass = EJClassCache.getClass(serviceClassName);
+            Object service = EJClassCache.getInstance(serviceClass);
             
             if (service != null && service instanceof EJBlockService<?>)
             {
@@ -13,6 +13,13 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
 <#if query_statement != "">
   private final EJStatementExecutor _statementExecutor   = new EJStatementExecutor();
   private String   				    _selectStatement = ${query_statement};
+  
+    public ${service_name}()
+    {
+        // Each record is written by its own statement, so the update count
+        // of every record is verified
+        _statementExecutor.setSingleRowBatches(true);
+    }
 </#if>
 
 
@@ -27,6 +34,15 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
 </#if>         
     }    
     
+<#if query_statement != "">
+
+    @Override
+    public void executeStreamingQuery(EJForm form, EJQueryCriteria queryCriteria, org.entirej.framework.core.service.EJQueryRowHandler<? super ${pojo_name}> rowHandler)
+    {
+        _statementExecutor.executeQuery(${pojo_name}.class, form, _selectStatement, queryCriteria, rowHandler);
+    }
+</#if>
+    
 
     @Override
     public void executeInsert(EJForm form, List<${pojo_name}> newRecords)
@@ -34,7 +50,7 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
     
 <#if table_name != "">   
         
-        int recordsProcessed = 0;
+        List<EJStatementParameter[]> rows = new ArrayList<EJStatementParameter[]>(newRecords.size());
         for (${pojo_name} record : newRecords)
         {
             // Initialise the value list
@@ -43,13 +59,20 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
 			 parameters.add(new EJStatementParameter("${field.name}", ${field.data_type}.class, record.get${field.method_name}()));
 </#list>
             EJStatementParameter[] paramArray = new EJStatementParameter[parameters.size()];
-            recordsProcessed += _statementExecutor.executeInsert(form,"${table_name}", parameters.toArray(paramArray));
-            record.clearInitialValues();
+            rows.add(parameters.toArray(paramArray));
         }
-        if (recordsProcessed != newRecords.size())
+        int[] recordsProcessed = _statementExecutor.executeInsertBatch(form, "${table_name}", rows);
+        for (int i = 0; i < recordsProcessed.length; i++)
         {
-            throw new EJApplicationException("Unexpected amount of records processed in insert. Expected: " + newRecords.size() + ". Inserted: "
-                    + recordsProcessed);
+            if (recordsProcessed[i] != 1)
+            {
+                throw new EJApplicationException("Unexpected amount of records processed in insert. Expected: 1. Inserted: " + recordsProcessed[i]
+                        + " for record " + (i + 1) + " of " + newRecords.size());
+            }
+        }
+        for (${pojo_name} record : newRecords)
+        {
+            record.clearInitialValues();
         }
 </#if>        
     }
@@ -57,10 +80,18 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
 
     @Override
     public void executeUpdate(EJForm form, List<${pojo_name}> updateRecords)
+    {
+        executeUpdate(form, updateRecords, null);
+    }
+
+
+    @Override
+    public void executeUpdate(EJForm form, List<${pojo_name}> updateRecords, List<java.util.Set<String>> changedItemNames)
     {
 <#if table_name != "">      
         
-        int recordsProcessed = 0;
+        List<EJStatementParameter[]> rows = new ArrayList<EJStatementParameter[]>(updateRecords.size());
+        List<EJStatementCriteria> rowCriteria = new ArrayList<EJStatementCriteria>(updateRecords.size());
         for (${pojo_name} record : updateRecords)
         {
             List<EJStatementParameter> parameters = new ArrayList<EJStatementParameter>();
@@ -73,6 +104,19 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
 
             EJStatementCriteria criteria = new EJStatementCriteria();
             
+<#if key_fields?? && key_fields?has_content>
+            // The row is identified by its key and version columns only
+<#list key_fields as key_field >
+			if (record.getInitialValue(${pojo_name}.FieldNames.${key_field}) == null)
+            {
+                criteria.add(EJRestrictions.isNull("${key_field}"));
+            }
+            else
+            {
+                criteria.add(EJRestrictions.equals("${key_field}", record.getInitialValue(${pojo_name}.FieldNames.${key_field})));
+            }
+</#list>
+<#else>
 <#list fields as field >
 			if (record.getInitialValue(${pojo_name}.FieldNames.${field.name}) == null)
             {
@@ -82,18 +126,30 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
             {
                 criteria.add(EJRestrictions.equals("${field.name}", record.getInitialValue(${pojo_name}.FieldNames.${field.name})));
             }
-</#list>            
+</#list>
+</#if>            
             
             
             EJStatementParameter[] paramArray = new EJStatementParameter[parameters.size()];
-            recordsProcessed += _statementExecutor.executeUpdate(form, "${table_name}", criteria, parameters.toArray(paramArray));
-            record.clearInitialValues();
+            rows.add(parameters.toArray(paramArray));
+            rowCriteria.add(criteria);
         }
-        if (recordsProcessed != updateRecords.size())
+        // Only the changed columns are written if the changes of a record have
+        // been tracked, other records are written completely
+        int[] recordsProcessed = changedItemNames == null ? _statementExecutor.executeUpdateBatch(form, "${table_name}", rowCriteria, rows)
+                : _statementExecutor.executeChangedColumnsUpdateBatch(form, "${table_name}", rowCriteria, rows, changedItemNames);
+        for (int i = 0; i < recordsProcessed.length; i++)
+        {
+            if (recordsProcessed[i] != 1)
+            {
+                throw new EJApplicationException("Unexpected amount of records processed in update. Expected: 1. Updated: " + recordsProcessed[i]
+                        + " for record " + (i + 1) + " of " + updateRecords.size());
+            }
+        }
+        for (${pojo_name} record : updateRecords)
         {
-            throw new EJApplicationException("Unexpected amount of records processed in update. Expected: " + updateRecords.size() + ". Updated: "
-                    + recordsProcessed);
-        }  
+            record.clearInitialValues();
+        }
 </#if>              
     }
     
@@ -102,9 +158,7 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
     public void executeDelete(EJForm form, List<${pojo_name}> recordsToDelete)
     {
 <#if table_name != "">     
-        ArrayList<EJStatementParameter> parameters = new ArrayList<EJStatementParameter>();
-
-        int recordsProcessed = 0;
+        List<EJStatementCriteria> rowCriteria = new ArrayList<EJStatementCriteria>(recordsToDelete.size());
         for (${pojo_name} record : recordsToDelete)
         {
 
@@ -122,14 +176,20 @@ public class ${service_name} implements EJBlockService<${pojo_name}>
             }
 </#list>
 
-            EJStatementParameter[] paramArray = new EJStatementParameter[parameters.size()];
-            recordsProcessed += _statementExecutor.executeDelete(form, "${table_name}", criteria, parameters.toArray(paramArray));
-            record.clearInitialValues();
+            rowCriteria.add(criteria);
         }
-        if (recordsProcessed != recordsToDelete.size())
+        int[] recordsProcessed = _statementExecutor.executeDeleteBatch(form, "${table_name}", rowCriteria);
+        for (int i = 0; i < recordsProcessed.length; i++)
         {
-            throw new EJApplicationException("Unexpected amount of records processed in delete. Expected: " + recordsToDelete.size() + ". Deleted: "
-                    + recordsProcessed);
+            if (recordsProcessed[i] != 1)
+            {
+                throw new EJApplicationException("Unexpected amount of records processed in delete. Expected: 1. Deleted: " + recordsProcessed[i]
+                        + " for record " + (i + 1) + " of " + recordsToDelete.size());
+            }
+        }
+        for (${pojo_name} record : recordsToDelete)
+        {
+            record.clearInitialValues();
         }
 </#if>         
     }
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Allows a running query to be cancelled from another thread
+ * <p>
+ * The cancellation is set on the {@link EJQueryCriteria} of the query. The
+ * {@link EJStatementExecutor} registers the JDBC statement of the query while
+ * it is running, so that {@link #cancel()} can ask the driver to stop it. A
+ * cancelled query fails with an {@link EJQueryCancelledException}
+ * 
+ * @see EJQueryCriteria#setCancellation(EJQueryCancellation)
+ */
+public class EJQueryCancellation implements Serializable
+{
+    private static final Logger logger = LoggerFactory.getLogger(EJQueryCancellation.class);
+    
+    private volatile boolean    _cancelled;
+    private transient Statement _statement;
+    
+    /**
+     * Cancels the query
+     * <p>
+     * If the query is running, its statement is cancelled using
+     * {@link Statement#cancel()}. The query then fails with an
+     * {@link EJQueryCancelledException}, which may be ignored by the caller
+     */
+    public void cancel()
+    {
+        Statement statement;
+        synchronized (this)
+        {
+            _cancelled = true;
+            statement = _statement;
+        }
+        
+        if (statement != null)
+        {
+            try
+            {
+                statement.cancel();
+            }
+            catch (SQLException e)
+            {
+                // The statement may have completed in the meantime
+                logger.debug("Unable to cancel statement", e);
+            }
+        }
+    }
+    
+    /**
+     * Indicates if the query has been cancelled
+     * 
+     * @return <code>true</code> if {@link #cancel()} has been called
+     */
+    public boolean isCancelled()
+    {
+        return _cancelled;
+    }
+    
+    /**
+     * Registers the statement of the running query
+     * 
+     * @return <code>false</code> if the query has already been cancelled and
+     *         the statement must not be executed
+     */
+    synchronized boolean statementStarted(Statement statement)
+    {
+        if (_cancelled)
+        {
+            return false;
+        }
+        _statement = statement;
+        return true;
+    }
+    
+    synchronized void statementFinished(Statement statement)
+    {
+        if (_statement == statement)
+        {
+            _statement = null;
+        }
+    }
+}
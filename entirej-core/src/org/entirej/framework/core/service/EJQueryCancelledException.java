@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+import org.entirej.framework.core.EJApplicationException;
+
+/**
+ * Thrown by the {@link EJStatementExecutor} when a query has been cancelled
+ * using the {@link EJQueryCancellation} of its criteria
+ * <p>
+ * The rows read before the cancellation are not returned, callers that
+ * cancelled the query can ignore this exception
+ */
+public class EJQueryCancelledException extends EJApplicationException
+{
+    public EJQueryCancelledException()
+    {
+        super("The query has been cancelled");
+    }
+    
+    public EJQueryCancelledException(Throwable cause)
+    {
+        super("The query has been cancelled", cause);
+    }
+}
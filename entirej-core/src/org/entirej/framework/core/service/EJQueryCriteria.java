@@ -42,6 +42,9 @@ public class EJQueryCriteria extends EJStatementCriteria implements Serializable
     private int                     _pageSize;
     private int                     _pageNumber;
     private final List<EJQuerySort> _sort        = new ArrayList<EJQuerySort>();
+    private List<Object>            _seekValues;
+    private int                     _queryTimeout;
+    private EJQueryCancellation     _cancellation;
     
     public EJQueryCriteria()
     {
@@ -322,4 +325,108 @@ public class EJQueryCriteria extends EJStatementCriteria implements Serializable
         return null;
     }
     
+    /**
+     * Sets the values of the sort columns of the last row of the previous page
+     * <p>
+     * If seek values have been set and the statement executor is paging within
+     * the database, the next page is selected with a condition on the sort
+     * columns, for example <code>WHERE ID &gt; ?</code>, instead of skipping
+     * the rows of all previous pages. The values must be given in the order of
+     * {@link #getSorts()} and the sort columns must uniquely identify a row,
+     * otherwise rows with equal sort values will be skipped
+     * 
+     * @param seekValues
+     *            The sort values of the last row of the previous page or
+     *            <code>null</code> to select the page by its page number
+     */
+    public void setSeekValues(List<Object> seekValues)
+    {
+        _seekValues = seekValues;
+    }
+    
+    /**
+     * Returns the sort values of the last row of the previous page
+     * 
+     * @return The seek values or <code>null</code> if none have been set
+     * @see #setSeekValues(List)
+     */
+    public List<Object> getSeekValues()
+    {
+        return _seekValues;
+    }
+    
+    /**
+     * Indicates if the page can be selected using the seek values
+     * <p>
+     * This is the case if a value has been set for each sort and none of the
+     * values is <code>null</code>
+     * 
+     * @return <code>true</code> if the seek values can be used, otherwise
+     *         <code>false</code>
+     */
+    public boolean canSeek()
+    {
+        if (_seekValues == null || _sort.isEmpty() || _seekValues.size() != _sort.size())
+        {
+            return false;
+        }
+        for (Object value : _seekValues)
+        {
+            if (value == null)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Sets the number of seconds the database may take to execute the query
+     * <p>
+     * The timeout is passed to the JDBC statement by the
+     * {@link EJStatementExecutor}. Once it has passed, the query fails with the
+     * error of the driver
+     * 
+     * @param queryTimeout
+     *            The timeout in seconds, <code>0</code> for no timeout
+     */
+    public void setQueryTimeout(int queryTimeout)
+    {
+        _queryTimeout = Math.max(0, queryTimeout);
+    }
+    
+    /**
+     * Returns the number of seconds the database may take to execute the
+     * query
+     * 
+     * @return The timeout in seconds, <code>0</code> if there is no timeout
+     */
+    public int getQueryTimeout()
+    {
+        return _queryTimeout;
+    }
+    
+    /**
+     * Sets the cancellation used to cancel the query from another thread
+     * 
+     * @param cancellation
+     *            The cancellation or <code>null</code> if the query cannot be
+     *            cancelled
+     */
+    public void setCancellation(EJQueryCancellation cancellation)
+    {
+        _cancellation = cancellation;
+    }
+    
+    /**
+     * Returns the cancellation used to cancel the query from another thread
+     * 
+     * @return The cancellation or <code>null</code> if the query cannot be
+     *         cancelled
+     */
+    public EJQueryCancellation getCancellation()
+    {
+        return _cancellation;
+    }
+    
 }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+/**
+ * Receives the rows of a streaming query one at a time
+ * <p>
+ * Rows passed to the handler are not collected by the caller, so they can be
+ * released as soon as the handler has processed them. This allows exports and
+ * batch processing to walk large results without holding them on the heap
+ * 
+ * @see EJStatementExecutor#executeQuery(Class,
+ *      org.entirej.framework.core.EJForm, String,
+ *      EJQueryCriteria, EJQueryRowHandler)
+ * @see EJBlockService#executeStreamingQuery(org.entirej.framework.core.EJForm,
+ *      EJQueryCriteria, EJQueryRowHandler)
+ */
+public interface EJQueryRowHandler<E>
+{
+    /**
+     * Called for each row retrieved by the query
+     * 
+     * @param row
+     *            The retrieved row
+     * @return <code>true</code> to continue with the next row or
+     *         <code>false</code> to stop the query and release its resources
+     */
+    public boolean handleRow(E row);
+}
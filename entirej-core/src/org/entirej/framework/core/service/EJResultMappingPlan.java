@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+
+import org.entirej.framework.core.EJPojoAccessor;
+import org.entirej.framework.core.EJPojoAccessors;
+
+/**
+ * Maps the columns of a query result onto the setters of a service pojo
+ * <p>
+ * A plan holds, for each result column that has a matching
+ * {@link org.entirej.framework.core.EJFieldName} setter, the column index, the
+ * setter and the <code>ResultSet</code> getter used to read the value. Plans
+ * are cached by pojo class and statement text so that the column labels are
+ * only resolved once per statement and not for each row
+ */
+final class EJResultMappingPlan
+{
+    static final int                                            DEFAULT_CACHE_SIZE = 256;
+
+    private static final EJLRUCache<PlanKey, EJResultMappingPlan> _plans           = new EJLRUCache<PlanKey, EJResultMappingPlan>(DEFAULT_CACHE_SIZE);
+
+    private final String[]                                      _labels;
+    private final int[]                                         _columns;
+    private final EJPojoAccessor[]                              _setters;
+    private final ColumnReader[]                                _readers;
+
+    private EJResultMappingPlan(Class<?> pojoType, String[] labels)
+    {
+        _labels = labels;
+
+        EJPojoAccessors accessors = EJPojoAccessors.forClass(pojoType);
+        ArrayList<Integer> columns = new ArrayList<Integer>(labels.length);
+        ArrayList<EJPojoAccessor> setters = new ArrayList<EJPojoAccessor>(labels.length);
+        for (int i = 0; i < labels.length; i++)
+        {
+            EJPojoAccessor setter = accessors.getFieldSetter(labels[i]);
+            if (setter != null)
+            {
+                columns.add(i + 1);
+                setters.add(setter);
+            }
+        }
+
+        _columns = new int[columns.size()];
+        _setters = new EJPojoAccessor[columns.size()];
+        _readers = new ColumnReader[columns.size()];
+        for (int i = 0; i < _columns.length; i++)
+        {
+            _columns[i] = columns.get(i);
+            _setters[i] = setters.get(i);
+            _readers[i] = ColumnReader.forType(_setters[i].getValueType());
+        }
+    }
+
+    /**
+     * Returns the mapping plan for the given pojo type and statement
+     * <p>
+     * A cached plan is only reused if the column labels of the result still
+     * match those the plan was created with
+     * 
+     * @param pojoType
+     *            The pojo the rows will be mapped onto
+     * @param selectStatement
+     *            The statement text that was executed
+     * @param metaData
+     *            The meta data of the statements result
+     * @return The mapping plan
+     * @throws SQLException
+     *             if the meta data could not be read
+     */
+    static EJResultMappingPlan forQuery(Class<?> pojoType, String selectStatement, ResultSetMetaData metaData) throws SQLException
+    {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++)
+        {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        PlanKey key = new PlanKey(pojoType, selectStatement);
+        EJResultMappingPlan plan = _plans.getEntry(key);
+        if (plan == null || !plan.matches(labels))
+        {
+            plan = new EJResultMappingPlan(pojoType, labels);
+            _plans.putEntry(key, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Removes all cached plans
+     */
+    static void clearCache()
+    {
+        _plans.clear();
+    }
+
+    private boolean matches(String[] labels)
+    {
+        if (labels.length != _labels.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < labels.length; i++)
+        {
+            if (labels[i] == null ? _labels[i] != null : !labels[i].equals(_labels[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the values of the current row of the given result set onto the
+     * given pojo
+     * 
+     * @param rset
+     *            The result set positioned on the row to map
+     * @param pojo
+     *            The pojo to populate
+     * @throws SQLException
+     *             if a column value could not be read
+     */
+    void populate(ResultSet rset, Object pojo) throws SQLException
+    {
+        for (int i = 0; i < _columns.length; i++)
+        {
+            _setters[i].set(pojo, _readers[i].read(rset, _columns[i]));
+        }
+    }
+
+    /**
+     * Reads a column value using the <code>ResultSet</code> getter matching
+     * the setters parameter type. Types without a specific getter are read
+     * using <code>getObject</code>
+     */
+    enum ColumnReader
+    {
+        OBJECT
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getObject(column);
+            }
+        },
+        STRING
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getString(column);
+            }
+        },
+        BIG_DECIMAL
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getBigDecimal(column);
+            }
+        },
+        INTEGER
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                int value = rset.getInt(column);
+                return rset.wasNull() ? null : Integer.valueOf(value);
+            }
+        },
+        LONG
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                long value = rset.getLong(column);
+                return rset.wasNull() ? null : Long.valueOf(value);
+            }
+        },
+        SHORT
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                short value = rset.getShort(column);
+                return rset.wasNull() ? null : Short.valueOf(value);
+            }
+        },
+        DOUBLE
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                double value = rset.getDouble(column);
+                return rset.wasNull() ? null : Double.valueOf(value);
+            }
+        },
+        FLOAT
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                float value = rset.getFloat(column);
+                return rset.wasNull() ? null : Float.valueOf(value);
+            }
+        },
+        BOOLEAN
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                boolean value = rset.getBoolean(column);
+                return rset.wasNull() ? null : Boolean.valueOf(value);
+            }
+        },
+        DATE
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getDate(column);
+            }
+        },
+        TIMESTAMP
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getTimestamp(column);
+            }
+        },
+        TIME
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getTime(column);
+            }
+        },
+        BYTES
+        {
+            @Override
+            Object read(ResultSet rset, int column) throws SQLException
+            {
+                return rset.getBytes(column);
+            }
+        };
+
+        abstract Object read(ResultSet rset, int column) throws SQLException;
+
+        static ColumnReader forType(Class<?> type)
+        {
+            if (type == String.class)
+            {
+                return STRING;
+            }
+            if (type == BigDecimal.class)
+            {
+                return BIG_DECIMAL;
+            }
+            if (type == Integer.class || type == int.class)
+            {
+                return INTEGER;
+            }
+            if (type == Long.class || type == long.class)
+            {
+                return LONG;
+            }
+            if (type == Short.class || type == short.class)
+            {
+                return SHORT;
+            }
+            if (type == Double.class || type == double.class)
+            {
+                return DOUBLE;
+            }
+            if (type == Float.class || type == float.class)
+            {
+                return FLOAT;
+            }
+            if (type == Boolean.class || type == boolean.class)
+            {
+                return BOOLEAN;
+            }
+            if (type == java.sql.Date.class)
+            {
+                return DATE;
+            }
+            if (type == Timestamp.class)
+            {
+                return TIMESTAMP;
+            }
+            if (type == Time.class)
+            {
+                return TIME;
+            }
+            if (type == byte[].class)
+            {
+                return BYTES;
+            }
+            // java.util.Date and all other types keep the drivers own mapping
+            return OBJECT;
+        }
+    }
+
+    private static final class PlanKey
+    {
+        private final Class<?> _pojoType;
+        private final String   _selectStatement;
+
+        PlanKey(Class<?> pojoType, String selectStatement)
+        {
+            _pojoType = pojoType;
+            _selectStatement = selectStatement;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * _pojoType.hashCode() + _selectStatement.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof PlanKey))
+            {
+                return false;
+            }
+            PlanKey other = (PlanKey) obj;
+            return _pojoType == other._pojoType && _selectStatement.equals(other._selectStatement);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+import java.io.Serializable;
+
+/**
+ * Adapts the select statements created by the {@link EJStatementExecutor} to
+ * the SQL syntax of a database
+ * <p>
+ * The dialect used by the application is set within the
+ * {@link org.entirej.framework.core.properties.EJCoreProperties}, either as
+ * the name of an {@link EJStandardSqlDialect} or as the class name of a custom
+ * implementation. It can be overridden per executor using
+ * {@link EJStatementExecutor#setSqlDialect(EJSqlDialect)}
+ */
+public interface EJSqlDialect extends Serializable
+{
+    /**
+     * Indicates if this dialect can restrict a select to a range of rows
+     * 
+     * @return <code>true</code> if {@link #limitSelect(String, boolean, int, int)}
+     *         is supported, otherwise <code>false</code>
+     */
+    public boolean supportsPaging();
+    
+    /**
+     * Restricts the given select statement to the given range of rows
+     * 
+     * @param selectStatement
+     *            The complete select statement including its order by clause
+     * @param ordered
+     *            Indicates if the statement contains an order by clause
+     * @param offset
+     *            The number of rows to skip
+     * @param rowCount
+     *            The maximum number of rows to return
+     * @return The restricted select statement
+     */
+    public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount);
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+/**
+ * The {@link EJSqlDialect}s supported by EntireJ
+ */
+public enum EJStandardSqlDialect implements EJSqlDialect
+{
+    /**
+     * No database paging, all rows of the select are returned
+     */
+    NONE
+    {
+        @Override
+        public boolean supportsPaging()
+        {
+            return false;
+        }
+        
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return selectStatement;
+        }
+    },
+    
+    /**
+     * SQL:2008 <code>OFFSET ... FETCH</code>, supported by Oracle 12c, DB2 and
+     * Derby
+     */
+    ANSI
+    {
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return offsetFetch(selectStatement, offset, rowCount);
+        }
+    },
+    
+    /**
+     * Oracle 12c and later, using <code>OFFSET ... FETCH</code>
+     */
+    ORACLE
+    {
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return offsetFetch(selectStatement, offset, rowCount);
+        }
+    },
+    
+    /**
+     * PostgreSQL, using <code>LIMIT ... OFFSET</code>
+     */
+    POSTGRESQL
+    {
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return limitOffset(selectStatement, offset, rowCount);
+        }
+    },
+    
+    /**
+     * H2, using <code>LIMIT ... OFFSET</code>
+     */
+    H2
+    {
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return limitOffset(selectStatement, offset, rowCount);
+        }
+    },
+    
+    /**
+     * MySQL and MariaDB, using <code>LIMIT ... OFFSET</code>
+     */
+    MYSQL
+    {
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return limitOffset(selectStatement, offset, rowCount);
+        }
+    },
+    
+    /**
+     * SQL Server 2012 and later, using <code>OFFSET ... FETCH</code>. SQL
+     * Server only accepts an offset after an order by clause, so one is added
+     * to unordered statements
+     */
+    SQL_SERVER
+    {
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            if (!ordered)
+            {
+                selectStatement = selectStatement + " ORDER BY (SELECT NULL)";
+            }
+            return offsetFetch(selectStatement, offset, rowCount);
+        }
+    };
+    
+    @Override
+    public boolean supportsPaging()
+    {
+        return true;
+    }
+    
+    private static String offsetFetch(String selectStatement, int offset, int rowCount)
+    {
+        return selectStatement + " OFFSET " + offset + " ROWS FETCH NEXT " + rowCount + " ROWS ONLY";
+    }
+    
+    private static String limitOffset(String selectStatement, int offset, int rowCount)
+    {
+        return selectStatement + " LIMIT " + rowCount + " OFFSET " + offset;
+    }
+}
@@ -25,23 +25,39 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.entirej.framework.core.EJApplicationException;
 import org.entirej.framework.core.EJForm;
-import org.entirej.framework.core.EJPojoHelper;
 import org.entirej.framework.core.interfaces.EJFrameworkConnection;
+import org.entirej.framework.core.properties.EJCoreProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class EJStatementExecutor implements Serializable
 {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    
     final Logger logger = LoggerFactory.getLogger(EJStatementExecutor.class);
     
+    private int     _batchSize = DEFAULT_BATCH_SIZE;
+    private int     _fetchSize = 0;
+    private boolean _singleRowBatches;
+    private boolean _batchCountsReported = true;
+    
+    // The connection types whose drivers do not report the update count of
+    // each row of a batch
+    private final Set<String> _connectionsWithoutBatchCounts = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    
+    private EJSqlDialect _sqlDialect;
+    
     public int executeDelete(EJForm form, String tableName, EJStatementCriteria criteria, EJStatementParameter... parameters)
     {
         if (form == null)
@@ -56,12 +72,7 @@ public class EJStatementExecutor implements Serializable
         if(logger.isInfoEnabled())
             logger.info("Executing delete for {}", tableName);
         
-        StringBuilder stmt = new StringBuilder();
-        stmt.append("\nDELETE FROM ");
-        stmt.append(tableName);
-        stmt.append(" ");
-        
-        return executeStatement(connection, stmt.toString(), criteria, parameters);
+        return executeStatement(connection, EJStatementTemplates.deleteStatement(tableName), criteria, parameters);
     }
     
     public int executeInsert(EJForm form, String tableName, EJStatementParameter... parameters)
@@ -79,34 +90,12 @@ public class EJStatementExecutor implements Serializable
         if(logger.isInfoEnabled())
             logger.info("Executing insert for {}", tableName);
         
-        StringBuilder stmt = new StringBuilder();
-        stmt.append("\nINSERT INTO ");
-        stmt.append(tableName);
-        stmt.append("\n(");
-        
-        StringBuilder valuesStmt = new StringBuilder();
-        valuesStmt.append("\nVALUES (\n");
-        
-        boolean isFirst = true;
-        for (EJStatementParameter param : parameters)
-        {
-            if (!isFirst)
-            {
-                stmt.append("\n, ");
-                valuesStmt.append(",");
-            }
-            stmt.append(param.getFieldName());
-            valuesStmt.append("?");
-            isFirst = false;
-        }
-        stmt.append(")");
-        valuesStmt.append(")");
-        stmt.append(valuesStmt.toString());
+        String stmt = EJStatementTemplates.insertStatement(tableName, parameters);
         
         if(logger.isInfoEnabled())
-            logger.info("insertStatment:\n{}", stmt.toString());
+            logger.info("insertStatment:\n{}", stmt);
         
-        return executeStatement(connection, stmt.toString(), null, parameters);
+        return executeStatement(connection, stmt, null, parameters);
     }
     
     public int executeUpdate(EJForm form, String tableName, EJStatementCriteria criteria, EJStatementParameter... parameters)
@@ -124,24 +113,590 @@ public class EJStatementExecutor implements Serializable
         if(logger.isInfoEnabled())
             logger.info("Executing update for {}", tableName);
         
-        StringBuilder stmt = new StringBuilder();
-        stmt.append("\nUPDATE ");
-        stmt.append(tableName);
-        stmt.append(" SET \n");
+        return executeStatement(fwkConnection, EJStatementTemplates.updateStatement(tableName, parameters), criteria, parameters);
+    }
+    
+    /**
+     * Inserts all given rows into the given table using JDBC batching
+     * <p>
+     * Each entry of <code>rows</code> contains the parameters of one row. The
+     * insert statement is prepared once for consecutive rows with the same
+     * columns and sent to the database in chunks of {@link #getBatchSize()}
+     * rows
+     * 
+     * @param form
+     *            The form whose connection will be used
+     * @param tableName
+     *            The table to insert into
+     * @param rows
+     *            The parameters of each row to insert
+     * @return The update count of each row, in the order of the given rows.
+     *         Drivers that do not report row counts return
+     *         {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public int[] executeInsertBatch(EJForm form, String tableName, List<EJStatementParameter[]> rows)
+    {
+        if (form == null)
+        {
+            throw new NullPointerException("Form passed to executeInsertBatch cannot be null");
+        }
+        
+        return executeInsertBatch(form.getConnection(), tableName, rows);
+    }
+    
+    public int[] executeInsertBatch(EJFrameworkConnection connection, String tableName, List<EJStatementParameter[]> rows)
+    {
+        if(logger.isInfoEnabled())
+            logger.info("Executing batch insert of {} rows for {}", rows.size(), tableName);
+        
+        ArrayList<String> statements = new ArrayList<String>(rows.size());
+        for (EJStatementParameter[] parameters : rows)
+        {
+            statements.add(EJStatementTemplates.insertStatement(tableName, parameters));
+        }
+        
+        return executeBatch(connection, statements, null, rows);
+    }
+    
+    /**
+     * Updates all given rows of the given table using JDBC batching
+     * <p>
+     * The criteria and parameters at the same position within the given lists
+     * belong to the same row. Consecutive rows that result in the same update
+     * statement are prepared once and sent to the database in chunks of
+     * {@link #getBatchSize()} rows
+     * 
+     * @param form
+     *            The form whose connection will be used
+     * @param tableName
+     *            The table to update
+     * @param criteria
+     *            The criteria identifying each row to update
+     * @param rows
+     *            The new values of each row
+     * @return The update count of each row, in the order of the given rows.
+     *         Drivers that do not report row counts return
+     *         {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public int[] executeUpdateBatch(EJForm form, String tableName, List<EJStatementCriteria> criteria, List<EJStatementParameter[]> rows)
+    {
+        if (form == null)
+        {
+            throw new NullPointerException("Form passed to executeUpdateBatch cannot be null");
+        }
         
-        boolean isFirst = true;
-        for (EJStatementParameter param : parameters)
+        return executeUpdateBatch(form.getConnection(), tableName, criteria, rows);
+    }
+    
+    public int[] executeUpdateBatch(EJFrameworkConnection fwkConnection, String tableName, List<EJStatementCriteria> criteria, List<EJStatementParameter[]> rows)
+    {
+        if (criteria.size() != rows.size())
         {
-            if (!isFirst)
+            throw new IllegalArgumentException("The amount of criteria passed to executeUpdateBatch does not match the amount of rows");
+        }
+        
+        if(logger.isInfoEnabled())
+            logger.info("Executing batch update of {} rows for {}", rows.size(), tableName);
+        
+        ArrayList<String> statements = new ArrayList<String>(rows.size());
+        for (EJStatementParameter[] parameters : rows)
+        {
+            statements.add(EJStatementTemplates.updateStatement(tableName, parameters));
+        }
+        
+        return executeBatch(fwkConnection, statements, criteria, rows);
+    }
+    
+    /**
+     * Updates only the changed columns of the given rows using JDBC batching
+     * <p>
+     * The criteria, parameters and changed columns at the same position within
+     * the given lists belong to the same row. Only the parameters whose field
+     * name is contained within the rows changed columns are written, so the
+     * criteria should identify the row by its key columns and, if concurrent
+     * changes must be detected, by the initial value of a version column
+     * <p>
+     * A <code>null</code> or empty entry within <code>changedColumns</code>
+     * writes all parameters of the row, as do rows whose changed columns are
+     * not part of the table. Such rows were marked for update without their
+     * changes being tracked, so every row is sent to the database and its
+     * update count is reported
+     * 
+     * @param form
+     *            The form whose connection will be used
+     * @param tableName
+     *            The table to update
+     * @param criteria
+     *            The criteria identifying each row to update
+     * @param rows
+     *            The values of each row
+     * @param changedColumns
+     *            The lower case names of the columns changed within each row
+     * @return The update count of each row, in the order of the given rows.
+     *         Drivers that do not report row counts return
+     *         {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public int[] executeChangedColumnsUpdateBatch(EJForm form, String tableName, List<EJStatementCriteria> criteria, List<EJStatementParameter[]> rows,
+            List<? extends Collection<String>> changedColumns)
+    {
+        if (form == null)
+        {
+            throw new NullPointerException("Form passed to executeChangedColumnsUpdateBatch cannot be null");
+        }
+        
+        return executeChangedColumnsUpdateBatch(form.getConnection(), tableName, criteria, rows, changedColumns);
+    }
+    
+    public int[] executeChangedColumnsUpdateBatch(EJFrameworkConnection fwkConnection, String tableName, List<EJStatementCriteria> criteria,
+            List<EJStatementParameter[]> rows, List<? extends Collection<String>> changedColumns)
+    {
+        if (criteria.size() != rows.size() || changedColumns.size() != rows.size())
+        {
+            throw new IllegalArgumentException("The amount of criteria or changed columns passed to executeChangedColumnsUpdateBatch does not match the amount of rows");
+        }
+        
+        ArrayList<EJStatementParameter[]> changedRows = new ArrayList<EJStatementParameter[]>(rows.size());
+        for (int row = 0; row < rows.size(); row++)
+        {
+            changedRows.add(getChangedParameters(rows.get(row), changedColumns.get(row)));
+        }
+        
+        if(logger.isInfoEnabled())
+            logger.info("Executing changed column update of {} rows for {}", changedRows.size(), tableName);
+        
+        return executeUpdateBatch(fwkConnection, tableName, criteria, changedRows);
+    }
+    
+    private EJStatementParameter[] getChangedParameters(EJStatementParameter[] parameters, Collection<String> changedColumns)
+    {
+        // The row is written completely unless its changes have been tracked
+        if (changedColumns == null || changedColumns.isEmpty())
+        {
+            return parameters;
+        }
+        
+        ArrayList<EJStatementParameter> changedParameters = new ArrayList<EJStatementParameter>(changedColumns.size());
+        for (EJStatementParameter parameter : parameters)
+        {
+            if (parameter.getFieldName() != null && changedColumns.contains(parameter.getFieldName().toLowerCase()))
             {
-                stmt.append("\n, ");
+                changedParameters.add(parameter);
             }
-            stmt.append(param.getFieldName());
-            stmt.append(" = ?");
-            isFirst = false;
+        }
+        if (changedParameters.isEmpty())
+        {
+            return parameters;
+        }
+        return changedParameters.toArray(new EJStatementParameter[changedParameters.size()]);
+    }
+    
+    /**
+     * Deletes the rows identified by each of the given criteria using JDBC
+     * batching
+     * <p>
+     * Consecutive criteria that result in the same delete statement are
+     * prepared once and sent to the database in chunks of
+     * {@link #getBatchSize()} rows
+     * 
+     * @param form
+     *            The form whose connection will be used
+     * @param tableName
+     *            The table to delete from
+     * @param criteria
+     *            The criteria identifying each row to delete
+     * @return The update count of each criteria, in the order given. Drivers
+     *         that do not report row counts return
+     *         {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public int[] executeDeleteBatch(EJForm form, String tableName, List<EJStatementCriteria> criteria)
+    {
+        if (form == null)
+        {
+            throw new NullPointerException("Form passed to executeDeleteBatch cannot be null");
         }
         
-        return executeStatement(fwkConnection, stmt.toString(), criteria, parameters);
+        return executeDeleteBatch(form.getConnection(), tableName, criteria);
+    }
+    
+    public int[] executeDeleteBatch(EJFrameworkConnection connection, String tableName, List<EJStatementCriteria> criteria)
+    {
+        if(logger.isInfoEnabled())
+            logger.info("Executing batch delete of {} rows for {}", criteria.size(), tableName);
+        
+        String stmt = EJStatementTemplates.deleteStatement(tableName);
+        ArrayList<String> statements = new ArrayList<String>(criteria.size());
+        ArrayList<EJStatementParameter[]> rows = new ArrayList<EJStatementParameter[]>(criteria.size());
+        for (int i = 0; i < criteria.size(); i++)
+        {
+            statements.add(stmt);
+            rows.add(new EJStatementParameter[0]);
+        }
+        
+        return executeBatch(connection, statements, criteria, rows);
+    }
+    
+    /**
+     * Returns the maximum amount of rows sent to the database within one JDBC
+     * batch
+     * 
+     * @return The batch size used by the batch statement methods
+     */
+    public int getBatchSize()
+    {
+        return _batchSize;
+    }
+    
+    /**
+     * Sets the maximum amount of rows sent to the database within one JDBC
+     * batch
+     * 
+     * @param batchSize
+     *            The batch size, must be greater than <code>0</code>
+     */
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1)
+        {
+            throw new IllegalArgumentException("The batch size must be greater than 0. Value: " + batchSize);
+        }
+        _batchSize = batchSize;
+    }
+    
+    /**
+     * Indicates if each statement of a batch affects exactly one row
+     * 
+     * @return <code>true</code> if the update counts of batches are verified
+     * @see #setSingleRowBatches(boolean)
+     */
+    public boolean isSingleRowBatches()
+    {
+        return _singleRowBatches;
+    }
+    
+    /**
+     * Sets if each statement of a batch affects exactly one row, for example
+     * because each row is identified by its key
+     * <p>
+     * Some drivers answer a batch with {@link Statement#SUCCESS_NO_INFO}
+     * instead of the update count of each row. For single row batches the
+     * total update count of such a batch is then checked against the amount
+     * of rows and the following batches of the connection type are executed
+     * row by row, so that the exact update count of each row is returned. If
+     * the driver does not report the total either, the batch is taken as
+     * successful because no row failed. Use
+     * {@link #setBatchCountsReported(boolean)} to execute the rows one by one
+     * from the first batch on
+     * 
+     * @param singleRowBatches
+     *            <code>true</code> if the update counts of batches must be
+     *            known for each row
+     */
+    public void setSingleRowBatches(boolean singleRowBatches)
+    {
+        _singleRowBatches = singleRowBatches;
+    }
+    
+    /**
+     * Indicates if the JDBC driver is expected to report the update count of
+     * each row of a batch
+     * 
+     * @return <code>true</code> if single row batches are executed as batches
+     *         until the driver answers without the counts
+     * @see #setBatchCountsReported(boolean)
+     */
+    public boolean isBatchCountsReported()
+    {
+        return _batchCountsReported;
+    }
+    
+    /**
+     * Sets if the JDBC driver reports the update count of each row of a batch
+     * <p>
+     * If the driver is known to answer with
+     * {@link Statement#SUCCESS_NO_INFO}, single row batches are executed row
+     * by row right away, so that the count of each row is verified
+     * 
+     * @param batchCountsReported
+     *            <code>false</code> if the driver does not report the counts
+     * @see #setSingleRowBatches(boolean)
+     */
+    public void setBatchCountsReported(boolean batchCountsReported)
+    {
+        _batchCountsReported = batchCountsReported;
+    }
+    
+    /**
+     * Returns the number of rows the JDBC driver is asked to fetch from the
+     * database at a time when executing a query
+     * 
+     * @return The fetch size or <code>0</code> if the drivers default is used
+     */
+    public int getFetchSize()
+    {
+        return _fetchSize;
+    }
+    
+    /**
+     * Sets the number of rows the JDBC driver should fetch from the database
+     * at a time when executing a query
+     * <p>
+     * Streaming queries over large results should set a fetch size so that the
+     * driver does not read the whole result into memory. Some drivers, for
+     * example PostgreSQL, only use the fetch size if the connection is not in
+     * auto commit mode
+     * 
+     * @param fetchSize
+     *            The fetch size or <code>0</code> to use the drivers default
+     */
+    public void setFetchSize(int fetchSize)
+    {
+        if (fetchSize < 0)
+        {
+            throw new IllegalArgumentException("The fetch size cannot be negative. Value: " + fetchSize);
+        }
+        _fetchSize = fetchSize;
+    }
+    
+    /**
+     * Returns the sql dialect used to page selects within the database
+     * 
+     * @return The dialect set for this executor or, if none has been set, the
+     *         dialect of the application
+     */
+    public EJSqlDialect getSqlDialect()
+    {
+        if (_sqlDialect != null)
+        {
+            return _sqlDialect;
+        }
+        return EJCoreProperties.getInstance().getSqlDialect();
+    }
+    
+    /**
+     * Sets the sql dialect used by this executor, overriding the dialect of the
+     * application
+     * 
+     * @param sqlDialect
+     *            The dialect or <code>null</code> to use the dialect of the
+     *            application
+     */
+    public void setSqlDialect(EJSqlDialect sqlDialect)
+    {
+        _sqlDialect = sqlDialect;
+    }
+    
+    private void addCriteria(StringBuilder stmt, EJStatementCriteria criteria, ArrayList<EJStatementParameter> updateParameters)
+    {
+        if (criteria != null)
+        {
+            // The statement templates never contain a where clause
+            addRestrictions(stmt, false, criteria.getBlockServiceItemRestrictions(), updateParameters);
+        }
+    }
+    
+    /**
+     * Adds the service item restrictions to the given statement. The
+     * statement is not searched for an existing where clause for each
+     * restriction, instead <code>hasWhere</code> indicates if the statement
+     * already contains one
+     * 
+     * @return <code>true</code> if the statement contains a where clause after
+     *         the restrictions have been added
+     */
+    private boolean addRestrictions(StringBuilder stmt, boolean hasWhere, List<EJRestriction<?>> restrictions,
+            ArrayList<EJStatementParameter> parameters)
+    {
+        for (EJRestriction<?> restriction : restrictions)
+        {
+            if (restriction.isServiceItemRestriction())
+            {
+                hasWhere = addWhere(stmt, hasWhere, EJExpressionBuilder.buildExpression(restriction, parameters));
+            }
+        }
+        return hasWhere;
+    }
+    
+    private int setParameters(PreparedStatement pstmt, int pos, boolean infoEnabled, Iterable<EJStatementParameter> parameters) throws SQLException
+    {
+        for (EJStatementParameter parameter : parameters)
+        {
+            if (parameter.getValue() == null)
+            {
+                if(infoEnabled)
+                    logger.info("Statement parameter at index {} being set to NULL", pos);
+                pstmt.setNull(pos++, parameter.getJdbcType());
+            }
+            else
+            {
+                if(infoEnabled)
+                    logger.info("Statement parameter at index {} being set to {}", pos, parameter.getValue());
+                pstmt.setObject(pos++, parameter.getValue());
+            }
+        }
+        return pos;
+    }
+    
+    private int[] executeBatch(EJFrameworkConnection fwkConnection, List<String> statements, List<EJStatementCriteria> criteria,
+            List<EJStatementParameter[]> rows)
+    {
+        if (fwkConnection == null)
+        {
+            throw new NullPointerException("No EJFrameworkConnection passed to the EJStatementExecutor");
+        }
+        
+        int[] updateCounts = new int[rows.size()];
+        if (rows.isEmpty())
+        {
+            return updateCounts;
+        }
+        
+        PreparedStatement pstmt = null;
+        String preparedStatement = null;
+        int batchStart = 0;
+        final boolean infoEnabled = logger.isInfoEnabled();
+        try
+        {
+            Object conObj = fwkConnection.getConnectionObject();
+            if (conObj == null || !(conObj instanceof Connection))
+            {
+                throw new EJApplicationException(
+                        "The StatementExecutor requires the ConnectionFactory to return a JDBC Connection but another type was returned");
+            }
+            
+            // Drivers that do not report the count of each batched row have
+            // their single row statements executed one by one
+            String connectionType = conObj.getClass().getName();
+            boolean rowByRow = _singleRowBatches && (!_batchCountsReported || _connectionsWithoutBatchCounts.contains(connectionType));
+            
+            for (int row = 0; row < rows.size(); row++)
+            {
+                StringBuilder stmt = new StringBuilder(statements.get(row));
+                ArrayList<EJStatementParameter> updateParameters = new ArrayList<EJStatementParameter>();
+                addCriteria(stmt, criteria == null ? null : criteria.get(row), updateParameters);
+                String statement = stmt.toString();
+                
+                if (!statement.equals(preparedStatement))
+                {
+                    if (pstmt != null)
+                    {
+                        if (!rowByRow)
+                        {
+                            flushBatch(pstmt, updateCounts, batchStart, row, connectionType);
+                        }
+                        batchStart = row;
+                        pstmt.close();
+                    }
+                    if(infoEnabled)
+                        logger.info("Preparing batch statement: {}", statement);
+                    pstmt = ((Connection) conObj).prepareStatement(statement);
+                    preparedStatement = statement;
+                }
+                else if (!rowByRow && row - batchStart == _batchSize)
+                {
+                    flushBatch(pstmt, updateCounts, batchStart, row, connectionType);
+                    batchStart = row;
+                }
+                
+                int pos = setParameters(pstmt, 1, infoEnabled, Arrays.asList(rows.get(row)));
+                setParameters(pstmt, pos, infoEnabled, updateParameters);
+                if (rowByRow)
+                {
+                    updateCounts[row] = pstmt.executeUpdate();
+                }
+                else
+                {
+                    pstmt.addBatch();
+                }
+            }
+            if (!rowByRow)
+            {
+                flushBatch(pstmt, updateCounts, batchStart, rows.size(), connectionType);
+            }
+            
+            return updateCounts;
+        }
+        catch (SQLException e)
+        {
+            if(infoEnabled)
+                logger.info("Error executing batch statement", e);
+            throw new EJApplicationException("Error executing batch statement: " + e.getMessage(), e);
+        }
+        finally
+        {
+            try
+            {
+                if (pstmt != null)
+                {
+                    pstmt.close();
+                }
+            }
+            catch (SQLException e)
+            {
+            }
+        }
+    }
+    
+    private void flushBatch(PreparedStatement pstmt, int[] updateCounts, int batchStart, int batchEnd, String connectionType) throws SQLException
+    {
+        int[] counts = pstmt.executeBatch();
+        if (counts.length != batchEnd - batchStart)
+        {
+            throw new EJApplicationException("Unexpected amount of update counts returned from batch. Expected: " + (batchEnd - batchStart) + ". Returned: "
+                    + counts.length);
+        }
+        
+        for (int i = 0; i < counts.length; i++)
+        {
+            if (counts[i] == Statement.EXECUTE_FAILED)
+            {
+                throw new EJApplicationException("Batch statement failed for row " + (batchStart + i + 1));
+            }
+            updateCounts[batchStart + i] = counts[i];
+        }
+        
+        if (_singleRowBatches)
+        {
+            verifySingleRowBatch(pstmt, updateCounts, batchStart, batchEnd, connectionType);
+        }
+    }
+    
+    /**
+     * Checks the total update count of a single row batch whose driver did not
+     * report the count of each row, if the driver reports the total
+     */
+    private void verifySingleRowBatch(PreparedStatement pstmt, int[] updateCounts, int batchStart, int batchEnd, String connectionType) throws SQLException
+    {
+        boolean countsReported = true;
+        for (int i = batchStart; i < batchEnd; i++)
+        {
+            if (updateCounts[i] == Statement.SUCCESS_NO_INFO)
+            {
+                countsReported = false;
+                break;
+            }
+        }
+        if (countsReported)
+        {
+            return;
+        }
+        
+        if (_connectionsWithoutBatchCounts.add(connectionType) && logger.isInfoEnabled())
+            logger.info("The driver of {} does not report batch update counts, single row batches are executed row by row", connectionType);
+        
+        int total = pstmt.getUpdateCount();
+        if (total < 0)
+        {
+            // The driver reports neither the count of each row nor the total,
+            // as no row failed the batch is taken as successful
+            if (logger.isWarnEnabled())
+                logger.warn("The driver of {} did not report the amount of records processed by a batch of {} rows", connectionType, batchEnd - batchStart);
+        }
+        else if (total != batchEnd - batchStart)
+        {
+            throw new EJApplicationException("Unexpected amount of records processed by batch. Expected: " + (batchEnd - batchStart) + ". Reported: "
+                    + total);
+        }
+        Arrays.fill(updateCounts, batchStart, batchEnd, 1);
     }
     
     private int executeStatement(EJFrameworkConnection fwkConnection, String statement, EJStatementCriteria criteria, EJStatementParameter... parameters)
@@ -171,55 +726,16 @@ public class EJStatementExecutor implements Serializable
                         "The StatementExecutor requires the ConnectionFactory to return a JDBC Connection but another type was returned");
             }
             
-            if (criteria != null)
-            {
-                for (EJRestriction<?> restriction : criteria.getBlockServiceItemRestrictions())
-                {
-                    if (restriction.isServiceItemRestriction())
-                    {
-                        stmt.append(addWhere(stmt.toString(), EJExpressionBuilder.buildExpression(restriction, updateParameters)));
-                    }
-                }
-            }
+            addCriteria(stmt, criteria, updateParameters);
             
             if(infoEnabled)
                 logger.info("Statement to be executed after adding where: {}", stmt.toString());
             
             pstmt = ((Connection) conObj).prepareStatement(stmt.toString());
-            int pos = 1;
-            
-            for (EJStatementParameter parameter : parameters)
-            {
-                if (parameter.getValue() == null)
-                {
-                    if(infoEnabled)
-                        logger.info("Statement parameter at index {} being set to NULL", pos);
-                    pstmt.setNull(pos++, parameter.getJdbcType());
-                }
-                else
-                {
-                    if(infoEnabled)
-                        logger.info("Statement parameter at index {} being set to {}", pos, parameter.getValue());
-                    pstmt.setObject(pos++, parameter.getValue());
-                }
-            }
+            int pos = setParameters(pstmt, 1, infoEnabled, Arrays.asList(parameters));
             
             // Now add the update criteria values
-            for (EJStatementParameter parameter : updateParameters)
-            {
-                if (parameter.getValue() == null)
-                {
-                    if(infoEnabled)
-                        logger.info("Statement parameter at index {} being set to NULL", pos);
-                    pstmt.setNull(pos++, parameter.getJdbcType());
-                }
-                else
-                {
-                    if(infoEnabled)
-                        logger.info("Statement parameter at index {} being set to {}", pos, parameter.getValue());
-                    pstmt.setObject(pos++, parameter.getValue());
-                }
-            }
+            setParameters(pstmt, pos, infoEnabled, updateParameters);
             
             int updatedRecordCount = pstmt.executeUpdate();
             
@@ -370,43 +886,103 @@ public class EJStatementExecutor implements Serializable
     
     public <T> List<T> executeQuery(Class<T> pojoType, EJFrameworkConnection fwkConnection, String selectStatement, EJQueryCriteria queryCriteria)
     {
+        final ArrayList<T> results = new ArrayList<T>();
+        executeQuery(pojoType, fwkConnection, selectStatement, queryCriteria, new EJQueryRowHandler<T>()
+        {
+            @Override
+            public boolean handleRow(T row)
+            {
+                results.add(row);
+                return true;
+            }
+        });
+        return results;
+    }
+    
+    /**
+     * Executes the given query and passes each retrieved pojo to the given row
+     * handler instead of collecting them within a <code>List</code>
+     * <p>
+     * The statement and result set are closed when all rows have been handled,
+     * when the handler returns <code>false</code> or when the handler throws an
+     * exception. Use {@link #setFetchSize(int)} to stop the driver from
+     * reading the whole result at once
+     * 
+     * @param pojoType
+     *            The pojo to create for each row
+     * @param form
+     *            The form whose connection will be used
+     * @param selectStatement
+     *            The select statement to execute
+     * @param queryCriteria
+     *            The criteria to add to the select statement
+     * @param rowHandler
+     *            The handler to pass each pojo to
+     * @return The number of rows passed to the handler
+     */
+    public <T> int executeQuery(Class<T> pojoType, EJForm form, String selectStatement, EJQueryCriteria queryCriteria, EJQueryRowHandler<? super T> rowHandler)
+    {
+        if (form == null)
+        {
+            throw new NullPointerException("Form passed to executeQuery cannot be null");
+        }
+        return executeQuery(pojoType, form.getConnection(), selectStatement, queryCriteria, rowHandler);
+    }
+    
+    /**
+     * Executes the given query and passes each retrieved pojo to the given row
+     * handler instead of collecting them within a <code>List</code>
+     * 
+     * @param pojoType
+     *            The pojo to create for each row
+     * @param fwkConnection
+     *            The connection to use
+     * @param selectStatement
+     *            The select statement to execute
+     * @param queryCriteria
+     *            The criteria to add to the select statement
+     * @param rowHandler
+     *            The handler to pass each pojo to
+     * @return The number of rows passed to the handler
+     * @see #executeQuery(Class, EJForm, String, EJQueryCriteria,
+     *      EJQueryRowHandler)
+     */
+    public <T> int executeQuery(Class<T> pojoType, EJFrameworkConnection fwkConnection, String selectStatement, EJQueryCriteria queryCriteria,
+            EJQueryRowHandler<? super T> rowHandler)
+    {
+        if (rowHandler == null)
+        {
+            throw new NullPointerException("Row handler passed to executeQuery cannot be null");
+        }
+        
         final boolean infoEnabled = logger.isInfoEnabled();
         if(infoEnabled)
             logger.info("Executing query to return a list of {}\n{}", pojoType, selectStatement);
         
-        StringBuffer stmt = new StringBuffer(selectStatement);
+        StringBuilder stmt = new StringBuilder(selectStatement);
         
         ArrayList<EJStatementParameter> queryValues = new ArrayList<EJStatementParameter>();
-        for (EJRestriction<?> restriction : queryCriteria.getAllRestrictions())
-        {
-            if (restriction.isServiceItemRestriction())
-            {
-                stmt.append(addWhere(stmt.toString(), EJExpressionBuilder.buildExpression(restriction, queryValues)));
-            }
-        }
+        boolean hasWhere = addRestrictions(stmt, EJStatementTemplates.containsWhere(selectStatement), queryCriteria.getAllRestrictions(), queryValues);
+        addSeekCondition(stmt, hasWhere, queryCriteria, queryValues);
         
         if(infoEnabled)
             logger.info("Added the QueryCriteria expressions {}", stmt.toString());
         
-        for (EJQuerySort sort : queryCriteria.getSorts())
-        {
-            stmt.append(addOrderBy(stmt.toString(), sort));
-        }
+        boolean hasOrderBy = addOrderBy(stmt, EJStatementTemplates.containsOrderBy(selectStatement), queryCriteria.getSorts());
         
         if(infoEnabled)
             logger.info("Added the Order By expressions {}", stmt.toString());
         
         EJStatementParameter[] valuesArray = new EJStatementParameter[queryValues.size()];
-        return executeQuery(pojoType, fwkConnection, stmt.toString(), queryCriteria, queryValues.toArray(valuesArray));
+        return executePojoQuery(pojoType, fwkConnection, stmt.toString(), hasOrderBy, queryCriteria, rowHandler, queryValues.toArray(valuesArray));
     }
     
-    private <T> List<T> executeQuery(Class<T> pojoType, EJFrameworkConnection fwkConnection, String selectStatement, EJQueryCriteria queryCriteria,
-            EJStatementParameter... parameters)
+    private <T> int executePojoQuery(Class<T> pojoType, EJFrameworkConnection fwkConnection, String selectStatement, boolean hasOrderBy,
+            EJQueryCriteria queryCriteria, EJQueryRowHandler<? super T> rowHandler, EJStatementParameter[] parameters)
     {
-        EJPojoHelper helper = new EJPojoHelper();
-        
-        ArrayList<T> results = new ArrayList<T>();
         PreparedStatement pstmt = null;
+        ResultSet rset = null;
+        EJQueryCancellation cancellation = null;
         final boolean infoEnabled = logger.isInfoEnabled();
         try
         {
@@ -420,14 +996,13 @@ public class EJStatementExecutor implements Serializable
             // I can only add paging to a select if it has been set within the
             // query criteria. If not query criteria has been set, then no paging
             // is possible
-            if (queryCriteria != null)
-            {
-                pstmt = ((Connection) conObj).prepareStatement(wrapSelectForPaging(selectStatement, queryCriteria));
-            }
-            else
+            String sql = queryCriteria != null ? wrapSelectForPaging(selectStatement, hasOrderBy, queryCriteria) : selectStatement;
+            pstmt = ((Connection) conObj).prepareStatement(sql);
+            if (_fetchSize > 0)
             {
-                pstmt = ((Connection) conObj).prepareStatement(selectStatement);
+                pstmt.setFetchSize(_fetchSize);
             }
+            cancellation = startQuery(pstmt, queryCriteria);
             
             int pos = 1;
             
@@ -440,25 +1015,57 @@ public class EJStatementExecutor implements Serializable
             
             if(infoEnabled)
                 logger.info("Executing Query");
-            ResultSet rset = pstmt.executeQuery();
+            rset = pstmt.executeQuery();
             ResultSetMetaData metaData = rset.getMetaData();
             if(infoEnabled)
                 logger.info("Query Executed");
+            
+            // The column labels do not depend upon the paging, so the plan is
+            // cached for the statement before it was wrapped
+            EJResultMappingPlan plan = EJResultMappingPlan.forQuery(pojoType, selectStatement, metaData);
+            
+            int pageSize = getDatabasePageSize(queryCriteria);
+            int rowCount = 0;
+            boolean moreRows = false;
+            boolean stopped = false;
             try
             {
                 while (rset.next())
                 {
-                    T result = pojoType.newInstance();
+                    if (isCancelled(cancellation))
+                    {
+                        throw new EJQueryCancelledException();
+                    }
+                    if (pageSize > 0 && rowCount == pageSize)
+                    {
+                        // The additional row only indicates that another page
+                        // exists
+                        moreRows = true;
+                        break;
+                    }
                     
-                    for (int i = 1; i <= metaData.getColumnCount(); i++)
+                    T result = pojoType.newInstance();
+                    plan.populate(rset, result);
+                    rowCount++;
+                    if (!rowHandler.handleRow(result))
                     {
-                        helper.setFieldValue(metaData.getColumnLabel(i), result, rset.getObject(i));
+                        stopped = true;
+                        break;
                     }
-                    results.add(result);
+                }
+                
+                if (isCancelled(cancellation))
+                {
+                    throw new EJQueryCancelledException();
+                }
+                
+                if (pageSize > 0 && !stopped)
+                {
+                    queryCriteria.setHasMoreRows(moreRows);
                 }
                 
                 if(infoEnabled)
-                    logger.info("Query retrieved {} results", results.size());
+                    logger.info("Query retrieved {} results", rowCount);
             }
             catch (InstantiationException e)
             {
@@ -468,29 +1075,37 @@ public class EJStatementExecutor implements Serializable
             {
                 throw new EJApplicationException("Error creating pojo instance", e);
             }
-            return results;
+            return rowCount;
             
         }
         catch (SQLException e)
         {
             if(infoEnabled)
                 logger.info("Error Executing Query", e);
-            e.printStackTrace();
-            try
-            {
-                pstmt.close();
-            }
-            catch (SQLException e2)
+            if (isCancelled(cancellation))
             {
+                throw new EJQueryCancelledException(e);
             }
+            e.printStackTrace();
             throw new EJApplicationException("Error executing block query", e);
         }
         finally
         {
+            try
+            {
+                if (rset != null)
+                {
+                    rset.close();
+                }
+            }
+            catch (SQLException e)
+            {
+            }
             try
             {
                 if (pstmt != null)
                 {
+                    finishQuery(pstmt, cancellation);
                     pstmt.close();
                 }
             }
@@ -536,6 +1151,7 @@ public class EJStatementExecutor implements Serializable
             logger.info("Executing generic query {}", selectStatement);
         
         PreparedStatement pstmt = null;
+        EJQueryCancellation cancellation = null;
         try
         {
             Object conObj = fwkConnection.getConnectionObject();
@@ -547,38 +1163,24 @@ public class EJStatementExecutor implements Serializable
             ArrayList<EJStatementParameter> allParameters = new ArrayList<EJStatementParameter>(Arrays.asList(parameters));
             if (queryCriteria != null)
             {
-                StringBuffer stmt = new StringBuffer(selectStatement);
+                StringBuilder stmt = new StringBuilder(selectStatement);
                 
-                for (EJRestriction<?> restriction : queryCriteria.getAllRestrictions())
-                {
-                    if (restriction.isServiceItemRestriction())
-                    {
-                        stmt.append(addWhere(stmt.toString(), EJExpressionBuilder.buildExpression(restriction, allParameters)));
-                    }
-                }
+                boolean hasWhere = addRestrictions(stmt, EJStatementTemplates.containsWhere(selectStatement), queryCriteria.getAllRestrictions(),
+                        allParameters);
+                addSeekCondition(stmt, hasWhere, queryCriteria, allParameters);
                 
                 if(infoEnabled)
                     logger.info("Added the QueryCriteria expressions {}", stmt.toString());
                 
-                for (EJQuerySort sort : queryCriteria.getSorts())
-                {
-                    stmt.append(addOrderBy(stmt.toString(), sort));
-                }
+                boolean hasOrderBy = addOrderBy(stmt, EJStatementTemplates.containsOrderBy(selectStatement), queryCriteria.getSorts());
                 
-                selectStatement = stmt.toString();
-            }
-            // I can only add paging to a select if it has been set within the
-            // query criteria. If not query criteria has been set, then no
-            // paging
-            // is possible
-            if (queryCriteria != null)
-            {
-                pstmt = ((Connection) conObj).prepareStatement(wrapSelectForPaging(selectStatement, queryCriteria));
+                pstmt = ((Connection) conObj).prepareStatement(wrapSelectForPaging(stmt.toString(), hasOrderBy, queryCriteria));
             }
             else
             {
                 pstmt = ((Connection) conObj).prepareStatement(selectStatement);
             }
+            cancellation = startQuery(pstmt, queryCriteria);
             int pos = 1;
             
             for (EJStatementParameter parameter : allParameters)
@@ -595,19 +1197,43 @@ public class EJStatementExecutor implements Serializable
             if(infoEnabled)
                 logger.info("Query Executed");
             
+            String[] labels = new String[metaData.getColumnCount() + 1];
+            for (int i = 1; i < labels.length; i++)
+            {
+                labels[i] = metaData.getColumnLabel(i);
+            }
+            
+            int pageSize = getDatabasePageSize(queryCriteria);
+            boolean moreRows = false;
             ArrayList<EJSelectResult> results = new ArrayList<EJSelectResult>();
             while (rset.next())
             {
+                if (isCancelled(cancellation))
+                {
+                    throw new EJQueryCancelledException();
+                }
+                if (pageSize > 0 && results.size() == pageSize)
+                {
+                    // The additional row only indicates that another page
+                    // exists
+                    moreRows = true;
+                    break;
+                }
                 EJSelectResult result = new EJSelectResult();
                 
-                for (int i = 1; i <= metaData.getColumnCount(); i++)
+                for (int i = 1; i < labels.length; i++)
                 {
-                    result.addItem(metaData.getColumnLabel(i), rset.getObject(i));
+                    result.addItem(labels[i], rset.getObject(i));
                 }
                 
                 results.add(result);
             }
             
+            if (pageSize > 0)
+            {
+                queryCriteria.setHasMoreRows(moreRows);
+            }
+            
             if(infoEnabled)
                 logger.info("Query retrieved {} results", results.size());
             return results;
@@ -625,6 +1251,10 @@ public class EJStatementExecutor implements Serializable
             catch (SQLException e2)
             {
             }
+            if (isCancelled(cancellation))
+            {
+                throw new EJQueryCancelledException(e);
+            }
             throw new EJApplicationException("Error executing query", e);
         }
         finally
@@ -633,6 +1263,7 @@ public class EJStatementExecutor implements Serializable
             {
                 if (pstmt != null)
                 {
+                    finishQuery(pstmt, cancellation);
                     pstmt.close();
                 }
             }
@@ -642,79 +1273,164 @@ public class EJStatementExecutor implements Serializable
         }
     }
     
-    private String addWhere(String statement, String whereClause)
+    /**
+     * Applies the timeout of the query criteria to the statement and registers
+     * the statement with the cancellation of the criteria
+     * 
+     * @return The cancellation of the query, kept by the caller as the
+     *         criteria may be detached from it while the query is running
+     */
+    private EJQueryCancellation startQuery(PreparedStatement pstmt, EJQueryCriteria queryCriteria) throws SQLException
     {
-        if (containsWhere(statement))
+        if (queryCriteria == null)
         {
-            return " AND " + whereClause;
+            return null;
         }
-        else
+        
+        if (queryCriteria.getQueryTimeout() > 0)
         {
-            return " WHERE " + whereClause;
+            pstmt.setQueryTimeout(queryCriteria.getQueryTimeout());
         }
+        
+        EJQueryCancellation cancellation = queryCriteria.getCancellation();
+        if (cancellation != null && !cancellation.statementStarted(pstmt))
+        {
+            throw new EJQueryCancelledException();
+        }
+        return cancellation;
     }
     
-    private String addOrderBy(String statement, EJQuerySort sort)
+    private void finishQuery(PreparedStatement pstmt, EJQueryCancellation cancellation)
     {
-        if (containsOrderBy(statement))
+        if (cancellation != null)
         {
-            return " , " + sort.getSort() + " " + (sort.getType() == EJQuerySortType.ASCENDING ? "ASC" : "DESC");
+            cancellation.statementFinished(pstmt);
         }
-        else
+    }
+    
+    private boolean isCancelled(EJQueryCancellation cancellation)
+    {
+        return cancellation != null && cancellation.isCancelled();
+    }
+    
+    private boolean addWhere(StringBuilder stmt, boolean hasWhere, String whereClause)
+    {
+        stmt.append(hasWhere ? " AND " : " WHERE ").append(whereClause);
+        return true;
+    }
+    
+    private boolean addOrderBy(StringBuilder stmt, boolean hasOrderBy, List<EJQuerySort> sorts)
+    {
+        for (EJQuerySort sort : sorts)
         {
-            return " ORDER BY " + sort.getSort() + " " + (sort.getType() == EJQuerySortType.ASCENDING ? "ASC" : "DESC");
+            stmt.append(hasOrderBy ? " , " : " ORDER BY ").append(sort.getSort()).append(sort.getType() == EJQuerySortType.ASCENDING ? " ASC" : " DESC");
+            hasOrderBy = true;
         }
+        return hasOrderBy;
+    }
+    
+    /**
+     * Restricts the given select to the rows requested by the query criteria
+     * using the {@link #getSqlDialect()}
+     * <p>
+     * If the criteria requests a page, one row more than the page size is
+     * selected. The additional row is not returned, it only indicates that
+     * another page exists. If the criteria contains seek values the page is
+     * selected with a condition on the sort columns and no rows are skipped.
+     * If all rows have been requested, the select is restricted to the maximum
+     * results of the criteria
+     * 
+     * @param selectStatement
+     *            The complete select statement
+     * @param queryCriteria
+     *            The query criteria containing the requested page
+     * @return The restricted select statement or the given statement if the
+     *         dialect cannot page or no page has been requested
+     */
+    public String wrapSelectForPaging(String selectStatement, EJQueryCriteria queryCriteria)
+    {
+        // The complete statement is seldom executed twice, so its order by
+        // clause is not looked up in the statement cache
+        return wrapSelectForPaging(selectStatement, queryCriteria != null && EJStatementTemplates.scanOrderBy(selectStatement), queryCriteria);
     }
     
-    private boolean containsWhere(String statement)
+    private String wrapSelectForPaging(String selectStatement, boolean hasOrderBy, EJQueryCriteria queryCriteria)
     {
-        int nestingLevel = 0;
-        Pattern pattern = Pattern.compile("(\\()|(\\))|(\\s+where\\s+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(" " + statement);
-        while (matcher.find())
+        EJSqlDialect dialect = getSqlDialect();
+        if (queryCriteria == null || !dialect.supportsPaging())
         {
-            if (matcher.start(1) != -1)
-            {
-                nestingLevel++;
-            }
-            if (matcher.start(2) != -1)
-            {
-                nestingLevel--;
-            }
-            if (matcher.start(3) != -1 && nestingLevel == 0)
+            return selectStatement;
+        }
+        
+        if (queryCriteria.queryAllRows())
+        {
+            if (queryCriteria.getMaxResults() > 0)
             {
-                return true;
+                return dialect.limitSelect(selectStatement, hasOrderBy, 0, queryCriteria.getMaxResults());
             }
+            return selectStatement;
+        }
+        
+        int pageSize = queryCriteria.getPageSize();
+        if (pageSize <= 0)
+        {
+            return selectStatement;
         }
         
-        return false;
+        int offset = 0;
+        if (!queryCriteria.canSeek())
+        {
+            offset = (Math.max(queryCriteria.getPageNumber(), 1) - 1) * pageSize;
+        }
+        return dialect.limitSelect(selectStatement, hasOrderBy, offset, pageSize + 1);
     }
     
-    private boolean containsOrderBy(String statement)
+    /**
+     * Returns the page size if the page is selected within the database
+     * 
+     * @return The page size or <code>-1</code> if the select is not paged
+     */
+    private int getDatabasePageSize(EJQueryCriteria queryCriteria)
     {
-        int nestingLevel = 0;
-        Pattern pattern = Pattern.compile("(\\()|(\\))|(\\s+order\\s+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(" " + statement);
-        while (matcher.find())
+        if (queryCriteria == null || queryCriteria.queryAllRows() || queryCriteria.getPageSize() <= 0 || !getSqlDialect().supportsPaging())
         {
-            if (matcher.start(1) != -1)
-            {
-                nestingLevel++;
-            }
-            if (matcher.start(2) != -1)
+            return -1;
+        }
+        return queryCriteria.getPageSize();
+    }
+    
+    /**
+     * Adds the keyset condition selecting the rows after the seek values of
+     * the criteria, for example
+     * <code>(A &gt; ? OR (A = ? AND B &gt; ?))</code>
+     */
+    private void addSeekCondition(StringBuilder stmt, boolean hasWhere, EJQueryCriteria queryCriteria, ArrayList<EJStatementParameter> queryValues)
+    {
+        if (getDatabasePageSize(queryCriteria) <= 0 || !queryCriteria.canSeek())
+        {
+            return;
+        }
+        
+        List<EJQuerySort> sorts = queryCriteria.getSorts();
+        List<Object> seekValues = queryCriteria.getSeekValues();
+        StringBuilder condition = new StringBuilder("(");
+        for (int i = 0; i < sorts.size(); i++)
+        {
+            if (i > 0)
             {
-                nestingLevel--;
+                condition.append(" OR ");
             }
-            if (matcher.start(3) != -1 && nestingLevel == 0)
+            condition.append('(');
+            for (int j = 0; j < i; j++)
             {
-                return true;
+                condition.append(sorts.get(j).getSort()).append(" = ? AND ");
+                queryValues.add(new EJStatementParameter(seekValues.get(j)));
             }
+            condition.append(sorts.get(i).getSort()).append(sorts.get(i).getType() == EJQuerySortType.ASCENDING ? " > ?" : " < ?");
+            queryValues.add(new EJStatementParameter(seekValues.get(i)));
+            condition.append(')');
         }
-        return false;
-    }
-    
-    public String wrapSelectForPaging(String selectStatement, EJQueryCriteria queryCriteria)
-    {
-        return selectStatement;
+        condition.append(')');
+        addWhere(stmt, hasWhere, condition.toString());
     }
 }
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright 2013 CRESOFT AG
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * Contributors:
+ *     CRESOFT AG - initial API and implementation
+ ******************************************************************************/
+package org.entirej.framework.core.service;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Creates and caches the statement text used by the
+ * {@link EJStatementExecutor}
+ * <p>
+ * The insert, update and delete statements of a table are created once for
+ * each column list and then reused, so that repeated calls pass the same
+ * statement text to the driver. Whether a select statement already contains a
+ * <code>WHERE</code> or <code>ORDER BY</code> clause is also determined once
+ * per statement. Only the select statements passed to the executor are
+ * cached, not the statements the executor builds from them
+ */
+final class EJStatementTemplates
+{
+    static final int                                     DEFAULT_CACHE_SIZE = 512;
+
+    private static final int                             HAS_WHERE          = 1;
+    private static final int                             HAS_ORDER_BY       = 2;
+
+    private static final Pattern                         WHERE_PATTERN      = Pattern.compile("(\\()|(\\))|(\\s+where\\s+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern                         ORDER_BY_PATTERN   = Pattern.compile("(\\()|(\\))|(\\s+order\\s+)", Pattern.CASE_INSENSITIVE);
+
+    private static final EJLRUCache<TemplateKey, String> _templates         = new EJLRUCache<TemplateKey, String>(DEFAULT_CACHE_SIZE);
+    private static final EJLRUCache<String, int[]>       _facts             = new EJLRUCache<String, int[]>(DEFAULT_CACHE_SIZE);
+
+    private EJStatementTemplates()
+    {
+    }
+
+    static String insertStatement(String tableName, EJStatementParameter... parameters)
+    {
+        TemplateKey key = new TemplateKey('I', tableName, parameters);
+        String stmt = _templates.getEntry(key);
+        if (stmt == null)
+        {
+            stmt = buildInsertStatement(tableName, parameters);
+            _templates.putEntry(key, stmt);
+        }
+        return stmt;
+    }
+
+    static String updateStatement(String tableName, EJStatementParameter... parameters)
+    {
+        TemplateKey key = new TemplateKey('U', tableName, parameters);
+        String stmt = _templates.getEntry(key);
+        if (stmt == null)
+        {
+            stmt = buildUpdateStatement(tableName, parameters);
+            _templates.putEntry(key, stmt);
+        }
+        return stmt;
+    }
+
+    static String deleteStatement(String tableName)
+    {
+        TemplateKey key = new TemplateKey('D', tableName);
+        String stmt = _templates.getEntry(key);
+        if (stmt == null)
+        {
+            stmt = "\nDELETE FROM " + tableName + " ";
+            _templates.putEntry(key, stmt);
+        }
+        return stmt;
+    }
+
+    /**
+     * Indicates if the given statement contains a <code>WHERE</code> clause
+     * outside of any brackets
+     */
+    static boolean containsWhere(String statement)
+    {
+        return (getFacts(statement) & HAS_WHERE) != 0;
+    }
+
+    /**
+     * Indicates if the given statement contains an <code>ORDER BY</code>
+     * clause outside of any brackets
+     */
+    static boolean containsOrderBy(String statement)
+    {
+        return (getFacts(statement) & HAS_ORDER_BY) != 0;
+    }
+
+    /**
+     * Indicates if the given statement contains an <code>ORDER BY</code>
+     * clause outside of any brackets without caching the result
+     * <p>
+     * Used for statements that already contain the generated clauses of a
+     * query, as these would only displace the cached select statements
+     */
+    static boolean scanOrderBy(String statement)
+    {
+        return containsTopLevel(ORDER_BY_PATTERN, statement);
+    }
+
+    static void clearCache()
+    {
+        _templates.clear();
+        _facts.clear();
+    }
+
+    static int getCachedFacts()
+    {
+        return _facts.getEntriesNumber();
+    }
+
+    private static int getFacts(String statement)
+    {
+        int[] facts = _facts.getEntry(statement);
+        if (facts == null)
+        {
+            facts = new int[] { (containsTopLevel(WHERE_PATTERN, statement) ? HAS_WHERE : 0)
+                    | (containsTopLevel(ORDER_BY_PATTERN, statement) ? HAS_ORDER_BY : 0) };
+            _facts.putEntry(statement, facts);
+        }
+        return facts[0];
+    }
+
+    private static boolean containsTopLevel(Pattern pattern, String statement)
+    {
+        int nestingLevel = 0;
+        Matcher matcher = pattern.matcher(" " + statement);
+        while (matcher.find())
+        {
+            if (matcher.start(1) != -1)
+            {
+                nestingLevel++;
+            }
+            if (matcher.start(2) != -1)
+            {
+                nestingLevel--;
+            }
+            if (matcher.start(3) != -1 && nestingLevel == 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String buildInsertStatement(String tableName, EJStatementParameter... parameters)
+    {
+        StringBuilder stmt = new StringBuilder();
+        stmt.append("\nINSERT INTO ");
+        stmt.append(tableName);
+        stmt.append("\n(");
+
+        StringBuilder valuesStmt = new StringBuilder();
+        valuesStmt.append("\nVALUES (\n");
+
+        boolean isFirst = true;
+        for (EJStatementParameter param : parameters)
+        {
+            if (!isFirst)
+            {
+                stmt.append("\n, ");
+                valuesStmt.append(",");
+            }
+            stmt.append(param.getFieldName());
+            valuesStmt.append("?");
+            isFirst = false;
+        }
+        stmt.append(")");
+        valuesStmt.append(")");
+        stmt.append(valuesStmt);
+
+        return stmt.toString();
+    }
+
+    private static String buildUpdateStatement(String tableName, EJStatementParameter... parameters)
+    {
+        StringBuilder stmt = new StringBuilder();
+        stmt.append("\nUPDATE ");
+        stmt.append(tableName);
+        stmt.append(" SET \n");
+
+        boolean isFirst = true;
+        for (EJStatementParameter param : parameters)
+        {
+            if (!isFirst)
+            {
+                stmt.append("\n, ");
+            }
+            stmt.append(param.getFieldName());
+            stmt.append(" = ?");
+            isFirst = false;
+        }
+
+        return stmt.toString();
+    }
+
+    private static final class TemplateKey
+    {
+        private final char     _type;
+        private final String   _tableName;
+        private final String[] _columns;
+        private final int      _hashCode;
+
+        TemplateKey(char type, String tableName, EJStatementParameter... parameters)
+        {
+            _type = type;
+            _tableName = tableName;
+            _columns = new String[parameters.length];
+            for (int i = 0; i < parameters.length; i++)
+            {
+                _columns[i] = parameters[i].getFieldName();
+            }
+            _hashCode = 31 * (31 * type + (tableName == null ? 0 : tableName.hashCode())) + Arrays.hashCode(_columns);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return _hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof TemplateKey))
+            {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) obj;
+            return _type == other._type && (_tableName == null ? other._tableName == null : _tableName.equals(other._tableName))
+                    && Arrays.equals(_columns, other._columns);
+        }
+    }
+}
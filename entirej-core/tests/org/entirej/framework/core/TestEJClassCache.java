@@ -0,0 +1,65 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import org.entirej.framework.core.common.utils.EJClassCache;
+import org.junit.Test;
+
+public class TestEJClassCache
+{
+    public static class StatefulProcessor
+    {
+    }
+
+    @EJShareable
+    public static class SharedProcessor
+    {
+    }
+
+    public static class FailingProcessor
+    {
+        public FailingProcessor()
+        {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Test
+    public void testClassLookup() throws Exception
+    {
+        Class<?> processorClass = EJClassCache.getClass(StatefulProcessor.class.getName());
+        assertSame(StatefulProcessor.class, processorClass);
+        assertSame(processorClass, EJClassCache.getClass(StatefulProcessor.class.getName()));
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void testUnknownClass() throws Exception
+    {
+        EJClassCache.getClass("org.entirej.framework.core.DoesNotExist");
+    }
+
+    @Test
+    public void testSharedInstances() throws Exception
+    {
+        assertFalse(EJClassCache.isShareable(StatefulProcessor.class));
+        assertNotSame(EJClassCache.getInstance(StatefulProcessor.class), EJClassCache.getInstance(StatefulProcessor.class));
+
+        assertTrue(EJClassCache.isShareable(SharedProcessor.class));
+        assertSame(EJClassCache.getInstance(SharedProcessor.class), EJClassCache.getInstance(SharedProcessor.class));
+        assertNotSame(EJClassCache.newInstance(SharedProcessor.class), EJClassCache.newInstance(SharedProcessor.class));
+    }
+
+    @Test
+    public void testConstructorFailure() throws Exception
+    {
+        try
+        {
+            EJClassCache.newInstance(FailingProcessor.class);
+            fail();
+        }
+        catch (InstantiationException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
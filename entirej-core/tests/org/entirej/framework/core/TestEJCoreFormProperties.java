@@ -0,0 +1,125 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.entirej.framework.core.enumerations.EJCanvasType;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreCanvasProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.entirej.framework.core.properties.EJCoreRelationProperties;
+import org.entirej.framework.core.properties.EJCoreTabPageProperties;
+import org.entirej.framework.core.properties.containers.EJCoreItemPropertiesContainer;
+import org.junit.Test;
+
+public class TestEJCoreFormProperties
+{
+    private EJCoreRelationProperties createRelation(String name, EJCoreBlockProperties master, EJCoreBlockProperties detail)
+    {
+        EJCoreRelationProperties relation = new EJCoreRelationProperties(name);
+        relation.setMasterBlockProperties(master);
+        relation.setDetailBlockProperties(detail);
+        return relation;
+    }
+
+    @Test
+    public void testItemLookup()
+    {
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, "FORM");
+        EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, formProperties, "CUSTOMERS", true, false);
+        EJCoreItemPropertiesContainer container = blockProperties.getItemPropertiesContainer();
+
+        EJCoreItemProperties id = new EJCoreItemProperties(blockProperties);
+        id.setName("ID");
+        container.addItemProperties(id);
+        assertSame(id, container.getItemProperties("id"));
+        assertTrue(container.contains("Id"));
+        assertFalse(container.contains("NAME"));
+        assertNull(container.getItemProperties(null));
+
+        EJCoreItemProperties name = new EJCoreItemProperties(blockProperties);
+        name.setName("Name");
+        container.addItemProperties(name);
+        assertSame(name, container.getItemProperties("NAME"));
+        assertTrue(container.containsItemProperty("name"));
+
+        EJCoreItemProperties duplicate = new EJCoreItemProperties(blockProperties);
+        duplicate.setName("id");
+        container.addItemProperties(duplicate);
+        assertSame(id, container.getItemProperties("ID"));
+
+        id.setName("CUSTOMER_ID");
+        assertSame(duplicate, container.getItemProperties("ID"));
+        assertSame(id, container.getItemProperties("customer_id"));
+    }
+
+    @Test
+    public void testNestedCanvasLookup()
+    {
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, "FORM");
+        EJCoreCanvasProperties tabCanvas = new EJCoreCanvasProperties("TABS");
+        tabCanvas.setType(EJCanvasType.TAB);
+        formProperties.addCanvasProperties(tabCanvas);
+        assertSame(tabCanvas, formProperties.getCanvasProperties("tabs"));
+        assertNull(formProperties.getCanvasProperties("ORDERS"));
+
+        EJCoreTabPageProperties tabPage = new EJCoreTabPageProperties("PAGE");
+        tabCanvas.addTabPageProperties(tabPage);
+        EJCoreCanvasProperties orders = new EJCoreCanvasProperties("ORDERS");
+        tabPage.getContainedCanvases().addCanvasProperties(orders);
+        assertSame(orders, formProperties.getCanvasProperties("Orders"));
+        assertSame(tabPage.getContainedCanvases(), formProperties.getParentCanvasContainer("ORDERS"));
+        assertSame(formProperties.getCanvasContainer(), formProperties.getParentCanvasContainer("TABS"));
+
+        EJCoreCanvasProperties replacement = new EJCoreCanvasProperties("ORDERS");
+        orders.getParentCanvasContainer().replaceCanvasProperties(orders, replacement);
+        assertSame(replacement, formProperties.getCanvasProperties("ORDERS"));
+    }
+
+    @Test
+    public void testCanvasModificationsAreCountedPerForm()
+    {
+        EJCoreFormProperties customers = new EJCoreFormProperties(null, "CUSTOMERS");
+        EJCoreCanvasProperties popup = new EJCoreCanvasProperties("POPUP");
+        popup.setType(EJCanvasType.POPUP);
+        customers.addCanvasProperties(popup);
+        assertSame(popup, customers.getCanvasProperties("POPUP"));
+
+        EJCoreFormProperties orders = new EJCoreFormProperties(null, "ORDERS");
+        orders.addCanvasProperties(new EJCoreCanvasProperties("ORDERS"));
+        assertNotNull(orders.getCanvasProperties("ORDERS"));
+        int ordersModificationCount = orders.getCanvasContainer().getModificationCount();
+
+        EJCoreCanvasProperties address = new EJCoreCanvasProperties("ADDRESS");
+        popup.getPopupCanvasContainer().addCanvasProperties(address);
+        assertSame(address, customers.getCanvasProperties("ADDRESS"));
+        assertEquals("Another form must keep its canvas index", ordersModificationCount, orders.getCanvasContainer().getModificationCount());
+    }
+
+    @Test
+    public void testRelationLookup()
+    {
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, "FORM");
+        EJCoreBlockProperties customers = new EJCoreBlockProperties(null, formProperties, "CUSTOMERS", true, false);
+        EJCoreBlockProperties orders = new EJCoreBlockProperties(null, formProperties, "ORDERS", true, false);
+        EJCoreBlockProperties contacts = new EJCoreBlockProperties(null, formProperties, "CONTACTS", true, false);
+
+        EJCoreRelationProperties customerOrders = createRelation("CUSTOMER_ORDERS", customers, orders);
+        formProperties.addRelationProperties(customerOrders);
+        assertSame(customerOrders, formProperties.getMasterRelationProperties(orders));
+        assertNull(formProperties.getMasterRelationProperties(contacts));
+        assertTrue(formProperties.getDetailRelationProperties(orders).isEmpty());
+
+        EJCoreRelationProperties customerContacts = createRelation("CUSTOMER_CONTACTS", customers, contacts);
+        formProperties.getRelationContainer().addRelationProperties(customerContacts);
+        assertSame(customerContacts, formProperties.getMasterRelationProperties(contacts));
+        assertEquals(Arrays.asList(customerOrders, customerContacts), formProperties.getDetailRelationProperties(customers));
+        assertSame(customerContacts, formProperties.getRelationProperties("customer_contacts"));
+        assertTrue(formProperties.getRelationContainer().contains("Customer_Orders"));
+
+        EJCoreFormProperties otherForm = new EJCoreFormProperties(null, "OTHER");
+        assertNull(formProperties.getMasterRelationProperties(new EJCoreBlockProperties(null, otherForm, "ORDERS", true, false)));
+    }
+}
@@ -0,0 +1,98 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestEJCoreFormPropertiesCache
+{
+    @EJShareable
+    public static class SharedBlockService extends AAbstractBlockService
+    {
+        // Services are not written to the cache, so they need not be
+        // serializable
+        private final Object _lock = new Object();
+
+        @Override
+        public List<APojo> executeQuery(EJForm form, EJQueryCriteria queryCriteria)
+        {
+            synchronized (_lock)
+            {
+                return null;
+            }
+        }
+    }
+
+    @After
+    public void clearCache()
+    {
+        EJCoreFormPropertiesCache.getInstance().invalidateAll();
+        EJCoreFormPropertiesCache.getInstance().resetStatistics();
+    }
+
+    @Test
+    public void testCopiesAreIndependent()
+    {
+        EJCoreFormPropertiesCache cache = EJCoreFormPropertiesCache.getInstance();
+
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, "CUSTOMERS");
+        formProperties.setBaseTitle("CUSTOMERS_TITLE");
+        formProperties.setTranslatedTitle("Customers");
+        cache.putFormProperties("CUSTOMERS", Locale.ENGLISH, formProperties);
+
+        EJCoreFormProperties copy1 = cache.getFormProperties(null, "customers", Locale.ENGLISH);
+        EJCoreFormProperties copy2 = cache.getFormProperties(null, "CUSTOMERS", Locale.ENGLISH);
+
+        assertNotNull(copy1);
+        assertNotSame(copy1, copy2);
+        assertEquals("Customers", copy1.getTitle());
+
+        copy1.setTranslatedTitle("Changed");
+        assertEquals("Customers", copy2.getTitle());
+        assertEquals("Customers", cache.getFormProperties(null, "CUSTOMERS", Locale.ENGLISH).getTitle());
+    }
+
+    @Test
+    public void testStatisticsAndInvalidation()
+    {
+        EJCoreFormPropertiesCache cache = EJCoreFormPropertiesCache.getInstance();
+
+        assertNull(cache.getFormProperties(null, "ORDERS", Locale.ENGLISH));
+        cache.putFormProperties("ORDERS", Locale.ENGLISH, new EJCoreFormProperties(null, "ORDERS"));
+        cache.putFormProperties("ORDERS", Locale.GERMAN, new EJCoreFormProperties(null, "ORDERS"));
+
+        assertNotNull(cache.getFormProperties(null, "ORDERS", Locale.ENGLISH));
+        assertNull(cache.getFormProperties(null, "ORDERS", Locale.FRENCH));
+        assertEquals(1, cache.getHitEntries());
+        assertEquals(2, cache.getMissedEntries());
+        assertEquals(2, cache.getEntriesNumber());
+
+        cache.invalidate("orders");
+        assertEquals(0, cache.getEntriesNumber());
+        assertNull(cache.getFormProperties(null, "ORDERS", Locale.ENGLISH));
+    }
+
+    @Test
+    public void testBlockServicesAreCreatedByTheFactory()
+    {
+        EJCoreFormPropertiesCache cache = EJCoreFormPropertiesCache.getInstance();
+
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, "INVOICES");
+        EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, formProperties, "INVOICES", false, false);
+        blockProperties.setServiceClassName(SharedBlockService.class.getName());
+        formProperties.getBlockContainer().addBlockProperties(blockProperties);
+        cache.putFormProperties("INVOICES", Locale.ENGLISH, formProperties);
+        assertEquals(1, cache.getEntriesNumber());
+
+        EJCoreFormProperties copy = cache.getFormProperties(null, "INVOICES", Locale.ENGLISH);
+        assertSame("The shareable service is not shared", blockProperties.getBlockService(), copy.getBlockProperties("INVOICES").getBlockService());
+    }
+}
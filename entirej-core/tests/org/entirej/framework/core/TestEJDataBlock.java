@@ -0,0 +1,245 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.entirej.framework.core.data.EJDataBlock;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.data.EJDataRecordLoader;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEJDataBlock
+{
+    private EJCoreBlockProperties _blockProperties;
+    private EJInternalBlock       _block;
+
+    @Before
+    public void setup()
+    {
+        _blockProperties = new EJCoreBlockProperties(null, new EJCoreFormProperties(null, "FORM"), "RECORDS", true, false);
+        _block = new EJInternalBlock(null)
+        {
+            @Override
+            public EJCoreBlockProperties getProperties()
+            {
+                return _blockProperties;
+            }
+        };
+    }
+
+    private EJDataRecord newRecord()
+    {
+        return new EJDataRecord(null, _block, new Object(), (Object) null);
+    }
+
+    private void assertPositions(EJDataBlock dataBlock)
+    {
+        for (int i = 0; i < dataBlock.getBlockRecordCount(); i++)
+        {
+            assertEquals(i, dataBlock.getRecordNumber(dataBlock.getRecord(i)));
+        }
+    }
+
+    @Test
+    public void testNavigation()
+    {
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        EJDataRecord[] records = new EJDataRecord[5];
+        for (int i = 0; i < records.length; i++)
+        {
+            records[i] = newRecord();
+            dataBlock.addQueriedRecord(records[i]);
+        }
+
+        assertPositions(dataBlock);
+        assertNull(dataBlock.getRecordBefore(records[0]));
+        assertSame(records[1], dataBlock.getRecordAfter(records[0]));
+        assertSame(records[3], dataBlock.getRecordBefore(records[4]));
+        assertNull(dataBlock.getRecordAfter(records[4]));
+        assertFalse(dataBlock.containsRecord(newRecord()));
+        assertEquals(-1, dataBlock.getRecordNumber(null));
+
+        dataBlock.clearBlock(true);
+        assertFalse(dataBlock.containsRecord(records[0]));
+        assertEquals(0, dataBlock.getBlockRecordCount());
+    }
+
+    @Test
+    public void testPositionsFollowChanges()
+    {
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        EJDataRecord first = newRecord();
+        EJDataRecord second = newRecord();
+        EJDataRecord third = newRecord();
+        dataBlock.addQueriedRecord(first);
+        dataBlock.addQueriedRecord(second);
+        dataBlock.addQueriedRecord(third);
+        assertPositions(dataBlock);
+
+        EJDataRecord created = newRecord();
+        dataBlock.recordCreated(created, first);
+        assertEquals(1, dataBlock.getRecordNumber(created));
+        assertEquals(3, dataBlock.getRecordNumber(third));
+        assertPositions(dataBlock);
+
+        dataBlock.recordDeleted(second);
+        assertFalse(dataBlock.containsRecord(second));
+        assertSame(third, dataBlock.getRecordAfter(created));
+        assertPositions(dataBlock);
+
+        dataBlock.recordDeleted(created);
+        assertFalse(dataBlock.containsRecord(created));
+        assertSame(first, dataBlock.getRecordBefore(third));
+        assertPositions(dataBlock);
+
+        EJDataRecord appended = newRecord();
+        dataBlock.recordCreated(appended, -1);
+        assertEquals(2, dataBlock.getRecordNumber(appended));
+        assertPositions(dataBlock);
+    }
+
+    @Test
+    public void testDeferredRecords()
+    {
+        final List<Integer> loadSizes = new ArrayList<Integer>();
+        EJDataRecordLoader loader = new EJDataRecordLoader()
+        {
+            @Override
+            public void loadRecords(EJDataBlock dataBlock, List<?> entities)
+            {
+                loadSizes.add(entities.size());
+                for (int i = 0; i < entities.size(); i++)
+                {
+                    dataBlock.addQueriedRecord(newRecord());
+                }
+            }
+        };
+
+        List<Object> entities = new ArrayList<Object>();
+        for (int i = 0; i < 10; i++)
+        {
+            entities.add(new Object());
+        }
+
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        dataBlock.addQueriedEntities(entities, loader, 3);
+        assertEquals(10, dataBlock.getBlockRecordCount());
+        assertTrue(loadSizes.isEmpty());
+
+        EJDataRecord first = dataBlock.getRecord(0);
+        assertEquals(1, loadSizes.size());
+        assertEquals(7, dataBlock.getPendingEntityCount());
+
+        EJDataRecord third = dataBlock.getRecordAfter(dataBlock.getRecordAfter(first));
+        assertEquals(2, dataBlock.getRecordNumber(third));
+        assertNotNull(dataBlock.getRecordAfter(third));
+        assertEquals(2, loadSizes.size());
+
+        dataBlock.getRecord(8);
+        assertEquals(3, (int) loadSizes.get(2));
+        assertEquals(1, dataBlock.getPendingEntityCount());
+        assertEquals(10, dataBlock.getRecords().size());
+        assertEquals(0, dataBlock.getPendingEntityCount());
+        assertPositions(dataBlock);
+
+        dataBlock.addQueriedEntities(entities, loader, 3);
+        EJDataRecord created = newRecord();
+        dataBlock.recordCreated(created, null);
+        assertEquals(21, dataBlock.getBlockRecordCount());
+        assertEquals(20, dataBlock.getRecordNumber(created));
+
+        dataBlock.clearBlock(true);
+        dataBlock.addQueriedEntities(entities, loader, 3);
+        dataBlock.clearBlock(true);
+        assertEquals(0, dataBlock.getBlockRecordCount());
+        assertNull(dataBlock.getRecord(0));
+    }
+
+    @Test
+    public void testRecordWindows()
+    {
+        final List<Integer> loadSizes = new ArrayList<Integer>();
+        EJDataRecordLoader loader = new EJDataRecordLoader()
+        {
+            @Override
+            public void loadRecords(EJDataBlock dataBlock, List<?> entities)
+            {
+                loadSizes.add(entities.size());
+                for (int i = 0; i < entities.size(); i++)
+                {
+                    dataBlock.addQueriedRecord(newRecord());
+                }
+            }
+        };
+
+        List<Object> entities = new ArrayList<Object>();
+        for (int i = 0; i < 10; i++)
+        {
+            entities.add(new Object());
+        }
+
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        dataBlock.addQueriedEntities(entities, loader, 3);
+        List<EJDataRecord> window = dataBlock.getRecords(4, 2);
+        assertEquals(2, window.size());
+        assertSame(dataBlock.getRecord(5), window.get(1));
+        assertEquals(1, loadSizes.size());
+        assertEquals(4, dataBlock.getPendingEntityCount());
+        assertEquals(2, dataBlock.getRecords(8, 5).size());
+        assertEquals(0, dataBlock.getPendingEntityCount());
+        assertTrue(dataBlock.getRecords(10, 5).isEmpty());
+
+        // The records are a copy that does not follow changes of the block
+        Collection<EJDataRecord> records = dataBlock.getRecords();
+        for (EJDataRecord record : records)
+        {
+            dataBlock.recordCreated(newRecord(), dataBlock.getRecordNumber(record));
+        }
+        assertEquals(10, records.size());
+        assertEquals(20, dataBlock.getBlockRecordCount());
+    }
+
+    @Test
+    public void testRecordsAccessedWhileLoading()
+    {
+        final List<Integer> visibleRecordCounts = new ArrayList<Integer>();
+        EJDataRecordLoader loader = new EJDataRecordLoader()
+        {
+            @Override
+            public void loadRecords(EJDataBlock dataBlock, List<?> entities)
+            {
+                for (int i = 0; i < entities.size(); i++)
+                {
+                    // A post query action reads the records of the block
+                    for (int j = 0; j < dataBlock.getBlockRecordCount(); j++)
+                    {
+                        assertNotNull(dataBlock.getRecord(j));
+                    }
+                    visibleRecordCounts.add(dataBlock.getRecords().size());
+                    dataBlock.addQueriedRecord(newRecord());
+                }
+            }
+        };
+
+        List<Object> entities = new ArrayList<Object>();
+        for (int i = 0; i < 6; i++)
+        {
+            entities.add(new Object());
+        }
+
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        dataBlock.addQueriedEntities(entities, loader, 3);
+        assertEquals(6, dataBlock.getBlockRecordCount());
+        assertNotNull(dataBlock.getRecord(5));
+        assertEquals(0, dataBlock.getPendingEntityCount());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), visibleRecordCounts);
+    }
+}
@@ -0,0 +1,71 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.entirej.framework.core.data.EJDataMap;
+import org.junit.Test;
+
+public class TestEJDataMap
+{
+
+    @Test
+    public void testPutAndGet()
+    {
+        EJDataMap<String, String> data = new EJDataMap<String, String>(2);
+
+        for (int i = 0; i < 200; i++)
+        {
+            data.put("item_" + i, "value_" + i);
+        }
+        data.put("item_5", "changed");
+
+        assertEquals(200, data.size());
+        assertEquals("changed", data.get("item_5"));
+        assertEquals("value_199", data.get("item_199"));
+        assertTrue(data.containsKey("item_0"));
+        assertFalse(data.containsKey("item_200"));
+        assertNull(data.get("item_200"));
+        assertNull(data.get(null));
+    }
+
+    @Test
+    public void testInsertionOrder()
+    {
+        EJDataMap<String, String> data = new EJDataMap<String, String>();
+        data.put("c", "3");
+        data.put("a", "1");
+        data.put("b", "2");
+        data.put("a", "4");
+
+        List<String> keys = new ArrayList<String>(data.keySet());
+        List<String> values = new ArrayList<String>(data.values());
+        assertEquals("[c, a, b]", keys.toString());
+        assertEquals("[3, 4, 2]", values.toString());
+        assertEquals("a", data.keyAt(1));
+        assertEquals("2", data.valueAt(2));
+    }
+
+    @Test
+    public void testViewsAreLive()
+    {
+        EJDataMap<String, String> data = new EJDataMap<String, String>();
+        data.put("a", "1");
+
+        Iterator<String> values = data.values().iterator();
+        data.put("b", "2");
+        assertEquals("1", values.next());
+        assertEquals("2", values.next());
+        assertFalse(values.hasNext());
+        assertSame(data.values(), data.values());
+        assertTrue(data.keySet().contains("b"));
+
+        data.clear();
+        assertEquals(0, data.size());
+        assertTrue(data.values().isEmpty());
+        assertFalse(data.containsKey("a"));
+    }
+}
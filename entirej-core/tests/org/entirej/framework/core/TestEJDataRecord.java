@@ -0,0 +1,140 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.entirej.framework.core.data.EJDataItem;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.enumerations.EJScreenType;
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.junit.Test;
+
+public class TestEJDataRecord
+{
+    private EJInternalBlock createBlock(boolean compactRecordStorage)
+    {
+        final EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, new EJCoreFormProperties(null, "FORM"), "CUSTOMERS", true, false);
+        blockProperties.setCompactRecordStorage(compactRecordStorage);
+        blockProperties.getItemPropertiesContainer().addItemProperties(createItem(blockProperties, "ID", Integer.class));
+        blockProperties.getItemPropertiesContainer().addItemProperties(createItem(blockProperties, "NAME", String.class));
+
+        return new EJInternalBlock(null)
+        {
+            @Override
+            public EJCoreBlockProperties getProperties()
+            {
+                return blockProperties;
+            }
+
+            @Override
+            public EJDefaultServicePojoHelper getServicePojoHelper()
+            {
+                return null;
+            }
+
+            @Override
+            public void dataItemValueChanged(String itemName, EJDataRecord changedRecord, EJScreenType screenType)
+            {
+            }
+        };
+    }
+
+    private EJCoreItemProperties createItem(EJCoreBlockProperties blockProperties, String name, Class<?> dataType)
+    {
+        EJCoreItemProperties itemProperties = new EJCoreItemProperties(blockProperties);
+        itemProperties.setName(name);
+        itemProperties.setDataTypeClassName(dataType.getName());
+        return itemProperties;
+    }
+
+    @Test
+    public void testCompactValues()
+    {
+        EJDataRecord record = new EJDataRecord(null, createBlock(true), new Object(), (Object) null);
+
+        assertEquals(Arrays.asList("id", "name"), record.getColumnNames());
+        assertTrue(record.containsItem("Name"));
+        assertFalse(record.containsItem("ADDRESS"));
+        assertNull(record.getValue("ID"));
+
+        record.setValue("ID", 1);
+        record.setValue("name", "Smith");
+        assertEquals(1, record.getValue("id"));
+        assertEquals("Smith", record.getValue("NAME"));
+        assertTrue(record.isChanged());
+
+        EJDataItem item = record.getItem("NAME");
+        assertSame(item, record.getItem("name"));
+        assertEquals("Smith", item.getValue());
+
+        item.setValue("Jones");
+        assertEquals("Jones", record.getValue("NAME"));
+        record.setValue("NAME", "Brown");
+        assertEquals("Brown", item.getValue());
+
+        record.clear();
+        assertNull(record.getValue("ID"));
+        assertNull(item.getValue());
+    }
+
+    @Test
+    public void testCopyBetweenStorageModes()
+    {
+        EJDataRecord compact = new EJDataRecord(null, createBlock(true), new Object(), (Object) null);
+        EJDataRecord items = new EJDataRecord(null, createBlock(false), new Object(), (Object) null);
+
+        compact.setValue("ID", 7);
+        compact.setValue("NAME", "Smith");
+        compact.copyValuesToRecord(items);
+        assertEquals(7, items.getValue("ID"));
+        assertEquals("Smith", items.getValue("NAME"));
+
+        items.setValue("NAME", "Jones");
+        items.copyValuesToRecord(compact);
+        assertEquals("Jones", compact.getValue("NAME"));
+        assertEquals(2, compact.getAllItems().size());
+    }
+
+    @Test
+    public void testChangedItems()
+    {
+        for (boolean compactRecordStorage : new boolean[] { true, false })
+        {
+            EJDataRecord record = new EJDataRecord(null, createBlock(compactRecordStorage), new Object(), (Object) null);
+            assertTrue(record.getChangedItemNames().isEmpty());
+
+            record.setValue("NAME", "Smith");
+            assertTrue(record.isItemChanged("name"));
+            assertFalse(record.isItemChanged("ID"));
+            assertEquals(Collections.singleton("name"), record.getChangedItemNames());
+
+            record.getItem("ID").setValue(3);
+            assertEquals(Arrays.asList("id", "name"), new ArrayList<String>(record.getChangedItemNames()));
+
+            record.recordSaved();
+            assertFalse(record.isItemChanged("NAME"));
+            assertTrue(record.getChangedItemNames().isEmpty());
+        }
+    }
+
+    @Test(expected = EJApplicationException.class)
+    public void testCompactValueType()
+    {
+        EJDataRecord record = new EJDataRecord(null, createBlock(true), new Object(), (Object) null);
+        record.setValue("ID", "NOT A NUMBER");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompactUnknownItem()
+    {
+        EJDataRecord record = new EJDataRecord(null, createBlock(true), new Object(), (Object) null);
+        record.getValue("ADDRESS");
+    }
+}
@@ -0,0 +1,85 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.entirej.framework.core.common.utils.EJDefaultValueResolver;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.junit.Test;
+
+public class TestEJDefaultValueResolver
+{
+    public static String DEFAULT_STATUS = "OPEN";
+    static String        HIDDEN_STATUS  = "HIDDEN";
+
+    private EJBlockItem createItem(String defaultValue)
+    {
+        EJCoreItemProperties itemProperties = new EJCoreItemProperties("STATUS");
+        itemProperties.setDefaultInsertValue(defaultValue);
+        return new EJBlockItem(itemProperties);
+    }
+
+    @Test
+    public void testNoDefault()
+    {
+        assertFalse(EJDefaultValueResolver.compile(null).hasDefaultValue());
+        assertFalse(EJDefaultValueResolver.compile("  ").hasDefaultValue());
+        assertFalse(new EJCoreItemProperties("STATUS").getDefaultQueryValueResolver().hasDefaultValue());
+        assertNull(createItem("").getDefaultInsertValueResolver().resolve(null, null, null));
+    }
+
+    @Test
+    public void testClassField() throws Exception
+    {
+        EJBlockItem item = createItem("CLASS_FIELD:" + TestEJDefaultValueResolver.class.getName() + ".DEFAULT_STATUS");
+        EJDefaultValueResolver resolver = item.getDefaultInsertValueResolver();
+        assertTrue(resolver.hasDefaultValue());
+        assertEquals("OPEN", resolver.resolve(null, item, null));
+
+        DEFAULT_STATUS = "CLOSED";
+        try
+        {
+            assertEquals("CLOSED", resolver.resolve(null, item, null));
+        }
+        finally
+        {
+            DEFAULT_STATUS = "OPEN";
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(resolver);
+        out.close();
+        EJDefaultValueResolver copy = (EJDefaultValueResolver) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals("OPEN", copy.resolve(null, item, null));
+    }
+
+    @Test(expected = EJApplicationException.class)
+    public void testInaccessibleClassField()
+    {
+        EJBlockItem item = createItem("CLASS_FIELD:" + TestEJDefaultValueResolver.class.getName() + ".HIDDEN_STATUS");
+        item.getDefaultInsertValueResolver().resolve(null, item, null);
+    }
+
+    @Test
+    public void testInvalidDefaultsFailWhenResolved()
+    {
+        for (String defaultValue : new String[] { "UNKNOWN:VALUE", "NO_SEPARATOR", "BLOCK_ITEM:NO_ITEM" })
+        {
+            EJBlockItem item = createItem(defaultValue);
+            try
+            {
+                item.getDefaultInsertValueResolver().resolve(null, item, null);
+                fail("Expected an exception for " + defaultValue);
+            }
+            catch (EJApplicationException e)
+            {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.entirej.framework.core.data.controllers.EJDetailQueryCache;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJQuerySort;
+import org.entirej.framework.core.service.EJRestrictions;
+import org.junit.Test;
+
+public class TestEJDetailQueryCache
+{
+    private static List<Object> key(Object... values)
+    {
+        return Arrays.asList(values);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(2, 0);
+        List<String> first = Collections.singletonList("FIRST");
+        cache.putEntities(key(1), first);
+        cache.putEntities(key(2), Collections.singletonList("SECOND"));
+
+        assertSame(first, cache.getEntities(key(1)));
+        cache.putEntities(key(3), Collections.singletonList("THIRD"));
+
+        assertTrue(cache.containsEntities(key(1)));
+        assertFalse(cache.containsEntities(key(2)));
+        assertNull(cache.getEntities(key(2)));
+        assertEquals(1, cache.getHitEntries());
+        assertEquals(1, cache.getMissedEntries());
+        assertEquals(2, cache.getEntriesNumber());
+    }
+
+    @Test
+    public void testExpiredEntries() throws InterruptedException
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 20);
+        cache.putEntities(key("A", 1), Collections.emptyList());
+        assertNotNull(cache.getEntities(key("A", 1)));
+
+        Thread.sleep(40);
+        assertNull(cache.getEntities(key("A", 1)));
+        assertEquals(0, cache.getEntriesNumber());
+    }
+
+    @Test
+    public void testInvalidation()
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 0);
+        cache.putEntities(key(1), Collections.emptyList());
+        cache.putEntities(key(2), Collections.emptyList());
+
+        cache.invalidate(key(1));
+        assertFalse(cache.containsEntities(key(1)));
+        assertTrue(cache.containsEntities(key(2)));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getEntriesNumber());
+        assertNull(cache.getEntities(null));
+    }
+
+    private static EJQueryCriteria criteria(Object masterValue)
+    {
+        EJQueryCriteria queryCriteria = new EJQueryCriteria();
+        queryCriteria.add(EJRestrictions.equals("CUSTOMER_ID", masterValue));
+        return queryCriteria;
+    }
+
+    @Test
+    public void testKeyContainsCriteria()
+    {
+        assertEquals(EJDetailQueryCache.createKey(key(1), criteria(1)), EJDetailQueryCache.createKey(key(1), criteria(1)));
+        assertNull(EJDetailQueryCache.createKey(null, criteria(1)));
+
+        EJQueryCriteria restricted = criteria(1);
+        restricted.add(EJRestrictions.equals("STATUS", "OPEN"));
+        assertFalse(EJDetailQueryCache.createKey(key(1), criteria(1)).equals(EJDetailQueryCache.createKey(key(1), restricted)));
+
+        EJQueryCriteria sorted = criteria(1);
+        sorted.add(EJQuerySort.DESC("ORDER_DATE"));
+        assertFalse(EJDetailQueryCache.createKey(key(1), criteria(1)).equals(EJDetailQueryCache.createKey(key(1), sorted)));
+    }
+
+    @Test
+    public void testLookupByCriteria()
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 0);
+        List<String> orders = Collections.singletonList("ORDER");
+        cache.putEntities(EJDetailQueryCache.createKey(key(1), criteria(1)), orders);
+
+        assertSame(orders, cache.getEntities(EJDetailQueryCache.createKey(key(1), criteria(1))));
+
+        // A query whose criteria were changed by its pre query is not
+        // answered with the entities of the unchanged query
+        EJQueryCriteria changed = criteria(1);
+        changed.add(EJRestrictions.equals("STATUS", "OPEN"));
+        assertNull(cache.getEntities(EJDetailQueryCache.createKey(key(1), changed)));
+        assertNull(cache.getEntities(EJDetailQueryCache.createKey(key(2), criteria(2))));
+    }
+}
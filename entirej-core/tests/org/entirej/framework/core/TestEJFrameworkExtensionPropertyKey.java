@@ -0,0 +1,73 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperties;
+import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperty;
+import org.entirej.framework.core.extensions.properties.EJFrameworkExtensionPropertyKey;
+import org.entirej.framework.core.properties.definitions.EJPropertyDefinitionType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEJFrameworkExtensionPropertyKey
+{
+    private static final EJFrameworkExtensionPropertyKey<Integer> WIDTH   = EJFrameworkExtensionPropertyKey.forInt("displayCoordinates.width", 10);
+    private static final EJFrameworkExtensionPropertyKey<Boolean> VISIBLE = EJFrameworkExtensionPropertyKey.forBoolean("visible", true);
+    private static final EJFrameworkExtensionPropertyKey<String>  LABEL   = EJFrameworkExtensionPropertyKey.forString("label");
+
+    private EJCoreFrameworkExtensionProperties _properties;
+
+    private EJCoreFrameworkExtensionProperty addProperty(EJCoreFrameworkExtensionProperties group, String name, String value)
+    {
+        EJCoreFrameworkExtensionProperty property = new EJCoreFrameworkExtensionProperty(EJPropertyDefinitionType.STRING, name);
+        property.setValue(value);
+        group.addProperty(property);
+        return property;
+    }
+
+    @Before
+    public void setup()
+    {
+        _properties = new EJCoreFrameworkExtensionProperties(null, null, "RENDERER", null);
+        EJCoreFrameworkExtensionProperties coordinates = new EJCoreFrameworkExtensionProperties(null, null, "displayCoordinates", _properties);
+        _properties.addPropertyGroup(coordinates);
+        addProperty(coordinates, "width", "250");
+        addProperty(_properties, "visible", "FALSE");
+        addProperty(_properties, "label", " ");
+    }
+
+    @Test
+    public void testTypedValues()
+    {
+        assertEquals(250, (int) WIDTH.getValue(_properties));
+        assertEquals(_properties.getIntProperty("displayCoordinates.width", 10), (int) _properties.getPropertyValue(WIDTH));
+        assertSame(WIDTH.getValue(_properties), WIDTH.getValue(_properties));
+        assertFalse(VISIBLE.getValue(_properties));
+        assertNull(LABEL.getValue(_properties));
+        assertEquals(5, (int) EJFrameworkExtensionPropertyKey.forInt("displayCoordinates.height", 5).getValue(_properties));
+        assertEquals(5, (int) EJFrameworkExtensionPropertyKey.forInt("position.x", 5).getValue(_properties));
+        assertTrue(VISIBLE.getValue(null));
+    }
+
+    @Test
+    public void testValueChanges()
+    {
+        _properties.setPropertyValue("displayCoordinates.width", "300");
+        assertEquals(300, (int) WIDTH.getValue(_properties));
+
+        _properties.setPropertyValue("displayCoordinates.width", "");
+        assertEquals(10, (int) WIDTH.getValue(_properties));
+
+        WIDTH.getProperty(_properties).setTranslatedValue("42");
+        assertEquals(42, (int) WIDTH.getValue(_properties));
+        assertEquals("42", EJFrameworkExtensionPropertyKey.forString("displayCoordinates.width").getValue(_properties));
+        assertEquals(42.0, EJFrameworkExtensionPropertyKey.forDouble("displayCoordinates.width", 0).getValue(_properties), 0);
+    }
+
+    @Test(expected = EJApplicationException.class)
+    public void testInvalidValue()
+    {
+        _properties.setPropertyValue("displayCoordinates.width", "wide");
+        WIDTH.getValue(_properties);
+    }
+}
@@ -0,0 +1,124 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.entirej.framework.core.data.controllers.EJLovValidationIndex;
+import org.entirej.framework.core.enumerations.EJTextComparison;
+import org.entirej.framework.core.service.EJRestrictions;
+import org.junit.Test;
+
+public class TestEJLovValidationIndex
+{
+    public static class Country
+    {
+        private final String     _code;
+        private final String     _name;
+        private final BigDecimal _rate;
+
+        public Country(String code, String name, BigDecimal rate)
+        {
+            _code = code;
+            _name = name;
+            _rate = rate;
+        }
+
+        public String getCode()
+        {
+            return _code;
+        }
+
+        public String getName()
+        {
+            return _name;
+        }
+
+        public BigDecimal getRate()
+        {
+            return _rate;
+        }
+    }
+
+    private final Country              _switzerland = new Country("CH", "Switzerland", new BigDecimal("7.70"));
+    private final Country              _sweden      = new Country("SE", "Sweden", new BigDecimal("25"));
+    private final Country              _germany     = new Country("DE", "Germany", new BigDecimal("19.0"));
+    private final Country              _swaziland   = new Country("SZ", "Swaziland", null);
+    private final EJLovValidationIndex _index       = createIndex(EJTextComparison.CASE_SENSITIVE);
+
+    private EJLovValidationIndex createIndex(EJTextComparison textComparison)
+    {
+        return new EJLovValidationIndex("|", Arrays.asList(_switzerland, _sweden, _germany, _swaziland), textComparison);
+    }
+
+    @Test
+    public void testEquals()
+    {
+        assertEquals(Arrays.asList(_sweden), _index.findEntities("code", EJRestrictions.equals("CODE", "SE")));
+        assertTrue(_index.findEntities("code", EJRestrictions.equals("CODE", "XX")).isEmpty());
+        assertEquals(Arrays.asList(_switzerland), _index.findEntities("rate", EJRestrictions.equals("RATE", new BigDecimal("7.7"))));
+        assertEquals(Arrays.asList(_germany), _index.findEntities("rate", EJRestrictions.equals("RATE", new BigDecimal("19"))));
+        assertNull(_index.findEntities("code", EJRestrictions.equals("CODE", null)));
+        assertNull(_index.findEntities("code", EJRestrictions.notEquals("CODE", "SE")));
+        assertNull(_index.findEntities("population", EJRestrictions.equals("POPULATION", 1)));
+    }
+
+    @Test
+    public void testEqualsOtherNumberTypes()
+    {
+        assertEquals(Arrays.asList(_sweden), _index.findEntities("rate", EJRestrictions.equals("RATE", Integer.valueOf(25))));
+        assertEquals(Arrays.asList(_sweden), _index.findEntities("rate", EJRestrictions.equals("RATE", Long.valueOf(25))));
+        assertEquals(Arrays.asList(_germany), _index.findEntities("rate", EJRestrictions.equals("RATE", Double.valueOf(19))));
+    }
+
+    @Test
+    public void testLikePrefix()
+    {
+        assertEquals(Arrays.asList(_switzerland, _sweden, _swaziland), _index.findEntities("name", EJRestrictions.like("NAME", "Sw%")));
+        assertEquals(Arrays.asList(_swaziland), _index.findEntities("name", EJRestrictions.like("NAME", "Swa%")));
+        assertEquals(Arrays.asList(_germany), _index.findEntities("name", EJRestrictions.like("NAME", "Germany")));
+        assertEquals(4, _index.findEntities("name", EJRestrictions.like("NAME", "%")).size());
+        assertTrue(_index.findEntities("name", EJRestrictions.like("NAME", "sw%")).isEmpty());
+        assertNull(_index.findEntities("name", EJRestrictions.like("NAME", "%land")));
+        assertNull(_index.findEntities("name", EJRestrictions.like("NAME", "Sw_den")));
+        assertNull(_index.findEntities("rate", EJRestrictions.like("RATE", "7%")));
+    }
+
+    @Test
+    public void testUnknownTextComparisonUsesDatabase()
+    {
+        EJLovValidationIndex index = createIndex(EJTextComparison.UNKNOWN);
+        assertNull(index.findEntities("code", EJRestrictions.equals("CODE", "SE")));
+        assertNull(index.findEntities("code", EJRestrictions.equals("CODE", "se")));
+        assertNull(index.findEntities("name", EJRestrictions.like("NAME", "sw%")));
+        assertEquals(Arrays.asList(_switzerland), index.findEntities("rate", EJRestrictions.equals("RATE", new BigDecimal("7.7"))));
+    }
+
+    @Test
+    public void testCaseInsensitiveTextComparison()
+    {
+        EJLovValidationIndex index = createIndex(EJTextComparison.CASE_INSENSITIVE);
+        assertEquals(Arrays.asList(_sweden), index.findEntities("code", EJRestrictions.equals("CODE", "se")));
+        assertEquals(Arrays.asList(_switzerland, _sweden, _swaziland), index.findEntities("name", EJRestrictions.like("NAME", "sw%")));
+        assertEquals(Arrays.asList(_germany), index.findEntities("name", EJRestrictions.like("NAME", "GERMANY")));
+        assertTrue(index.findEntities("name", EJRestrictions.like("NAME", "x%")).isEmpty());
+    }
+
+    @Test
+    public void testDuplicateValues()
+    {
+        Country[] countries = new Country[1000];
+        for (int i = 0; i < countries.length; i++)
+        {
+            countries[i] = new Country(i % 2 == 0 ? "EVEN" : "ODD", "Country" + i, null);
+        }
+        EJLovValidationIndex index = new EJLovValidationIndex("|", Arrays.asList(countries), EJTextComparison.CASE_SENSITIVE);
+
+        List<Object> odd = index.findEntities("code", EJRestrictions.equals("CODE", "ODD"));
+        assertEquals(500, odd.size());
+        assertSame(countries[1], odd.get(0));
+        assertSame(countries[999], odd.get(499));
+    }
+}
@@ -64,6 +64,35 @@ public class TestEJPojoHelper
         }
     }
 
+    @Test
+    public void testAccessors()
+    {
+        EJPojoAccessors accessors = EJPojoAccessors.forClass(Address.class);
+        assertSame(accessors, EJPojoAccessors.forClass(Address.class));
+
+        Address address = new Address();
+        accessors.getFieldSetter("NAME").set(address, "Name");
+        accessors.getSetter("addressTypeId", BigDecimal.class).set(address, BigDecimal.TEN);
+
+        assertEquals("Name", accessors.getGetter("name").get(address));
+        assertEquals(BigDecimal.TEN, address.getAddressTypeId());
+        assertSame(accessors.getGetter("name"), accessors.getGetter("name"));
+
+        assertNull(accessors.getFieldSetter("UNKNOWN"));
+        assertNull(accessors.getGetter("unknown"));
+        assertNull(accessors.getSetter("name", BigDecimal.class));
+
+        try
+        {
+            accessors.getFieldSetter("ID").set(address, "not a number");
+            fail("Setting a value of the wrong type should fail");
+        }
+        catch (EJApplicationException e)
+        {
+            // expected
+        }
+    }
+
     // test POJO class
     public static class Address
     {
@@ -0,0 +1,157 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.entirej.framework.core.interfaces.EJFrameworkConnection;
+import org.entirej.framework.core.service.EJQueryCancellation;
+import org.entirej.framework.core.service.EJQueryCancelledException;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJSelectResult;
+import org.entirej.framework.core.service.EJStatementExecutor;
+import org.junit.Test;
+
+public class TestEJQueryCancellation
+{
+    private final List<String> _calls = new ArrayList<String>();
+    private EJQueryCriteria    _queryCriteria;
+    private int                _cancelAtRow;
+
+    private <T> T createProxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private EJFrameworkConnection createConnection(final int rows)
+    {
+        final ResultSetMetaData metaData = createProxy(ResultSetMetaData.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                return method.getName().equals("getColumnCount") ? (Object) 1 : "ID";
+            }
+        });
+        final ResultSet resultSet = createProxy(ResultSet.class, new InvocationHandler()
+        {
+            private int _row;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("next"))
+                {
+                    _row++;
+                    if (_row == _cancelAtRow)
+                    {
+                        _queryCriteria.getCancellation().cancel();
+                    }
+                    return _row <= rows;
+                }
+                if (method.getName().equals("getMetaData"))
+                {
+                    return metaData;
+                }
+                return method.getName().equals("getObject") ? (Object) _row : null;
+            }
+        });
+        final PreparedStatement statement = createProxy(PreparedStatement.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("setQueryTimeout"))
+                {
+                    _calls.add("setQueryTimeout " + args[0]);
+                }
+                else if (method.getName().equals("cancel"))
+                {
+                    _calls.add("cancel");
+                }
+                return method.getName().equals("executeQuery") ? resultSet : null;
+            }
+        });
+        final Connection connection = createProxy(Connection.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                return method.getName().equals("prepareStatement") ? statement : null;
+            }
+        });
+
+        return new EJFrameworkConnection()
+        {
+            @Override
+            public Object getConnectionObject()
+            {
+                return connection;
+            }
+
+            @Override
+            public void commit()
+            {
+            }
+
+            @Override
+            public void rollback()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+
+    @Test
+    public void testQueryTimeout()
+    {
+        _queryCriteria = new EJQueryCriteria();
+        _queryCriteria.setQueryTimeout(30);
+        List<EJSelectResult> results = new EJStatementExecutor().executeQuery(createConnection(3), "SELECT ID FROM T", _queryCriteria);
+
+        assertEquals(3, results.size());
+        assertEquals(1, results.get(0).getItemValue("ID"));
+        assertTrue(_calls.contains("setQueryTimeout 30"));
+    }
+
+    @Test
+    public void testCancelRunningQuery()
+    {
+        _queryCriteria = new EJQueryCriteria();
+        _queryCriteria.setCancellation(new EJQueryCancellation());
+        _cancelAtRow = 3;
+        try
+        {
+            new EJStatementExecutor().executeQuery(createConnection(10), "SELECT ID FROM T", _queryCriteria);
+            fail("A cancelled query returned its partial results");
+        }
+        catch (EJQueryCancelledException e)
+        {
+        }
+
+        assertTrue(_queryCriteria.getCancellation().isCancelled());
+        assertEquals(1, _calls.size());
+        assertEquals("cancel", _calls.get(0));
+    }
+
+    @Test(expected = EJQueryCancelledException.class)
+    public void testCancelBeforeQuery()
+    {
+        _queryCriteria = new EJQueryCriteria();
+        _queryCriteria.setCancellation(new EJQueryCancellation());
+        _queryCriteria.getCancellation().cancel();
+        new EJStatementExecutor().executeQuery(createConnection(1), "SELECT ID FROM T", _queryCriteria);
+    }
+}
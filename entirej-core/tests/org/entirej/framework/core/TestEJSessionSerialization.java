@@ -0,0 +1,185 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.enumerations.EJScreenType;
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestEJSessionSerialization
+{
+    @After
+    public void clearCache()
+    {
+        EJCoreFormPropertiesCache.getInstance().invalidateAll();
+        EJCoreFormPropertiesCache.getInstance().resetStatistics();
+    }
+
+    static class SessionBlock extends EJInternalBlock
+    {
+        private final EJCoreBlockProperties _blockProperties;
+
+        SessionBlock(EJCoreBlockProperties blockProperties)
+        {
+            super(null);
+            _blockProperties = blockProperties;
+        }
+
+        @Override
+        public EJCoreBlockProperties getProperties()
+        {
+            return _blockProperties;
+        }
+
+        @Override
+        public EJDefaultServicePojoHelper getServicePojoHelper()
+        {
+            return null;
+        }
+
+        @Override
+        public void dataItemValueChanged(String itemName, EJDataRecord changedRecord, EJScreenType screenType)
+        {
+        }
+    }
+
+    private EJCoreFormProperties createForm(String formName)
+    {
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, formName);
+        EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, formProperties, "CUSTOMERS", false, false);
+        for (String itemName : new String[] { "ID", "NAME" })
+        {
+            EJCoreItemProperties itemProperties = new EJCoreItemProperties(blockProperties);
+            itemProperties.setName(itemName);
+            itemProperties.setDataTypeClassName(String.class.getName());
+            blockProperties.getItemPropertiesContainer().addItemProperties(itemProperties);
+        }
+        formProperties.getBlockContainer().addBlockProperties(blockProperties);
+        return formProperties;
+    }
+
+    private List<Object> createSession(EJCoreFormProperties formProperties)
+    {
+        SessionBlock block = new SessionBlock(formProperties.getBlockProperties("CUSTOMERS"));
+        EJDataRecord record = new EJDataRecord(null, block, null, (Object) null);
+        record.setValue("ID", "1");
+        record.setValue("NAME", "Smith");
+
+        List<Object> session = new ArrayList<Object>();
+        session.add(formProperties);
+        session.add(record);
+        return session;
+    }
+
+    private byte[] write(Object object) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(object);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private Object read(byte[] data) throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data));
+        try
+        {
+            return in.readObject();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private EJCoreFormProperties createCachedForm(String formName)
+    {
+        EJCoreFormPropertiesCache cache = EJCoreFormPropertiesCache.getInstance();
+        EJCoreFormProperties formProperties = createForm(formName);
+        cache.putFormProperties(formName, Locale.ENGLISH, formProperties);
+        formProperties.setDefinitionSource(formName, Locale.ENGLISH, cache.getDefinitionVersion(formName, Locale.ENGLISH));
+        return formProperties;
+    }
+
+    @Test
+    public void testCompactRecordItemsAreNotWritten() throws Exception
+    {
+        EJCoreFormProperties formProperties = createForm("CUSTOMERS");
+        formProperties.getBlockProperties("CUSTOMERS").setCompactRecordStorage(true);
+        EJDataRecord record = (EJDataRecord) createSession(formProperties).get(1);
+
+        int size = write(record).length;
+        record.getItem("ID");
+        record.getItem("NAME");
+        assertEquals("Items without visual attribute or hint are created again when requested", size, write(record).length);
+
+        record.getItem("NAME").setHint("The customers name");
+        EJDataRecord copy = (EJDataRecord) read(write(record));
+        assertEquals("Smith", copy.getValue("NAME"));
+        assertEquals("The customers name", copy.getItem("NAME").getHint());
+        assertNull(copy.getItem("ID").getHint());
+
+        copy.setValue("NAME", "Jones");
+        assertEquals("Jones", copy.getItem("NAME").getValue());
+        assertEquals("Jones", copy.getValue("NAME"));
+    }
+
+    @Test
+    public void testDefinitionReferences() throws Exception
+    {
+        byte[] full = write(createSession(createForm("CUSTOMERS")));
+        byte[] referenced = write(createSession(createCachedForm("CUSTOMERS")));
+        assertTrue(referenced.length < full.length);
+
+        List<?> session = (List<?>) read(referenced);
+        EJCoreFormProperties formProperties = (EJCoreFormProperties) session.get(0);
+        EJDataRecord record = (EJDataRecord) session.get(1);
+        assertTrue(formProperties.isDefinitionReferenced());
+        assertSame(formProperties.getBlockProperties("CUSTOMERS").getItemProperties("NAME"), record.getItem("NAME").getProperties());
+        assertEquals("Smith", record.getValue("NAME"));
+        assertTrue(record.isItemChanged("ID"));
+
+        record.setValue("NAME", "Jones");
+        assertEquals("Jones", record.getValue("NAME"));
+    }
+
+    @Test
+    public void testModifiedDefinitionIsWrittenInFull() throws Exception
+    {
+        EJCoreFormProperties formProperties = createCachedForm("ORDERS");
+        formProperties.definitionModified();
+        formProperties.setTranslatedTitle("Changed");
+        byte[] data = write(createSession(formProperties));
+        EJCoreFormPropertiesCache.getInstance().invalidateAll();
+
+        List<?> session = (List<?>) read(data);
+        assertEquals("Changed", ((EJCoreFormProperties) session.get(0)).getTitle());
+        assertFalse(((EJCoreFormProperties) session.get(0)).isDefinitionReferenced());
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testChangedDefinition() throws Exception
+    {
+        byte[] data = write(createSession(createCachedForm("INVOICES")));
+        EJCoreFormPropertiesCache.getInstance().invalidateAll();
+        read(data);
+    }
+}
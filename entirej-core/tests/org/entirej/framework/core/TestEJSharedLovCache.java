@@ -0,0 +1,84 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.entirej.framework.core.data.controllers.EJSharedLovCache;
+import org.entirej.framework.core.data.controllers.EJSharedLovCache.SharedQuery;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreLovDefinitionProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEJSharedLovCache
+{
+    private EJSharedLovCache              _cache;
+    private EJCoreLovDefinitionProperties _countries;
+
+    @Before
+    public void setup()
+    {
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, "ORDERS");
+        _countries = new EJCoreLovDefinitionProperties("COUNTRIES");
+        _countries.setBlockProperties(new EJCoreBlockProperties(null, formProperties, "COUNTRIES", true, false));
+        _countries.setSharedCacheSize(2);
+
+        _cache = EJSharedLovCache.getInstance();
+        _cache.invalidateAll();
+        _cache.resetStatistics();
+    }
+
+    @Test
+    public void testSharedQueries()
+    {
+        String name = _countries.getSharedCacheName();
+        assertEquals("ORDERS.COUNTRIES", name);
+        assertNull(_cache.getQuery(_countries, "|"));
+
+        List<String> entities = new ArrayList<String>(Arrays.asList("CH", "DE"));
+        SharedQuery query = _cache.putQuery(_countries, "|", entities, false, _cache.getGeneration(_countries));
+        entities.clear();
+        assertEquals(Arrays.asList("CH", "DE"), query.getEntities());
+        assertSame(query, _cache.getQuery(_countries, "|"));
+        assertEquals(1, _cache.getHitEntries(name));
+        assertEquals(1, _cache.getMissedEntries(name));
+        assertTrue(_cache.getLovNames().contains(name));
+
+        try
+        {
+            query.getEntities().clear();
+            fail();
+        }
+        catch (UnsupportedOperationException e)
+        {
+            // Shared entity lists are unmodifiable
+        }
+
+        _cache.putQuery(_countries, "|A|", entities, false, _cache.getGeneration(_countries));
+        _cache.putQuery(_countries, "|B|", entities, false, _cache.getGeneration(_countries));
+        assertEquals(2, _cache.getEntriesNumber(name));
+        assertNull(_cache.getQuery(_countries, "|"));
+    }
+
+    @Test
+    public void testInvalidation()
+    {
+        String name = _countries.getSharedCacheName();
+        long generation = _cache.getGeneration(_countries);
+        _cache.putQuery(_countries, "|", Arrays.asList("CH"), false, generation);
+
+        _cache.invalidate(name);
+        assertNull(_cache.getQuery(_countries, "|"));
+
+        // A query started before the invalidation is not cached
+        _cache.putQuery(_countries, "|", Arrays.asList("CH"), false, generation);
+        assertEquals(0, _cache.getEntriesNumber(name));
+
+        _countries.setReferencedLovDefinitionName("REF_COUNTRIES");
+        assertEquals("REF_COUNTRIES", _countries.getSharedCacheName());
+    }
+}
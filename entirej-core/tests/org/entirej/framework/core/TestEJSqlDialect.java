@@ -0,0 +1,117 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import org.entirej.framework.core.properties.EJCoreProperties;
+import org.entirej.framework.core.service.EJSqlDialect;
+import org.entirej.framework.core.service.EJStandardSqlDialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEJSqlDialect
+{
+    private static final String SELECT  = "SELECT ID FROM T";
+    private static final String ORDERED = "SELECT ID FROM T ORDER BY ID";
+
+    private EJSqlDialect        _sqlDialect;
+
+    @Before
+    public void saveDialect()
+    {
+        _sqlDialect = EJCoreProperties.getInstance().getSqlDialect();
+    }
+
+    @After
+    public void restoreDialect()
+    {
+        EJCoreProperties.getInstance().setSqlDialect(_sqlDialect);
+    }
+
+    @Test
+    public void testNoPaging()
+    {
+        assertFalse(EJStandardSqlDialect.NONE.supportsPaging());
+        assertEquals(SELECT, EJStandardSqlDialect.NONE.limitSelect(SELECT, false, 20, 11));
+    }
+
+    @Test
+    public void testOffsetFetch()
+    {
+        for (EJStandardSqlDialect dialect : new EJStandardSqlDialect[] { EJStandardSqlDialect.ANSI, EJStandardSqlDialect.ORACLE })
+        {
+            assertTrue(dialect.supportsPaging());
+            assertEquals(dialect.name(), SELECT + " OFFSET 20 ROWS FETCH NEXT 11 ROWS ONLY", dialect.limitSelect(SELECT, false, 20, 11));
+            assertEquals(dialect.name(), ORDERED + " OFFSET 0 ROWS FETCH NEXT 5 ROWS ONLY", dialect.limitSelect(ORDERED, true, 0, 5));
+        }
+    }
+
+    @Test
+    public void testLimitOffset()
+    {
+        for (EJStandardSqlDialect dialect : new EJStandardSqlDialect[] { EJStandardSqlDialect.POSTGRESQL, EJStandardSqlDialect.H2, EJStandardSqlDialect.MYSQL })
+        {
+            assertTrue(dialect.supportsPaging());
+            assertEquals(dialect.name(), SELECT + " LIMIT 11 OFFSET 20", dialect.limitSelect(SELECT, false, 20, 11));
+            assertEquals(dialect.name(), ORDERED + " LIMIT 5 OFFSET 0", dialect.limitSelect(ORDERED, true, 0, 5));
+        }
+    }
+
+    @Test
+    public void testSqlServerOrdersUnorderedSelects()
+    {
+        EJStandardSqlDialect dialect = EJStandardSqlDialect.SQL_SERVER;
+        assertTrue(dialect.supportsPaging());
+        assertEquals(SELECT + " ORDER BY (SELECT NULL) OFFSET 20 ROWS FETCH NEXT 11 ROWS ONLY", dialect.limitSelect(SELECT, false, 20, 11));
+        assertEquals(ORDERED + " OFFSET 20 ROWS FETCH NEXT 11 ROWS ONLY", dialect.limitSelect(ORDERED, true, 20, 11));
+    }
+
+    @Test
+    public void testDialectByName()
+    {
+        EJCoreProperties properties = EJCoreProperties.getInstance();
+        properties.setSqlDialectName(" postgresql ");
+        assertSame(EJStandardSqlDialect.POSTGRESQL, properties.getSqlDialect());
+
+        properties.setSqlDialectName(TopDialect.class.getName());
+        assertTrue(properties.getSqlDialect() instanceof TopDialect);
+        assertEquals("SELECT TOP 11 * FROM (SELECT ID FROM T) T", properties.getSqlDialect().limitSelect(SELECT, false, 0, 11));
+
+        properties.setSqlDialectName(null);
+        assertSame(EJStandardSqlDialect.NONE, properties.getSqlDialect());
+    }
+
+    @Test(expected = EJApplicationException.class)
+    public void testUnknownDialect()
+    {
+        EJCoreProperties.getInstance().setSqlDialectName("org.entirej.UnknownDialect");
+    }
+
+    @Test(expected = EJApplicationException.class)
+    public void testDialectWithoutDefaultConstructor()
+    {
+        EJCoreProperties.getInstance().setSqlDialectName(NamedDialect.class.getName());
+    }
+
+    public static class TopDialect implements EJSqlDialect
+    {
+        @Override
+        public boolean supportsPaging()
+        {
+            return true;
+        }
+
+        @Override
+        public String limitSelect(String selectStatement, boolean ordered, int offset, int rowCount)
+        {
+            return "SELECT TOP " + rowCount + " * FROM (" + selectStatement + ") T";
+        }
+    }
+
+    public static class NamedDialect extends TopDialect
+    {
+        public NamedDialect(String name)
+        {
+        }
+    }
+}
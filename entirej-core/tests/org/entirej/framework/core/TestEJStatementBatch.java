@@ -0,0 +1,261 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.entirej.framework.core.interfaces.EJFrameworkConnection;
+import org.entirej.framework.core.service.EJRestrictions;
+import org.entirej.framework.core.service.EJStatementCriteria;
+import org.entirej.framework.core.service.EJStatementExecutor;
+import org.entirej.framework.core.service.EJStatementParameter;
+import org.junit.Test;
+
+public class TestEJStatementBatch
+{
+    private final List<String>  _preparedStatements = new ArrayList<String>();
+    private final List<Integer> _batchSizes         = new ArrayList<Integer>();
+    private int                 _executedRows;
+    private int                 _totalCount         = -1;
+
+    private <T> T createProxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    /**
+     * Records the prepared statements, the size of each executed batch and
+     * the rows executed one by one. Every row reports the given update count
+     */
+    private EJFrameworkConnection createConnection(final int updateCount)
+    {
+        final PreparedStatement statement = createProxy(PreparedStatement.class, new InvocationHandler()
+        {
+            private int _batched;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("addBatch"))
+                {
+                    _batched++;
+                }
+                else if (method.getName().equals("executeBatch"))
+                {
+                    _batchSizes.add(_batched);
+                    int[] counts = new int[_batched];
+                    Arrays.fill(counts, updateCount);
+                    _batched = 0;
+                    return counts;
+                }
+                else if (method.getName().equals("executeUpdate"))
+                {
+                    _executedRows++;
+                    return 1;
+                }
+                else if (method.getName().equals("getUpdateCount"))
+                {
+                    return _totalCount;
+                }
+                return null;
+            }
+        });
+        final Connection connection = createProxy(Connection.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("prepareStatement"))
+                {
+                    _preparedStatements.add(((String) args[0]).trim());
+                    return statement;
+                }
+                return null;
+            }
+        });
+
+        return new EJFrameworkConnection()
+        {
+            @Override
+            public Object getConnectionObject()
+            {
+                return connection;
+            }
+
+            @Override
+            public void commit()
+            {
+            }
+
+            @Override
+            public void rollback()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+
+    private EJStatementParameter[] createRow(int id, String name)
+    {
+        return new EJStatementParameter[] { new EJStatementParameter("ID", Integer.class, id), new EJStatementParameter("NAME", String.class, name) };
+    }
+
+    private EJStatementCriteria createCriteria(int id)
+    {
+        EJStatementCriteria criteria = new EJStatementCriteria();
+        criteria.add(EJRestrictions.equals("ID", id));
+        return criteria;
+    }
+
+    private String getSetClause(String updateStatement)
+    {
+        return updateStatement.substring(0, updateStatement.indexOf("WHERE"));
+    }
+
+    @Test
+    public void testUntrackedChangesUpdateAllColumns()
+    {
+        List<EJStatementParameter[]> rows = Arrays.asList(createRow(1, "a"), createRow(2, "b"));
+        List<EJStatementCriteria> criteria = Arrays.asList(createCriteria(1), createCriteria(2));
+        List<Set<String>> changedColumns = Arrays.asList(Collections.singleton("name"), Collections.<String> emptySet());
+
+        int[] updateCounts = new EJStatementExecutor().executeChangedColumnsUpdateBatch(createConnection(1), "T", criteria, rows, changedColumns);
+
+        assertArrayEquals(new int[] { 1, 1 }, updateCounts);
+        assertEquals(2, _preparedStatements.size());
+        assertFalse("Only the changed column is written", getSetClause(_preparedStatements.get(0)).contains("ID"));
+        assertTrue(getSetClause(_preparedStatements.get(0)).contains("NAME"));
+        assertTrue("A row without tracked changes is written completely", getSetClause(_preparedStatements.get(1)).contains("ID"));
+        assertTrue(getSetClause(_preparedStatements.get(1)).contains("NAME"));
+    }
+
+    private List<EJStatementParameter[]> createRows(int count)
+    {
+        List<EJStatementParameter[]> rows = new ArrayList<EJStatementParameter[]>();
+        for (int i = 0; i < count; i++)
+        {
+            rows.add(createRow(i, "name" + i));
+        }
+        return rows;
+    }
+
+    private List<EJStatementCriteria> createCriteria(List<EJStatementParameter[]> rows)
+    {
+        List<EJStatementCriteria> criteria = new ArrayList<EJStatementCriteria>();
+        for (int i = 0; i < rows.size(); i++)
+        {
+            criteria.add(createCriteria(i));
+        }
+        return criteria;
+    }
+
+    @Test
+    public void testBatchChunking()
+    {
+        EJStatementExecutor executor = new EJStatementExecutor();
+        executor.setBatchSize(2);
+        List<EJStatementParameter[]> rows = createRows(5);
+
+        int[] updateCounts = executor.executeUpdateBatch(createConnection(1), "T", createCriteria(rows), rows);
+
+        assertArrayEquals(new int[] { 1, 1, 1, 1, 1 }, updateCounts);
+        assertEquals("The statement is prepared once for all chunks", 1, _preparedStatements.size());
+        assertEquals(Arrays.asList(2, 2, 1), _batchSizes);
+    }
+
+    @Test
+    public void testChangedStatementStartsNewBatch()
+    {
+        List<EJStatementParameter[]> rows = Arrays.asList(createRow(1, "a"), createRow(2, "b"), createRow(3, "c"));
+        List<Set<String>> changedColumns = Arrays.asList(Collections.singleton("name"), Collections.singleton("id"), Collections.singleton("id"));
+
+        new EJStatementExecutor().executeChangedColumnsUpdateBatch(createConnection(1), "T", createCriteria(rows), rows, changedColumns);
+
+        assertEquals(2, _preparedStatements.size());
+        assertEquals(Arrays.asList(1, 2), _batchSizes);
+    }
+
+    @Test
+    public void testUpdateCountsWithoutInfo()
+    {
+        List<EJStatementParameter[]> rows = createRows(3);
+        int[] updateCounts = new EJStatementExecutor().executeDeleteBatch(createConnection(Statement.SUCCESS_NO_INFO), "T", createCriteria(rows));
+
+        assertArrayEquals("Counts are passed on unless single row batches are verified", new int[] { Statement.SUCCESS_NO_INFO,
+                Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO }, updateCounts);
+    }
+
+    @Test
+    public void testSingleRowBatchWithoutInfo()
+    {
+        EJStatementExecutor executor = new EJStatementExecutor();
+        executor.setSingleRowBatches(true);
+        EJFrameworkConnection connection = createConnection(Statement.SUCCESS_NO_INFO);
+        List<EJStatementParameter[]> rows = createRows(3);
+
+        _totalCount = 3;
+        assertArrayEquals("The total of the batch has been verified", new int[] { 1, 1, 1 }, executor.executeUpdateBatch(connection, "T", createCriteria(rows), rows));
+        assertEquals(Arrays.asList(3), _batchSizes);
+
+        // The driver is known to not report counts, so the rows are executed
+        // one by one
+        assertArrayEquals(new int[] { 1, 1, 1 }, executor.executeUpdateBatch(connection, "T", createCriteria(rows), rows));
+        assertEquals(Arrays.asList(3), _batchSizes);
+        assertEquals(3, _executedRows);
+    }
+
+    @Test
+    public void testSingleRowBatchWithoutTotal()
+    {
+        EJStatementExecutor executor = new EJStatementExecutor();
+        executor.setSingleRowBatches(true);
+        EJFrameworkConnection connection = createConnection(Statement.SUCCESS_NO_INFO);
+        List<EJStatementParameter[]> rows = createRows(3);
+
+        _totalCount = -1;
+        assertArrayEquals("No row failed, so the save succeeds", new int[] { 1, 1, 1 }, executor.executeUpdateBatch(connection, "T", createCriteria(rows), rows));
+        assertEquals(Arrays.asList(3), _batchSizes);
+
+        assertArrayEquals(new int[] { 1, 1, 1 }, executor.executeUpdateBatch(connection, "T", createCriteria(rows), rows));
+        assertEquals("The following rows are executed one by one", Arrays.asList(3), _batchSizes);
+        assertEquals(3, _executedRows);
+    }
+
+    @Test
+    public void testBatchCountsNotReported()
+    {
+        EJStatementExecutor executor = new EJStatementExecutor();
+        executor.setSingleRowBatches(true);
+        executor.setBatchCountsReported(false);
+        List<EJStatementParameter[]> rows = createRows(3);
+
+        assertArrayEquals(new int[] { 1, 1, 1 }, executor.executeDeleteBatch(createConnection(Statement.SUCCESS_NO_INFO), "T", createCriteria(rows)));
+        assertTrue("No batch is executed", _batchSizes.isEmpty());
+        assertEquals(3, _executedRows);
+    }
+
+    @Test(expected = EJApplicationException.class)
+    public void testSingleRowBatchWithWrongTotal()
+    {
+        EJStatementExecutor executor = new EJStatementExecutor();
+        executor.setSingleRowBatches(true);
+        List<EJStatementParameter[]> rows = createRows(3);
+
+        _totalCount = 2;
+        executor.executeDeleteBatch(createConnection(Statement.SUCCESS_NO_INFO), "T", createCriteria(rows));
+    }
+}
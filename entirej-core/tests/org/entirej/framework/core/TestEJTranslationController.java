@@ -0,0 +1,163 @@
+package org.entirej.framework.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.entirej.framework.core.data.controllers.EJTranslationCache;
+import org.entirej.framework.core.data.controllers.EJTranslationController;
+import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperties;
+import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperty;
+import org.entirej.framework.core.interfaces.EJTranslator;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEJTranslationController
+{
+    private CountingTranslator      _translator;
+    private EJTranslationController _controller;
+
+    @Before
+    public void setup()
+    {
+        _translator = new CountingTranslator();
+        _controller = new EJTranslationController(null, _translator, Locale.ENGLISH, new EJTranslationCache(100));
+    }
+
+    private EJCoreFormProperties createForm()
+    {
+        EJCoreFormProperties form = new EJCoreFormProperties(null, "FORM");
+        form.setBaseTitle("form.title");
+        EJCoreFrameworkExtensionProperties rendererProperties = new EJCoreFrameworkExtensionProperties(form, null, "RENDERER", null);
+        rendererProperties.addProperty(createProperty("LABEL", "form.label"));
+        rendererProperties.addProperty(createProperty("EMPTY", "form.empty"));
+        form.setFormRendererProperties(rendererProperties);
+        return form;
+    }
+
+    private EJCoreFrameworkExtensionProperty createProperty(String name, String value)
+    {
+        EJCoreFrameworkExtensionProperty property = new EJCoreFrameworkExtensionProperty(null, name, true);
+        property.setValue(value);
+        return property;
+    }
+
+    @Test
+    public void testFormTranslatedWithOneBulkCall()
+    {
+        EJCoreFormProperties form = createForm();
+        _controller.translateForm(form, null);
+
+        assertEquals(1, _translator._bulkCalls);
+        assertEquals(0, _translator._textCalls);
+        assertEquals(3, _translator._lastCodes.size());
+        assertEquals("FORM.TITLE", form.getTitle());
+        assertEquals("FORM.LABEL", form.getFormRendererProperties().getStringProperty("LABEL"));
+        assertEquals("form.empty", form.getFormRendererProperties().getStringProperty("EMPTY"));
+
+        EJCoreFormProperties secondForm = createForm();
+        _controller.translateForm(secondForm, null);
+        assertEquals(1, _translator._bulkCalls);
+        assertEquals("FORM.TITLE", secondForm.getTitle());
+        assertEquals(1, _controller.getTranslationCache().getTranslatorCalls());
+    }
+
+    @Test
+    public void testTextsCachedPerLocale()
+    {
+        assertEquals("A.TEXT", _controller.translateText("a.text"));
+        assertEquals("A.TEXT", _controller.translateText("a.text"));
+        assertEquals("A.MESSAGE", _controller.translateMessageText("a.message"));
+        assertEquals("A.MESSAGE", _controller.translateMessageText("a.message"));
+        assertEquals(1, _translator._textCalls);
+        assertEquals(1, _translator._messageCalls);
+
+        EJTranslationCache cache = _controller.getTranslationCache();
+        assertEquals(2, cache.getHitEntries());
+        assertEquals(2, cache.getMissedEntries());
+        assertEquals(0.5, cache.getHitRate(), 0);
+        assertEquals(2, cache.getEntriesNumber());
+
+        _controller.setLocale(Locale.GERMAN);
+        assertEquals("A.TEXT", _controller.translateText("a.text"));
+        assertEquals(2, _translator._textCalls);
+
+        cache.invalidate(Locale.ENGLISH);
+        _controller.setLocale(Locale.ENGLISH);
+        _controller.translateText("a.text");
+        assertEquals(3, _translator._textCalls);
+
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitEntries());
+        assertEquals(0, cache.getTranslationTime());
+    }
+
+    @Test
+    public void testSessionsShareApplicationCache()
+    {
+        EJTranslationController firstSession = new EJTranslationController(null, _translator, Locale.ENGLISH);
+        EJTranslationController secondSession = new EJTranslationController(null, _translator, Locale.ENGLISH);
+        assertSame(EJTranslationCache.getInstance(), firstSession.getTranslationCache());
+        try
+        {
+            assertEquals("SHARED.TEXT", firstSession.translateText("shared.text"));
+            assertEquals("SHARED.TEXT", secondSession.translateText("shared.text"));
+            assertEquals(1, _translator._textCalls);
+
+            secondSession.translateText("shared.text", Locale.GERMAN);
+            assertEquals("Translations are kept per locale", 2, _translator._textCalls);
+        }
+        finally
+        {
+            EJTranslationCache.getInstance().invalidateAll();
+        }
+    }
+
+    @Test
+    public void testDisabledCache()
+    {
+        EJTranslationCache cache = new EJTranslationCache(0);
+        cache.putText(Locale.ENGLISH, "a.text", "A.TEXT");
+        assertFalse(cache.isEnabled());
+        assertNull(cache.getText(Locale.ENGLISH, "a.text"));
+        assertEquals(0, cache.getEntriesNumber());
+    }
+
+    private static class CountingTranslator implements EJTranslator
+    {
+        private int          _textCalls;
+        private int          _messageCalls;
+        private int          _bulkCalls;
+        private List<String> _lastCodes;
+
+        @Override
+        public String translateText(EJTranslatorHelper helper, String textCode)
+        {
+            _textCalls++;
+            return textCode.toUpperCase();
+        }
+
+        @Override
+        public String translateMessageText(EJTranslatorHelper helper, String messageTextCode)
+        {
+            _messageCalls++;
+            return messageTextCode.toUpperCase();
+        }
+
+        @Override
+        public Map<String, String> translateAll(EJTranslatorHelper helper, Collection<String> textCodes)
+        {
+            _bulkCalls++;
+            _lastCodes = new ArrayList<String>(textCodes);
+            Map<String, String> translations = EJTranslator.super.translateAll(helper, textCodes);
+            _textCalls -= textCodes.size();
+            translations.remove("form.empty");
+            return translations;
+        }
+    }
+}
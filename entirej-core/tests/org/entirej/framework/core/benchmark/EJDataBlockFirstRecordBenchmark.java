@@ -0,0 +1,135 @@
+package org.entirej.framework.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.data.EJDataBlock;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.data.EJDataRecordLoader;
+import org.entirej.framework.core.enumerations.EJScreenType;
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time until the first record of a 10000 row query is available,
+ * creating all records when the query is executed or deferring them using a
+ * record load window
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJDataBlockFirstRecordBenchmark
+{
+    private static final int      ENTITY_COUNT = 10000;
+    private static final int      ITEM_COUNT   = 20;
+
+    @Param({ "0", "100" })
+    private int                   _loadWindow;
+
+    private EJCoreBlockProperties _blockProperties;
+    private List<Object>          _entities;
+    private EJDataRecordLoader    _loader;
+
+    @Setup
+    public void setup()
+    {
+        _blockProperties = new EJCoreBlockProperties(null, new EJCoreFormProperties(null, "BENCHMARK"), "RECORDS", true, false);
+        final String[] itemNames = new String[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++)
+        {
+            itemNames[i] = "item_" + i;
+            EJCoreItemProperties itemProperties = new EJCoreItemProperties(_blockProperties);
+            itemProperties.setName(itemNames[i]);
+            itemProperties.setDataTypeClassName(String.class.getName());
+            _blockProperties.getItemPropertiesContainer().addItemProperties(itemProperties);
+        }
+
+        final EJInternalBlock block = new EJInternalBlock(null)
+        {
+            @Override
+            public EJCoreBlockProperties getProperties()
+            {
+                return _blockProperties;
+            }
+
+            @Override
+            public EJDefaultServicePojoHelper getServicePojoHelper()
+            {
+                return null;
+            }
+
+            @Override
+            public void dataItemValueChanged(String itemName, EJDataRecord changedRecord, EJScreenType screenType)
+            {
+            }
+        };
+
+        _entities = new ArrayList<Object>(ENTITY_COUNT);
+        for (int i = 0; i < ENTITY_COUNT; i++)
+        {
+            _entities.add("entity " + i);
+        }
+
+        // Stands in for the block controller which creates each record from
+        // its entity and performs its post query
+        _loader = new EJDataRecordLoader()
+        {
+            @Override
+            public void loadRecords(EJDataBlock dataBlock, List<?> entities)
+            {
+                for (Object entity : entities)
+                {
+                    EJDataRecord record = new EJDataRecord(null, block, entity, (Object) null);
+                    for (String itemName : itemNames)
+                    {
+                        record.setValue(itemName, entity);
+                    }
+                    dataBlock.addQueriedRecord(record);
+                }
+            }
+        };
+    }
+
+    @Benchmark
+    public EJDataRecord firstRecord()
+    {
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        if (_loadWindow > 0)
+        {
+            dataBlock.addQueriedEntities(_entities, _loader, _loadWindow);
+        }
+        else
+        {
+            _loader.loadRecords(dataBlock, _entities);
+        }
+        return dataBlock.getRecord(0);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJDataBlockFirstRecordBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package org.entirej.framework.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.data.EJDataBlock;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures a full forward navigation through a block, record by record, using
+ * the position indexed {@link EJDataBlock} and the previous
+ * <code>indexOf</code> based lookup
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJDataBlockNavigationBenchmark
+{
+    @Param({ "100", "1000", "10000" })
+    private int                     _recordCount;
+
+    private EJDataBlock             _dataBlock;
+    private ArrayList<EJDataRecord> _listRecords;
+
+    @Setup
+    public void setup()
+    {
+        final EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, new EJCoreFormProperties(null, "BENCHMARK"), "RECORDS", true, false);
+        EJInternalBlock block = new EJInternalBlock(null)
+        {
+            @Override
+            public EJCoreBlockProperties getProperties()
+            {
+                return blockProperties;
+            }
+        };
+
+        _dataBlock = new EJDataBlock(blockProperties);
+        _listRecords = new ArrayList<EJDataRecord>(_recordCount);
+        for (int i = 0; i < _recordCount; i++)
+        {
+            EJDataRecord record = new EJDataRecord(null, block, new Object(), (Object) null);
+            _dataBlock.addQueriedRecord(record);
+            _listRecords.add(record);
+        }
+    }
+
+    @Benchmark
+    public void navigateForwardIndexed(Blackhole blackhole)
+    {
+        EJDataRecord record = _dataBlock.getRecord(0);
+        while (record != null)
+        {
+            blackhole.consume(_dataBlock.getRecordNumber(record));
+            record = _dataBlock.getRecordAfter(record);
+        }
+    }
+
+    @Benchmark
+    public void navigateForwardIndexOf(Blackhole blackhole)
+    {
+        EJDataRecord record = _listRecords.get(0);
+        while (record != null)
+        {
+            blackhole.consume(_listRecords.indexOf(record));
+            record = getRecordAfter(record);
+        }
+    }
+
+    /**
+     * The lookup EJDataBlock used before records were indexed, kept as the
+     * baseline
+     */
+    private EJDataRecord getRecordAfter(EJDataRecord record)
+    {
+        if (!_listRecords.contains(record))
+        {
+            throw new IllegalArgumentException();
+        }
+        int recordIndex = _listRecords.indexOf(record);
+        return recordIndex + 1 >= _listRecords.size() ? null : _listRecords.get(recordIndex + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJDataBlockNavigationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,179 @@
+package org.entirej.framework.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.entirej.framework.core.data.EJDataMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the hash indexed {@link EJDataMap} with the previous list based
+ * implementation when building records and accessing their cells
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJDataMapBenchmark
+{
+    @Param({ "10", "80" })
+    private int                        _itemCount;
+
+    private String[]                   _itemNames;
+    private EJDataMap<String, Object>  _dataMap;
+    private ListDataMap<String, Object> _listMap;
+
+    @Setup
+    public void setup()
+    {
+        _itemNames = new String[_itemCount];
+        for (int i = 0; i < _itemCount; i++)
+        {
+            _itemNames[i] = ("ITEM_NAME_" + i).toLowerCase();
+        }
+        _dataMap = buildDataMap();
+        _listMap = buildListMap();
+    }
+
+    private EJDataMap<String, Object> buildDataMap()
+    {
+        EJDataMap<String, Object> map = new EJDataMap<String, Object>(_itemNames.length);
+        for (String name : _itemNames)
+        {
+            if (!map.containsKey(name))
+            {
+                map.put(name, name);
+            }
+        }
+        return map;
+    }
+
+    private ListDataMap<String, Object> buildListMap()
+    {
+        ListDataMap<String, Object> map = new ListDataMap<String, Object>();
+        for (String name : _itemNames)
+        {
+            if (!map.containsKey(name))
+            {
+                map.put(name, name);
+            }
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object recordBuildDataMap()
+    {
+        return buildDataMap();
+    }
+
+    @Benchmark
+    public Object recordBuildListMap()
+    {
+        return buildListMap();
+    }
+
+    @Benchmark
+    public void cellAccessDataMap(Blackhole blackhole)
+    {
+        for (String name : _itemNames)
+        {
+            blackhole.consume(_dataMap.get(name));
+        }
+    }
+
+    @Benchmark
+    public void cellAccessListMap(Blackhole blackhole)
+    {
+        for (String name : _itemNames)
+        {
+            blackhole.consume(_listMap.get(name));
+        }
+    }
+
+    @Benchmark
+    public void iterateValuesDataMap(Blackhole blackhole)
+    {
+        for (Object value : _dataMap.values())
+        {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void iterateValuesListMap(Blackhole blackhole)
+    {
+        for (Object value : _listMap.values())
+        {
+            blackhole.consume(value);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJDataMapBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The list based implementation EJDataMap replaced, kept as the baseline
+     */
+    static class ListDataMap<K, V>
+    {
+        private List<Node> data = new ArrayList<>();
+
+        private class Node
+        {
+            K k;
+            V v;
+        }
+
+        public Collection<V> values()
+        {
+            return data.stream().map(n -> n.v).collect(Collectors.toList());
+        }
+
+        public boolean containsKey(K key)
+        {
+            return data.stream().anyMatch(n -> Objects.equals(n.k, key));
+        }
+
+        public void put(K k, V v)
+        {
+            Node node = data.stream().filter(n -> Objects.equals(n.k, k)).findFirst().orElseGet(() -> {
+                Node n = new Node();
+                n.k = k;
+                data.add(n);
+                return n;
+            });
+            node.k = k;
+            node.v = v;
+        }
+
+        public V get(K k)
+        {
+            return data.stream().filter(n -> Objects.equals(n.k, k)).findFirst().map(n -> n.v).orElseGet(() -> null);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.entirej.framework.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.data.EJDataBlock;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.enumerations.EJScreenType;
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Fills a block of 1000 records with 40 items each using either a data item
+ * per value or compact record storage
+ * <p>
+ * Run with the gc profiler, <code>-prof gc</code>, to compare the heap used by
+ * each storage mode. The values are shared between all records so the
+ * normalised allocation rate is the heap held by the records themselves
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJDataRecordStorageBenchmark
+{
+    private static final int      RECORD_COUNT = 1000;
+    private static final int      ITEM_COUNT   = 40;
+
+    @Param({ "false", "true" })
+    private boolean               _compact;
+
+    private EJCoreBlockProperties _blockProperties;
+    private EJInternalBlock       _block;
+    private String[]              _itemNames;
+    private String[]              _values;
+
+    @Setup
+    public void setup()
+    {
+        _blockProperties = new EJCoreBlockProperties(null, new EJCoreFormProperties(null, "BENCHMARK"), "RECORDS", true, false);
+        _blockProperties.setCompactRecordStorage(_compact);
+        _itemNames = new String[ITEM_COUNT];
+        _values = new String[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++)
+        {
+            _itemNames[i] = "item_" + i;
+            _values[i] = "value " + i;
+
+            EJCoreItemProperties itemProperties = new EJCoreItemProperties(_blockProperties);
+            itemProperties.setName(_itemNames[i]);
+            itemProperties.setDataTypeClassName(String.class.getName());
+            _blockProperties.getItemPropertiesContainer().addItemProperties(itemProperties);
+        }
+
+        _block = new EJInternalBlock(null)
+        {
+            @Override
+            public EJCoreBlockProperties getProperties()
+            {
+                return _blockProperties;
+            }
+
+            @Override
+            public EJDefaultServicePojoHelper getServicePojoHelper()
+            {
+                return null;
+            }
+
+            @Override
+            public void dataItemValueChanged(String itemName, EJDataRecord changedRecord, EJScreenType screenType)
+            {
+            }
+        };
+    }
+
+    @Benchmark
+    public EJDataBlock fillBlock()
+    {
+        EJDataBlock dataBlock = new EJDataBlock(_blockProperties);
+        for (int r = 0; r < RECORD_COUNT; r++)
+        {
+            EJDataRecord record = new EJDataRecord(null, _block, null, (Object) null);
+            for (int i = 0; i < ITEM_COUNT; i++)
+            {
+                record.setValue(_itemNames[i], _values[i]);
+            }
+            dataBlock.addQueriedRecord(record);
+        }
+        return dataBlock;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJDataRecordStorageBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
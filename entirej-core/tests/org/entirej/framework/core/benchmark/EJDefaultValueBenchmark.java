@@ -0,0 +1,81 @@
+package org.entirej.framework.core.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.EJBlockItem;
+import org.entirej.framework.core.common.utils.EJDefaultValueResolver;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares resolving a <code>CLASS_FIELD</code> default value through its
+ * compiled {@link EJDefaultValueResolver} with parsing the value and looking up
+ * the field for each new record
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJDefaultValueBenchmark
+{
+    public static final String DEFAULT_STATUS = "OPEN";
+
+    private String             _defaultValue;
+    private EJBlockItem        _item;
+
+    @Setup
+    public void setup()
+    {
+        _defaultValue = "CLASS_FIELD:" + EJDefaultValueBenchmark.class.getName() + ".DEFAULT_STATUS";
+        EJCoreItemProperties itemProperties = new EJCoreItemProperties("STATUS");
+        itemProperties.setDefaultInsertValue(_defaultValue);
+        _item = new EJBlockItem(itemProperties);
+    }
+
+    @Benchmark
+    public Object compiledResolver()
+    {
+        return _item.getDefaultInsertValueResolver().resolve(null, _item, null);
+    }
+
+    /**
+     * The parsing and reflection the default value used before it was
+     * compiled, kept as the baseline
+     */
+    @Benchmark
+    public Object parseEachTime() throws Exception
+    {
+        String paramTypeCode = _defaultValue.substring(0, _defaultValue.indexOf(':'));
+        String paramValue = _defaultValue.substring(_defaultValue.indexOf(':') + 1);
+        if (!"CLASS_FIELD".equals(paramTypeCode))
+        {
+            return null;
+        }
+        String fieldName = paramValue.substring(paramValue.lastIndexOf('.') + 1);
+        String fullClassName = paramValue.substring(0, paramValue.indexOf("." + fieldName));
+        Field field = Class.forName(fullClassName).getDeclaredField(fieldName);
+        return field.get(null);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJDefaultValueBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package org.entirej.framework.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperties;
+import org.entirej.framework.core.extensions.properties.EJCoreFrameworkExtensionProperty;
+import org.entirej.framework.core.extensions.properties.EJFrameworkExtensionPropertyKey;
+import org.entirej.framework.core.properties.definitions.EJPropertyDefinitionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading a grouped int and boolean renderer property through the
+ * string based getters with reading them through precompiled
+ * {@link EJFrameworkExtensionPropertyKey} handles
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJExtensionPropertyBenchmark
+{
+    private static final EJFrameworkExtensionPropertyKey<Integer> WIDTH   = EJFrameworkExtensionPropertyKey.forInt("layout.displayCoordinates.width", 0);
+    private static final EJFrameworkExtensionPropertyKey<Boolean> VISIBLE = EJFrameworkExtensionPropertyKey.forBoolean("layout.visible", true);
+
+    private EJCoreFrameworkExtensionProperties                    _properties;
+
+    @Setup
+    public void setup()
+    {
+        _properties = new EJCoreFrameworkExtensionProperties(null, null, "RENDERER", null);
+        EJCoreFrameworkExtensionProperties layout = new EJCoreFrameworkExtensionProperties(null, null, "layout", _properties);
+        EJCoreFrameworkExtensionProperties coordinates = new EJCoreFrameworkExtensionProperties(null, null, "displayCoordinates", layout);
+        _properties.addPropertyGroup(layout);
+        layout.addPropertyGroup(coordinates);
+
+        EJCoreFrameworkExtensionProperty width = new EJCoreFrameworkExtensionProperty(EJPropertyDefinitionType.INTEGER, "width");
+        width.setValue("250");
+        coordinates.addProperty(width);
+        EJCoreFrameworkExtensionProperty visible = new EJCoreFrameworkExtensionProperty(EJPropertyDefinitionType.BOOLEAN, "visible");
+        visible.setValue("false");
+        layout.addProperty(visible);
+    }
+
+    @Benchmark
+    public int stringGetters()
+    {
+        int width = _properties.getIntProperty("layout.displayCoordinates.width", 0);
+        return _properties.getBooleanProperty("layout.visible", true) ? width : -width;
+    }
+
+    @Benchmark
+    public int propertyKeys()
+    {
+        int width = WIDTH.getValue(_properties);
+        return VISIBLE.getValue(_properties) ? width : -width;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJExtensionPropertyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package org.entirej.framework.core.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache;
+import org.entirej.framework.core.properties.reader.EJCoreFormPropertiesHandler;
+import org.entirej.framework.core.properties.reader.EJCorePropertiesHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares opening a form from the form properties cache, which deserializes
+ * a new copy of the cached definition, against parsing the form definition,
+ * which is what every open of the form costs without the cache
+ * <p>
+ * The form has the given amount of blocks of 25 items, each item with a
+ * renderer and three renderer properties. The parse does not include the
+ * translation of the form, so it is the lower bound of a cache miss
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJFormPropertiesCacheBenchmark
+{
+    private static final String            FORM_NAME  = "ORDERS";
+    private static final int               ITEM_COUNT = 25;
+
+    @Param({ "2", "10" })
+    private int                            _blockCount;
+
+    private byte[]                         _definition;
+    private SAXParserFactory               _parserFactory;
+    private EJCorePropertiesHandlerFactory _handlerFactory;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        _definition = createDefinition().getBytes(StandardCharsets.UTF_8);
+        _parserFactory = SAXParserFactory.newInstance();
+        _handlerFactory = new EJCorePropertiesHandlerFactory(null);
+
+        EJCoreFormProperties formProperties = parseDefinition();
+        if (formProperties.getBlockContainer().getAllBlockProperties().size() != _blockCount)
+        {
+            throw new IllegalStateException("The form definition was not parsed completely");
+        }
+        EJCoreFormPropertiesCache.getInstance().putFormProperties(FORM_NAME, Locale.ENGLISH, formProperties);
+        System.out.println("Definition bytes (blocks=" + _blockCount + "): " + _definition.length);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        EJCoreFormPropertiesCache.getInstance().invalidateAll();
+    }
+
+    private String createDefinition()
+    {
+        StringBuilder definition = new StringBuilder(1 << 16);
+        definition.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<entirejForm>\n");
+        definition.append("  <formTitle>").append(FORM_NAME).append("_TITLE</formTitle>\n");
+        definition.append("  <formWidth>800</formWidth>\n  <formHeight>600</formHeight>\n  <numCols>1</numCols>\n");
+        for (int b = 0; b < _blockCount; b++)
+        {
+            definition.append("  <block name=\"BLOCK_").append(b).append("\" referenced=\"false\" controlBlock=\"false\">\n");
+            definition.append("    <queryAllowed>true</queryAllowed>\n    <insertAllowed>true</insertAllowed>\n");
+            definition.append("    <updateAllowed>true</updateAllowed>\n    <deleteAllowed>true</deleteAllowed>\n");
+            definition.append("    <pageSize>50</pageSize>\n");
+            for (int i = 0; i < ITEM_COUNT; i++)
+            {
+                definition.append("    <item name=\"ITEM_").append(i).append("\">\n");
+                definition.append("      <dataTypeClassName>java.lang.String</dataTypeClassName>\n");
+                definition.append("      <blockServiceItem>true</blockServiceItem>\n");
+                definition.append("      <itemRendererName>TextItem</itemRendererName>\n");
+                definition.append("      <itemRendererProperties>\n");
+                definition.append("        <property name=\"MAX_LENGTH\" multilingual=\"false\" propertyType=\"INTEGER\">40</property>\n");
+                definition.append("        <property name=\"CASE\" multilingual=\"false\" propertyType=\"STRING\">MIXED</property>\n");
+                definition.append("        <property name=\"SELECT_ON_FOCUS\" multilingual=\"false\" propertyType=\"BOOLEAN\">true</property>\n");
+                definition.append("      </itemRendererProperties>\n");
+                definition.append("    </item>\n");
+            }
+            definition.append("  </block>\n");
+            if (b > 0)
+            {
+                definition.append("  <relation name=\"RELATION_").append(b).append("\" masterBlockName=\"BLOCK_0\" detailBlockName=\"BLOCK_").append(b)
+                        .append("\">\n  </relation>\n");
+            }
+        }
+        definition.append("</entirejForm>\n");
+        return definition.toString();
+    }
+
+    private EJCoreFormProperties parseDefinition() throws Exception
+    {
+        SAXParser parser = _parserFactory.newSAXParser();
+        EJCoreFormPropertiesHandler handler = _handlerFactory.createFormHandler(FORM_NAME, false, false);
+        parser.parse(new ByteArrayInputStream(_definition), handler);
+        return handler.getFormProperties();
+    }
+
+    @Benchmark
+    public EJCoreFormProperties parse() throws Exception
+    {
+        return parseDefinition();
+    }
+
+    @Benchmark
+    public EJCoreFormProperties cached()
+    {
+        return EJCoreFormPropertiesCache.getInstance().getFormProperties(null, FORM_NAME, Locale.ENGLISH);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJFormPropertiesCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
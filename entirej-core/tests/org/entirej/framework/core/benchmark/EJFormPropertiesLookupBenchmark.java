@@ -0,0 +1,140 @@
+package org.entirej.framework.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.enumerations.EJCanvasType;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreCanvasProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.entirej.framework.core.properties.EJCoreTabPageProperties;
+import org.entirej.framework.core.properties.containers.interfaces.EJCanvasPropertiesContainer;
+import org.entirej.framework.core.properties.interfaces.EJCanvasProperties;
+import org.entirej.framework.core.properties.interfaces.EJTabPageProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the item and canvas name lookups of a form with 200 items and 40
+ * canvases against a scan of the item list and canvas tree, which is how the
+ * lookups were made before the definitions were indexed
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJFormPropertiesLookupBenchmark
+{
+    private static final int      ITEM_COUNT     = 200;
+    private static final int      TAB_COUNT      = 8;
+    private static final int      TAB_PAGE_COUNT = 4;
+
+    private EJCoreFormProperties  _formProperties;
+    private EJCoreBlockProperties _blockProperties;
+    private String                _itemName;
+    private String                _canvasName;
+
+    @Setup
+    public void setup()
+    {
+        _formProperties = new EJCoreFormProperties(null, "BENCHMARK");
+        _blockProperties = new EJCoreBlockProperties(null, _formProperties, "RECORDS", true, false);
+        for (int i = 0; i < ITEM_COUNT; i++)
+        {
+            EJCoreItemProperties itemProperties = new EJCoreItemProperties(_blockProperties);
+            itemProperties.setName("ITEM_" + i);
+            _blockProperties.getItemPropertiesContainer().addItemProperties(itemProperties);
+        }
+
+        // 8 tab canvases each holding 4 pages with one canvas, 40 in all
+        for (int i = 0; i < TAB_COUNT; i++)
+        {
+            EJCoreCanvasProperties tabCanvas = new EJCoreCanvasProperties("TAB_" + i);
+            tabCanvas.setType(EJCanvasType.TAB);
+            for (int j = 0; j < TAB_PAGE_COUNT; j++)
+            {
+                EJCoreTabPageProperties tabPage = new EJCoreTabPageProperties("PAGE_" + i + "_" + j);
+                tabPage.getContainedCanvases().addCanvasProperties(new EJCoreCanvasProperties("CANVAS_" + i + "_" + j));
+                tabCanvas.addTabPageProperties(tabPage);
+            }
+            _formProperties.addCanvasProperties(tabCanvas);
+        }
+
+        _itemName = "item_" + (ITEM_COUNT - 1);
+        _canvasName = "canvas_" + (TAB_COUNT - 1) + "_" + (TAB_PAGE_COUNT - 1);
+    }
+
+    @Benchmark
+    public EJCoreItemProperties itemIndex()
+    {
+        return _blockProperties.getItemPropertiesContainer().getItemProperties(_itemName);
+    }
+
+    @Benchmark
+    public EJCoreItemProperties itemScan()
+    {
+        for (EJCoreItemProperties item : _blockProperties.getItemPropertiesContainer().getAllItemProperties())
+        {
+            if (item.getName().equalsIgnoreCase(_itemName))
+            {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public EJCanvasProperties canvasIndex()
+    {
+        return _formProperties.getCanvasProperties(_canvasName);
+    }
+
+    @Benchmark
+    public EJCanvasProperties canvasScan()
+    {
+        return scanCanvases(_formProperties.getCanvasContainer(), _canvasName);
+    }
+
+    private EJCanvasProperties scanCanvases(EJCanvasPropertiesContainer container, String canvasName)
+    {
+        for (EJCanvasProperties canvas : container.getAllCanvasProperties())
+        {
+            if (canvas.getName().equalsIgnoreCase(canvasName))
+            {
+                return canvas;
+            }
+            if (canvas.getType() == EJCanvasType.TAB)
+            {
+                for (EJTabPageProperties tabPage : canvas.getTabPageContainer().getAllTabPageProperties())
+                {
+                    EJCanvasProperties pageCanvas = scanCanvases(tabPage.getContainedCanvases(), canvasName);
+                    if (pageCanvas != null)
+                    {
+                        return pageCanvas;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJFormPropertiesLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
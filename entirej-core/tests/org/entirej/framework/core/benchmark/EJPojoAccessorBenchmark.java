@@ -0,0 +1,180 @@
+package org.entirej.framework.core.benchmark;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.EJPojoAccessor;
+import org.entirej.framework.core.EJPojoAccessors;
+import org.entirej.framework.core.EJPojoHelper;
+import org.entirej.framework.core.TestEJPojoHelper.Address;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the rows per second achieved when mapping query results onto
+ * service pojos and copying pojo values to block items using the shared
+ * {@link EJPojoAccessors} with the previous reflective lookups
+ * <p>
+ * Run through {@link #main(String[])} using the test classpath
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJPojoAccessorBenchmark
+{
+    private static final int      ROWS     = 1000;
+    private static final String[] COLUMNS  = { "ID", "CUSTOMER_ID", "NAME", "ADDRESS_TYPE_ID", "LINE_1", "LINE_3" };
+    private static final String[] ITEMS    = { "id", "customerId", "name", "addressTypeId", "line1", "line3" };
+
+    private Object[][]            _rows;
+    private Address               _address;
+
+    @Setup
+    public void setup()
+    {
+        _rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++)
+        {
+            _rows[i] = new Object[] { BigDecimal.valueOf(i), "C" + i, "Name " + i, BigDecimal.ONE, "Line 1", "Line 3" };
+        }
+        _address = new Address();
+        mapRowAccessors(_rows[0], _address, EJPojoAccessors.forClass(Address.class));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowsAccessors(Blackhole blackhole)
+    {
+        EJPojoAccessors accessors = EJPojoAccessors.forClass(Address.class);
+        EJPojoAccessor[] setters = new EJPojoAccessor[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++)
+        {
+            setters[i] = accessors.getFieldSetter(COLUMNS[i]);
+        }
+        for (Object[] row : _rows)
+        {
+            Address address = new Address();
+            for (int i = 0; i < setters.length; i++)
+            {
+                setters[i].set(address, row[i]);
+            }
+            blackhole.consume(address);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowsReflection(Blackhole blackhole)
+    {
+        LegacyPojoHelper helper = new LegacyPojoHelper();
+        for (Object[] row : _rows)
+        {
+            Address address = new Address();
+            for (int i = 0; i < COLUMNS.length; i++)
+            {
+                helper.setFieldValue(COLUMNS[i], address, row[i]);
+            }
+            blackhole.consume(address);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void copyValuesAccessors(Blackhole blackhole)
+    {
+        for (int r = 0; r < ROWS; r++)
+        {
+            EJPojoAccessors accessors = EJPojoAccessors.forClass(_address.getClass());
+            for (String item : ITEMS)
+            {
+                blackhole.consume(accessors.getGetter(item).get(_address));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void copyValuesReflection(Blackhole blackhole) throws Exception
+    {
+        for (int r = 0; r < ROWS; r++)
+        {
+            for (String item : ITEMS)
+            {
+                String methodName = new StringBuilder().append("get").append(item.substring(0, 1).toUpperCase()).append(item.substring(1)).toString();
+                Method method = _address.getClass().getMethod(methodName);
+                blackhole.consume(method.invoke(_address));
+            }
+        }
+    }
+
+    private static void mapRowAccessors(Object[] row, Address address, EJPojoAccessors accessors)
+    {
+        for (int i = 0; i < COLUMNS.length; i++)
+        {
+            accessors.getFieldSetter(COLUMNS[i]).set(address, row[i]);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJPojoAccessorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The per query method cache EJPojoHelper used before the shared accessor
+     * tables, kept as the baseline
+     */
+    static class LegacyPojoHelper
+    {
+        private HashMap<Class<?>, HashMap<String, Method>> _mappings = new HashMap<Class<?>, HashMap<String, Method>>();
+
+        void setFieldValue(String itemName, Object dataEntity, Object value)
+        {
+            try
+            {
+                HashMap<String, Method> mappings = _mappings.get(dataEntity.getClass());
+                if (mappings != null && mappings.containsKey(itemName))
+                {
+                    mappings.get(itemName).invoke(dataEntity, value);
+                    return;
+                }
+                for (Method method : dataEntity.getClass().getMethods())
+                {
+                    if (method.getName().startsWith("set") && itemName.equals(EJPojoHelper.getFieldName(dataEntity.getClass(), method)))
+                    {
+                        method.invoke(dataEntity, value);
+                        if (mappings == null)
+                        {
+                            mappings = new HashMap<String, Method>();
+                            _mappings.put(dataEntity.getClass(), mappings);
+                        }
+                        mappings.put(itemName, method);
+                        return;
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
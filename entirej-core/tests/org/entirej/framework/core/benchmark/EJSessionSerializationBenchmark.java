@@ -0,0 +1,204 @@
+package org.entirej.framework.core.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.enumerations.EJScreenType;
+import org.entirej.framework.core.internal.EJDefaultServicePojoHelper;
+import org.entirej.framework.core.internal.EJInternalBlock;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.entirej.framework.core.properties.EJCoreRelationProperties;
+import org.entirej.framework.core.properties.factory.EJCoreFormPropertiesCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Serializes and deserializes a session of 10 open forms, each with 4 blocks
+ * of 25 items and 50 records per block, with the form definitions written
+ * either in full or as references to the form properties cache
+ * <p>
+ * The size of the serialized session is printed when the benchmark is set up
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EJSessionSerializationBenchmark
+{
+    private static final int FORM_COUNT   = 10;
+    private static final int BLOCK_COUNT  = 4;
+    private static final int ITEM_COUNT   = 25;
+    private static final int RECORD_COUNT = 50;
+
+    @Param({ "false", "true" })
+    private boolean          _references;
+
+    private List<Object>     _session;
+    private byte[]           _sessionBytes;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        EJCoreFormPropertiesCache cache = EJCoreFormPropertiesCache.getInstance();
+        _session = new ArrayList<Object>();
+        for (int f = 0; f < FORM_COUNT; f++)
+        {
+            String formName = "FORM_" + f;
+            EJCoreFormProperties formProperties = createForm(formName);
+            if (_references)
+            {
+                cache.putFormProperties(formName, Locale.ENGLISH, formProperties);
+                formProperties.setDefinitionSource(formName, Locale.ENGLISH, cache.getDefinitionVersion(formName, Locale.ENGLISH));
+            }
+            _session.add(formProperties);
+            for (EJCoreBlockProperties blockProperties : formProperties.getBlockContainer().getAllBlockProperties())
+            {
+                _session.add(createRecords(blockProperties));
+            }
+        }
+        _sessionBytes = serializeSession();
+        System.out.println("Session bytes (references=" + _references + "): " + _sessionBytes.length);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        EJCoreFormPropertiesCache.getInstance().invalidateAll();
+    }
+
+    private EJCoreFormProperties createForm(String formName)
+    {
+        EJCoreFormProperties formProperties = new EJCoreFormProperties(null, formName);
+        formProperties.setBaseTitle(formName + "_TITLE");
+        formProperties.setTranslatedTitle(formName);
+        EJCoreBlockProperties masterBlock = null;
+        for (int b = 0; b < BLOCK_COUNT; b++)
+        {
+            EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, formProperties, "BLOCK_" + b, false, false);
+            for (int i = 0; i < ITEM_COUNT; i++)
+            {
+                EJCoreItemProperties itemProperties = new EJCoreItemProperties(blockProperties);
+                itemProperties.setName("ITEM_" + i);
+                itemProperties.setDataTypeClassName(String.class.getName());
+                blockProperties.getItemPropertiesContainer().addItemProperties(itemProperties);
+            }
+            formProperties.getBlockContainer().addBlockProperties(blockProperties);
+
+            if (masterBlock == null)
+            {
+                masterBlock = blockProperties;
+            }
+            else
+            {
+                EJCoreRelationProperties relationProperties = new EJCoreRelationProperties("RELATION_" + b);
+                relationProperties.setMasterBlockProperties(masterBlock);
+                relationProperties.setDetailBlockProperties(blockProperties);
+                formProperties.getRelationContainer().addRelationProperties(relationProperties);
+            }
+        }
+        return formProperties;
+    }
+
+    private List<EJDataRecord> createRecords(EJCoreBlockProperties blockProperties)
+    {
+        SessionBlock block = new SessionBlock(blockProperties);
+        List<EJDataRecord> records = new ArrayList<EJDataRecord>(RECORD_COUNT);
+        for (int r = 0; r < RECORD_COUNT; r++)
+        {
+            EJDataRecord record = new EJDataRecord(null, block, null, (Object) null);
+            for (int i = 0; i < ITEM_COUNT; i++)
+            {
+                record.setValue("ITEM_" + i, "value " + r + "/" + i);
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    private byte[] serializeSession() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(_session);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException
+    {
+        return serializeSession();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(_sessionBytes));
+        try
+        {
+            return in.readObject();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(EJSessionSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    static class SessionBlock extends EJInternalBlock
+    {
+        private final EJCoreBlockProperties _blockProperties;
+
+        SessionBlock(EJCoreBlockProperties blockProperties)
+        {
+            super(null);
+            _blockProperties = blockProperties;
+        }
+
+        @Override
+        public EJCoreBlockProperties getProperties()
+        {
+            return _blockProperties;
+        }
+
+        @Override
+        public EJDefaultServicePojoHelper getServicePojoHelper()
+        {
+            return null;
+        }
+
+        @Override
+        public void dataItemValueChanged(String itemName, EJDataRecord changedRecord, EJScreenType screenType)
+        {
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.entirej.framework.core.data.controllers;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJAsyncCallback;
+import org.entirej.framework.core.EJFrameworkHelper;
+import org.entirej.framework.core.EJFrameworkManager;
+import org.entirej.framework.core.service.EJQueryCancelledException;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJQueryRowHandler;
+import org.junit.Test;
+
+public class TestEJAsyncQuery
+{
+    private final ConcurrentLinkedQueue<Runnable> _formTasks       = new ConcurrentLinkedQueue<Runnable>();
+    private final CountDownLatch                  _paused          = new CountDownLatch(1);
+    private final CountDownLatch                  _resume          = new CountDownLatch(1);
+    private final List<List<?>>                   _deliveries      = new ArrayList<List<?>>();
+    private final List<Object>                    _callbackResults = new ArrayList<Object>();
+    private Integer                               _finishedRowCount;
+    private Object                                _finishedLastEntity;
+
+    private final Executor _formExecutor = new Executor()
+    {
+        @Override
+        public void execute(Runnable command)
+        {
+            _formTasks.add(command);
+        }
+    };
+
+    private final EJAsyncCallback<Integer> _callback = new EJAsyncCallback<Integer>()
+    {
+        @Override
+        public void completed(EJFrameworkHelper helper, Integer result)
+        {
+            _callbackResults.add(result);
+        }
+
+        @Override
+        public void completedWithError(EJFrameworkHelper helper, Exception t)
+        {
+            _callbackResults.add(t);
+        }
+    };
+
+    /**
+     * Emits the given rows, pausing after <code>pauseAfter</code> rows until
+     * the test resumes the retrieval
+     */
+    private EJAsyncQuery.Target createTarget(final List<String> rows, final int pauseAfter, final RuntimeException error)
+    {
+        return new EJAsyncQuery.Target()
+        {
+            @Override
+            String getName()
+            {
+                return "TEST";
+            }
+
+            @Override
+            EJFrameworkManager getFrameworkManager()
+            {
+                return null;
+            }
+
+            @Override
+            void retrieve(EJQueryCriteria queryCriteria, EJQueryRowHandler<Object> rowHandler) throws Exception
+            {
+                for (int i = 0; i < rows.size(); i++)
+                {
+                    if (i == pauseAfter)
+                    {
+                        _paused.countDown();
+                        _resume.await();
+                    }
+                    if (!rowHandler.handleRow(rows.get(i)))
+                    {
+                        return;
+                    }
+                }
+                if (error != null)
+                {
+                    throw error;
+                }
+            }
+
+            @Override
+            void recordsArrived(EJAsyncQuery asyncQuery, List<?> entities)
+            {
+                _deliveries.add(new ArrayList<Object>(entities));
+            }
+
+            @Override
+            void queryFinished(EJAsyncQuery asyncQuery, int rowCount, Object lastEntity)
+            {
+                assertNull("The query has finished twice", _finishedRowCount);
+                _finishedRowCount = rowCount;
+                _finishedLastEntity = lastEntity;
+            }
+        };
+    }
+
+    private void runFormTasks()
+    {
+        Runnable task;
+        while ((task = _formTasks.poll()) != null)
+        {
+            task.run();
+        }
+    }
+
+    private void awaitRetrieved(EJAsyncQuery asyncQuery) throws InterruptedException
+    {
+        long end = System.currentTimeMillis() + 5000;
+        while (!asyncQuery.isRetrieved())
+        {
+            assertTrue("The query has not been retrieved", System.currentTimeMillis() < end);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testDeliverAndFinish() throws Exception
+    {
+        EJQueryCriteria queryCriteria = new EJQueryCriteria();
+        EJAsyncQuery asyncQuery = new EJAsyncQuery(createTarget(Arrays.asList("a", "b", "c"), -1, null), _formExecutor, _callback);
+        asyncQuery.start(queryCriteria);
+        assertTrue(asyncQuery.isStarted());
+
+        awaitRetrieved(asyncQuery);
+        runFormTasks();
+
+        List<Object> delivered = new ArrayList<Object>();
+        for (List<?> delivery : _deliveries)
+        {
+            delivered.addAll(delivery);
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), delivered);
+        assertEquals(Integer.valueOf(3), _finishedRowCount);
+        assertEquals("c", _finishedLastEntity);
+        assertEquals(Arrays.asList((Object) 3), _callbackResults);
+        assertNull("The cancellation remains on the criteria", queryCriteria.getCancellation());
+    }
+
+    @Test
+    public void testIncrementalDelivery() throws Exception
+    {
+        EJAsyncQuery asyncQuery = new EJAsyncQuery(createTarget(Arrays.asList("a", "b", "c"), 2, null), _formExecutor, _callback);
+        asyncQuery.start(new EJQueryCriteria());
+
+        assertTrue(_paused.await(5, TimeUnit.SECONDS));
+        runFormTasks();
+        assertEquals(Arrays.asList(Arrays.asList("a", "b")), _deliveries);
+        assertNull("The query finished before all rows were retrieved", _finishedRowCount);
+        assertTrue(_callbackResults.isEmpty());
+
+        _resume.countDown();
+        awaitRetrieved(asyncQuery);
+        runFormTasks();
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c")), _deliveries);
+        assertEquals(Integer.valueOf(3), _finishedRowCount);
+        assertEquals(Arrays.asList((Object) 3), _callbackResults);
+    }
+
+    @Test
+    public void testCancel() throws Exception
+    {
+        EJQueryCriteria queryCriteria = new EJQueryCriteria();
+        EJAsyncQuery asyncQuery = new EJAsyncQuery(createTarget(Arrays.asList("a", "b", "c"), 2, null), _formExecutor, _callback);
+        asyncQuery.start(queryCriteria);
+
+        assertTrue(_paused.await(5, TimeUnit.SECONDS));
+        runFormTasks();
+        asyncQuery.cancel();
+        assertTrue(asyncQuery.isCancelled());
+        assertNull("The cancellation remains on the criteria", queryCriteria.getCancellation());
+
+        _resume.countDown();
+        awaitRetrieved(asyncQuery);
+        runFormTasks();
+
+        assertEquals(Arrays.asList(Arrays.asList("a", "b")), _deliveries);
+        assertEquals(Integer.valueOf(2), _finishedRowCount);
+        assertNull(_finishedLastEntity);
+        assertTrue("The callback of a cancelled query has been informed", _callbackResults.isEmpty());
+    }
+
+    @Test
+    public void testRetrievalError() throws Exception
+    {
+        EJApplicationException error = new EJApplicationException("Retrieval failed");
+        EJAsyncQuery asyncQuery = new EJAsyncQuery(createTarget(Arrays.asList("a"), -1, error), _formExecutor, _callback);
+        asyncQuery.start(new EJQueryCriteria());
+
+        awaitRetrieved(asyncQuery);
+        runFormTasks();
+
+        assertEquals(Integer.valueOf(1), _finishedRowCount);
+        assertEquals(Arrays.asList((Object) error), _callbackResults);
+    }
+
+    @Test
+    public void testCancelledByStatement() throws Exception
+    {
+        EJAsyncQuery asyncQuery = new EJAsyncQuery(createTarget(Arrays.asList("a"), -1, new EJQueryCancelledException()), _formExecutor, _callback);
+        asyncQuery.start(new EJQueryCriteria());
+
+        awaitRetrieved(asyncQuery);
+        runFormTasks();
+
+        assertTrue(asyncQuery.isCancelled());
+        assertNull(_finishedLastEntity);
+        assertTrue("The callback of a cancelled query has been informed", _callbackResults.isEmpty());
+    }
+}
@@ -0,0 +1,145 @@
+package org.entirej.framework.core.data.controllers;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.properties.EJCoreProperties;
+import org.junit.Test;
+
+public class TestEJDetailQueryExecutor
+{
+    @Test
+    public void testCallerRunsWhenQueueIsFull() throws Exception
+    {
+        final Thread callingThread = Thread.currentThread();
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<Thread> task = new Callable<Thread>()
+        {
+            @Override
+            public Thread call() throws Exception
+            {
+                if (Thread.currentThread() != callingThread)
+                {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                return Thread.currentThread();
+            }
+        };
+
+        int threads = EJCoreProperties.getInstance().getDetailQueryThreads();
+        EJCoreProperties.getInstance().setDetailQueryThreads(1);
+        try
+        {
+            // The busy thread and a full queue leave no room for another task
+            Future<Thread> callerRun = null;
+            for (int i = 0; i < EJDetailQueryExecutor.MAX_QUEUED_TASKS + 10 && callerRun == null; i++)
+            {
+                Future<Thread> result = EJDetailQueryExecutor.submit(task);
+                if (result.isDone())
+                {
+                    callerRun = result;
+                }
+            }
+
+            assertNotNull("No task has been executed by the calling thread", callerRun);
+            assertSame(callingThread, callerRun.get());
+        }
+        finally
+        {
+            release.countDown();
+            EJCoreProperties.getInstance().setDetailQueryThreads(threads);
+        }
+    }
+
+    private Callable<Thread> createBlockingTask(final CountDownLatch release)
+    {
+        return new Callable<Thread>()
+        {
+            @Override
+            public Thread call() throws Exception
+            {
+                release.await(10, TimeUnit.SECONDS);
+                return Thread.currentThread();
+            }
+        };
+    }
+
+    @Test
+    public void testPrefetchesAreDiscardedWhenSaturated() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<Thread> task = createBlockingTask(release);
+
+        int threads = EJCoreProperties.getInstance().getPrefetchQueryThreads();
+        EJCoreProperties.getInstance().setPrefetchQueryThreads(1);
+        try
+        {
+            boolean discarded = false;
+            for (int i = 0; i < EJDetailQueryExecutor.MAX_QUEUED_TASKS + 10 && !discarded; i++)
+            {
+                discarded = !EJDetailQueryExecutor.prefetch(task);
+            }
+            // A saturated executor neither queues nor runs the prefetch on
+            // the calling thread
+            assertTrue("No prefetch has been discarded", discarded);
+        }
+        finally
+        {
+            release.countDown();
+            EJCoreProperties.getInstance().setPrefetchQueryThreads(threads);
+        }
+    }
+
+    @Test
+    public void testAsyncQueriesAreRejectedWhenSaturated() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<Thread> task = createBlockingTask(release);
+
+        int threads = EJCoreProperties.getInstance().getAsyncQueryThreads();
+        EJCoreProperties.getInstance().setAsyncQueryThreads(1);
+        try
+        {
+            for (int i = 0; i < EJDetailQueryExecutor.MAX_QUEUED_TASKS + 10; i++)
+            {
+                EJDetailQueryExecutor.submitAsyncQuery(task);
+            }
+            fail("The saturated executor accepted all asynchronous queries");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The query fails instead of running on the calling thread
+        }
+        finally
+        {
+            release.countDown();
+            EJCoreProperties.getInstance().setAsyncQueryThreads(threads);
+        }
+    }
+
+    @Test
+    public void testCancelledScheduleIsNotRun() throws Exception
+    {
+        final CountDownLatch run = new CountDownLatch(2);
+        Runnable task = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                run.countDown();
+            }
+        };
+
+        // Navigating on cancels the prefetch of the previous master record
+        EJDetailQueryExecutor.schedule(task, 200).cancel(false);
+        EJDetailQueryExecutor.schedule(task, 0);
+
+        assertFalse(run.await(400, TimeUnit.MILLISECONDS));
+        assertEquals(1, run.getCount());
+    }
+}
@@ -0,0 +1,63 @@
+package org.entirej.framework.core.data.controllers;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.entirej.framework.core.service.EJRestrictions;
+import org.junit.Test;
+
+public class TestEJDetailQueryPrefetch
+{
+    private static List<Object> key(Object masterValue)
+    {
+        EJQueryCriteria queryCriteria = new EJQueryCriteria();
+        queryCriteria.add(EJRestrictions.equals("CUSTOMER_ID", masterValue));
+        return EJDetailQueryCache.createKey(Arrays.asList(masterValue), queryCriteria);
+    }
+
+    @Test
+    public void testPrefetchedEntitiesAreCached()
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 0);
+        assertTrue(cache.startPrefetch(key(1)));
+        assertFalse("The query is already being prefetched", cache.startPrefetch(key(1)));
+
+        List<String> orders = Collections.singletonList("ORDER");
+        cache.putPrefetchedEntities(key(1), orders, cache.getGeneration());
+
+        assertFalse("The query is already cached", cache.startPrefetch(key(1)));
+        assertSame(orders, cache.getEntities(key(1)));
+        assertEquals(1, cache.getPrefetchedEntries());
+    }
+
+    @Test
+    public void testSaveDiscardsRunningPrefetch()
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 0);
+        cache.putEntities(key(1), Collections.singletonList("CACHED"));
+        assertTrue(cache.startPrefetch(key(2)));
+        long generation = cache.getGeneration();
+
+        // Saving the master or detail block invalidates the cache
+        cache.invalidateAll();
+        cache.putPrefetchedEntities(key(2), Collections.singletonList("STALE"), generation);
+
+        assertNull(cache.getEntities(key(1)));
+        assertNull("A prefetch started before the save has been cached", cache.getEntities(key(2)));
+        assertEquals(0, cache.getPrefetchedEntries());
+        assertTrue(cache.startPrefetch(key(2)));
+    }
+
+    @Test
+    public void testFailedPrefetchCanBeRetried()
+    {
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 0);
+        assertTrue(cache.startPrefetch(key(1)));
+        cache.prefetchFailed(key(1));
+        assertTrue(cache.startPrefetch(key(1)));
+    }
+}
@@ -0,0 +1,49 @@
+package org.entirej.framework.core.data.controllers;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class TestEJLookupKeys
+{
+    @Test
+    public void testIntegerBlockKeyFindsLongAndDecimalLovKeys()
+    {
+        HashMap<Object, String> recordsByKey = new HashMap<Object, String>();
+        recordsByKey.put(EJLookupKeys.toKey(Integer.valueOf(42)), "BLOCK_RECORD");
+
+        assertEquals("BLOCK_RECORD", recordsByKey.get(EJLookupKeys.toKey(Long.valueOf(42))));
+        assertEquals("BLOCK_RECORD", recordsByKey.get(EJLookupKeys.toKey(new BigDecimal("42.00"))));
+        assertEquals("BLOCK_RECORD", recordsByKey.get(EJLookupKeys.toKey(BigInteger.valueOf(42))));
+        assertEquals("BLOCK_RECORD", recordsByKey.get(EJLookupKeys.toKey(Short.valueOf((short) 42))));
+        assertNull(recordsByKey.get(EJLookupKeys.toKey(Long.valueOf(43))));
+    }
+
+    @Test
+    public void testDecimalKeys()
+    {
+        assertEquals(EJLookupKeys.toKey(new BigDecimal("1.50")), EJLookupKeys.toKey(Double.valueOf(1.5)));
+        assertEquals(EJLookupKeys.toKey(new BigDecimal("1.1")), EJLookupKeys.toKey(Float.valueOf(1.1f)));
+        assertEquals(EJLookupKeys.toKey(BigDecimal.ZERO), EJLookupKeys.toKey(new BigDecimal("0.000")));
+        assertEquals(Double.valueOf(Double.NaN), EJLookupKeys.toKey(Double.valueOf(Double.NaN)));
+    }
+
+    @Test
+    public void testDateKeys()
+    {
+        long time = 1234567890123L;
+        assertEquals(EJLookupKeys.toKey(new Date(time)), EJLookupKeys.toKey(new Timestamp(time)));
+        assertEquals(EJLookupKeys.toKey(new java.sql.Date(time)), EJLookupKeys.toKey(new Timestamp(time)));
+        assertEquals(EJLookupKeys.toKey(new Timestamp(time)), EJLookupKeys.toKey(new Date(time)));
+
+        Timestamp precise = new Timestamp(time);
+        precise.setNanos(precise.getNanos() + 1);
+        assertNotEquals(EJLookupKeys.toKey(precise), EJLookupKeys.toKey(new Date(time)));
+    }
+}
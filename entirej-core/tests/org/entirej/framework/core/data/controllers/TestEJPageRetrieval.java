@@ -0,0 +1,473 @@
+package org.entirej.framework.core.data.controllers;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.entirej.framework.core.AAbstractBlockService;
+import org.entirej.framework.core.APojo;
+import org.entirej.framework.core.EJApplicationException;
+import org.entirej.framework.core.EJAsyncCallback;
+import org.entirej.framework.core.EJForm;
+import org.entirej.framework.core.EJFrameworkManager;
+import org.entirej.framework.core.EJManagedFrameworkConnection;
+import org.entirej.framework.core.EJMessage;
+import org.entirej.framework.core.EJParameterList;
+import org.entirej.framework.core.EJTabLayoutComponent;
+import org.entirej.framework.core.EJTranslatorHelper;
+import org.entirej.framework.core.actionprocessor.interfaces.EJApplicationActionProcessor;
+import org.entirej.framework.core.interfaces.EJApplicationManager;
+import org.entirej.framework.core.interfaces.EJConnectionFactory;
+import org.entirej.framework.core.interfaces.EJFrameworkConnection;
+import org.entirej.framework.core.interfaces.EJMessenger;
+import org.entirej.framework.core.internal.EJInternalForm;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestEJPageRetrieval
+{
+    private static EJFrameworkManager _frameworkManager;
+
+    @BeforeClass
+    public static void createFrameworkManager()
+    {
+        _frameworkManager = new EJFrameworkManager("org/entirej/framework/core/data/controllers/TestEJPageRetrieval.ejprop")
+        {
+        };
+    }
+
+    private static TestConnection getConnectionObject()
+    {
+        EJManagedFrameworkConnection connection = _frameworkManager.getConnection();
+        try
+        {
+            return (TestConnection) connection.getConnectionObject();
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testNewConnectionIsBoundToThread() throws Exception
+    {
+        EJManagedFrameworkConnection sessionConnection = _frameworkManager.getConnection();
+        try
+        {
+            final TestConnection sessionConnectionObject = (TestConnection) sessionConnection.getConnectionObject();
+
+            TestConnection taskConnection = _frameworkManager.executeWithNewConnection(new Callable<TestConnection>()
+            {
+                @Override
+                public TestConnection call()
+                {
+                    TestConnection connection = getConnectionObject();
+                    assertSame("Each connection of the task uses the same new connection", connection, getConnectionObject());
+                    assertFalse("The task connection has been closed by the task", connection._closed);
+                    return connection;
+                }
+            });
+
+            assertNotSame(sessionConnectionObject, taskConnection);
+            assertTrue(taskConnection._committed);
+            assertTrue(taskConnection._closed);
+            assertSame("The session connection is used again after the task", sessionConnectionObject, getConnectionObject());
+            assertFalse(sessionConnectionObject._closed);
+        }
+        finally
+        {
+            sessionConnection.close();
+        }
+    }
+
+    @Test
+    public void testFailedTaskRollsBackNewConnection() throws Exception
+    {
+        final List<TestConnection> taskConnections = new ArrayList<TestConnection>();
+        final EJApplicationException error = new EJApplicationException("Query failed");
+        try
+        {
+            _frameworkManager.executeWithNewConnection(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    taskConnections.add(getConnectionObject());
+                    throw error;
+                }
+            });
+            fail("The error of the task has not been thrown");
+        }
+        catch (EJApplicationException e)
+        {
+            assertSame(error, e);
+        }
+
+        TestConnection taskConnection = taskConnections.get(0);
+        assertTrue(taskConnection._rolledBack);
+        assertTrue(taskConnection._closed);
+        assertNotSame("The thread is still bound to the task connection", taskConnection, getConnectionObject());
+    }
+
+    @Test
+    public void testPageRetrievalUsesOwnConnection() throws Exception
+    {
+        final Thread callingThread = Thread.currentThread();
+        final List<Object> serviceCalls = new ArrayList<Object>();
+        final List<APojo> page = Collections.singletonList(new APojo());
+        EJQueryCriteria queryCriteria = new EJQueryCriteria();
+
+        AAbstractBlockService blockService = new AAbstractBlockService()
+        {
+            @Override
+            public List<APojo> executeQuery(EJForm form, EJQueryCriteria criteria)
+            {
+                assertNotSame("The page has not been retrieved in the background", callingThread, Thread.currentThread());
+                serviceCalls.add(criteria);
+                serviceCalls.add(getConnectionObject());
+                return page;
+            }
+        };
+
+        EJManagedFrameworkConnection sessionConnection = _frameworkManager.getConnection();
+        try
+        {
+            Future<List<?>> retrieval = EJDetailQueryExecutor.submit(new EJBlockController.PageRetrieval(_frameworkManager, blockService, null, queryCriteria));
+
+            assertSame(page, retrieval.get(10, TimeUnit.SECONDS));
+            assertSame(queryCriteria, serviceCalls.get(0));
+            TestConnection retrievalConnection = (TestConnection) serviceCalls.get(1);
+            assertNotSame(sessionConnection.getConnectionObject(), retrievalConnection);
+            assertTrue(retrievalConnection._committed);
+            assertTrue(retrievalConnection._closed);
+        }
+        finally
+        {
+            sessionConnection.close();
+        }
+    }
+
+    public static class TestConnectionFactory implements EJConnectionFactory
+    {
+        @Override
+        public EJFrameworkConnection createConnection(EJFrameworkManager frameworkManager)
+        {
+            return new TestConnection();
+        }
+    }
+
+    static class TestConnection implements EJFrameworkConnection
+    {
+        private volatile boolean _committed;
+        private volatile boolean _rolledBack;
+        private volatile boolean _closed;
+
+        @Override
+        public Object getConnectionObject()
+        {
+            return this;
+        }
+
+        @Override
+        public void commit()
+        {
+            _committed = true;
+        }
+
+        @Override
+        public void rollback()
+        {
+            _rolledBack = true;
+        }
+
+        @Override
+        public void close()
+        {
+            _closed = true;
+        }
+    }
+
+    public static class TestApplicationManager implements EJApplicationManager
+    {
+        private EJFrameworkManager _frameworkManager;
+
+        @Override
+        public void setFrameworkManager(EJFrameworkManager frameworkManager)
+        {
+            _frameworkManager = frameworkManager;
+        }
+
+        @Override
+        public EJFrameworkManager getFrameworkManager()
+        {
+            return _frameworkManager;
+        }
+
+        @Override
+        public EJMessenger getApplicationMessenger()
+        {
+            return this;
+        }
+
+        @Override
+        public EJApplicationActionProcessor getApplicationActionProcessor()
+        {
+            return null;
+        }
+
+        @Override
+        public void addFormToContainer(EJInternalForm form, boolean blocking)
+        {
+        }
+
+        @Override
+        public void removeFormFromContainer(EJInternalForm form)
+        {
+        }
+
+        @Override
+        public void openPopupForm(EJPopupFormController popupFormController)
+        {
+        }
+
+        @Override
+        public void openEmbeddedForm(EJEmbeddedFormController embeddedFormController)
+        {
+        }
+
+        @Override
+        public void popupFormClosed()
+        {
+        }
+
+        @Override
+        public void closeEmbeddedForm(EJEmbeddedFormController embeddedFormController)
+        {
+        }
+
+        @Override
+        public boolean isFormOpened(String formName)
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isFormOpened(EJInternalForm form)
+        {
+            return false;
+        }
+
+        @Override
+        public EJInternalForm switchToForm(String formName)
+        {
+            return null;
+        }
+
+        @Override
+        public void switchToForm(EJInternalForm form)
+        {
+        }
+
+        @Override
+        public EJInternalForm getActiveForm()
+        {
+            return null;
+        }
+
+        @Override
+        public EJInternalForm getForm(String formName)
+        {
+            return null;
+        }
+
+        @Override
+        public int getOpenedFormCount()
+        {
+            return 0;
+        }
+
+        @Override
+        public Collection<EJInternalForm> getOpenedForms()
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void updateFormTitle(EJInternalForm form)
+        {
+        }
+
+        @Override
+        public void setTabPageVisible(String name, String tabPageName, boolean visible)
+        {
+        }
+
+        @Override
+        public String getDisplayedTabPage(String name)
+        {
+            return null;
+        }
+
+        @Override
+        public void setTabBadge(String name, String pageName, String badge)
+        {
+        }
+
+        @Override
+        public void showTabPage(String name, String pageName)
+        {
+        }
+
+        @Override
+        public void setTabPageEnable(String name, String tabPageName, boolean enable)
+        {
+        }
+
+        @Override
+        public EJManagedFrameworkConnection getConnection()
+        {
+            return _frameworkManager.getConnection();
+        }
+
+        @Override
+        public EJApplicationLevelParameter getApplicationLevelParameter(String valueName)
+        {
+            return null;
+        }
+
+        @Override
+        public boolean hasApplicationLevelParameter(String valueName)
+        {
+            return false;
+        }
+
+        @Override
+        public void setApplicationLevelParameter(String valueName, Object value)
+        {
+        }
+
+        @Override
+        public Locale getCurrentLocale()
+        {
+            return Locale.ENGLISH;
+        }
+
+        @Override
+        public void changeLocale(Locale locale)
+        {
+        }
+
+        @Override
+        public void openForm(String formName, EJParameterList parameterList, boolean blocking)
+        {
+        }
+
+        @Override
+        public void openForm(String formName, EJParameterList parameterList)
+        {
+        }
+
+        @Override
+        public void openForm(String formName)
+        {
+        }
+
+        @Override
+        public void runReport(String reportName, EJParameterList parameterList)
+        {
+        }
+
+        @Override
+        public void runReport(String reportName)
+        {
+        }
+
+        @Override
+        public String generateReport(String reportName, EJParameterList parameterList)
+        {
+            return null;
+        }
+
+        @Override
+        public String generateReport(String reportName)
+        {
+            return null;
+        }
+
+        @Override
+        public void generateReportAsync(String reportName, EJParameterList parameterList, EJAsyncCallback<String> callback)
+        {
+        }
+
+        @Override
+        public void runReportAsync(String reportName, EJParameterList parameterList)
+        {
+        }
+
+        @Override
+        public void runReportAsync(String reportName, EJParameterList parameterList, EJMessage completedMessage)
+        {
+        }
+
+        @Override
+        public void runReportAsync(String reportName, EJMessage completedMessage)
+        {
+        }
+
+        @Override
+        public void runReportAsync(String reportName)
+        {
+        }
+
+        @Override
+        public EJTranslatorHelper getTranslatorHelper()
+        {
+            return null;
+        }
+
+        @Override
+        public EJTabLayoutComponent getTabLayoutComponent(String name)
+        {
+            return null;
+        }
+
+        @Override
+        public void handleMessage(EJMessage message)
+        {
+        }
+
+        @Override
+        public void handleException(Exception exception)
+        {
+        }
+
+        @Override
+        public void handleException(Exception exception, boolean showUserMessage)
+        {
+        }
+
+        @Override
+        public void askQuestion(EJQuestion question)
+        {
+        }
+
+        @Override
+        public void uploadFile(EJFileUpload fileUpload)
+        {
+        }
+
+        @Override
+        public void askInternalQuestion(EJInternalQuestion question)
+        {
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.entirej.framework.core.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.entirej.framework.core.EJForm;
+import org.entirej.framework.core.data.EJDataRecord;
+import org.entirej.framework.core.data.controllers.EJDetailQueryCache;
+import org.entirej.framework.core.enumerations.EJScreenType;
+import org.entirej.framework.core.properties.EJCoreBlockProperties;
+import org.entirej.framework.core.properties.EJCoreFormProperties;
+import org.entirej.framework.core.properties.EJCoreItemProperties;
+import org.entirej.framework.core.service.EJBlockService;
+import org.entirej.framework.core.service.EJQueryCriteria;
+import org.junit.Test;
+
+public class TestEJDetailQueryCacheCopies
+{
+    private EJInternalBlock createBlock()
+    {
+        final EJCoreBlockProperties blockProperties = new EJCoreBlockProperties(null, new EJCoreFormProperties(null, "FORM"), "ORDERS", true, false);
+        blockProperties.setServiceClassName(OrderService.class.getName());
+        blockProperties.getItemPropertiesContainer().addItemProperties(createItem(blockProperties, "id", Integer.class));
+        blockProperties.getItemPropertiesContainer().addItemProperties(createItem(blockProperties, "status", String.class));
+        final EJDefaultServicePojoHelper pojoHelper = new EJDefaultServicePojoHelper(blockProperties);
+
+        return new EJInternalBlock(null)
+        {
+            @Override
+            public EJCoreBlockProperties getProperties()
+            {
+                return blockProperties;
+            }
+
+            @Override
+            public EJDefaultServicePojoHelper getServicePojoHelper()
+            {
+                return pojoHelper;
+            }
+
+            @Override
+            public void dataItemValueChanged(String itemName, EJDataRecord changedRecord, EJScreenType screenType)
+            {
+            }
+        };
+    }
+
+    private EJCoreItemProperties createItem(EJCoreBlockProperties blockProperties, String name, Class<?> dataType)
+    {
+        EJCoreItemProperties itemProperties = new EJCoreItemProperties(blockProperties);
+        itemProperties.setName(name);
+        itemProperties.setDataTypeClassName(dataType.getName());
+        itemProperties.setBlockServiceItem(true);
+        return itemProperties;
+    }
+
+    @Test
+    public void testEditedRecordsDoNotChangeCachedEntities()
+    {
+        EJInternalBlock block = createBlock();
+        EJDetailQueryCache cache = new EJDetailQueryCache(10, 0, block.getServicePojoHelper());
+        List<Object> key = Arrays.<Object> asList(1, "|");
+
+        Order queried = new Order(7, "OPEN");
+        cache.putEntities(key, Arrays.asList(queried));
+        queried.setStatus("POSTED");
+
+        // The first visit of the master record edits its detail record
+        List<?> entities = cache.getEntities(key);
+        EJDataRecord record = new EJDataRecord(null, block, entities.get(0), false);
+        assertEquals("OPEN", record.getValue("STATUS"));
+        record.setValue("STATUS", "CHANGED");
+        assertEquals("CHANGED", ((Order) entities.get(0)).getStatus());
+
+        // Navigating back to the master record returns the queried values
+        List<?> revisited = cache.getEntities(key);
+        assertNotSame(entities.get(0), revisited.get(0));
+        assertEquals(Integer.valueOf(7), ((Order) revisited.get(0)).getId());
+        assertEquals("OPEN", ((Order) revisited.get(0)).getStatus());
+        assertEquals("OPEN", new EJDataRecord(null, block, revisited.get(0), false).getValue("STATUS"));
+    }
+
+    public static class Order
+    {
+        private Integer _id;
+        private String  _status;
+
+        public Order()
+        {
+        }
+
+        Order(Integer id, String status)
+        {
+            _id = id;
+            _status = status;
+        }
+
+        public Integer getId()
+        {
+            return _id;
+        }
+
+        public void setId(Integer id)
+        {
+            _id = id;
+        }
+
+        public String getStatus()
+        {
+            return _status;
+        }
+
+        public void setStatus(String status)
+        {
+            _status = status;
+        }
+    }
+
+    public static class OrderService implements EJBlockService<Order>
+    {
+        @Override
+        public boolean canQueryInPages()
+        {
+            return false;
+        }
+
+        @Override
+        public List<Order> executeQuery(EJForm form, EJQueryCriteria queryCriteria)
+        {
+            return null;
+        }
+
+        @Override
+        public void executeInsert(EJForm form, List<Order> newRecords)
+        {
+        }
+
+        @Override
+        public void executeUpdate(EJForm form, List<Order> updateRecords)
+        {
+        }
+
+        @Override
+        public void executeDelete(EJForm form, List<Order> deleteRecords)
+        {
+        }
+    }
+}
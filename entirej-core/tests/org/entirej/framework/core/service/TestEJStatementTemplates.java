@@ -0,0 +1,149 @@
+package org.entirej.framework.core.service;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.entirej.framework.core.interfaces.EJFrameworkConnection;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEJStatementTemplates
+{
+    private final List<String>  _preparedStatements = new ArrayList<String>();
+    private EJStatementExecutor _executor;
+
+    @Before
+    public void setup()
+    {
+        EJStatementTemplates.clearCache();
+        _executor = new EJStatementExecutor();
+        _executor.setSqlDialect(EJStandardSqlDialect.SQL_SERVER);
+    }
+
+    private <T> T createProxy(Class<T> type, InvocationHandler handler)
+    {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private EJFrameworkConnection createConnection()
+    {
+        final ResultSetMetaData metaData = createProxy(ResultSetMetaData.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                return method.getName().equals("getColumnCount") ? (Object) 1 : "ID";
+            }
+        });
+        final ResultSet resultSet = createProxy(ResultSet.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("next"))
+                {
+                    return false;
+                }
+                return method.getName().equals("getMetaData") ? metaData : null;
+            }
+        });
+        final PreparedStatement statement = createProxy(PreparedStatement.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                return method.getName().equals("executeQuery") ? resultSet : null;
+            }
+        });
+        final Connection connection = createProxy(Connection.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                if (method.getName().equals("prepareStatement"))
+                {
+                    _preparedStatements.add((String) args[0]);
+                    return statement;
+                }
+                return null;
+            }
+        });
+
+        return new EJFrameworkConnection()
+        {
+            @Override
+            public Object getConnectionObject()
+            {
+                return connection;
+            }
+
+            @Override
+            public void commit()
+            {
+            }
+
+            @Override
+            public void rollback()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+
+    private EJQueryCriteria createPagedCriteria(String restrictedColumn, EJQuerySort sort)
+    {
+        EJQueryCriteria queryCriteria = new EJQueryCriteria();
+        queryCriteria.add(EJRestrictions.equals(restrictedColumn, 1));
+        if (sort != null)
+        {
+            queryCriteria.add(sort);
+        }
+        queryCriteria.setPageSize(10);
+        queryCriteria.setPageNumber(2);
+        return queryCriteria;
+    }
+
+    @Test
+    public void testGeneratedStatementsAreNotCached()
+    {
+        _executor.executeQuery(createConnection(), "SELECT ID FROM T", createPagedCriteria("ID", null));
+        _executor.executeQuery(createConnection(), "SELECT ID FROM T", createPagedCriteria("NAME", EJQuerySort.ASC("NAME")));
+        _executor.executeQuery(createConnection(), "SELECT ID FROM T", createPagedCriteria("CODE", EJQuerySort.DESC("CODE")));
+
+        assertEquals(3, _preparedStatements.size());
+        assertEquals("Only the select passed to the executor has been cached", 1, EJStatementTemplates.getCachedFacts());
+    }
+
+    @Test
+    public void testGeneratedOrderByIsUsedForPaging()
+    {
+        _executor.executeQuery(createConnection(), "SELECT ID FROM T", createPagedCriteria("ID", EJQuerySort.ASC("NAME")));
+        _executor.executeQuery(createConnection(), "SELECT ID FROM T", createPagedCriteria("ID", null));
+        _executor.executeQuery(createConnection(), "SELECT ID FROM T ORDER BY ID", createPagedCriteria("ID", null));
+
+        assertTrue(_preparedStatements.get(0).endsWith(" ORDER BY NAME ASC OFFSET 10 ROWS FETCH NEXT 11 ROWS ONLY"));
+        assertTrue(_preparedStatements.get(1).endsWith(" ORDER BY (SELECT NULL) OFFSET 10 ROWS FETCH NEXT 11 ROWS ONLY"));
+        assertFalse(_preparedStatements.get(2).contains("(SELECT NULL)"));
+    }
+
+    @Test
+    public void testWrapCompleteStatement()
+    {
+        EJQueryCriteria queryCriteria = createPagedCriteria("ID", null);
+        assertEquals("SELECT ID FROM T ORDER BY ID OFFSET 10 ROWS FETCH NEXT 11 ROWS ONLY", _executor.wrapSelectForPaging("SELECT ID FROM T ORDER BY ID", queryCriteria));
+        assertEquals(0, EJStatementTemplates.getCachedFacts());
+    }
+}